@@ -25,6 +25,9 @@ import java.util.Set;
 import java.util.TreeMap;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -78,6 +81,8 @@ public abstract class SXRScriptFile implements IScriptFile {
 
     // Cache for function invocation statements
     protected final Map<String, String> mInvokeStatementCache;
+    // Compiled invocation statements, for engines which are Compilable but not Invocable
+    private final Map<String, CompiledScript> mCompiledStatementCache;
 
     /**
      * Constructor.
@@ -93,6 +98,7 @@ public abstract class SXRScriptFile implements IScriptFile {
         mGvrContext = gvrContext;
         mLanguage = language;
         mInvokeStatementCache = new TreeMap<String, String>();
+        mCompiledStatementCache = new TreeMap<String, CompiledScript>();
 
         // Get an engine because some impl. requires a new engine to
         // enforce context
@@ -181,8 +187,6 @@ public abstract class SXRScriptFile implements IScriptFile {
             return false;
         }
 
-        String statement = getInvokeStatementCached(funcName, params);
-
         synchronized (mEngineLock) {
             localBindings = mLocalEngine.getBindings(ScriptContext.ENGINE_SCOPE);
             if (localBindings == null) {
@@ -191,10 +195,16 @@ public abstract class SXRScriptFile implements IScriptFile {
             }
         }
 
+        // Engines which can call functions directly don't need to parse
+        // an invocation statement or pass the arguments as argN globals.
+        if (mLocalEngine instanceof Invocable) {
+            return invokeDirect((Invocable) mLocalEngine, funcName, params);
+        }
+
         fillBindings(localBindings, params);
 
         try {
-            mLocalEngine.eval(statement);
+            evalInvokeStatement(funcName, params);
         } catch (ScriptException e) {
             // The function is either undefined or throws, avoid invoking it later
             addBadFunction(funcName);
@@ -207,6 +217,40 @@ public abstract class SXRScriptFile implements IScriptFile {
         return true;
     }
 
+    private void evalInvokeStatement(String funcName, Object[] params) throws ScriptException {
+        String statement = getInvokeStatementCached(funcName, params);
+
+        if (!(mLocalEngine instanceof Compilable)) {
+            mLocalEngine.eval(statement);
+            return;
+        }
+        CompiledScript compiled;
+        synchronized (mCompiledStatementCache) {
+            compiled = mCompiledStatementCache.get(funcName);
+            if (compiled == null) {
+                compiled = ((Compilable) mLocalEngine).compile(statement);
+                mCompiledStatementCache.put(funcName, compiled);
+            }
+        }
+        compiled.eval();
+    }
+
+    private boolean invokeDirect(Invocable engine, String funcName, Object[] params) {
+        try {
+            engine.invokeFunction(funcName, params);
+        } catch (NoSuchMethodException e) {
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        } catch (ScriptException e) {
+            // The function throws, avoid invoking it later
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Access to values modified during invoking of Script file
      * Enables X3D to get values script modifies..
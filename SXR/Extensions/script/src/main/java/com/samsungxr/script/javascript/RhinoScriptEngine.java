@@ -72,6 +72,14 @@ public class RhinoScriptEngine extends AbstractScriptEngine
     private ScriptEngineFactory factory;
     private InterfaceImplementor implementor;
 
+    /* Runtime scope used to call functions, cached per ScriptContext
+     * so invoking a function does not rebuild the scope each time.
+     * The scope reads and writes through the context so it stays valid
+     * when bindings change.
+     */
+    private ScriptContext cachedScopeContext;
+    private Scriptable cachedScope;
+
     /*
     // in Phobos we want to support all javascript features
     static {
@@ -230,7 +238,7 @@ public class RhinoScriptEngine extends AbstractScriptEngine
                 thiz = cx.toObject(thiz, topLevel);
             }
             
-            Scriptable engineScope = getRuntimeScope(context);
+            Scriptable engineScope = getCachedRuntimeScope(context);
             Scriptable localScope = (thiz != null)? (Scriptable) thiz :
                                                     engineScope;
             Object obj = ScriptableObject.getProperty(localScope, name);
@@ -323,6 +331,14 @@ public class RhinoScriptEngine extends AbstractScriptEngine
     }
     
     
+    synchronized Scriptable getCachedRuntimeScope(ScriptContext ctxt) {
+        if ((cachedScope == null) || (cachedScopeContext != ctxt)) {
+            cachedScope = getRuntimeScope(ctxt);
+            cachedScopeContext = ctxt;
+        }
+        return cachedScope;
+    }
+
     //Compilable methods
     public CompiledScript compile(String script) throws ScriptException {
         return compile(preProcessScriptSource(new StringReader(script)));
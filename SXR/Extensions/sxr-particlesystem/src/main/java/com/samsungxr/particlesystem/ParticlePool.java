@@ -0,0 +1,158 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.particlesystem;
+
+import com.samsungxr.SXRMaterial;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRShaderData;
+import com.samsungxr.SXRVertexBuffer;
+
+/**
+ * A fixed number of particle slots in one mesh which is kept for the
+ * lifetime of the emitter. The slots are reused as a ring buffer:
+ * every emission overwrites the oldest slots, and only the vertices
+ * of those slots are copied to the mesh.
+ * <p>
+ * The particle shader computes the motion of every particle from its
+ * spawn time, so nothing is updated on the CPU between emissions.
+ * Slots which were never used have a spawn time of Float.MAX_VALUE and are
+ * discarded by the shader, like the bounding volume particles, which
+ * take the last {@link #BOUNDING_VERTICES} vertices of the mesh.
+ */
+
+class ParticlePool
+{
+    static final int BOUNDING_VERTICES = 8;
+
+    private final int mCapacity;
+    private final float[] mPositions;
+    private final float[] mVelocities;
+    private final float[] mSpawnTimes;
+    private int mHead = 0;
+
+    private SXRNode mNode;
+    private SXRVertexBuffer mVertices;
+    private SXRMaterial mMaterial;
+    private SXRShaderData.Uniform mTimeUniform;
+
+    /**
+     * @param capacity number of particle slots
+     * @param boundingVolume positions of the 8 particles which define the volume of the system
+     */
+    ParticlePool(int capacity, float[] boundingVolume)
+    {
+        final int numVertices = capacity + BOUNDING_VERTICES;
+
+        mCapacity = capacity;
+        mPositions = new float[numVertices * 3];
+        mVelocities = new float[numVertices * 3];
+        mSpawnTimes = new float[numVertices * 2];
+        for (int i = 0; i < mSpawnTimes.length; i += 2)
+        {
+            mSpawnTimes[i] = Float.MAX_VALUE;
+        }
+        System.arraycopy(boundingVolume, 0, mPositions, capacity * 3, BOUNDING_VERTICES * 3);
+    }
+
+    float[] getPositions()
+    {
+        return mPositions;
+    }
+
+    float[] getVelocities()
+    {
+        return mVelocities;
+    }
+
+    float[] getSpawnTimes()
+    {
+        return mSpawnTimes;
+    }
+
+    int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    SXRNode getNode()
+    {
+        return mNode;
+    }
+
+    SXRMaterial getMaterial()
+    {
+        return mMaterial;
+    }
+
+    /**
+     * Use the mesh and material of a node made from the arrays of this pool.
+     * @param node node returned by {@link Particles#makeParticleMesh(float[], float[], float[])}
+     */
+    void attach(SXRNode node)
+    {
+        mNode = node;
+        mVertices = node.getRenderData().getMesh().getVertexBuffer();
+        mMaterial = node.getRenderData().getMaterial();
+        mTimeUniform = mMaterial.getUniform("u_time");
+    }
+
+    /**
+     * Copy new particles into the oldest slots of the pool.
+     *
+     * @param positions (x1, y1, z1, x2, y2, z2, ...)
+     * @param velocities (vx1, vy1, vz1, vx2, vy2, vz2, ...)
+     * @param spawnTimes (t1, 0, t2, 0, ...)
+     * @param count number of particles in the arrays. Only the last
+     *              capacity particles are kept if there are more.
+     */
+    void emit(float[] positions, float[] velocities, float[] spawnTimes, int count)
+    {
+        int src = Math.max(0, count - mCapacity);
+
+        while (src < count)
+        {
+            final int n = Math.min(count - src, mCapacity - mHead);
+
+            System.arraycopy(positions, src * 3, mPositions, mHead * 3, n * 3);
+            System.arraycopy(velocities, src * 3, mVelocities, mHead * 3, n * 3);
+            System.arraycopy(spawnTimes, src * 2, mSpawnTimes, mHead * 2, n * 2);
+            updateVertices(mHead, n);
+            src += n;
+            mHead = (mHead + n) % mCapacity;
+        }
+    }
+
+    /**
+     * @param boundingVolume positions of the 8 particles which define the volume of the system
+     */
+    void setBoundingVolume(float[] boundingVolume)
+    {
+        System.arraycopy(boundingVolume, 0, mPositions, mCapacity * 3, BOUNDING_VERTICES * 3);
+        updateVertices(mCapacity, BOUNDING_VERTICES);
+    }
+
+    void setTime(float time)
+    {
+        mMaterial.setFloat(mTimeUniform, time);
+    }
+
+    private void updateVertices(int first, int count)
+    {
+        mVertices.setFloatRange("a_position", mPositions, first, count);
+        mVertices.setFloatRange("a_normal", mVelocities, first, count);
+        mVertices.setFloatRange("a_texcoord", mSpawnTimes, first, count);
+    }
+}
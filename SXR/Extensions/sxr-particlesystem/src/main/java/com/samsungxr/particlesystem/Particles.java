@@ -89,20 +89,11 @@ class Particles {
 
         particleID = new SXRShaderId(ParticleShader.class);
         material = new SXRMaterial(mSXRContext, particleID);
-
-        material.setVec4("u_color", mColorMultiplier.x, mColorMultiplier.y,
-                mColorMultiplier.z, mColorMultiplier.w);
-        material.setFloat("u_particle_age", mAge);
-        material.setVec3("u_acceleration", mAcceleration.x, mAcceleration.y, mAcceleration.z);
-        material.setFloat("u_particle_size", mSize);
-        material.setFloat("u_size_change_rate", mParticleSizeRate);
-        material.setFloat("u_fade", mFadeWithAge);
-        material.setFloat("u_noise_factor", mNoiseFactor);
+        setMaterialProperties(material);
 
         SXRRenderData renderData = new SXRRenderData(mSXRContext);
         renderData.setMaterial(material);
         renderData.setMesh(mParticleMesh);
-        material.setMainTexture(mTexture);
 
         SXRNode meshObject = new SXRNode(mSXRContext);
         meshObject.attachRenderData(renderData);
@@ -121,4 +112,24 @@ class Particles {
 
         return meshObject;
     }
+
+    /**
+     * Sets the particle properties of this instance on a particle material.
+     * Used to update the material of a mesh which is kept when the
+     * properties of the emitter change.
+     *
+     * @param particleMaterial material with the {@link ParticleShader}
+     */
+    void setMaterialProperties(SXRMaterial particleMaterial)
+    {
+        particleMaterial.setVec4("u_color", mColorMultiplier.x, mColorMultiplier.y,
+                mColorMultiplier.z, mColorMultiplier.w);
+        particleMaterial.setFloat("u_particle_age", mAge);
+        particleMaterial.setVec3("u_acceleration", mAcceleration.x, mAcceleration.y, mAcceleration.z);
+        particleMaterial.setFloat("u_particle_size", mSize);
+        particleMaterial.setFloat("u_size_change_rate", mParticleSizeRate);
+        particleMaterial.setFloat("u_fade", mFadeWithAge);
+        particleMaterial.setFloat("u_noise_factor", mNoiseFactor);
+        particleMaterial.setMainTexture(mTexture);
+    }
 }
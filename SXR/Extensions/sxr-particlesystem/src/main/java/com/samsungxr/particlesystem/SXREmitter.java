@@ -25,6 +25,7 @@ import org.joml.Vector3f;
 import org.joml.Vector4f;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 
 /**
@@ -38,7 +39,10 @@ import java.util.ArrayList;
  * having an emitRate number of vertices is added to the emitter as a child.
  * These vertices act as the particles of the system. Consequently, all those
  * children objects which have exceeded their age limits are deleted every second.
- *
+ * <p>
+ * In pooled mode (see {@link #setPooled(boolean)}) the emitter instead keeps a single
+ * child with a mesh of a fixed number of particle slots, and every second the
+ * new particles overwrite the oldest slots of that mesh.
  */
 
 class SXREmitter extends SXRNode {
@@ -82,6 +86,15 @@ class SXREmitter extends SXRNode {
 
     private float currTime = 0;
     ArrayList<Integer> idxsToDelete;
+
+    //pooled mode: the particle slots reused for every emission,
+    // and whether the particle properties changed since they were set on its material.
+    private boolean mPooled = false;
+    private ParticlePool mPool = null;
+    private boolean mPropertiesChanged = false;
+
+    //source of all random particle attributes, seeded for repeatable systems.
+    protected final Random mRandom = new Random();
     
     public SXREmitter(SXRContext gvrContext)
     {
@@ -162,6 +175,12 @@ class SXREmitter extends SXRNode {
     private void emit(float[] particlePositions, float[] particleVelocities,
                       float[] particleTimeStamps)
     {
+        if (mPooled)
+        {
+            emitPooled(particlePositions, particleVelocities, particleTimeStamps);
+            return;
+        }
+
         float[] allParticlePositions = new float[particlePositions.length + particleBoundingVolume.length];
         System.arraycopy(particlePositions, 0, allParticlePositions, 0, particlePositions.length);
         System.arraycopy(particleBoundingVolume, 0, allParticlePositions,
@@ -176,18 +195,77 @@ class SXREmitter extends SXRNode {
         System.arraycopy(BVVelocities, 0, allParticleVelocities, particleVelocities.length, BVVelocities.length);
 
 
-        Particles particleMesh = new Particles(mSXRContext, mMaxAge,
-                mParticleSize, mEnvironmentAcceleration, mParticleSizeRate, mFadeWithAge,
-                mParticleTexture, mColor, mNoiseFactor);
-
-
-        SXRNode particleObject = particleMesh.makeParticleMesh(allParticlePositions,
+        SXRNode particleObject = makeParticles().makeParticleMesh(allParticlePositions,
                 allParticleVelocities, allSpawnTimes);
 
         this.addChildObject(particleObject);
         meshInfo.add(Pair.create(particleObject, currTime));
     }
 
+    /**
+     * Copy the particles into the oldest slots of the pool, creating the pool
+     * and its scene object the first time or when it became too small for
+     * the current emit rate and age.
+     *
+     * @param particlePositions
+     * @param particleVelocities
+     * @param particleTimeStamps
+     */
+
+    private void emitPooled(float[] particlePositions, float[] particleVelocities,
+                            float[] particleTimeStamps)
+    {
+        // Emissions are more than a second apart and a particle lives for at most
+        // mMaxAge after a spawn time up to one second after its emission,
+        // so this many slots are never overwritten while in use.
+        int capacity = mEmitRate * ((int) Math.ceil(mMaxAge) + 2);
+
+        if (mPool == null || mPool.getCapacity() < capacity)
+        {
+            if (mPool != null)
+            {
+                this.removeChildObject(mPool.getNode());
+            }
+            mPool = new ParticlePool(capacity, particleBoundingVolume);
+
+            SXRNode particleObject = makeParticles().makeParticleMesh(mPool.getPositions(),
+                    mPool.getVelocities(), mPool.getSpawnTimes());
+
+            mPool.attach(particleObject);
+            mPool.setTime(currTime);
+            this.addChildObject(particleObject);
+            mPropertiesChanged = false;
+        }
+        else if (mPropertiesChanged)
+        {
+            makeParticles().setMaterialProperties(mPool.getMaterial());
+            mPropertiesChanged = false;
+        }
+        mPool.emit(particlePositions, particleVelocities, particleTimeStamps,
+                particleTimeStamps.length / 2);
+    }
+
+    private Particles makeParticles()
+    {
+        return new Particles(mSXRContext, mMaxAge,
+                mParticleSize, mEnvironmentAcceleration, mParticleSizeRate, mFadeWithAge,
+                mParticleTexture, mColor, mNoiseFactor);
+    }
+
+    /**
+     * Returns {@code array} if it holds exactly {@code length} floats, otherwise a new array.
+     * Lets the emitters regenerate the particle attributes every second without allocating
+     * while the emit rate does not change.
+     */
+    protected static float[] reuseArray(float[] array, int length)
+    {
+        if (array != null && array.length == length)
+        {
+            return array;
+        }
+        return new float[length];
+    }
+
 
     /**
      * Create a bouding volume for the particle system centered at its position with
@@ -229,6 +307,10 @@ class SXREmitter extends SXRNode {
                     for ( int i = 0; i < 24; i ++ )
                         BVVelocities[i] = 0;
 
+                    if (mPool != null)
+                    {
+                        mPool.setBoundingVolume(particleBoundingVolume);
+                    }
                 }
             });
         }
@@ -240,6 +322,11 @@ class SXREmitter extends SXRNode {
     {
         currTime = time;
 
+        if (mPool != null)
+        {
+            mPool.setTime(time);
+        }
+
         for (int i = 0; i < meshInfo.size(); i ++)
         {
             SXRNode obj = meshInfo.get(i).first;
@@ -276,6 +363,7 @@ class SXREmitter extends SXRNode {
     public void setParticleAge ( float age )
     {
         mMaxAge = age;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -284,6 +372,7 @@ class SXREmitter extends SXRNode {
     public void setParticleSize ( float size )
     {
         mParticleSize = size;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -312,6 +401,7 @@ class SXREmitter extends SXRNode {
     public void setEnvironmentAcceleration( Vector3f acceleration )
     {
         mEnvironmentAcceleration = acceleration;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -324,6 +414,7 @@ class SXREmitter extends SXRNode {
     public void setParticleSizeChangeRate( float rate )
     {
         mParticleSizeRate = rate;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -333,6 +424,7 @@ class SXREmitter extends SXRNode {
     public void setFadeWithAge ( boolean fade )
     {
         mFadeWithAge = fade;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -350,6 +442,7 @@ class SXREmitter extends SXRNode {
     public void setParticleTexture(SXRTexture tex)
     {
         mParticleTexture = tex;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -359,6 +452,7 @@ class SXREmitter extends SXRNode {
     public void  setColorMultiplier( Vector4f color )
     {
         mColor = color;
+        mPropertiesChanged = true;
     }
 
     /**
@@ -373,6 +467,60 @@ class SXREmitter extends SXRNode {
             noise = 1;
 
         mNoiseFactor = noise;
+        mPropertiesChanged = true;
+    }
+
+    /**
+     * Enables or disables the pooled mode of this emitter.
+     * <p>
+     * In pooled mode all particles live in one mesh with a fixed number of slots,
+     * emit rate * (particle age rounded up + 2), which is created on the first
+     * emission and then updated in place. Only the slots of the new particles are
+     * copied to the mesh every second, and no scene objects are created or removed.
+     * The meshes emitted before switching are removed as they expire.
+     * <p>
+     * The switch takes effect on the GL thread, so {@link #isPooled()} may still
+     * return the previous value right after this call.
+     *
+     * @param pooled true to reuse a single particle mesh, false to create a new mesh
+     *               every second. Off by default.
+     */
+    public void setPooled(final boolean pooled)
+    {
+        if (null != mSXRContext) {
+            mSXRContext.runOnGlThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    mPooled = pooled;
+                    if (!pooled && mPool != null)
+                    {
+                        SXREmitter.this.removeChildObject(mPool.getNode());
+                        mPool = null;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return true if this emitter reuses a single particle mesh.
+     * @see #setPooled(boolean)
+     */
+    public boolean isPooled()
+    {
+        return mPooled;
+    }
+
+    /**
+     * Seeds the random generator of the particle positions, velocities and spawn times.
+     * Emitters with the same seed and settings emit the same particles.
+     *
+     * @param seed the initial seed
+     */
+    public void setRandomSeed(long seed)
+    {
+        mRandom.setSeed(seed);
     }
 
     /**
@@ -385,6 +533,7 @@ class SXREmitter extends SXRNode {
         {
             this.removeChildObject(this.getChildByIndex(0));
         }
+        mPool = null;
     }
 
 }
@@ -21,7 +21,6 @@ import com.samsungxr.utility.Log;
 import org.joml.Vector3f;
 
 import java.lang.ref.WeakReference;
-import java.util.Random;
 
 /**
  * Is a emitter in the shape of a sphere. Particles are generated randomly from
@@ -30,7 +29,7 @@ import java.util.Random;
 
 public class SXRSphericalEmitter extends SXREmitter{
 
-    private Random mRandom = new Random();
+    private final Vector3f mDirection = new Vector3f();
 
     private float mRadius = 1.0f;
     private float totalTime = 0;
@@ -55,7 +54,7 @@ public class SXRSphericalEmitter extends SXREmitter{
      */
     private float[] generateParticlePositions()
     {
-        float[] positions = new float[mEmitRate * 3];
+        float[] positions = reuseArray(mParticlePositions, mEmitRate * 3);
 
         for ( int i = 0; i < mEmitRate * 3; i += 3 )
         {
@@ -85,7 +84,7 @@ public class SXRSphericalEmitter extends SXREmitter{
 
     private float[] generateParticleTimeStamps(float totalTime)
     {
-        float timeStamps[] = new float[mEmitRate * 2];
+        float timeStamps[] = reuseArray(mParticleGenTimes, mEmitRate * 2);
 
         if ( burstMode ) {
             for (int i = 0; i < mEmitRate * 2; i += 2) {
@@ -112,8 +111,8 @@ public class SXRSphericalEmitter extends SXREmitter{
      */
     private float[] generateParticleVelocities()
     {
-        float [] particleVelocities = new float[mEmitRate * 3];
-        Vector3f temp = new Vector3f(0,0,0);
+        float [] particleVelocities = reuseArray(mParticleVelocities, mEmitRate * 3);
+        Vector3f temp = mDirection;
         for ( int i = 0; i < mEmitRate * 3 ; i +=3 )
         {
             temp.x = mParticlePositions[i];
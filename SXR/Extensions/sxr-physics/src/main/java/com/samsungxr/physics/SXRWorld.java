@@ -21,6 +21,7 @@ import android.util.LongSparseArray;
 import com.samsungxr.SXRComponent;
 import com.samsungxr.SXRComponentGroup;
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXREventManager;
 import com.samsungxr.SXREventReceiver;
 import com.samsungxr.SXRNode;
 import com.samsungxr.SXRNode.ComponentVisitor;
@@ -300,32 +301,50 @@ public class SXRWorld extends SXRComponent implements IEventReceiver
     private void generateCollisionEvents() {
         SXRCollisionInfo collisionInfos[] = NativePhysics3DWorld.listCollisions(getNative());
 
-        String onEnter = "onEnter";
-        String onExit = "onExit";
-
         for (SXRCollisionInfo info : collisionInfos) {
             if (info.isHit) {
-                sendCollisionEvent(info, onEnter);
+                sendCollisionEvent(info, COLLISION_ENTER);
             } else if (mPhysicsObject.get(info.bodyA) != null
                     && mPhysicsObject.get(info.bodyB) != null) {
                 // If both bodies are in the scene.
-                sendCollisionEvent(info, onExit);
+                sendCollisionEvent(info, COLLISION_EXIT);
             }
         }
 
     }
 
-    private void sendCollisionEvent(SXRCollisionInfo info, String eventName) {
+    private void sendCollisionEvent(SXRCollisionInfo info, CollisionInvoker invoker) {
         SXRNode bodyA = mPhysicsObject.get(info.bodyA).getOwnerObject();
         SXRNode bodyB = mPhysicsObject.get(info.bodyB).getOwnerObject();
 
-        getSXRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName,
+        getSXRContext().getEventManager().sendEvent(bodyA, invoker,
                 bodyA, bodyB, info.normal, info.distance);
 
-        getSXRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName,
+        getSXRContext().getEventManager().sendEvent(bodyB, invoker,
                 bodyB, bodyA, info.normal, info.distance);
     }
 
+    private static abstract class CollisionInvoker
+            extends SXREventManager.EventInvoker3F<ICollisionEvents, SXRNode, SXRNode, float[]> {
+        CollisionInvoker(String eventName) {
+            super(ICollisionEvents.class, eventName);
+        }
+    }
+
+    private static final CollisionInvoker COLLISION_ENTER = new CollisionInvoker("onEnter") {
+        @Override
+        public void invoke(ICollisionEvents handler, SXRNode a, SXRNode b, float[] normal, float distance) {
+            handler.onEnter(a, b, normal, distance);
+        }
+    };
+
+    private static final CollisionInvoker COLLISION_EXIT = new CollisionInvoker("onExit") {
+        @Override
+        public void invoke(ICollisionEvents handler, SXRNode a, SXRNode b, float[] normal, float distance) {
+            handler.onExit(a, b, normal, distance);
+        }
+    };
+
     private void doPhysicsAttach(SXRNode rootNode) {
         rootNode.forAllComponents(mRigidBodiesVisitor, SXRRigidBody.getComponentType());
         rootNode.forAllComponents(mConstraintsVisitor, SXRConstraint.getComponentType());
@@ -1,10 +1,9 @@
 package com.samsungxr.widgetlib.adapter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import android.util.LongSparseArray;
-
 public class ListChangeManager {
 
     public enum ACTION_TYPE { ADD, DELETE, MOVE };
@@ -42,81 +41,251 @@ public class ListChangeManager {
      * @return a list of actions to be performed sequentially
      */
     public List<Action> getUpdateActions(List<Long> itemIDs, int firstItemPos) {
-        List<Long> oldIDs = new ArrayList<Long>();
+        long[] ids;
+        if (itemIDs == null) {
+            ids = new long[0];
+        } else {
+            ids = new long[itemIDs.size()];
+            for (int index = 0; index < ids.length; index++) {
+                ids[index] = itemIDs.get(index);
+            }
+        }
+        return getUpdateActions(ids, firstItemPos);
+    }
+
+    /**
+     * Same as {@link #getUpdateActions(List, int)}, for IDs in a primitive array.
+     *
+     * The actions are minimal: items missing from {@code itemIDs} are deleted, new ones
+     * are added, and only the items outside a longest run of items already in the new
+     * order are moved, each once. This takes O(n log n) time.
+     *
+     * @param itemIDs: IDs starting from firstItemPos
+     * @param firstItemPos: position of the first item.
+     * @return a list of actions to be performed sequentially
+     */
+    public List<Action> getUpdateActions(long[] itemIDs, int firstItemPos) {
         final int count = mAdapter.getCount();
+        final long[] oldIDs = new long[count];
         for(int index = 0; index < count; index++) {
-            long id = mAdapter.getItemId(index);
-            oldIDs.add(Long.valueOf(id));
+            oldIDs[index] = mAdapter.getItemId(index);
         }
 
-        LongSparseArray<Integer> newMap = new LongSparseArray<Integer>();
-        listToMap(itemIDs, newMap, firstItemPos);
+        final List<Action> actions = new ArrayList<Action>();
+        synchronized(mSyncObject) {
+            diff(oldIDs, itemIDs, Math.max(0, Math.min(firstItemPos, count)), actions);
+        }
+        return actions;
+    }
 
-        LongSparseArray<Integer> oldMap = new LongSparseArray<Integer>();
+    /**
+     * Turns {@code oldIDs} into the items before {@code first} that are not in
+     * {@code newIDs}, followed by {@code newIDs}.
+     */
+    private static void diff(long[] oldIDs, long[] newIDs, int first, List<Action> actions) {
+        final LongIntMap newIndex = new LongIntMap(newIDs.length);
+        for (int index = 0; index < newIDs.length; index++) {
+            newIndex.put(newIDs[index], index);
+        }
 
-        final List<Action> actions = new ArrayList<Action>();
+        // Delete from the end, so the positions of the remaining deletes don't change
+        int kept = 0;
+        final long[] tail = new long[oldIDs.length];
+        for (int pos = oldIDs.length - 1; pos >= first; pos--) {
+            if (newIndex.get(oldIDs[pos]) < 0) {
+                actions.add(new Action(ACTION_TYPE.DELETE, oldIDs[pos], pos, -1));
+            } else {
+                tail[oldIDs.length - 1 - kept++] = oldIDs[pos];
+            }
+        }
+        int tailStart = oldIDs.length - kept;
+        int size = first + kept;
 
-        synchronized(mSyncObject) {
-            if (oldIDs != null) {
-                listToMap(oldIDs, oldMap, 0);
-
-                for(int pos = oldIDs.size() - 1; pos >= firstItemPos; pos--) {
-                    Long id = oldIDs.get(pos);
-                    int newPos = newMap.get(id, -1);
-                    if (newPos == -1) {
-                        oldIDs.remove(pos);
-                        oldMap.delete(id);
-                        updateMap(oldIDs, oldMap, pos, -1);
-                        actions.add(new Action(ACTION_TYPE.DELETE, id, pos, -1));
-                    }
-                }
+        // New items found before firstItemPos are moved to the end of the list first,
+        // so the items that stay in front keep their order
+        int base = first;
+        for (int pos = first - 1; pos >= 0; pos--) {
+            if (newIndex.get(oldIDs[pos]) >= 0) {
+                actions.add(new Action(ACTION_TYPE.MOVE, oldIDs[pos], pos, size - 1));
+                tail[--tailStart] = oldIDs[pos];
+                base--;
             }
+        }
+        // Items moved from the front are behind the kept tail: rotate them into place
+        final int moved = first - base;
+        final long[] current = new long[kept + moved];
+        System.arraycopy(tail, oldIDs.length - kept, current, 0, kept);
+        for (int index = 0; index < moved; index++) {
+            current[kept + index] = tail[tailStart + moved - 1 - index];
+        }
 
-            if (itemIDs != null) {
-                for(int index = 0; index < itemIDs.size(); index++) {
-                    final int pos = firstItemPos + index;
-                    final Long id  = itemIDs.get(index);
-
-                    int oldPos = oldMap.get(id, -1);
-                    if (oldPos != -1) {
-                        if (oldPos != pos) {
-                            oldIDs.remove(oldPos);
-                            oldIDs.add(pos, id);
-                            int min = Math.min(oldPos, pos);
-                            int max = Math.max(oldPos, pos);
-                            updateMap(oldIDs, oldMap, min, max + 1);
-                            actions.add(new Action(ACTION_TYPE.MOVE, id, oldPos, pos));
-                        }
-                    } else {
-                        if (oldIDs != null) {
-                            oldIDs.add(pos, id);
-                            updateMap(oldIDs, oldMap, pos, -1);
-                        }
-                        actions.add(new Action(ACTION_TYPE.ADD, id, -1, pos));
-                    }
-                }
+        alignTail(current, newIDs, newIndex, base, actions);
+    }
+
+    /**
+     * Turns the list {@code current}, at {@code base}, into {@code newIDs} with the
+     * fewest moves: items on a longest increasing subsequence of new positions stay,
+     * every other item moves once, right behind its new predecessor.
+     */
+    private static void alignTail(long[] current, long[] newIDs, LongIntMap newIndex,
+                                  int base, List<Action> actions) {
+        final int length = current.length;
+        final int[] target = new int[length];
+        for (int slot = 0; slot < length; slot++) {
+            target[slot] = newIndex.get(current[slot]);
+        }
+        final boolean[] stable = longestIncreasing(target);
+
+        final int[] slotOf = new int[newIDs.length];
+        Arrays.fill(slotOf, -1);
+        for (int slot = 0; slot < length; slot++) {
+            slotOf[target[slot]] = slot;
+        }
+
+        // Every item ever in the list gets a key in one order that holds at every step:
+        // (slot, 0) for the items where they are now, (anchor slot, depth) for items
+        // placed depth steps behind the item at the anchor slot. Slot -1 is the front.
+        final int depths = newIDs.length + 1;
+        final long[] finalKeys = new long[newIDs.length];
+        long anchor = key(-1, 0, depths);
+        for (int index = 0; index < newIDs.length; index++) {
+            final int slot = slotOf[index];
+            if (slot >= 0 && stable[slot]) {
+                anchor = key(slot, 0, depths);
+            } else {
+                anchor++;
             }
+            finalKeys[index] = anchor;
         }
 
-        return actions;
+        // Stable items keep their keys
+        final long[] keys = new long[length + newIDs.length];
+        int keyCount = 0;
+        for (int slot = 0; slot < length; slot++) {
+            keys[keyCount++] = key(slot, 0, depths);
+        }
+        for (int index = 0; index < newIDs.length; index++) {
+            if (slotOf[index] < 0 || !stable[slotOf[index]]) {
+                keys[keyCount++] = finalKeys[index];
+            }
+        }
+        Arrays.sort(keys, 0, keyCount);
+
+        final int[] tree = new int[keyCount + 1];
+        for (int slot = 0; slot < length; slot++) {
+            add(tree, rank(keys, keyCount, key(slot, 0, depths)), 1);
+        }
+
+        for (int index = 0; index < newIDs.length; index++) {
+            final int slot = slotOf[index];
+            final int to = rank(keys, keyCount, finalKeys[index]);
+            if (slot < 0) {
+                actions.add(new Action(ACTION_TYPE.ADD, newIDs[index], -1, base + sum(tree, to)));
+                add(tree, to, 1);
+            } else if (!stable[slot]) {
+                final int from = rank(keys, keyCount, key(slot, 0, depths));
+                final int fromPos = base + sum(tree, from);
+                add(tree, from, -1);
+                actions.add(new Action(ACTION_TYPE.MOVE, newIDs[index], fromPos,
+                        base + sum(tree, to)));
+                add(tree, to, 1);
+            }
+        }
+    }
+
+    private static long key(int slot, int depth, int depths) {
+        return (slot + 1L) * depths + depth;
+    }
+
+    private static int rank(long[] sortedKeys, int count, long key) {
+        return Arrays.binarySearch(sortedKeys, 0, count, key);
     }
 
-    private static void updateMap(List<Long> list, LongSparseArray<Integer> map, int pos, int end) {
-        if (end == -1) {
-            end = list.size();
+    /** Adds {@code delta} at {@code index} of a Fenwick tree */
+    private static void add(int[] tree, int index, int delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
         }
-        for(; pos < end; pos++) {
-            Long id = list.get(pos);
-            map.put(id, pos);
+    }
+
+    /** Sum of a Fenwick tree before {@code index} */
+    private static int sum(int[] tree, int index) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
         }
+        return sum;
     }
 
-    private static void listToMap(List<Long> list, LongSparseArray<Integer> map, int firstItemPos) {
-        if (list != null) {
-            for(int index = 0; index < list.size(); index++) {
-                Long id = list.get(index);
-                map.put(id, index + firstItemPos);
+    /** Marks a longest strictly increasing subsequence of {@code values} */
+    private static boolean[] longestIncreasing(int[] values) {
+        final int length = values.length;
+        final int[] tails = new int[length];
+        final int[] previous = new int[length];
+        int longest = 0;
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = longest;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
             }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == longest) {
+                longest++;
+            }
+        }
+
+        final boolean[] marked = new boolean[length];
+        for (int i = longest > 0 ? tails[longest - 1] : -1; i >= 0; i = previous[i]) {
+            marked[i] = true;
+        }
+        return marked;
+    }
+
+    /** An open addressing map from IDs to positions, without boxing */
+    private static final class LongIntMap {
+        private final long[] mKeys;
+        private final int[] mValues;
+        private final int mMask;
+
+        LongIntMap(int expected) {
+            final int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            mKeys = new long[capacity];
+            mValues = new int[capacity];
+            Arrays.fill(mValues, -1);
+            mMask = capacity - 1;
+        }
+
+        void put(long key, int value) {
+            int index = hash(key);
+            while (mValues[index] >= 0 && mKeys[index] != key) {
+                index = (index + 1) & mMask;
+            }
+            mKeys[index] = key;
+            mValues[index] = value;
+        }
+
+        /** @return The value for {@code key}, or -1 */
+        int get(long key) {
+            int index = hash(key);
+            while (mValues[index] >= 0) {
+                if (mKeys[index] == key) {
+                    return mValues[index];
+                }
+                index = (index + 1) & mMask;
+            }
+            return -1;
+        }
+
+        private int hash(long key) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mMask;
         }
     }
 
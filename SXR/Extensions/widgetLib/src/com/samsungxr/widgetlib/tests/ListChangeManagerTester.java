@@ -1,6 +1,7 @@
 package com.samsungxr.widgetlib.tests;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -22,6 +23,7 @@ public class ListChangeManagerTester {
     static final int MAX_APPS           = 6;
     static final int MAX_ID             = 9;
     static final int TEST_ITERATIONS    = 1000;
+    static final int LARGE_LIST_SIZE    = 10000;
 
     public void test() {
         Log.d(TAG, "test starting");
@@ -32,6 +34,8 @@ public class ListChangeManagerTester {
             caseRandom();
         }
 
+        caseLarge();
+
         Log.d(TAG, "test finished");
     }
 
@@ -70,6 +74,28 @@ public class ListChangeManagerTester {
         updateAdapter(list.subList(startpos, list.size()), startpos);
     }
 
+    private void caseLarge() {
+        mCurrentList.clear();
+        List<Long> list = new ArrayList<Long>();
+        for(long id = 1; id <= LARGE_LIST_SIZE; id++) {
+            list.add(id);
+        }
+        execute(mListChangeManager.getUpdateActions(list, 0));
+
+        // Drop every tenth item, add as many new ones and shuffle the rest
+        for(int i = 0; i < LARGE_LIST_SIZE; i += 10) {
+            list.set(i, (long) (LARGE_LIST_SIZE + i + 1));
+        }
+        Collections.shuffle(list, mRandom);
+
+        long start = System.nanoTime();
+        List<Action> actions = mListChangeManager.getUpdateActions(list, 0);
+        Log.d(TAG, "%d actions for %d items in %d ms", actions.size(), LARGE_LIST_SIZE,
+                (System.nanoTime() - start) / 1000000);
+        execute(actions);
+        compareList(list, mCurrentList, 0);
+    }
+
     private void updateAdapter(List<Long> list, int startpos) {
         logList(startpos, list, "==> ", "@" + startpos);
         List<Action> actions = mListChangeManager.getUpdateActions(list, startpos);
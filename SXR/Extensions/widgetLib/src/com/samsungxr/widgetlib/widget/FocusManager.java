@@ -10,8 +10,7 @@ import com.samsungxr.SXRPicker;
 import com.samsungxr.SXRPicker.SXRPickedObject;
 import com.samsungxr.SXRScene;
 import com.samsungxr.SXRNode;
-import com.samsungxr.widgetlib.widget.properties.JSONHelpers;
-import org.json.JSONObject;
+import com.samsungxr.widgetlib.widget.properties.ResolvedProperties;
 
 import java.lang.ref.WeakReference;
 import java.util.LinkedHashSet;
@@ -113,9 +112,10 @@ public class FocusManager {
      * Creates FocusManager
      */
     public FocusManager(SXRContext sxrContext) {
-        final JSONObject properties = WidgetLib.getPropertyManager().getInstanceProperties(getClass(), TAG);
+        final ResolvedProperties properties =
+                WidgetLib.getPropertyManager().getResolvedProperties(getClass(), TAG);
         Log.d(TAG, "FocusManager(): properties: %s", properties);
-        mEnabled = JSONHelpers.optBoolean(properties, Properties.enabled, false);
+        mEnabled = properties.optBoolean(Properties.enabled, false);
         Log.d(TAG, "FocusManager(): mEnabled: %b", mEnabled);
         init(sxrContext);
     }
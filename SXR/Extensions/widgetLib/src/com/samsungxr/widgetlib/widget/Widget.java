@@ -22,6 +22,7 @@ import com.samsungxr.widgetlib.widget.layout.Layout;
 import com.samsungxr.widgetlib.widget.layout.basic.AbsoluteLayout;
 
 import com.samsungxr.widgetlib.widget.properties.JSONHelpers;
+import com.samsungxr.widgetlib.widget.properties.ResolvedProperties;
 import com.samsungxr.widgetlib.widget.properties.UnmodifiableJSONObject;
 import com.samsungxr.widgetlib.R;
 
@@ -2128,16 +2129,19 @@ public class Widget implements Layout.WidgetContainer {
         setName(optString(properties, Properties.name, getName()));
 
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): properties: %s", getName(), properties);
-        UnmodifiableJSONObject objectMetadata = WidgetLib.getPropertyManager().getWidgetProperties(this);
+        final ResolvedProperties resolved = WidgetLib.getPropertyManager().getResolvedProperties(this);
+        UnmodifiableJSONObject objectMetadata = resolved.getJSON();
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): objectMetadata: %s", getName(), objectMetadata);
         final boolean preApplyAttribs = optBoolean(properties, Properties.preapply_attribs);
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): preApplyAttribs: %b", getName(), preApplyAttribs);
         if (preApplyAttribs) {
             // Allow JSON metadata to overwrite metadata from the model
-            mMetadata = merge(objectMetadata, properties);
+            mMetadata = mergeShared(objectMetadata, properties);
         } else {
-            mMetadata = merge(properties, objectMetadata);
+            mMetadata = mergeShared(properties, objectMetadata);
         }
+        // Widgets created without properties share the parsed values of their class and name
+        mProperties = properties.length() == 0 ? resolved : new ResolvedProperties(mMetadata);
 
         // We do this a second time because the properties received by initMetadata() may have been
         // overwritten if they were pre-applied
@@ -2146,40 +2150,39 @@ public class Widget implements Layout.WidgetContainer {
         Log.v(Log.SUBSYSTEM.WIDGET, TAG, "initMetadata(%s): merged metadata: %s", getName(), mMetadata);
     }
 
-    private void setupProperties(JSONObject properties) {
+    private void setupProperties(ResolvedProperties properties) {
         final boolean hasRenderData = mRenderDataCache.hasRenderData();
-        mIsTouchable = hasRenderData && optBoolean(properties, Properties.touchable,
+        mIsTouchable = hasRenderData && properties.optBoolean(Properties.touchable,
                 mIsTouchable);
-        mFocusEnabled = optBoolean(properties, Properties.focusenabled,
+        mFocusEnabled = properties.optBoolean(Properties.focusenabled,
                 mFocusEnabled);
-        mIsSelected = hasRenderData && optBoolean(properties, Properties.selected, mIsSelected);
-        Visibility visibility = optEnum(properties, Properties.visibility,
-                mVisibility, true);
+        mIsSelected = hasRenderData && properties.optBoolean(Properties.selected, mIsSelected);
+        Visibility visibility = properties.optEnum(Properties.visibility, mVisibility);
         setVisibility(visibility);
 
         // Set up transform positioning
         Log.d(Log.SUBSYSTEM.WIDGET, TAG, "setupProperties(%s): %s", getName(), properties);
-        Vector3f position = optVector3f(properties, TransformProperties.position);
+        Vector3f position = properties.optVector3f(TransformProperties.position, null);
         Log.d(Log.SUBSYSTEM.WIDGET, TAG, "setupProperties(%s): position: %s", getName(), position);
         if (position != null) {
             setPosition(position.x, position.y, position.z);
         }
 
         // Set up transform scaling
-        if (hasVector3f(properties, TransformProperties.scale)) {
-            Vector3f scale = optVector3f(properties, TransformProperties.scale);
+        if (properties.hasVector3f(TransformProperties.scale)) {
+            Vector3f scale = properties.optVector3f(TransformProperties.scale, null);
             Log.d(Log.SUBSYSTEM.WIDGET, TAG, "setupProperties(%s): scale: %s", getName(), scale);
             if (scale != null) {
                 setScale(scale.x, scale.y, scale.z);
             }
-        } else if (hasNumber(properties, TransformProperties.scale)) {
-            final float scale = optFloat(properties, TransformProperties.scale, 1);
+        } else if (properties.hasNumber(TransformProperties.scale)) {
+            final float scale = properties.optFloat(TransformProperties.scale, 1);
             Log.d(Log.SUBSYSTEM.WIDGET, TAG, "setupProperties(%s): scale: %.2f", getName(), scale);
             setScale(scale);
         }
 
         // Set up transform rotation
-        JSONObject rotation = optJSONObject(properties, TransformProperties.rotation);
+        JSONObject rotation = properties.optJSONObject(TransformProperties.rotation);
         if (rotation != null) {
             Vector3f scalars = asVector3f(rotation, new Vector3f(1, 1, 1));
             float angle;
@@ -2193,7 +2196,7 @@ public class Widget implements Layout.WidgetContainer {
         }
 
         // Setup viewport
-        Vector3f viewport = optVector3f(properties, Properties.viewport);
+        Vector3f viewport = properties.optVector3f(Properties.viewport, null);
         if (viewport != null) {
             mViewPort = new Vector3Axis(viewport);
         } else {
@@ -2360,7 +2363,7 @@ public class Widget implements Layout.WidgetContainer {
             Log.d(Log.SUBSYSTEM.WIDGET, TAG,
                     "Widget(context, properties): setting up metadata for %s: %s",
                     getName(), metadata);
-            setupProperties(metadata);
+            setupProperties(mProperties);
             createChildren(context, mNode, metadata);
             setupStatesAndLevels(metadata);
 
@@ -3328,6 +3331,15 @@ public class Widget implements Layout.WidgetContainer {
         return mMetadata;
     }
 
+    /**
+     * Typed access to the same values as {@link #getObjectMetadata()}. Vectors,
+     * points and enums are parsed once; for widgets created without properties
+     * they are shared with every widget of the same class and name.
+     */
+    protected ResolvedProperties getProperties() {
+        return mProperties;
+    }
+
     /**
      * A hook method called after the {@code Widget} instance has been
      * {@linkplain GroupWidget#addChild(Widget) added} to another {@link Widget}
@@ -3826,6 +3838,7 @@ public class Widget implements Layout.WidgetContainer {
     private List<WidgetState> mLevelInfo = new ArrayList<>();
 
     private JSONObject mMetadata;
+    private ResolvedProperties mProperties;
     private final List<Widget> mChildren = new ArrayList<>();
     private final List<SXRNode> mMeshChildren = new ArrayList<>();
     private Widget mParent;
@@ -20,7 +20,6 @@ import com.samsungxr.widgetlib.widget.layout.Layout;
 import com.samsungxr.widgetlib.widget.layout.OrientedLayout;
 
 import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.copy;
-import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.optPointF;
 import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.put;
 
 /**
@@ -328,7 +327,8 @@ public class Button extends Widget implements TextContainer {
 
     private TextParams init() {
         JSONObject metaData = getObjectMetadata();
-        PointF textWidgetSize = optPointF(metaData, Properties.text_widget_size, new PointF(getWidth(), getHeight()));
+        PointF textWidgetSize = getProperties().optPointF(Properties.text_widget_size,
+                new PointF(getWidth(), getHeight()));
         mTextWidgetWidth = textWidgetSize.x;
         mTextWidgetHeight = textWidgetSize.y;
 
@@ -17,7 +17,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
-import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.optInt;
 
 /**
  * Set of Checkable widgets 
@@ -324,8 +323,7 @@ public class CheckableGroup extends GroupWidget {
     }
 
     private void init() {
-        JSONObject metadata = getObjectMetadata();
-        int checkedIndex = optInt(metadata, CheckableGroupProperties.checkedIndex, -1);
+        int checkedIndex = getProperties().optInt(CheckableGroupProperties.checkedIndex, -1);
         if (checkedIndex >= 0) {
             check(checkedIndex);
         }
@@ -8,6 +8,7 @@ import com.samsungxr.widgetlib.widget.basic.LightTextWidget;
 import com.samsungxr.widgetlib.widget.layout.basic.LinearLayout;
 import com.samsungxr.widgetlib.widget.layout.OrientedLayout;
 import com.samsungxr.widgetlib.widget.Widget;
+import com.samsungxr.widgetlib.widget.properties.ResolvedProperties;
 
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRMesh;
@@ -81,15 +82,16 @@ public class ControlBar extends GroupWidget {
     public ControlBar(SXRContext context, JSONObject properties) {
         super(context, fixupProperties(properties));
 
+        final ResolvedProperties resolved = getProperties();
         properties = getObjectMetadata();
 
-        float padding = optFloat(properties, Properties.padding, BUTTON_GROUP_PADDING);
-        OrientedLayout.Orientation orientation = optEnum(properties, Properties.orientation,
+        float padding = resolved.optFloat(Properties.padding, BUTTON_GROUP_PADDING);
+        OrientedLayout.Orientation orientation = resolved.optEnum(Properties.orientation,
                 OrientedLayout.Orientation.HORIZONTAL);
         mLayout = getLayout(padding, orientation);
         applyLayout(mLayout);
 
-        mDimensions = optPointF(properties, PrivyProperties.dimensions, new PointF(-1, BAR_SIZE));
+        mDimensions = resolved.optPointF(PrivyProperties.dimensions, new PointF(-1, BAR_SIZE));
         mIsExtendableSize = orientation == OrientedLayout.Orientation.HORIZONTAL ?
                 mDimensions.x < 0 : mDimensions.y < 0;
 
@@ -12,11 +12,11 @@ import com.samsungxr.widgetlib.widget.animation.Animation;
 import com.samsungxr.widgetlib.widget.animation.AnimationFactory;
 import com.samsungxr.widgetlib.widget.ListWidget;
 import com.samsungxr.widgetlib.widget.Widget;
+import com.samsungxr.widgetlib.widget.properties.ResolvedProperties;
 
 import java.util.HashMap;
 import java.util.Map;
 
-import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.optJSONObject;
 import static com.samsungxr.widgetlib.widget.properties.JSONHelpers.put;
 
 /**
@@ -37,11 +37,11 @@ public final class PickerWidget extends ListWidget {
         super(context, adapter, width, height);
         addOnItemFocusListener(mItemFocusListener);
 
-        JSONObject properties = getObjectMetadata();
+        ResolvedProperties properties = getProperties();
         Log.d(Log.SUBSYSTEM.WIDGET, TAG, "PickerWidget(): properties: %s", properties);
-        JSONObject focusAnimationSpec = optJSONObject(properties, Properties.focus_animation, sFocusAnimationSpec);
+        JSONObject focusAnimationSpec = properties.optJSONObject(Properties.focus_animation, sFocusAnimationSpec);
         mFocusAnimationFactory = AnimationFactory.makeFactory(focusAnimationSpec);
-        JSONObject defocusAnimationSpec = optJSONObject(properties, Properties.defocus_animation, sDefocusAnimationSpec);
+        JSONObject defocusAnimationSpec = properties.optJSONObject(Properties.defocus_animation, sDefocusAnimationSpec);
         mDefocusAnimationFactory = AnimationFactory.makeFactory(defocusAnimationSpec);
     }
 
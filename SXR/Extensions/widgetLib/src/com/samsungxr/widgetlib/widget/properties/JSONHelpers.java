@@ -1250,12 +1250,7 @@ abstract public class JSONHelpers {
      * @return A new {@code JSONArray} copied from {@code src}
      */
     public static JSONArray copy(final JSONArray src) {
-        final JSONArray dest = new JSONArray();
-        final int len = src.length();
-        for (int i = 0; i < len; ++i) {
-            dest.put(src.opt(i));
-        }
-        return dest;
+        return copy(src, true);
     }
 
     /**
@@ -1574,6 +1569,38 @@ abstract public class JSONHelpers {
         return merge(src, copy(dest), overwrite);
     }
 
+    /**
+     * Recursively merges values from {@code src} over the values of
+     * {@code dest} into a new {@link JSONObject}, without modifying either.
+     * <p>
+     * The result is the same as {@link #merge(JSONObject, UnmodifiableJSONObject)
+     * merge(src, dest)}, but only the objects on the path to a merged value are
+     * new: {@code JSONObject} and {@code JSONArray} values found in only one of
+     * the arguments are shared with it rather than deep copied. Wrap the
+     * arguments in {@link UnmodifiableJSONObject} if the result must not be
+     * able to modify them.
+     *
+     * @param src  {@code JSONObject} to merge from
+     * @param dest {@code JSONObject} to merge over
+     * @return A new {@code JSONObject} with {@code src} merged over {@code dest}
+     */
+    public static JSONObject mergeShared(JSONObject src, JSONObject dest) {
+        final JSONObject merged = copy(dest, false);
+        final Iterator<String> keys = src.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            Object value = src.opt(key);
+            final Object destValue = merged.opt(key);
+            if (value instanceof JSONObject && destValue instanceof JSONObject) {
+                value = mergeShared((JSONObject) value, (JSONObject) destValue);
+            } else if (value instanceof JSONArray && destValue instanceof JSONArray) {
+                value = merge((JSONArray) value, copy((JSONArray) destValue));
+            }
+            safePut(merged, key, value);
+        }
+        return merged;
+    }
+
     private JSONHelpers() {
 
     }
@@ -9,15 +9,14 @@ import com.samsungxr.widgetlib.log.Log;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class PropertyManager {
 
     @NonNull
     public UnmodifiableJSONObject getInstanceProperties(Class<?> clazz, String name) {
-        JSONObject properties = buildInstanceProperties(name, clazz);
-        return new UnmodifiableJSONObject(properties);
+        return getResolvedProperties(clazz, name).getJSON();
     }
 
     @NonNull
@@ -25,6 +24,45 @@ public class PropertyManager {
         return getInstanceProperties(widget.getClass(), widget.getName());
     }
 
+    /**
+     * Get the class properties of {@code clazz} merged with the instance
+     * properties for {@code name}. The result is shared and immutable: it is
+     * built once per class, and once per class and name for the names which
+     * have instance properties. Other names get the class properties, so
+     * generated widget names do not grow the cache.
+     */
+    @NonNull
+    public ResolvedProperties getResolvedProperties(Class<?> clazz, String name) {
+        if (name == null || mInstanceJson.optJSONObject(name) == null) {
+            return getResolvedClassProperties(clazz);
+        }
+
+        ConcurrentMap<String, ResolvedProperties> byName = mInstanceProperties.get(clazz);
+        if (byName == null) {
+            byName = new ConcurrentHashMap<>();
+            final ConcurrentMap<String, ResolvedProperties> existing =
+                    mInstanceProperties.putIfAbsent(clazz, byName);
+            if (existing != null) {
+                byName = existing;
+            }
+        }
+
+        ResolvedProperties resolved = byName.get(name);
+        if (resolved == null) {
+            resolved = new ResolvedProperties(buildInstanceProperties(name, clazz));
+            final ResolvedProperties existing = byName.putIfAbsent(name, resolved);
+            if (existing != null) {
+                resolved = existing;
+            }
+        }
+        return resolved;
+    }
+
+    @NonNull
+    public ResolvedProperties getResolvedProperties(Widget widget) {
+        return getResolvedProperties(widget.getClass(), widget.getName());
+    }
+
     public PropertyManager(Context context, String asset) throws JSONException {
         this(context, asset, null);
     }
@@ -35,6 +73,15 @@ public class PropertyManager {
         loadInstanceProperties(context);
     }
 
+    /**
+     * Create a manager for properties which are already loaded: the "objects"
+     * of the class and instance property files.
+     */
+    PropertyManager(JSONObject classProperties, JSONObject instanceProperties) {
+        mClassJson = new UnmodifiableJSONObject(classProperties);
+        mInstanceJson = new UnmodifiableJSONObject(instanceProperties);
+    }
+
     private JSONObject buildInstanceProperties(String name, Class<?> clazz) {
         final JSONObject properties = mInstanceJson.optJSONObject(name);
         final UnmodifiableJSONObject defaultMetadata = getClassProperties(clazz, name);
@@ -49,25 +96,48 @@ public class PropertyManager {
         }
 
         // Overwrite class properties for this widget type with instance-specific properties
-        return JSONHelpers.merge(properties, defaultMetadata);
+        return JSONHelpers.mergeShared(properties, defaultMetadata);
+    }
+
+    private ResolvedProperties getResolvedClassProperties(Class<?> clazz) {
+        ResolvedProperties resolved = mResolvedClassProperties.get(clazz);
+        if (resolved == null) {
+            final UnmodifiableJSONObject classProperties = getClassProperties(clazz, null);
+            resolved = new ResolvedProperties(classProperties != null
+                    ? classProperties : new UnmodifiableJSONObject());
+            final ResolvedProperties existing = mResolvedClassProperties.putIfAbsent(clazz, resolved);
+            if (existing != null) {
+                resolved = existing;
+            }
+        }
+        return resolved;
     }
 
     private String getCanonicalName(Class<?> clazz) {
         String canonicalName = mCanonicalNames.get(clazz);
         if (canonicalName == null) {
             canonicalName = clazz.getCanonicalName();
-            mCanonicalNames.put(clazz, canonicalName);
+            if (canonicalName != null) { // null for anonymous classes
+                mCanonicalNames.put(clazz, canonicalName);
+            }
         }
         return canonicalName;
     }
 
-    /* package */
-    @SuppressWarnings("unchecked")
     private UnmodifiableJSONObject getClassProperties(Class<?> clazz, String name) {
-        final String canonicalName = getCanonicalName(clazz);
-        // TODO: Why does caching class properties in mClassProperties not work?
-        UnmodifiableJSONObject classProperties = buildClassProperties(clazz, name, canonicalName);
-
+        // The merged properties only depend on the class: name is just for logging.
+        // Nothing can modify the cached objects, since the merges below never
+        // write to their arguments and the results are only handed out wrapped.
+        UnmodifiableJSONObject classProperties = mClassProperties.get(clazz);
+        if (classProperties == null) {
+            final String canonicalName = getCanonicalName(clazz);
+            classProperties = buildClassProperties(clazz, name, canonicalName);
+            final UnmodifiableJSONObject existing =
+                    mClassProperties.putIfAbsent(clazz, classProperties);
+            if (existing != null) {
+                classProperties = existing;
+            }
+        }
         return classProperties;
     }
 
@@ -92,14 +162,10 @@ public class PropertyManager {
                 "buildClassProperties(%s): getting class properties for %s: %s",
                 name, canonicalName, classProperties);
         if (classProperties == null) {
-            classProperties = new UnmodifiableJSONObject();
-        } else {
-            Log.d(Log.SUBSYSTEM.JSON, TAG, "buildClassProperties(%s): copy class properties for %s ...", name,
-                    canonicalName);
-            classProperties = new UnmodifiableJSONObject(JSONHelpers.copy(classProperties));
+            return superProperties;
         }
 
-        JSONObject mergedProperties = JSONHelpers.merge(classProperties, superProperties, name);
+        JSONObject mergedProperties = JSONHelpers.mergeShared(classProperties, superProperties);
         Log.d(Log.SUBSYSTEM.JSON, TAG,
                 "buildClassProperties(%s): getting merged properties for %s: %s",
                 name, canonicalName, mergedProperties);
@@ -133,9 +199,14 @@ public class PropertyManager {
                 mInstanceJson);
     }
 
-    private final Map<Class<?>, String> mCanonicalNames = new HashMap<>();
+    private final ConcurrentMap<Class<?>, String> mCanonicalNames = new ConcurrentHashMap<>();
     private UnmodifiableJSONObject mClassJson;
-    private Map<Class<?>, JSONObject> mClassProperties = new HashMap<>();
+    private final ConcurrentMap<Class<?>, UnmodifiableJSONObject> mClassProperties =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ResolvedProperties> mResolvedClassProperties =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, ResolvedProperties>> mInstanceProperties =
+            new ConcurrentHashMap<>();
     private JSONObject mInstanceJson;
 
     private static final String TAG = PropertyManager.class.getSimpleName();
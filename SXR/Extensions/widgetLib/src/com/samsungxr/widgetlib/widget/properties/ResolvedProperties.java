@@ -0,0 +1,136 @@
+package com.samsungxr.widgetlib.widget.properties;
+
+import android.graphics.PointF;
+import android.support.annotation.NonNull;
+
+import org.joml.Vector3f;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typed, read-only access to the properties {@link PropertyManager} resolved
+ * for a class and instance name, or to the metadata of a widget.
+ * <p>
+ * Instances are cached by the {@code PropertyManager} and shared by every
+ * widget with the same class and name. Values which have to be parsed from
+ * nested JSON -- vectors, points and enums -- are parsed once, on first
+ * access, and returned as new objects every time after that.
+ */
+public final class ResolvedProperties {
+
+    /**
+     * Wraps {@code json}, which must not be modified afterwards: parsed values
+     * are cached.
+     */
+    public ResolvedProperties(@NonNull JSONObject json) {
+        mJson = json instanceof UnmodifiableJSONObject
+                ? (UnmodifiableJSONObject) json : new UnmodifiableJSONObject(json);
+    }
+
+    /**
+     * @return The resolved properties as JSON
+     */
+    @NonNull
+    public UnmodifiableJSONObject getJSON() {
+        return mJson;
+    }
+
+    public <P extends Enum<P>> boolean has(P key) {
+        return mJson.has(key.name());
+    }
+
+    public <P extends Enum<P>> boolean optBoolean(P key, boolean fallback) {
+        return mJson.optBoolean(key.name(), fallback);
+    }
+
+    public <P extends Enum<P>> int optInt(P key, int fallback) {
+        return mJson.optInt(key.name(), fallback);
+    }
+
+    public <P extends Enum<P>> float optFloat(P key, float fallback) {
+        return (float) mJson.optDouble(key.name(), fallback);
+    }
+
+    public <P extends Enum<P>> String optString(P key, String fallback) {
+        return mJson.optString(key.name(), fallback);
+    }
+
+    public <P extends Enum<P>> boolean hasNumber(P key) {
+        return JSONHelpers.hasNumber(mJson, key);
+    }
+
+    public <P extends Enum<P>> boolean hasVector3f(P key) {
+        return optVector3f(key, null) != null;
+    }
+
+    public <P extends Enum<P>> JSONObject optJSONObject(P key) {
+        return mJson.optJSONObject(key.name());
+    }
+
+    public <P extends Enum<P>> JSONObject optJSONObject(P key, JSONObject fallback) {
+        final JSONObject value = mJson.optJSONObject(key.name());
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * @return A new {@link Vector3f} with the value of {@code key}, or
+     * {@code fallback} if there is no vector value
+     */
+    public <P extends Enum<P>> Vector3f optVector3f(P key, Vector3f fallback) {
+        Object value = mVectors.get(key.name());
+        if (value == null) {
+            value = JSONHelpers.optVector3f(mJson, key);
+            if (value == null) {
+                value = MISSING;
+            }
+            mVectors.put(key.name(), value);
+        }
+        return value != MISSING ? new Vector3f((Vector3f) value) : fallback;
+    }
+
+    /**
+     * @return A new {@link PointF} with the value of {@code key}, or
+     * {@code fallback} if there is no point value
+     */
+    public <P extends Enum<P>> PointF optPointF(P key, PointF fallback) {
+        Object value = mPoints.get(key.name());
+        if (value == null) {
+            value = JSONHelpers.optPointF(mJson, key);
+            if (value == null) {
+                value = MISSING;
+            }
+            mPoints.put(key.name(), value);
+        }
+        return value != MISSING ? new PointF(((PointF) value).x, ((PointF) value).y)
+                : fallback;
+    }
+
+    /**
+     * @return The value of {@code key} as a constant of {@code fallback}'s
+     * type, or {@code fallback} if there is no value
+     */
+    public <P extends Enum<P>, R extends Enum<R>> R optEnum(P key, R fallback) {
+        final Class<R> enumClass = fallback.getDeclaringClass();
+        Object value = mEnums.get(key.name());
+        if (value == null || (value != MISSING && !enumClass.isInstance(value))) {
+            value = mJson.has(key.name())
+                    ? JSONHelpers.optEnum(mJson, key, fallback, true) : MISSING;
+            mEnums.put(key.name(), value);
+        }
+        return value != MISSING ? enumClass.cast(value) : fallback;
+    }
+
+    @Override
+    public String toString() {
+        return mJson.toString();
+    }
+
+    private static final Object MISSING = new Object();
+
+    private final UnmodifiableJSONObject mJson;
+    private final Map<String, Object> mVectors = new ConcurrentHashMap<>();
+    private final Map<String, Object> mPoints = new ConcurrentHashMap<>();
+    private final Map<String, Object> mEnums = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,111 @@
+package com.samsungxr.widgetlib.widget.properties;
+
+import org.joml.Vector3f;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Time to resolve and read the properties of 1,000 widgets, the way
+ * {@code Widget} does when it is created. Only runs with
+ * {@code -Dsxr.benchmark=true}.
+ */
+public class PropertyManagerBenchmark {
+
+    private static final int WIDGETS = 1000;
+    private static final int NAMED = 50;
+    private static final int PASSES = 20;
+
+    enum Properties {touchable, focusenabled, selected, visibility, position, scale, viewport}
+
+    enum Visibility {VISIBLE, HIDDEN, GONE}
+
+    static class Base {
+    }
+
+    static class Button extends Base {
+    }
+
+    static class CheckBox extends Button {
+    }
+
+    private PropertyManager mPropertyManager;
+
+    @Before
+    public void setUp() throws JSONException {
+        assumeTrue(Boolean.getBoolean("sxr.benchmark"));
+
+        final JSONObject classes = new JSONObject()
+                .put(Base.class.getCanonicalName(), new JSONObject()
+                        .put("touchable", true)
+                        .put("focusenabled", true)
+                        .put("visibility", "visible")
+                        .put("viewport", vector(1, 1, 1)))
+                .put(Button.class.getCanonicalName(), new JSONObject()
+                        .put("position", vector(0, 0.5f, -1))
+                        .put("scale", vector(1, 1, 1)))
+                .put(CheckBox.class.getCanonicalName(), new JSONObject()
+                        .put("selected", false));
+        final JSONObject instances = new JSONObject();
+        for (int i = 0; i < NAMED; ++i) {
+            instances.put("item" + i, new JSONObject()
+                    .put("position", vector(i, 0, -2)));
+        }
+        mPropertyManager = new PropertyManager(classes, instances);
+    }
+
+    @Test
+    public void thousandWidgets() {
+        long shared = Long.MAX_VALUE;
+        long perWidget = Long.MAX_VALUE;
+
+        for (int pass = 0; pass < PASSES; ++pass) {
+            long start = System.nanoTime();
+            for (int i = 0; i < WIDGETS; ++i) {
+                setup(mPropertyManager.getResolvedProperties(CheckBox.class, "item" + i));
+            }
+            shared = Math.min(shared, System.nanoTime() - start);
+
+            // Every widget parsing its own copy, as with per-widget metadata
+            start = System.nanoTime();
+            for (int i = 0; i < WIDGETS; ++i) {
+                final ResolvedProperties resolved =
+                        mPropertyManager.getResolvedProperties(CheckBox.class, "item" + i);
+                setup(new ResolvedProperties(JSONHelpers.mergeShared(new JSONObject(),
+                        resolved.getJSON())));
+            }
+            perWidget = Math.min(perWidget, System.nanoTime() - start);
+        }
+        System.out.println(String.format(
+                "%d widgets (%d with instance properties): shared %.0f us, per widget %.0f us",
+                WIDGETS, NAMED, shared / 1e3, perWidget / 1e3));
+    }
+
+    /* The reads of Widget.setupProperties() */
+    private static float setup(ResolvedProperties properties) {
+        float sum = 0;
+        sum += properties.optBoolean(Properties.touchable, false) ? 1 : 0;
+        sum += properties.optBoolean(Properties.focusenabled, false) ? 1 : 0;
+        sum += properties.optBoolean(Properties.selected, false) ? 1 : 0;
+        sum += properties.optEnum(Properties.visibility, Visibility.VISIBLE).ordinal();
+        final Vector3f position = properties.optVector3f(Properties.position, null);
+        if (position != null) {
+            sum += position.x;
+        }
+        if (properties.hasVector3f(Properties.scale)) {
+            sum += properties.optVector3f(Properties.scale, null).y;
+        }
+        final Vector3f viewport = properties.optVector3f(Properties.viewport, null);
+        if (viewport != null) {
+            sum += viewport.z;
+        }
+        return sum;
+    }
+
+    private static JSONObject vector(float x, float y, float z) throws JSONException {
+        return new JSONObject().put("x", x).put("y", y).put("z", z);
+    }
+}
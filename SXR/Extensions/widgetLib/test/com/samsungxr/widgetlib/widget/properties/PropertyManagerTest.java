@@ -0,0 +1,107 @@
+package com.samsungxr.widgetlib.widget.properties;
+
+import org.joml.Vector3f;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyManagerTest {
+
+    enum Properties {touchable, visibility, position, scale}
+
+    enum Visibility {VISIBLE, HIDDEN}
+
+    static class Base {
+    }
+
+    static class Derived extends Base {
+    }
+
+    static class Plain {
+    }
+
+    private PropertyManager mPropertyManager;
+
+    @Before
+    public void setUp() throws JSONException {
+        final JSONObject classes = new JSONObject()
+                .put(Base.class.getCanonicalName(), new JSONObject()
+                        .put("touchable", true)
+                        .put("visibility", "visible")
+                        .put("position", vector(1, 2, 3)))
+                .put(Derived.class.getCanonicalName(), new JSONObject()
+                        .put("scale", vector(2, 2, 2)));
+        final JSONObject instances = new JSONObject()
+                .put("named", new JSONObject()
+                        .put("visibility", "hidden")
+                        .put("position", new JSONObject().put("x", 5)));
+        mPropertyManager = new PropertyManager(classes, instances);
+    }
+
+    @Test
+    public void namesWithoutInstancePropertiesShareClassProperties() {
+        final ResolvedProperties first = mPropertyManager.getResolvedProperties(Derived.class, "item0");
+        final ResolvedProperties second = mPropertyManager.getResolvedProperties(Derived.class, "item1");
+
+        assertSame(first, second);
+        assertSame(first, mPropertyManager.getResolvedProperties(Derived.class, null));
+        assertNotSame(first, mPropertyManager.getResolvedProperties(Base.class, "item0"));
+    }
+
+    @Test
+    public void namesWithInstancePropertiesAreCachedPerName() {
+        final ResolvedProperties named = mPropertyManager.getResolvedProperties(Derived.class, "named");
+
+        assertSame(named, mPropertyManager.getResolvedProperties(Derived.class, "named"));
+        assertNotSame(named, mPropertyManager.getResolvedProperties(Derived.class, "item0"));
+        assertNotSame(named, mPropertyManager.getResolvedProperties(Base.class, "named"));
+    }
+
+    @Test
+    public void subclassesInheritClassProperties() {
+        final ResolvedProperties derived = mPropertyManager.getResolvedProperties(Derived.class, "item");
+
+        assertTrue(derived.optBoolean(Properties.touchable, false));
+        assertEquals(new Vector3f(1, 2, 3), derived.optVector3f(Properties.position, null));
+        assertEquals(new Vector3f(2, 2, 2), derived.optVector3f(Properties.scale, null));
+        assertFalse(mPropertyManager.getResolvedProperties(Base.class, "item")
+                .hasVector3f(Properties.scale));
+    }
+
+    @Test
+    public void instancePropertiesOverrideClassProperties() {
+        final ResolvedProperties named = mPropertyManager.getResolvedProperties(Derived.class, "named");
+
+        assertEquals(Visibility.HIDDEN, named.optEnum(Properties.visibility, Visibility.VISIBLE));
+        assertEquals(new Vector3f(5, 2, 3), named.optVector3f(Properties.position, null));
+        assertTrue(named.optBoolean(Properties.touchable, false));
+    }
+
+    @Test
+    public void classesWithoutPropertiesAreEmpty() {
+        final ResolvedProperties plain = mPropertyManager.getResolvedProperties(Plain.class, "item");
+
+        assertEquals(0, plain.getJSON().length());
+        assertSame(plain, mPropertyManager.getResolvedProperties(Plain.class, "other"));
+    }
+
+    @Test
+    public void parsedValuesAreCopies() {
+        final ResolvedProperties properties = mPropertyManager.getResolvedProperties(Base.class, "item");
+        final Vector3f position = properties.optVector3f(Properties.position, null);
+
+        position.set(0, 0, 0);
+        assertEquals(new Vector3f(1, 2, 3), properties.optVector3f(Properties.position, null));
+    }
+
+    private static JSONObject vector(float x, float y, float z) throws JSONException {
+        return new JSONObject().put("x", x).put("y", y).put("z", z);
+    }
+}
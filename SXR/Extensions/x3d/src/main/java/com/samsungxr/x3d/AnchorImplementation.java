@@ -25,6 +25,7 @@ import android.webkit.WebViewClient;
 
 import com.samsungxr.SXRCameraRig;
 import com.samsungxr.SXRContext;
+import com.samsungxr.SXRDownloadCache;
 import com.samsungxr.SXRDrawFrameListener;
 import com.samsungxr.SXRExternalScene;
 import com.samsungxr.SXRMeshCollider;
@@ -47,7 +48,6 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -216,12 +216,11 @@ public class AnchorImplementation {
                                 Threads.spawn(new Runnable() {
 
                                     public void run() {
-                                        File file = null;
                                         FileInputStream fileInputStream = null;
                                         try {
                                             Context context = gvrContext.getContext();
-                                            file = gvrContext.getAssetLoader().downloadFile(context, urlFinal);
-                                            fileInputStream = new FileInputStream(file);
+                                            // The file belongs to the download cache, read it but don't delete it
+                                            fileInputStream = SXRDownloadCache.getDefault(context).openStream(urlFinal);
 
                                             // Parse the XML/RSS file
                                             SAXParserFactory factory = SAXParserFactory.newInstance();
@@ -254,9 +253,6 @@ public class AnchorImplementation {
 
                                                 }
                                             }
-                                            if (file != null) {
-                                                file.delete();
-                                            }
                                         }
                                     }
                                 });
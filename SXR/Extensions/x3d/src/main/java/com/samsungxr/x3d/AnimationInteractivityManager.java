@@ -125,7 +125,7 @@ public class AnimationInteractivityManager {
     private X3Dobject x3dObject = null;
     private SXRContext gvrContext = null;
     private SXRNode root = null;
-    private Vector<DefinedItem> definedItems = null;
+    private DefinedItemTable definedItems = null;
     private Vector<Interpolator> interpolators = null;
     private Vector<Sensor> sensors = null;
     private Vector<TimeSensor> timeSensors = null;
@@ -156,6 +156,23 @@ public class AnimationInteractivityManager {
                                          Vector<Viewpoint> viewpoints,
                                          SXRAssetLoader.AssetRequest assetRequest
 
+    ) {
+        this(x3dObject, gvrContext, root, new DefinedItemTable(definedItems),
+             interpolators, sensors, timeSensors, eventUtilities, scriptObjects,
+             viewpoints, assetRequest);
+    }
+
+    AnimationInteractivityManager(X3Dobject x3dObject, SXRContext gvrContext,
+                                  SXRNode root,
+                                  DefinedItemTable definedItems,
+                                  Vector<Interpolator> interpolators,
+                                  Vector<Sensor> sensors,
+                                  Vector<TimeSensor> timeSensors,
+                                  Vector<EventUtility> eventUtilities,
+                                  ArrayList<ScriptObject> scriptObjects,
+                                  Vector<Viewpoint> viewpoints,
+                                  SXRAssetLoader.AssetRequest assetRequest
+
     ) {
         this.x3dObject = x3dObject;
         this.gvrContext = gvrContext;
@@ -246,12 +263,9 @@ public class AnimationInteractivityManager {
             }
         }
 
-        for (DefinedItem definedItem : definedItems) {
-            if (definedItem.getName().equalsIgnoreCase(toNode)) {
-                routeToDefinedItem = definedItem;
-            } else if (definedItem.getName().equalsIgnoreCase(fromNode)) {
-                routeFromDefinedItem = definedItem;
-            }
+        routeToDefinedItem = definedItems.getIgnoreCase(toNode);
+        if ((fromNode != null) && !fromNode.equalsIgnoreCase(toNode)) {
+            routeFromDefinedItem = definedItems.getIgnoreCase(fromNode);
         }
 
         // Now build the InteractiveObject by assigning pointers
@@ -2056,7 +2070,7 @@ public class AnimationInteractivityManager {
     // which will initialize / Construct the X3D data types used in
     // this SCRIPT node.
     private void BuildInitJavaScript(InteractiveObject interactiveObject) {
-        String gearVRinitJavaScript = "function " + GEARVR_INIT_JAVASCRIPT_FUNCTION_NAME + "()\n{\n";
+        String gearVRinitJavaScript = "";
 
         //The first two arguments are for the event - could be time or an isOver/isActive boolean -
         // and the second argument is for the timeStamp which is the accumulated time for starting
@@ -2177,7 +2191,17 @@ public class AnimationInteractivityManager {
 
             }  // for loop checking for parameters passed to the JavaScript parser
         }  // end if Mozilla Rhino engine
-        gearVRinitJavaScript += "}";
+
+        // Under Rhino the parameters are passed as arguments of the function,
+        // declared arg0 .. argN to match the names used above.
+        String arguments = "";
+        if ( !V8JavaScriptEngine ) {
+            for (int i = 0; i < argumentNum; i++) {
+                arguments += ((i > 0) ? ", arg" : "arg") + i;
+            }
+        }
+        gearVRinitJavaScript = "function " + GEARVR_INIT_JAVASCRIPT_FUNCTION_NAME + "(" + arguments + ")\n{\n" +
+                gearVRinitJavaScript + "}";
         scriptObject.setGearVRinitJavaScript(gearVRinitJavaScript);
     }  //  end  BuildInitJavaScript
 
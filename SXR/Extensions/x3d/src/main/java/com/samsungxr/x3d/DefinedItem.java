@@ -66,6 +66,7 @@ public class DefinedItem {
     private SXRVideoNode gvrVideoNode = null;
     private Viewpoint viewpoint = null;
     private SXRTextViewNode gvrTextViewNode = null;
+    private DefinedItemTable table = null;
     /**
      * X3D Transforms use AxisAngle format for rotations,
      * and float3 for the SpotLight, DirectionalLight direction
@@ -109,7 +110,14 @@ public class DefinedItem {
         this.rotationAxisAngle.set(angle, x, y, z);  // order: angle, x, y, z
     }
 
+    void setTable(DefinedItemTable table) {
+        this.table = table;
+    }
+
     public void setName(String name) {
+        if (table != null) {
+            table.onNameChanged(this, this.name, name);
+        }
         this.name = name;
     }
 
@@ -146,6 +154,9 @@ public class DefinedItem {
     }
 
     public void setSXRRenderData(SXRRenderData gvrRenderData) {
+        if (table != null) {
+            table.onRenderDataChanged(this, this.gvrRenderData, gvrRenderData);
+        }
         this.gvrRenderData = gvrRenderData;
     }
 
@@ -154,6 +165,9 @@ public class DefinedItem {
     }
 
     public void setSXRTexture(SXRTexture gvrTexture) {
+        if (table != null) {
+            table.onTextureChanged(this, this.gvrTexture, gvrTexture);
+        }
         this.gvrTexture = gvrTexture;
     }
 
@@ -0,0 +1,262 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.x3d;
+
+import com.samsungxr.SXRMaterial;
+import com.samsungxr.SXRMesh;
+import com.samsungxr.SXRNode;
+import com.samsungxr.SXRRenderData;
+import com.samsungxr.SXRTexture;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Symbol table of the items DEFined in an X3D file.
+ * <p>
+ * Items are kept in the order they were DEFined, in the list given to
+ * the constructor, and indexed by name so resolving a USE or a ROUTE
+ * endpoint does not scan every DEF in the file. If the same name is
+ * DEFined more than once, a USE finds the first definition and a ROUTE
+ * the last one, like the loops the table replaces.
+ * Items are also indexed by their SXRRenderData and SXRTexture
+ * so the parser can find which DEF a render data or texture belongs to.
+ * <p>
+ * The table is shared by the X3D parser and the
+ * {@link AnimationInteractivityManager} which builds the ROUTEs.
+ */
+class DefinedItemTable implements Iterable<DefinedItem>
+{
+    private final List<DefinedItem> mItems;
+    private final HashMap<String, DefinedItem> mByName = new HashMap<String, DefinedItem>();
+    private final HashMap<String, DefinedItem> mByLowerCaseName = new HashMap<String, DefinedItem>();
+    private final IdentityHashMap<SXRRenderData, DefinedItem> mByRenderData = new IdentityHashMap<SXRRenderData, DefinedItem>();
+    private final IdentityHashMap<SXRTexture, DefinedItem> mByTexture = new IdentityHashMap<SXRTexture, DefinedItem>();
+
+    /**
+     * Makes a table which keeps its items in {@code items}
+     * and indexes the items already in it.
+     */
+    DefinedItemTable(List<DefinedItem> items)
+    {
+        mItems = items;
+        for (DefinedItem item : items)
+        {
+            item.setTable(this);
+            indexItem(item);
+        }
+    }
+
+    /**
+     * Adds a DEFined item to the table.
+     */
+    public void add(DefinedItem item)
+    {
+        mItems.add(item);
+        item.setTable(this);
+        indexItem(item);
+    }
+
+    /**
+     * @return the number of DEFined items
+     */
+    public int size()
+    {
+        return mItems.size();
+    }
+
+    /**
+     * @return the DEFined item at the given position in DEF order
+     */
+    public DefinedItem get(int index)
+    {
+        return mItems.get(index);
+    }
+
+    /**
+     * Finds the item DEFined with this exact name, as used by USE.
+     * @return the first item with the name or null if the name is not DEFined
+     */
+    public DefinedItem get(String name)
+    {
+        return (name != null) ? mByName.get(name) : null;
+    }
+
+    /**
+     * Finds the item DEFined with this name ignoring case, as used by ROUTEs.
+     * @return the last item with the name or null if the name is not DEFined
+     */
+    public DefinedItem getIgnoreCase(String name)
+    {
+        return (name != null) ? mByLowerCaseName.get(name.toLowerCase(Locale.ENGLISH)) : null;
+    }
+
+    /**
+     * @return the item whose SXRRenderData is {@code renderData}, or null
+     */
+    public DefinedItem findByRenderData(SXRRenderData renderData)
+    {
+        return mByRenderData.get(renderData);
+    }
+
+    /**
+     * @return the item whose SXRTexture is {@code texture}, or null
+     */
+    public DefinedItem findByTexture(SXRTexture texture)
+    {
+        return mByTexture.get(texture);
+    }
+
+    /**
+     * @return the node DEFined with this name or null
+     */
+    public SXRNode getNode(String name)
+    {
+        DefinedItem item = get(name);
+        return (item != null) ? item.getSXRNode() : null;
+    }
+
+    /**
+     * @return the material DEFined with this name or null
+     */
+    public SXRMaterial getMaterial(String name)
+    {
+        DefinedItem item = get(name);
+        return (item != null) ? item.getSXRMaterial() : null;
+    }
+
+    /**
+     * @return the texture DEFined with this name or null
+     */
+    public SXRTexture getTexture(String name)
+    {
+        DefinedItem item = get(name);
+        return (item != null) ? item.getSXRTexture() : null;
+    }
+
+    /**
+     * @return the mesh DEFined with this name or null
+     */
+    public SXRMesh getMesh(String name)
+    {
+        DefinedItem item = get(name);
+        return (item != null) ? item.getSXRMesh() : null;
+    }
+
+    /**
+     * Removes all items.
+     */
+    public void clear()
+    {
+        for (DefinedItem item : mItems)
+        {
+            item.setTable(null);
+        }
+        mItems.clear();
+        mByName.clear();
+        mByLowerCaseName.clear();
+        mByRenderData.clear();
+        mByTexture.clear();
+    }
+
+    @Override
+    public Iterator<DefinedItem> iterator()
+    {
+        return mItems.iterator();
+    }
+
+    /*
+     * Called by DefinedItem when the indexed fields change
+     * after the item has been added.
+     */
+    void onNameChanged(DefinedItem item, String oldName, String newName)
+    {
+        if (oldName != null)
+        {
+            String lowerName = oldName.toLowerCase(Locale.ENGLISH);
+
+            if ((mByName.get(oldName) == item) || (mByLowerCaseName.get(lowerName) == item))
+            {
+                mByName.remove(oldName);
+                mByLowerCaseName.remove(lowerName);
+                // another item may have the same name
+                for (DefinedItem other : mItems)
+                {
+                    if ((other != item) && oldName.equalsIgnoreCase(other.getName()))
+                    {
+                        indexName(other, other.getName());
+                    }
+                }
+            }
+        }
+        indexName(item, newName);
+    }
+
+    void onRenderDataChanged(DefinedItem item, SXRRenderData oldData, SXRRenderData newData)
+    {
+        if ((oldData != null) && (mByRenderData.get(oldData) == item))
+        {
+            mByRenderData.remove(oldData);
+        }
+        if ((newData != null) && !mByRenderData.containsKey(newData))
+        {
+            mByRenderData.put(newData, item);
+        }
+    }
+
+    void onTextureChanged(DefinedItem item, SXRTexture oldTex, SXRTexture newTex)
+    {
+        if ((oldTex != null) && (mByTexture.get(oldTex) == item))
+        {
+            mByTexture.remove(oldTex);
+        }
+        if ((newTex != null) && !mByTexture.containsKey(newTex))
+        {
+            mByTexture.put(newTex, item);
+        }
+    }
+
+    private void indexItem(DefinedItem item)
+    {
+        indexName(item, item.getName());
+        if (item.getSXRRenderData() != null)
+        {
+            onRenderDataChanged(item, null, item.getSXRRenderData());
+        }
+        if (item.getSXRTexture() != null)
+        {
+            onTextureChanged(item, null, item.getSXRTexture());
+        }
+    }
+
+    private void indexName(DefinedItem item, String name)
+    {
+        if (name == null)
+        {
+            return;
+        }
+        // USE finds the first DEF
+        if (!mByName.containsKey(name))
+        {
+            mByName.put(name, item);
+        }
+        // ROUTE finds the last DEF
+        mByLowerCaseName.put(name.toLowerCase(Locale.ENGLISH), item);
+    }
+}
@@ -36,6 +36,7 @@ import com.samsungxr.SXRIndexBuffer;
 import com.samsungxr.SXRVertexBuffer;
 import com.samsungxr.nodes.SXRVideoNodePlayer;
 import com.samsungxr.utility.Log;
+import com.samsungxr.utility.VertexWelder;
 import org.joml.Vector3f;
 
 import java.io.IOException;
@@ -43,8 +44,6 @@ import java.io.StreamTokenizer;
 import java.io.StringReader;
 import java.util.Arrays;
 import java.util.EnumSet;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Vector;
 
 import static com.samsungxr.x3d.X3Dobject.*;
@@ -62,6 +61,8 @@ public class Utility
     X3Dobject mX3DObject;
     MeshCreatorX meshCreator;
     SXRContext gvrContext;
+    private final X3DNumberScanner mScanner = new X3DNumberScanner();
+    private final MeshCreatorX.FloatArray mFloats = new MeshCreatorX.FloatArray(256);
 
     public Utility()
     {
@@ -79,69 +80,26 @@ public class Utility
         mX3DObject = x3dObject;
         this.gvrContext = _gvrContext;
         meshCreator = new MeshCreatorX(gvrContext, settings);
+        meshCreator.setWeldEpsilon(X3Dobject.getWeldEpsilon());
     }
 
 
     public float[] parseFixedLengthFloatString(String numberString,
                                                 int componentCount, boolean constrained0to1, boolean zeroOrGreater) {
-        StringReader sr = new StringReader(numberString);
-        StreamTokenizer st = new StreamTokenizer(sr);
-        st.parseNumbers();
-        int tokenType;
         float componentFloat[] = new float[componentCount];
-        try {
-            for (int i = 0; i < componentCount; i++) {
-                if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                    componentFloat[i] = (float) st.nval;
-                } else { // check for an exponent 'e'
-                    if (tokenType == StreamTokenizer.TT_WORD) {
-                        String word = st.sval;
-                        if (word.startsWith("e-")) { // negative exponent
-                            String exponentString = word.substring(2, word.length());
-                            try {
-                                --i; // with this exponent, we are still working with the
-                                // previous number
-                                Integer exponentInt = Integer.parseInt(exponentString);
-                                componentFloat[i] *= (float) Math
-                                        .pow(10, -exponentInt.intValue());
-                            } catch (NumberFormatException e) {
-                                Log.e(TAG,
-                                        "parsing fixed length string, exponent number conversion error: "
-                                                + exponentString);
-                            }
-                        } else if (word.equalsIgnoreCase("e")) { // exponent with plus sign
-                            tokenType = st.nextToken();
-                            if (tokenType == 43) { // "+" plus sign
-                                if ((tokenType = st.nextToken()) == StreamTokenizer.TT_NUMBER) {
-                                    --i; // with this exponent, we are still working with the
-                                    // previous number
-                                    float exponent = (float) st.nval;
-                                    componentFloat[i] *= (float) Math.pow(10, exponent);
-                                } else {
-                                    st.pushBack();
-                                    Log.e(TAG,
-                                            "Error: exponent in X3D parser with fixed length float");
-                                }
-                            } else
-                                st.pushBack();
-                        } else
-                            st.pushBack();
-                    }
-                } // end check for 'e' exponent
-                if (constrained0to1) {
-                    if (componentFloat[i] < 0)
-                        componentFloat[i] = 0;
-                    else if (componentFloat[i] > 1)
-                        componentFloat[i] = 1;
-                } else if (zeroOrGreater) {
-                    if (componentFloat[i] < 0)
-                        componentFloat[i] = 0;
-                }
-            } // end for-loop
-        } // end 'try'
-        catch (IOException e) {
-            Log.d(TAG, "Error parsing fixed length float string: " + e);
-        }
+        mScanner.reset(numberString);
+        for (int i = 0; (i < componentCount) && mScanner.hasNext(); i++) {
+            componentFloat[i] = mScanner.nextFloat();
+            if (constrained0to1) {
+                if (componentFloat[i] < 0)
+                    componentFloat[i] = 0;
+                else if (componentFloat[i] > 1)
+                    componentFloat[i] = 1;
+            } else if (zeroOrGreater) {
+                if (componentFloat[i] < 0)
+                    componentFloat[i] = 0;
+            }
+        } // end for-loop
         return componentFloat;
     } // end parseFixedLengthFloatString
 
@@ -172,24 +130,22 @@ public class Utility
     }  //  end parseBooleanString
 
     public int parseIntegerString(String numberString) {
-        StringReader sr = new StringReader(numberString);
-        StreamTokenizer st = new StreamTokenizer(sr);
-        st.parseNumbers();
-        int tokenType;
-        int returnValue = 0;
+        mScanner.reset(numberString);
+        return mScanner.isNumberFirst() ? mScanner.nextInt() : 0;
+    } // end parseIntegerString
 
-        try {
-            if ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                if (tokenType == StreamTokenizer.TT_NUMBER) {
-                    returnValue = (int) st.nval;
-                }
-            }
-        }
-        catch (IOException e) {
-            Log.e(TAG, "Error: parseIntegerString - " + e);
+    /*
+     * Parse a variable length list of floats, such as an interpolator
+     * key or keyValue, into a float array without boxing.
+     */
+    public float[] parseFloatArray(String numberString) {
+        mFloats.clear();
+        mScanner.reset(numberString);
+        while (mScanner.hasNext()) {
+            mFloats.add(mScanner.nextFloat());
         }
-        return returnValue;
-    } // end parseIntegerString
+        return mFloats.toArray();
+    } // end parseFloatArray
 
     // multi-field string
     public String[] parseMFString(String mfString) {
@@ -223,165 +179,60 @@ public class Utility
 
     protected void parseNumbersString(String numberString, int componentType,
                                     int componentCount) {
-        //preprocessing to get rid of 'e' or 'E' exponent
-        // otherwise the SAX parser splits 3e-2 (which is .03) into two
-        // number, 3 and -2.
-        if ( (numberString.indexOf('e') != -1) || (numberString.indexOf('E') != -1) ) {
-            int stringPos = 0;
-            String newReplacementString = "";
-            // we do assume the numberString won't be mixing 'e' and 'E'
-            // but we want to handle any either character
-            char eChar = 'e';
-            if ( numberString.indexOf('E') != -1 ) eChar = 'E';
-            while (numberString.indexOf(eChar, stringPos) != -1)  {
-                int ePos = numberString.indexOf(eChar, stringPos);
-                // check for the first space or comma before 'e'.
-                int prevSpaceBefore_e = Math.max( (numberString.lastIndexOf(' ', ePos)), (numberString.lastIndexOf(',', ePos)) );
-                prevSpaceBefore_e++;
-                // Copy from the current position until the comma or space before the 'e'
-                newReplacementString += numberString.substring(stringPos, prevSpaceBefore_e);
-                // check for the next space or comma after 'e'.
-                // Otherwise, we might be at the end of the string.
-                int nextSpaceAfter_e = Math.min( (numberString.indexOf(' ', ePos)), (numberString.indexOf(',', ePos)) );
-                if (nextSpaceAfter_e == -1) {
-                    // at the end of the original string, find the last space, comma or EOL of the string
-                    nextSpaceAfter_e = Math.max( (numberString.indexOf(' ', ePos)), (numberString.indexOf(',', ePos)) );
-                    if (nextSpaceAfter_e == -1) nextSpaceAfter_e = Math.max( nextSpaceAfter_e, numberString.length() );
-                }
-                String exponentString = numberString.substring(ePos+1, nextSpaceAfter_e);
-                try {
-                    double newReplacementNumber =
-                            ( (float) (new Float( numberString.substring(prevSpaceBefore_e, ePos) )) )
-                                    * Math.pow(10, (int) (new Integer(exponentString)) );
-                    // At < 1/1000th, it might be more efficient as 0.
-                    if ( Math.abs(newReplacementNumber) < .001 ) newReplacementNumber = 0;
-                    newReplacementString += " " + newReplacementNumber + " ";
-                }
-                catch (java.lang.NumberFormatException exception) {
-                    Log.e(TAG, "NumberFormatException in " + numberString.substring(prevSpaceBefore_e, nextSpaceAfter_e) + "; " + exception);
-                }
-                catch (Exception exception) {
-                    Log.e(TAG, "Exception in " + numberString.substring(prevSpaceBefore_e, nextSpaceAfter_e) + "; " + exception);
-                }
-                stringPos = nextSpaceAfter_e;
-            }
-            // Add any remainder of a string
-            numberString = newReplacementString + numberString.substring(stringPos, numberString.length());
-        }
-        StringReader sr = new StringReader(numberString);
-        StreamTokenizer st = new StreamTokenizer(sr);
-        st.parseNumbers();
-        int tokenType;
-        short componentShort[] = new short[componentCount];
         float componentFloat[] = new float[componentCount];
-        try {
-            int index = 0;
-            while ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                if (tokenType == StreamTokenizer.TT_NUMBER) {
-
-                    // first componentType's parse for short values
-                    // (integers) and will have no exponents
-
-                    if (componentType == indexedFaceSetComponent) {
-                        if ((int) st.nval != -1) {
-                            meshCreator.addPositionIndex((int) st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                index = 0;
-                            }
-                        }
-                    } else if (componentType == textureIndexComponent) {
-                        if ((int) st.nval != -1) {
-                            meshCreator.addTexcoordIndex((int) st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                index = 0;
-                            }
-                        }
-                    } else if (componentType == normalIndexComponent) {
-                        if ((int) st.nval != -1) {
-                            meshCreator.addNormalIndex((int) st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                index = 0;
-                            }
-                        }
-                    }
-
-                    // The rest of these will be parsing floats that could
-                    // have 'e' exponent value.  3DSMax will export X3D/VRML
-                    // with the 'e' exponent
-                    //TODO: check for 'e' exponent values.
-
-                    else if (componentType == verticesComponent) {
-                        componentFloat[index] = (float) (st.nval);
-                        index++;
-                        if (index == componentCount) {
-                            meshCreator.addInputPosition(componentFloat);
-                            index = 0;
-                        }
-                    } else if (componentType == textureCoordComponent) {
-                        componentFloat[index] = (float) st.nval;
-                        index++;
-                        if (index == componentCount) {
-                            meshCreator.addInputTexcoord(componentFloat);
-                            index = 0;
-                        }
-                    } else if (componentType == normalsComponent) {
-                        componentFloat[index] = (float) st.nval;
-                        index++;
-                        if (index == componentCount) {
-                            meshCreator.addInputNormal(componentFloat);
-                            index = 0;
-                        }
-                    } else if (componentType == interpolatorKeyComponent) {
-                        componentFloat[index] = (float) st.nval;
-                        index++;
-                        if (index == componentCount) {
-                            mX3DObject.AddKeys(componentFloat[0]);
-                            index = 0;
-                        }
-                    } else if (componentType == interpolatorKeyValueComponent) {
-                        componentFloat[index] = (float) st.nval;
-                        index++;
-                        if (index == componentCount) {
-                            mX3DObject.AddKeyValues(componentFloat);
-                            index = 0;
-                        }
-                    } else if (componentType == LODComponent) {
-                        componentFloat[index] = (float) st.nval;
-                        mX3DObject.AddKeys(componentFloat[0]);
-                    } else if (componentType == elevationGridHeight) {
-                        // Elevation Grid not currently supported
-                        mX3DObject.floatArray.add(new Float((float) st.nval));
-                    }
-
-                } // end if token = number
-            } // end while loop
-        } // end try statement
-        catch (IOException e) {
-            Log.e(TAG, "Error: parseNumbersString - " + e);
-        }
+        int index = 0;
+
+        mScanner.reset(numberString);
+        while (mScanner.hasNext()) {
+            // first componentType's parse for integer indices
+            if (componentType == indexedFaceSetComponent) {
+                int value = mScanner.nextInt();
+                if (value != -1) {
+                    meshCreator.addPositionIndex(value);
+                }
+            } else if (componentType == textureIndexComponent) {
+                int value = mScanner.nextInt();
+                if (value != -1) {
+                    meshCreator.addTexcoordIndex(value);
+                }
+            } else if (componentType == normalIndexComponent) {
+                int value = mScanner.nextInt();
+                if (value != -1) {
+                    meshCreator.addNormalIndex(value);
+                }
+            }
+
+            // The rest of these will be parsing floats that could
+            // have 'e' exponent value.  3DSMax will export X3D/VRML
+            // with the 'e' exponent
+
+            else if (componentType == verticesComponent) {
+                componentFloat[index] = mScanner.nextFloat();
+                index++;
+                if (index == componentCount) {
+                    meshCreator.addInputPosition(componentFloat);
+                    index = 0;
+                }
+            } else if (componentType == textureCoordComponent) {
+                componentFloat[index] = mScanner.nextFloat();
+                index++;
+                if (index == componentCount) {
+                    meshCreator.addInputTexcoord(componentFloat);
+                    index = 0;
+                }
+            } else if (componentType == normalsComponent) {
+                componentFloat[index] = mScanner.nextFloat();
+                index++;
+                if (index == componentCount) {
+                    meshCreator.addInputNormal(componentFloat);
+                    index = 0;
+                }
+            } else {
+                mScanner.nextFloat();
+            }
+        } // end while loop
     } // parseNumbersString
 
-    /*
-    private void AddKeys(float key)
-    {
-        Key newKey = new Key(key);
-        X3Dobject.keys.add(newKey);
-    }
-
-
-    private void AddKeyValues(float[] values)
-
-    {
-        KeyValue newKeyValue = new KeyValue(values);
-        keyValues.add(newKeyValue);
-    }
-    */
-
-
-
     /**
      * This class facilitates construction of GearVRF meshes from X3D data.
      * X3D can have different indices for positions, normals and texture coordinates.
@@ -414,6 +265,11 @@ public class Utility
 
             float[] array() { return mData; }
 
+            float[] toArray()
+            {
+                return (mData == null) ? new float[0] : Arrays.copyOf(mData, mCurSize);
+            }
+
             int getSize() { return mCurSize; }
 
             void fill(float v) { Arrays.fill(mData, v); }
@@ -458,21 +314,36 @@ public class Utility
                 v.z = mData[index + 2];
             }
 
-            void add(float[] entry)
+            void add(float v)
             {
                 if (mData == null)
                 {
                     mData = new float[mMinSize];
                 }
-                else if (mCurSize + entry.length > mData.length)
+                else if (mCurSize + 1 > mData.length)
                 {
-                    mData = Arrays.copyOf(mData, (mCurSize * 3) / 2);
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + 1));
                 }
-                for (int i = 0; i < entry.length; ++i)
+                mData[mCurSize++] = v;
+            }
+
+            void add(float[] entry)
+            {
+                add(entry, 0, entry.length);
+            }
+
+            void add(float[] entry, int offset, int count)
+            {
+                if (mData == null)
+                {
+                    mData = new float[Math.max(mMinSize, count)];
+                }
+                else if (mCurSize + count > mData.length)
                 {
-                    mData[mCurSize + i] = entry[i];
+                    mData = Arrays.copyOf(mData, Math.max((mCurSize * 3) / 2, mCurSize + count));
                 }
-                mCurSize += entry.length;
+                System.arraycopy(entry, offset, mData, mCurSize, count);
+                mCurSize += count;
             }
         };
 
@@ -549,6 +420,8 @@ public class Utility
         private float mMaxYTexcoord = Float.NEGATIVE_INFINITY;
         private boolean mUseNormals;
         private boolean mUseTexCoords;
+        private VertexWelder mWelder;
+        private float mWeldEpsilon = 0.0f;
 
         MeshCreatorX(SXRContext ctx, EnumSet<SXRImportSettings> settings)
         {
@@ -572,6 +445,17 @@ public class Utility
             mMaxYTexcoord = Float.NEGATIVE_INFINITY;
         }
 
+        /*
+         * Set the tolerance used to merge vertices which only differ
+         * by floating point noise. The default of 0 only merges
+         * identical vertices.
+         */
+        void setWeldEpsilon(float epsilon)
+        {
+            mWeldEpsilon = epsilon;
+            mWelder = null;
+        }
+
         void defineVertexBuffer(DefinedItem item)
         {
             mVertexBufferDefine = item;
@@ -782,54 +666,62 @@ public class Utility
              * vertex table to duplicate vertices in the cases where
              * a position has more than one normal or textoord.
              */
-            Map<String, Integer> vertexMap = new LinkedHashMap<String, Integer>();
             int[] newIndices = new int[mPositionIndices.getSize()];
-            float[] pos = new float[3];
-            float[] norm = new float[3];
-            float[] tc = new float[2];
             int[] normalIndices = (mNormalIndices.getSize() > 0) ? mNormalIndices.array() : mPositionIndices.array();
             int[] texcoordIndices = (mTexcoordIndices.getSize() > 0) ? mTexcoordIndices.array() : mPositionIndices.array();
+            int vertexSize = 3 + (hasTexCoords ? 2 : 0) + (hasNormals ? 3 : 0);
+            float[] vertex = new float[vertexSize];
+            float[] inputPositions = mInputPositions.array();
+            float[] inputNormals = mInputNormals.array();
+            float[] inputTexCoords = mInputTexCoords.array();
 
+            if ((mWelder == null) || (mWelder.getVertexSize() != vertexSize))
+            {
+                mWelder = new VertexWelder(vertexSize, mInputPositions.getSize() / 3, mWeldEpsilon);
+            }
+            else
+            {
+                mWelder.clear(mInputPositions.getSize() / 3);
+            }
             /*
              * Scan all the faces and compose the set of unique vertices
              * (where a vertex has a position, normal and texcoord)
              */
             mOutputPositions.setCapacity(mInputPositions.getSize());
-            for (char f = 0; f < mPositionIndices.getSize(); f++)
+            for (int f = 0; f < mPositionIndices.getSize(); f++)
             {
-                String key = "";
                 int vindex = mPositionIndices.get(f) * 3;
+                int v = 0;
 
-                mInputPositions.get(vindex, pos);
-                key += String.valueOf(pos[0]) + String.valueOf(pos[1]) + String.valueOf(pos[2]);
+                vertex[v++] = inputPositions[vindex];
+                vertex[v++] = inputPositions[vindex + 1];
+                vertex[v++] = inputPositions[vindex + 2];
                 if (hasTexCoords)
                 {
                     int tindex = texcoordIndices[f] * 2;
-                    mInputTexCoords.get(tindex, tc);
+                    vertex[v++] = inputTexCoords[tindex];
                     // flip the Y texture coordinate
-                    //tc[1] = -tc[1];
-                    tc[1] = mMaxYTexcoord - tc[1];
-                    key += String.valueOf(tc[0]) + String.valueOf(tc[1]);
+                    vertex[v++] = mMaxYTexcoord - inputTexCoords[tindex + 1];
                 }
                 if (hasNormals)
                 {
                     int nindex = normalIndices[f] * 3;
-                    mInputNormals.get(nindex, norm);
-                    key += String.valueOf(norm[0]) + String.valueOf(norm[1]) + String.valueOf(norm[2]);
+                    vertex[v++] = inputNormals[nindex];
+                    vertex[v++] = inputNormals[nindex + 1];
+                    vertex[v++] = inputNormals[nindex + 2];
                 }
-                Integer newindex = vertexMap.get(key);
-                if (newindex == null)
+                int numVertices = mWelder.getVertexCount();
+                int newindex = mWelder.add(vertex, 0);
+                if (newindex == numVertices)
                 {
-                    newindex = vertexMap.size();
-                    vertexMap.put(key, newindex);
-                    mOutputPositions.add(pos);
-                    if (hasNormals)
+                    mOutputPositions.add(vertex, 0, 3);
+                    if (hasTexCoords)
                     {
-                        mOutputNormals.add(norm);
+                        mOutputTexCoords.add(vertex, 3, 2);
                     }
-                    if (hasTexCoords)
+                    if (hasNormals)
                     {
-                        mOutputTexCoords.add(tc);
+                        mOutputNormals.add(vertex, hasTexCoords ? 5 : 3, 3);
                     }
                 }
                 newIndices[f] = newindex;
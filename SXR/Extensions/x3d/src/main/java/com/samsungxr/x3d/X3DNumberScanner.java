@@ -0,0 +1,275 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.x3d;
+
+/**
+ * Scans numbers out of X3D attribute strings such as
+ * {@code Coordinate point}, {@code coordIndex} or interpolator
+ * {@code key} and {@code keyValue}.
+ * <p>
+ * Numbers are separated by white space and/or commas and may have an
+ * exponent (3DSMax exports "3e-2"). Tokens which are not numbers are
+ * skipped. The scanner reads the characters of the string in place
+ * and never allocates or boxes, so one instance can be reused for
+ * every attribute of a file.
+ */
+final class X3DNumberScanner
+{
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private String mText;
+    private int mPos;
+    private int mLength;
+
+    X3DNumberScanner()
+    {
+        reset("");
+    }
+
+    /**
+     * Start scanning a new string.
+     */
+    void reset(String text)
+    {
+        mText = text;
+        mPos = 0;
+        mLength = text.length();
+    }
+
+    /**
+     * Skips separators and non-numeric tokens.
+     * @return true if there is another number to read
+     */
+    boolean hasNext()
+    {
+        while (mPos < mLength)
+        {
+            char c = mText.charAt(mPos);
+
+            if (isSeparator(c))
+            {
+                ++mPos;
+            }
+            else if (isNumberStart(mPos))
+            {
+                return true;
+            }
+            else
+            {
+                skipToken();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips white space and checks if the first token is a number,
+     * like StreamTokenizer would. Unlike {@link #hasNext()} a leading
+     * word or comma is not skipped.
+     * @return true if the next token is a number
+     */
+    boolean isNumberFirst()
+    {
+        while ((mPos < mLength) && (mText.charAt(mPos) <= ' '))
+        {
+            ++mPos;
+        }
+        return (mPos < mLength) && isNumberStart(mPos);
+    }
+
+    /**
+     * Reads the next number as a float.
+     * Must only be called after {@link #hasNext()} returned true.
+     */
+    float nextFloat()
+    {
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        char c = mText.charAt(mPos);
+
+        if ((c == '-') || (c == '+'))
+        {
+            negative = (c == '-');
+            ++mPos;
+        }
+        while ((mPos < mLength) && isDigit(c = mText.charAt(mPos)))
+        {
+            if (digits < MAX_MANTISSA_DIGITS)
+            {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0)
+                {
+                    ++digits;
+                }
+            }
+            else
+            {
+                ++exponent;
+            }
+            ++mPos;
+        }
+        if ((mPos < mLength) && (mText.charAt(mPos) == '.'))
+        {
+            ++mPos;
+            while ((mPos < mLength) && isDigit(c = mText.charAt(mPos)))
+            {
+                if (digits < MAX_MANTISSA_DIGITS)
+                {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0)
+                    {
+                        ++digits;
+                    }
+                    --exponent;
+                }
+                ++mPos;
+            }
+        }
+        if ((mPos < mLength) && (((c = mText.charAt(mPos)) == 'e') || (c == 'E')))
+        {
+            exponent += scanExponent();
+        }
+        skipToken();
+        double value = mantissa;
+
+        if (mantissa != 0)
+        {
+            if ((exponent >= 0) && (exponent < POWERS_OF_TEN.length))
+            {
+                value *= POWERS_OF_TEN[exponent];
+            }
+            else if ((exponent < 0) && (-exponent < POWERS_OF_TEN.length))
+            {
+                value /= POWERS_OF_TEN[-exponent];
+            }
+            else
+            {
+                value *= Math.pow(10, exponent);
+            }
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Reads the next number as an int. Numbers with a
+     * fraction or exponent are truncated.
+     * Must only be called after {@link #hasNext()} returned true.
+     */
+    int nextInt()
+    {
+        final int start = mPos;
+        boolean negative = false;
+        int value = 0;
+        char c = mText.charAt(mPos);
+
+        if ((c == '-') || (c == '+'))
+        {
+            negative = (c == '-');
+            ++mPos;
+        }
+        while ((mPos < mLength) && isDigit(c = mText.charAt(mPos)))
+        {
+            value = value * 10 + (c - '0');
+            ++mPos;
+        }
+        if ((mPos < mLength) && ((c == '.') || (c == 'e') || (c == 'E')))
+        {
+            mPos = start;
+            return (int) nextFloat();
+        }
+        skipToken();
+        return negative ? -value : value;
+    }
+
+    /*
+     * Scans "e-2" or "E+10" at the current position.
+     * If no digits follow the 'e' it is ignored.
+     */
+    private int scanExponent()
+    {
+        int pos = mPos + 1;
+        boolean negative = false;
+        int exponent = 0;
+
+        if (pos < mLength)
+        {
+            char c = mText.charAt(pos);
+            if ((c == '-') || (c == '+'))
+            {
+                negative = (c == '-');
+                ++pos;
+            }
+        }
+        if ((pos >= mLength) || !isDigit(mText.charAt(pos)))
+        {
+            return 0;
+        }
+        char c;
+        while ((pos < mLength) && isDigit(c = mText.charAt(pos)))
+        {
+            if (exponent < 10000)
+            {
+                exponent = exponent * 10 + (c - '0');
+            }
+            ++pos;
+        }
+        mPos = pos;
+        return negative ? -exponent : exponent;
+    }
+
+    private void skipToken()
+    {
+        while ((mPos < mLength) && !isSeparator(mText.charAt(mPos)))
+        {
+            ++mPos;
+        }
+    }
+
+    private boolean isNumberStart(int pos)
+    {
+        char c = mText.charAt(pos);
+
+        if ((c == '-') || (c == '+'))
+        {
+            if (++pos >= mLength)
+            {
+                return false;
+            }
+            c = mText.charAt(pos);
+        }
+        if (c == '.')
+        {
+            return (++pos < mLength) && isDigit(mText.charAt(pos));
+        }
+        return isDigit(c);
+    }
+
+    private static boolean isDigit(char c)
+    {
+        return (c >= '0') && (c <= '9');
+    }
+
+    private static boolean isSeparator(char c)
+    {
+        return (c <= ' ') || (c == ',');
+    }
+}
@@ -148,6 +148,9 @@ public class X3Dobject {
     // Default is true to use Universal lights shader.
     public final static boolean UNIVERSAL_LIGHTS = true;
 
+    // Tolerance used to merge vertices of IndexedFaceSets
+    private static volatile float sWeldEpsilon = 0.0f;
+
     private final static String JAVASCRIPT_IMPORT_PACKAGE = "importPackage(com.samsungxr.x3d.data_types)\nimportPackage(org.joml)\nimportPackage(com.samsungxr)";
 
     // Strings appended to SXRScene names when there are multiple
@@ -173,10 +176,6 @@ public class X3Dobject {
     protected final static int indexedFaceSetComponent = 4;
     protected final static int normalIndexComponent = 5;
     protected final static int textureIndexComponent = 6;
-    protected final static int interpolatorKeyComponent = 7;
-    protected final static int interpolatorKeyValueComponent = 8;
-    protected final static int LODComponent = 9;
-    protected final static int elevationGridHeight = 10;
     private boolean reorganizeVerts = false;
 
     private static final float CUBE_WIDTH = 20.0f; // used for cube maps
@@ -197,6 +196,8 @@ public class X3Dobject {
      * getElementByTagName() method.
      */
     public Vector<DefinedItem> mDefinedItems = new Vector<DefinedItem>();
+    // Index of mDefinedItems by name, render data and texture
+    private final DefinedItemTable mDefinedItemTable = new DefinedItemTable(mDefinedItems);
 
 
     // When Translation object has multiple properties (center, scale, rotation
@@ -237,10 +238,6 @@ public class X3Dobject {
     private SXRTexture gvrTexture = null;
     private ArrayList<ScriptObject> scriptObjects = new ArrayList<ScriptObject>();
 
-    protected Vector<Key> keys = new Vector<Key>();
-    protected Vector<KeyValue> keyValues = new Vector<KeyValue>();
-    protected Vector<Float> floatArray = new Vector<Float>();
-
     private Vector<TimeSensor> timeSensors = new Vector<TimeSensor>();
     private Vector<Interpolator> interpolators = new Vector<Interpolator>();
 
@@ -359,12 +356,7 @@ public class X3Dobject {
                             // <Shape> node created an unused gvrRenderData
                             // Check if we had a DEF in Shape node so that we can point to
                             // the new gvrRenderData
-                            for (DefinedItem definedItem : mDefinedItems) {
-                                if (definedItem.getSXRRenderData() == gvrRenderData) {
-                                    definedGRRenderingData = definedItem;
-                                    break;
-                                }
-                            }
+                            definedGRRenderingData = mDefinedItemTable.findByRenderData(gvrRenderData);
                         }
                         gvrRenderData = meshAttachedNode.getRenderData();
                         // reset the DEF item to now point to the shader
@@ -394,7 +386,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(
                                 shaderSettings.getMaterialName());
                         definedItem.setSXRMaterial(gvrMaterial);
-                        mDefinedItems.add(definedItem); // Add gvrMaterial to Array list
+                        mDefinedItemTable.add(definedItem); // Add gvrMaterial to Array list
                         // of DEFined items Clones
                         // objects with USE
                     }
@@ -404,7 +396,7 @@ public class X3Dobject {
                             DefinedItem definedItem = new DefinedItem(
                                     shaderSettings.getMultiTextureName() );
                             definedItem.setSXRMaterial(gvrMaterial);
-                            mDefinedItems.add(definedItem); // Add gvrMaterial to Array list
+                            mDefinedItemTable.add(definedItem); // Add gvrMaterial to Array list
                         }
                         gvrMaterial.setTexture("diffuseTexture", shaderSettings.getMultiTextureSXRTexture(0) );
                         gvrMaterial.setTexture("diffuseTexture1", shaderSettings.getMultiTextureSXRTexture(1) );
@@ -420,11 +412,9 @@ public class X3Dobject {
                         // if the TextureMap is a DEFined item, then set the
                         // SXRMaterial to it as well to help if we set the
                         // in a SCRIPT node.
-                        for (DefinedItem definedItem: mDefinedItems) {
-                            if ( definedItem.getSXRTexture() == shaderSettings.texture) {
-                                definedItem.setSXRMaterial(gvrMaterial);
-                                break;
-                            }
+                        DefinedItem textureItem = mDefinedItemTable.findByTexture(shaderSettings.texture);
+                        if (textureItem != null) {
+                            textureItem.setSXRMaterial(gvrMaterial);
                         }
                     }
 
@@ -455,7 +445,7 @@ public class X3Dobject {
                                 gvrVideoNode.setName(shaderSettings.getMovieTextureName());
                                 DefinedItem item = new DefinedItem(shaderSettings.getMovieTextureName());
                                 item.setSXRVideoNode(gvrVideoNode);
-                                mDefinedItems.add(item);
+                                mDefinedItemTable.add(item);
                             }
                         } catch (Exception e) {
                             e.printStackTrace();
@@ -478,7 +468,7 @@ public class X3Dobject {
                             definedItem.setTextureScale(shaderSettings.getTextureScale());
                             definedItem.setTextureRotation(shaderSettings.getTextureRotation().getValue());
                             definedItem.setName(shaderSettings.getTextureTransformName());
-                            mDefinedItems.add(definedItem); // Add gvrMaterial to Array list
+                            mDefinedItemTable.add(definedItem); // Add gvrMaterial to Array list
                         }
                         // Texture Transform Matrix equation:
                         // TC' = -C * S * R * C * T * TC
@@ -503,7 +493,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(
                                 shaderSettings.getAppearanceName());
                         definedItem.setSXRMaterial(gvrMaterial);
-                        mDefinedItems.add(definedItem);
+                        mDefinedItemTable.add(definedItem);
                         // Add gvrMaterial to Array list
                         // of DEFined items Clones
                         // objects with USE
@@ -586,7 +576,7 @@ public class X3Dobject {
             lodManager = new LODmanager(root);
 
             animationInteractivityManager = new AnimationInteractivityManager(
-                    this, gvrContext, root, mDefinedItems, interpolators,
+                    this, gvrContext, root, mDefinedItemTable, interpolators,
                     sensors, timeSensors, eventUtilities, scriptObjects,
                     viewpoints, this.assetRequest
             );
@@ -596,25 +586,29 @@ public class X3Dobject {
     } // end Constructor
 
 
-    /*********************************************/
-    /********** Utility Functions to *************/
-    /************* Assist Parsing ****************/
-    /*********************************************/
-
-
-    protected void AddKeys(float key)
-
+    /**
+     * Sets the tolerance used to merge the vertices of IndexedFaceSets
+     * in the X3D files loaded afterwards. Vertex components are quantized
+     * to multiples of the tolerance before they are compared, so vertices
+     * which only differ by floating point noise share one index.
+     * @param epsilon tolerance, the default of 0 only merges identical vertices
+     */
+    public static void setWeldEpsilon(float epsilon)
     {
-        Key newKey = new Key(key);
-        keys.add(newKey);
+        if (epsilon < 0)
+        {
+            throw new IllegalArgumentException("epsilon must not be negative");
+        }
+        sWeldEpsilon = epsilon;
     }
 
-
-    protected void AddKeyValues(float[] values)
-
+    /**
+     * @return tolerance used to merge the vertices of IndexedFaceSets
+     * @see #setWeldEpsilon(float)
+     */
+    public static float getWeldEpsilon()
     {
-        KeyValue newKeyValue = new KeyValue(values);
-        keyValues.add(newKeyValue);
+        return sWeldEpsilon;
     }
 
 
@@ -637,13 +631,7 @@ public class X3Dobject {
             // causes an infinite loop in the renderer.
             // Solution therefore is to duplicate SXRNode(s) including children
             // and share the SXRMesh and SXRMaterials.
-            DefinedItem useItem = null;
-            for (DefinedItem definedItem : mDefinedItems) {
-                if (attributeValue.equals(definedItem.getName())) {
-                    useItem = definedItem;
-                    break;
-                }
-            }
+            DefinedItem useItem = mDefinedItemTable.get(attributeValue);
             if (useItem != null) {
                 // Get the SXRNode to replicate from the DEFinedItem list.
                 SXRNode gvrNodeDEFitem = useItem.getSXRNode();
@@ -868,7 +856,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(name, rotation[3],
                                 rotation[0], rotation[1], rotation[2]);
                         definedItem.setSXRNode(currentNode);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     } // end if DEF name and thus possible animation / interactivity
 
                     // Check if there is an active Level-of-Detail (LOD)
@@ -907,7 +895,7 @@ public class X3Dobject {
                         currentNode.setName(attributeValue);
                         DefinedItem definedItem = new DefinedItem(attributeValue);
                         definedItem.setSXRNode(currentNode);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     }
 
                     // Check if there is an active Level-of-Detail (LOD)
@@ -945,13 +933,7 @@ public class X3Dobject {
 
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) { // Shape node to be shared / re-used
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
                         // SXRRenderingData doesn't seem to be shared, but instead has an
                         // owner.  Thus share the SXRMesh and SXRMaterial attached to
@@ -970,7 +952,7 @@ public class X3Dobject {
                     if (attributeValue != null) {
                         DefinedItem definedItem = new DefinedItem(attributeValue);
                         definedItem.setSXRRenderData(gvrRenderData);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                         // Clones objects with USE
                     }
                     if ( proto != null) {
@@ -993,13 +975,7 @@ public class X3Dobject {
         /* This gives the X3D-only Shader */
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) { // shared Appearance node, SXRMaterial
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
                         gvrMaterial = useItem.getSXRMaterial();
                         gvrRenderData.setMaterial(gvrMaterial);
@@ -1028,13 +1004,7 @@ public class X3Dobject {
             else if (qName.equalsIgnoreCase("material")) {
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) {
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
                         gvrMaterial = useItem.getSXRMaterial();
                         gvrRenderData.setMaterial(gvrMaterial);
@@ -1115,13 +1085,7 @@ public class X3Dobject {
                 if ( !blockTexturing ) {
                     attributeValue = attributes.getValue("USE");
                     if (attributeValue != null) {
-                        DefinedItem useItem = null;
-                        for (DefinedItem definedItem : mDefinedItems) {
-                            if (attributeValue.equals(definedItem.getName())) {
-                                useItem = definedItem;
-                                break;
-                            }
-                        }
+                        DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                         if (useItem != null) {
                             gvrTexture = useItem.getSXRTexture();
                             shaderSettings.setTexture(gvrTexture);
@@ -1164,7 +1128,7 @@ public class X3Dobject {
                             if (defValue != null) {
                                 DefinedItem item = new DefinedItem(defValue);
                                 item.setSXRTexture(gvrTexture);
-                                mDefinedItems.add(item);
+                                mDefinedItemTable.add(item);
                             }
 
                             if ( shaderSettings.getMultiTexture() ) {
@@ -1322,13 +1286,7 @@ public class X3Dobject {
             else if (qName.equalsIgnoreCase("Coordinate")) {
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) { // Coordinate node to be shared / re-used
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
 
                         // 'useItem' points to SXRMesh who's useItem.getSXRMesh Coordinates
@@ -1346,7 +1304,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(attributeValue);
                             utility.meshCreator.defineVertexBuffer(definedItem);
                         // Array list of DEFined items clones objects with USE
-                        mDefinedItems.add(definedItem);
+                        mDefinedItemTable.add(definedItem);
                     }
                     String pointAttribute = attributes.getValue("point");
                     if (pointAttribute != null) {
@@ -1380,13 +1338,7 @@ public class X3Dobject {
             else if (qName.equalsIgnoreCase("TextureCoordinate")) {
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) { // Coordinate node to be shared / re-used
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
 
                         // 'useItem' points to SXRVertexBuffer who's useItem.getVertexBuffer
@@ -1406,7 +1358,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(attributeValue);
                             definedItem.setVertexBuffer(gvrVertexBuffer);
                         // Array list of DEFined items clones objects with USE
-                        mDefinedItems.add(definedItem);
+                        mDefinedItemTable.add(definedItem);
                     }
                     // Have to flip the y texture coordinates because the image will be
                     // upside down
@@ -1441,13 +1393,7 @@ public class X3Dobject {
             else if (qName.equalsIgnoreCase("Normal")) {
                 attributeValue = attributes.getValue("USE");
                 if (attributeValue != null) { // Coordinate node to be shared / re-used
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (attributeValue.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                     if (useItem != null) {
 
                         // 'useItem' points to SXRVertexBuffer who's useItem.getVertexBuffer Coordinates
@@ -1466,7 +1412,7 @@ public class X3Dobject {
                         DefinedItem definedItem = new DefinedItem(attributeValue);
                             definedItem.setVertexBuffer(gvrVertexBuffer);
                         // Array list of DEFined items clones objects with USE
-                        mDefinedItems.add(definedItem);
+                        mDefinedItemTable.add(definedItem);
                     }
                     String vectorAttribute = attributes.getValue("vector");
                     if (vectorAttribute != null) {
@@ -1500,13 +1446,7 @@ public class X3Dobject {
                 if (UNIVERSAL_LIGHTS && !blockLighting) {
                     attributeValue = attributes.getValue("USE");
                     if (attributeValue != null) { // shared PointLight
-                        DefinedItem useItem = null;
-                        for (DefinedItem definedItem : mDefinedItems) {
-                            if (attributeValue.equals(definedItem.getName())) {
-                                useItem = definedItem;
-                                break;
-                            }
-                        }
+                        DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                         if (useItem != null) {
                             // SXRf does not allow a light attached at two places
                             // so copy the attributes of the original light into the second
@@ -1573,7 +1513,7 @@ public class X3Dobject {
                             newPtLightSceneObj.setName(attributeValue);
                             DefinedItem definedItem = new DefinedItem(attributeValue);
                             definedItem.setSXRNode(newPtLightSceneObj);
-                            mDefinedItems.add(definedItem); // Array list of DEFined items
+                            mDefinedItemTable.add(definedItem); // Array list of DEFined items
                             // Clones objects with USE
                         }
                         attributeValue = attributes.getValue("ambientIntensity");
@@ -1648,13 +1588,7 @@ public class X3Dobject {
                 if (UNIVERSAL_LIGHTS && !blockLighting) {
                     attributeValue = attributes.getValue("USE");
                     if (attributeValue != null) { // shared PointLight
-                        DefinedItem useItem = null;
-                        for (DefinedItem definedItem : mDefinedItems) {
-                            if (attributeValue.equals(definedItem.getName())) {
-                                useItem = definedItem;
-                                break;
-                            }
-                        }
+                        DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                         if (useItem != null) {
                             // SXRf does not allow a light attached at two places
                             // so copy the attributes of the original light into the second
@@ -1714,7 +1648,7 @@ public class X3Dobject {
                             newDirectionalLightSceneObj.setName(attributeValue);
                             definedItem = new DefinedItem(attributeValue);
                             definedItem.setSXRNode(newDirectionalLightSceneObj);
-                            mDefinedItems.add(definedItem); // Array list of DEFined items
+                            mDefinedItemTable.add(definedItem); // Array list of DEFined items
                             // Clones objects with USE
                         }
                         attributeValue = attributes.getValue("ambientIntensity");
@@ -1777,13 +1711,7 @@ public class X3Dobject {
                 if (UNIVERSAL_LIGHTS && !blockLighting) {
                     attributeValue = attributes.getValue("USE");
                     if (attributeValue != null) { // shared PointLight
-                        DefinedItem useItem = null;
-                        for (DefinedItem definedItem : mDefinedItems) {
-                            if (attributeValue.equals(definedItem.getName())) {
-                                useItem = definedItem;
-                                break;
-                            }
-                        }
+                        DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                         if (useItem != null) {
                             // SXRf does not allow a light attached at two places
                             // so copy the attributes of the original light into the second
@@ -1867,7 +1795,7 @@ public class X3Dobject {
                             newSpotLightSceneObj.setName(attributeValue);
                             definedItem = new DefinedItem(attributeValue);
                             definedItem.setSXRNode(newSpotLightSceneObj);
-                            mDefinedItems.add(definedItem); // Array list of DEFined items
+                            mDefinedItemTable.add(definedItem); // Array list of DEFined items
                             // Clones objects with USE
                         }
                         attributeValue = attributes.getValue("ambientIntensity");
@@ -2059,29 +1987,16 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("key");
                     if (attributeValue != null) {
-                        utility.parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-
-                        keysList = new float[keys.size()];
-                        for (int i = 0; i < keysList.length; i++) {
-                            Key keyObject = keys.get(i);
-                            keysList[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        keysList = utility.parseFloatArray(attributeValue);
                     }
                     attributeValue = attributes.getValue("keyValue");
                     if (attributeValue != null) {
-                        utility.parseNumbersString(attributeValue,
-                                X3Dobject.interpolatorKeyValueComponent, 3);
-
-                        keyValuesList = new float[keyValues.size() * 3];
-                        for (int i = 0; i < keyValues.size(); i++) {
-                            KeyValue keyValueObject = keyValues.get(i);
-                            for (int j = 0; j < 3; j++) {
-                                keyValuesList[i * 3 + j] = keyValueObject.keyValues[j];
-                            }
+                        keyValuesList = utility.parseFloatArray(attributeValue);
+                        // ignore a trailing partial key value
+                        int numValues = keyValuesList.length - (keyValuesList.length % 3);
+                        if (numValues != keyValuesList.length) {
+                            keyValuesList = Arrays.copyOf(keyValuesList, numValues);
                         }
-                        keyValues.clear();
                     }
                     Interpolator newInterporlator = new Interpolator(name, keysList,
                             keyValuesList);
@@ -2102,29 +2017,16 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("key");
                     if (attributeValue != null) {
-                        utility.parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-
-                        keysList = new float[keys.size()];
-                        for (int i = 0; i < keysList.length; i++) {
-                            Key keyObject = keys.get(i);
-                            keysList[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        keysList = utility.parseFloatArray(attributeValue);
                     }
                     attributeValue = attributes.getValue("keyValue");
                     if (attributeValue != null) {
-                        utility.parseNumbersString(attributeValue,
-                                X3Dobject.interpolatorKeyValueComponent, 4);
-
-                        keyValuesList = new float[keyValues.size() * 4];
-                        for (int i = 0; i < keyValues.size(); i++) {
-                            KeyValue keyValueObject = keyValues.get(i);
-                            for (int j = 0; j < 4; j++) {
-                                keyValuesList[i * 4 + j] = keyValueObject.keyValues[j];
-                            }
+                        keyValuesList = utility.parseFloatArray(attributeValue);
+                        // ignore a trailing partial key value
+                        int numValues = keyValuesList.length - (keyValuesList.length % 4);
+                        if (numValues != keyValuesList.length) {
+                            keyValuesList = Arrays.copyOf(keyValuesList, numValues);
                         }
-                        keyValues.clear();
                     }
                     Interpolator newInterporlator = new Interpolator(name, keysList,
                             keyValuesList);
@@ -2379,7 +2281,7 @@ public class X3Dobject {
                     if ( !name.equals("") ) {
                         DefinedItem definedItem = new DefinedItem(name);
                         definedItem.setViewpoint(viewpoint);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     }
 
 
@@ -2402,15 +2304,7 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("length");
                     if (attributeValue != null) {
-                        // reusing the keys parsing here cause it works
-                        utility.parseNumbersString(attributeValue, X3Dobject.interpolatorKeyComponent,
-                                1);
-                        length = new float[keys.size()];
-                        for (int i = 0; i < length.length; i++) {
-                            Key keyObject = keys.get(i);
-                            length[i] = keyObject.key;
-                        }
-                        keys.clear();
+                        length = utility.parseFloatArray(attributeValue);
                         Log.e(TAG, "Text 'length' attribute currently not implemented.");
                     }
                     attributeValue = attributes.getValue("maxExtent");
@@ -2638,15 +2532,11 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("range");
                     if (attributeValue != null) {
-                        utility.parseNumbersString(attributeValue, X3Dobject.LODComponent, 1);
-                        range = new float[keys.size() + 2];
+                        float[] ranges = utility.parseFloatArray(attributeValue);
+                        range = new float[ranges.length + 2];
                         range[0] = 0;
-                        for (int i = 0; i < keys.size(); i++) {
-                            Key keyObject = keys.get(i);
-                            range[i + 1] = keyObject.key;
-                        }
+                        System.arraycopy(ranges, 0, range, 1, ranges.length);
                         range[range.length - 1] = Float.MAX_VALUE;
-                        keys.clear();
                     }
                     lodManager.set(range, center);
 
@@ -2683,7 +2573,7 @@ public class X3Dobject {
 
                     DefinedItem definedItem = new DefinedItem(currentNode.getName());
                     definedItem.setSXRNode(currentNode);
-                    mDefinedItems.add(definedItem); // Array list of DEFined items in the X3D scene
+                    mDefinedItemTable.add(definedItem); // Array list of DEFined items in the X3D scene
                 } // end <Switch> node
 
 
@@ -2967,13 +2857,7 @@ public class X3Dobject {
                 else if (qName.equalsIgnoreCase("MovieTexture")) {
                     attributeValue = attributes.getValue("USE");
                     if (attributeValue != null) {
-                        DefinedItem useItem = null;
-                        for (DefinedItem definedItem : mDefinedItems) {
-                            if (attributeValue.equals(definedItem.getName())) {
-                                useItem = definedItem;
-                                break;
-                            }
-                        }
+                        DefinedItem useItem = mDefinedItemTable.get(attributeValue);
                         if (useItem != null) {
                             Log.e(TAG, "MovieTexture USE not implemented");
                             gvrTexture = useItem.getSXRTexture();
@@ -3866,13 +3750,7 @@ public class X3Dobject {
             } else if (qName.equalsIgnoreCase("IndexedFaceSet")) {
                 if (indexedSetUSEName.length() > 0) {
                     //Using previously defined mesh
-                    DefinedItem useItem = null;
-                    for (DefinedItem definedItem : mDefinedItems) {
-                        if (indexedSetUSEName.equals(definedItem.getName())) {
-                            useItem = definedItem;
-                            break;
-                        }
-                    }
+                    DefinedItem useItem = mDefinedItemTable.get(indexedSetUSEName);
                     if (useItem != null) {
                         gvrRenderData.setMesh( useItem.getSXRMesh() );
                     }
@@ -3890,7 +3768,7 @@ public class X3Dobject {
                         // Save SXRMesh since it may be reused later.
                         DefinedItem definedItem = new DefinedItem(indexedSetDEFName);
                         definedItem.setSXRMesh(mesh);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     }
                     gvrRenderData.setMesh(mesh);
                     mesh.setIndexBuffer(gvrIndexBuffer);
@@ -3945,13 +3823,13 @@ public class X3Dobject {
                         // add it to the list of DEFined objects
                         DefinedItem definedItem = new DefinedItem(Text_FontParams.nameTextAttribute);
                         definedItem.setSXRTextViewNode(gvrTextViewNode);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     }
                     if (!Text_FontParams.nameFontStyle.equals("")) {
                         // add FontStyle to the list of DEFined objects
                         DefinedItem definedItem = new DefinedItem(Text_FontParams.nameFontStyle);
                         definedItem.setSXRTextViewNode(gvrTextViewNode);
-                        mDefinedItems.add(definedItem); // Array list of DEFined items
+                        mDefinedItemTable.add(definedItem); // Array list of DEFined items
                     }
 
                     gvrTextViewNode.setTextColor(Color.WHITE); // default
@@ -387,9 +387,8 @@ public class SXRAndroidResource {
             } else {
                 Log.d(TAG,
                         "Allow local caching, download the resource to local cache");
-                File file = SXRAssetLoader.downloadFile(context,
-                        url.toString());
-                stream = new MarkingFileInputStream(file);
+                // Opened by the cache so the file cannot be evicted before it is open
+                stream = SXRDownloadCache.getDefault(context).openStream(url.toString());
                 streamState = StreamStates.OPEN;
             }
             break;
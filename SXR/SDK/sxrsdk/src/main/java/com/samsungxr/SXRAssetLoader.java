@@ -35,24 +35,24 @@ import com.samsungxr.utility.ResourceCache;
 import com.samsungxr.utility.ResourceCacheBase;
 import com.samsungxr.utility.Threads;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
-import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * {@link SXRAssetLoader} provides methods for importing 3D models and textures.
@@ -567,11 +567,45 @@ public final class SXRAssetLoader {
     }
 
 
+    /*
+     * Sizes used to keep the texture and mesh caches within their memory budgets.
+     */
+    private static final ResourceCacheBase.Sizer<SXRImage> sImageSizer = new ResourceCacheBase.Sizer<SXRImage>()
+    {
+        @Override
+        public long sizeOf(SXRImage image)
+        {
+            return image.getSizeInBytes();
+        }
+    };
+
+    private static final ResourceCacheBase.Sizer<SXRMesh> sMeshSizer = new ResourceCacheBase.Sizer<SXRMesh>()
+    {
+        @Override
+        public long sizeOf(SXRMesh mesh)
+        {
+            SXRVertexBuffer vbuf = mesh.getVertexBuffer();
+            SXRIndexBuffer ibuf = mesh.getIndexBuffer();
+            long size = 0;
+
+            if (vbuf != null)
+            {
+                size += (long) vbuf.getVertexCount() * getVertexSize(vbuf.getDescriptor());
+            }
+            if (ibuf != null)
+            {
+                size += (long) ibuf.getIndexCount() * ibuf.getIndexSize();
+            }
+            return size;
+        }
+    };
+
     protected SXRContext mContext;
-    protected static ResourceCache<SXRImage> mTextureCache = new ResourceCache<SXRImage>();
-    protected ResourceCacheBase<SXRMesh> mMeshCache = new ResourceCacheBase<>();
+    protected static ResourceCache<SXRImage> mTextureCache = new ResourceCache<SXRImage>(sImageSizer);
+    protected ResourceCacheBase<SXRMesh> mMeshCache = new ResourceCacheBase<>(sMeshSizer);
     protected static HashMap<String, SXRImage> mEmbeddedCache = new HashMap<String, SXRImage>();
     protected static SXRBitmapImage mDefaultImage = null;
+    private volatile SXRModelCache mModelCache = null;
 
     /**
      * When the application is restarted we recreate the texture cache
@@ -583,7 +617,9 @@ public final class SXRAssetLoader {
 
             @Override
             public void run() {
-                mTextureCache = new ResourceCache<SXRImage>();
+                long budget = mTextureCache.getMemoryBudget();
+                mTextureCache = new ResourceCache<SXRImage>(sImageSizer);
+                mTextureCache.setMemoryBudget(budget);
                 mEmbeddedCache = new HashMap<String, SXRImage>();
                 mDefaultImage = null;
             }
@@ -600,6 +636,88 @@ public final class SXRAssetLoader {
         mDefaultTextureParameters = new SXRTextureParameters(context);
     }
 
+    /**
+     * Get the cache of textures loaded by all asset loaders.
+     * <p>
+     * Recently used textures are kept in memory within a budget of
+     * {@link ResourceCacheBase#getDefaultMemoryBudget()} bytes. Use
+     * {@link ResourceCacheBase#setMemoryBudget(long)} to change it, 0 only
+     * caches textures until they are garbage collected. When the application
+     * is restarted the cache is recreated with the same memory budget.
+     * @return texture cache
+     */
+    public static ResourceCache<SXRImage> getTextureCache()
+    {
+        return mTextureCache;
+    }
+
+    /**
+     * Get the cache of meshes loaded by this asset loader.
+     * @return mesh cache
+     * @see #getTextureCache()
+     */
+    public ResourceCacheBase<SXRMesh> getMeshCache()
+    {
+        return mMeshCache;
+    }
+
+    /*
+     * Number of bytes used by one vertex with the given vertex descriptor,
+     * for example "float3 a_position float2 a_texcoord" is 20 bytes.
+     */
+    private static int getVertexSize(String descriptor)
+    {
+        int size = 0;
+
+        for (String token : descriptor.split("[\\s,]+"))
+        {
+            int i = token.length();
+            while ((i > 0) && Character.isDigit(token.charAt(i - 1)))
+            {
+                --i;
+            }
+            if ((i == 0) || (i == token.length()))
+            {
+                continue;
+            }
+            String type = token.substring(0, i);
+            int n = Integer.parseInt(token.substring(i));
+            if (type.equals("mat"))
+            {
+                size += n * n * 4;
+            }
+            else if (type.equals("float") || type.equals("int"))
+            {
+                size += n * 4;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Sets the cache used to load models without Assimp.
+     * <p>
+     * Models imported with Assimp are converted and written to the cache.
+     * When a model is loaded again with the same import settings and
+     * none of its files have changed it is rebuilt from the cache.
+     * Model caching is disabled by default.
+     * @param cache model cache to use, null to disable model caching
+     * @see SXRModelCache
+     */
+    public void setModelCache(SXRModelCache cache)
+    {
+        mModelCache = cache;
+    }
+
+    /**
+     * @return the model cache, null if model caching is disabled
+     * @see #setModelCache(SXRModelCache)
+     */
+    public SXRModelCache getModelCache()
+    {
+        return mModelCache;
+    }
+
     /**
      * Get the embedded texture cache.
      * This is an internal routine used during asset loading for processing
@@ -953,49 +1071,146 @@ public final class SXRAssetLoader {
         return atlasInformation;
     }
 
-    // IO Handler for Jassimp
+    /*
+     * IO Handler for Jassimp.
+     * Jassimp asks for the size of the file and then has it copied into
+     * a native buffer of that size. Files are read straight from their
+     * channel into that buffer. Other resources are read once into a
+     * byte array, which is copied into the buffer without another copy.
+     */
     static class ResourceStream implements AiIOStream
     {
         protected final SXRAndroidResource resource;
-        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        protected final String path;
+        private FileChannel channel = null;
+        private ResourceBytes data = null;
+        private final int size;
 
         ResourceStream(SXRResourceVolume v, String path) throws IOException
         {
+            this.path = path;
             resource = v.openResource(path);
             InputStream stream = resource.getStream();
             if (stream == null)
             {
                 throw new IOException("Cannot open " + path);
             }
-            int read;
-            byte[] data = new byte[1024];
-            while((read = stream.read(data, 0, data.length)) != -1)
+            if (stream instanceof FileInputStream)
             {
-                output.write(data, 0, read);
+                channel = ((FileInputStream) stream).getChannel();
+                long length = channel.size();
+                if (length > Integer.MAX_VALUE)
+                {
+                    resource.closeStream();
+                    throw new IOException("File too large " + path);
+                }
+                size = (int) length;
+            }
+            else
+            {
+                try
+                {
+                    data = new ResourceBytes(stream.available());
+                    data.readFrom(stream);
+                    size = data.size();
+                }
+                finally
+                {
+                    resource.closeStream();
+                }
             }
-            output.flush();
-            resource.closeStream();
         }
 
-        public int getFileSize() { return output.size(); }
+        public int getFileSize() { return size; }
 
         public boolean read(ByteBuffer buffer)
         {
-            if (output.size() > 0)
+            if (size <= 0)
             {
-                buffer.put(output.toByteArray());
+                return false;
+            }
+            if (data != null)
+            {
+                data.writeTo(buffer);
                 return true;
             }
-            return false;
+            if (channel == null)
+            {
+                return false;
+            }
+            try
+            {
+                long position = 0;
+                while (buffer.hasRemaining() && (position < size))
+                {
+                    int n = channel.read(buffer, position);
+                    if (n < 0)
+                    {
+                        break;
+                    }
+                    position += n;
+                }
+                return true;
+            }
+            catch (IOException ex)
+            {
+                Log.e(TAG, "Cannot read %s: %s", path, ex.getMessage());
+                return false;
+            }
+        }
+
+        void close()
+        {
+            if (channel != null)
+            {
+                resource.closeStream();
+                channel = null;
+            }
+            data = null;
         }
     };
 
+    /*
+     * Byte array which is filled directly from a stream
+     * and copied to a ByteBuffer without making a copy of the array.
+     */
+    private static class ResourceBytes extends ByteArrayOutputStream
+    {
+        ResourceBytes(int expectedSize)
+        {
+            super(Math.max(expectedSize, 8192));
+        }
+
+        void readFrom(InputStream stream) throws IOException
+        {
+            while (true)
+            {
+                if (count == buf.length)
+                {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                int n = stream.read(buf, count, buf.length - count);
+                if (n < 0)
+                {
+                    break;
+                }
+                count += n;
+            }
+        }
+
+        void writeTo(ByteBuffer buffer)
+        {
+            buffer.put(buf, 0, Math.min(count, buffer.remaining()));
+        }
+    }
+
     // IO Handler for Jassimp
     static class ResourceVolumeIO implements AiIOSystem<ResourceStream>
     {
         protected Throwable lastError = null;
         protected final SXRResourceVolume volume;
         protected final HashMap<String, ResourceStream> cache = new HashMap<>();
+        protected final Set<String> openedPaths = new LinkedHashSet<>();
 
         ResourceVolumeIO(SXRResourceVolume v)
         {
@@ -1018,6 +1233,7 @@ public final class SXRAssetLoader {
             {
                 rs = new ResourceStream(volume, path);
                 cache.put(path, rs);
+                openedPaths.add(path);
                 return rs;
             }
             catch (IOException ex)
@@ -1029,7 +1245,24 @@ public final class SXRAssetLoader {
 
         public void close(ResourceStream rs)
         {
-            cache.remove(rs);
+            if (cache.get(rs.path) == rs)
+            {
+                cache.remove(rs.path);
+            }
+            rs.close();
+        }
+
+        /**
+         * Closes all the streams which are still open.
+         * Streams opened by {@link #exists(String)} are never closed by Jassimp.
+         */
+        public void closeAll()
+        {
+            for (ResourceStream rs : cache.values())
+            {
+                rs.close();
+            }
+            cache.clear();
         }
 
         public boolean exists(String path)
@@ -1038,6 +1271,11 @@ public final class SXRAssetLoader {
         }
 
         public Throwable getLastError() { return lastError; }
+
+        /**
+         * @return paths of all the files which were opened
+         */
+        public Set<String> getOpenedPaths() { return openedPaths; }
     };
 
     /**
@@ -1815,9 +2053,24 @@ public final class SXRAssetLoader {
         com.samsungxr.jassimp.AiScene assimpScene = null;
         String filePath = request.getBaseName();
         SXRJassimpAdapter jassimpAdapter = new SXRJassimpAdapter(this, filePath);
+        SXRModelCache modelCache = getModelCache();
+        SXRResourceVolume volume = request.getVolume();
 
         model.setName(filePath);
-        ResourceVolumeIO jassimpIO = new ResourceVolumeIO(request.getVolume());
+        if ((modelCache != null) && !SXRModelCache.isCacheable(volume))
+        {
+            modelCache = null;
+        }
+        if (modelCache != null)
+        {
+            SXRModelCache.SceneData cached = modelCache.load(volume, request.getImportSettings());
+            if (cached != null)
+            {
+                jassimpAdapter.processCachedScene(request, model, cached);
+                return onJassimpModelLoaded(request, model, filePath);
+            }
+        }
+        ResourceVolumeIO jassimpIO = new ResourceVolumeIO(volume);
         try
         {
             assimpScene = Jassimp.importFile(FileNameUtils.getFilename(filePath),
@@ -1830,6 +2083,10 @@ public final class SXRAssetLoader {
             request.onModelError(mContext, errmsg, filePath);
             throw new IOException(errmsg);
         }
+        finally
+        {
+            jassimpIO.closeAll();
+        }
         if (assimpScene == null)
         {
             String errmsg = "Cannot load model: " + filePath;
@@ -1837,6 +2094,20 @@ public final class SXRAssetLoader {
             throw new IOException(errmsg);
         }
         jassimpAdapter.processScene(request, model, assimpScene);
+        if (modelCache != null)
+        {
+            SXRModelCache.SceneData sceneData = jassimpAdapter.getCacheData(model);
+            if (sceneData != null)
+            {
+                modelCache.store(volume, request.getImportSettings(),
+                                 jassimpIO.getOpenedPaths(), sceneData);
+            }
+        }
+        return onJassimpModelLoaded(request, model, filePath);
+    }
+
+    private SXRNode onJassimpModelLoaded(AssetRequest request, final SXRNode model, String filePath)
+    {
         request.onModelLoaded(mContext, model, filePath);
         mContext.runOnTheFrameworkThread(new Runnable() {
             public void run() {
@@ -1882,63 +2153,21 @@ public final class SXRAssetLoader {
         }
     }
 
+    /**
+     * Downloads a URL to the default {@link SXRDownloadCache}, or gets
+     * its cached copy if it has not changed.
+     * @param context    Android context of the application
+     * @param urlString  URL to download
+     * @return local copy of the URL, null if it cannot be downloaded
+     * @see SXRDownloadCache#getDefault(Context)
+     */
     public static File downloadFile(Context context, String urlString) {
-        URL url = null;
-        try {
-            url = new URL(urlString);
-        } catch (IOException e) {
-            Log.e(TAG, "URL error: ", urlString);
-            return null;
-        }
-
-        String directoryPath = context.getCacheDir().getAbsolutePath();
-        // add a uuid value for the url to prevent aliasing from files sharing
-        // same name inside one given app
-        String outputFilename = directoryPath + File.separator
-                + UUID.nameUUIDFromBytes(urlString.getBytes()).toString()
-                + FileNameUtils.getURLFilename(urlString);
-
-        Log.d(TAG, "URL filename: %s", outputFilename);
-
-        File localCopy = new File(outputFilename);
-        if (localCopy.exists()) {
-            return localCopy;
-        }
-
-        InputStream input = null;
-        // Output stream to write file
-        OutputStream output = null;
-
         try {
-            input = new BufferedInputStream(url.openStream(), 8192);
-            output = new FileOutputStream(outputFilename);
-
-            byte data[] = new byte[1024];
-            int count;
-            while ((count = input.read(data)) != -1) {
-                // writing data to file
-                output.write(data, 0, count);
-            }
+            return SXRDownloadCache.getDefault(context).get(urlString);
         } catch (IOException e) {
-            Log.e(TAG, "Failed to download: ", urlString);
+            Log.e(TAG, "Failed to download %s: %s", urlString, e.getMessage());
             return null;
-        } finally {
-            if (input != null) {
-                try {
-                    input.close();
-                } catch (IOException e) {
-                }
-            }
-
-            if (output != null) {
-                try {
-                    output.close();
-                } catch (IOException e) {
-                }
-            }
         }
-
-        return new File(outputFilename);
     }
 
     public SXRTextureParameters getDefaultTextureParameters() {
@@ -25,6 +25,10 @@ import com.samsungxr.utility.Log;
 
 import java.io.IOException;
 import java.nio.Buffer;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -109,6 +113,7 @@ public class SXRBitmapImage extends SXRImage
     {
         super(gvrContext, NativeBitmapImage.constructor(ImageType.BITMAP.Value, GL_LUMINANCE));
         NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
+        mSizeInBytes = (long) width * height;
     }
 
     /**
@@ -137,6 +142,7 @@ public class SXRBitmapImage extends SXRImage
             bmap = getBitmapSupported(bmap);
 
         NativeBitmapImage.updateFromBitmap(getNative(), bmap, bmap.hasAlpha(), bmap.getConfig().name());
+        mSizeInBytes = bmap.getByteCount();
     }
 
     private Bitmap getBitmapSupported(Bitmap orig)
@@ -176,6 +182,7 @@ public class SXRBitmapImage extends SXRImage
     public void setBuffer(final int width, final int height, final int format, final int type, final Buffer pixels)
     {
         NativeBitmapImage.updateFromBuffer(getNative(), 0, 0, width, height, format, type, pixels);
+        mSizeInBytes = (long) pixels.capacity() * bytesPerElement(pixels);
     }
 
     /**
@@ -228,6 +235,20 @@ public class SXRBitmapImage extends SXRImage
     public void update(int width, int height, byte[] grayscaleData)
     {
         NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
+        mSizeInBytes = (long) width * height;
+    }
+
+    private static int bytesPerElement(Buffer pixels)
+    {
+        if ((pixels instanceof FloatBuffer) || (pixels instanceof IntBuffer))
+        {
+            return 4;
+        }
+        if ((pixels instanceof ShortBuffer) || (pixels instanceof CharBuffer))
+        {
+            return 2;
+        }
+        return 1;
     }
 
     private static Bitmap loadBitmap(SXRContext gvrContext, String pngAssetFilename)
@@ -41,6 +41,7 @@ public class SXRCompressedCubemapImage extends SXRImage
         mWidth = width;
         mHeight = height;
         mImageSize = imageSize;
+        mSizeInBytes = 6L * imageSize;
         NativeCubemapImage.updateCompressed(getNative(), width, height, imageSize, data, dataOffsets);
     }
 
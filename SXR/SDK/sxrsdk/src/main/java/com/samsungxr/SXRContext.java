@@ -32,6 +32,7 @@ import com.samsungxr.io.SXRInputManager;
 import com.samsungxr.periodic.SXRPeriodicEngine;
 import com.samsungxr.nodes.SXRTextViewNode;
 import com.samsungxr.script.IScriptManager;
+import com.samsungxr.utility.FrameBudgetScheduler;
 import com.samsungxr.utility.Log;
 import com.samsungxr.utility.Threads;
 
@@ -416,6 +417,40 @@ public abstract class SXRContext implements IEventReceiver {
      */
     public abstract void runOnGlThread(Runnable runnable);
 
+    /**
+     * Enqueues a callback with a priority to be run in the GL thread.
+     *
+     * Callbacks are run from the highest to the lowest priority before the
+     * {@linkplain #registerDrawFrameListener(SXRDrawFrameListener) frame
+     * listeners}. If a {@linkplain #setGlRunnableBudget(long) frame budget}
+     * is set, callbacks which do not fit in the current frame are deferred
+     * to the next one. Unlike {@link #runOnGlThread(Runnable)} the callback
+     * is always queued, even when called from the GL thread.
+     *
+     * @param priority
+     *            {@link FrameBudgetScheduler#PRIORITY_HIGH},
+     *            {@link FrameBudgetScheduler#PRIORITY_NORMAL} or
+     *            {@link FrameBudgetScheduler#PRIORITY_LOW}
+     * @param runnable
+     *            A bit of code that must run on the GL thread
+     */
+    public abstract void runOnGlThread(int priority, Runnable runnable);
+
+    /**
+     * Sets the time the GL thread may spend each frame running callbacks
+     * enqueued with {@link #runOnGlThread(Runnable)}. The default is no limit.
+     *
+     * @param budgetNanos
+     *            Budget in nanoseconds, 0 to run all pending callbacks every frame.
+     */
+    public abstract void setGlRunnableBudget(long budgetNanos);
+
+    /**
+     * Gets the scheduler of the GL thread callbacks to query its
+     * queued, executed, deferred and latency counters.
+     */
+    public abstract FrameBudgetScheduler getGlRunnableScheduler();
+
     /**
      * Enqueues a callback to be run in the GL thread after rendering a frame.
      *
@@ -494,6 +529,18 @@ public abstract class SXRContext implements IEventReceiver {
         return SXRPeriodicEngine.getInstance(this);
     }
 
+    /**
+     * The {@linkplain SXRLODManager LOD manager} singleton.
+     *
+     * Use the LOD manager to bias the level of detail of all
+     * {@linkplain SXRLODGroup LOD groups}.
+     *
+     * @return The {@linkplain SXRLODManager LOD manager} singleton.
+     */
+    public SXRLODManager getLODManager() {
+        return SXRLODManager.getInstance(this);
+    }
+
     /**
      * Register a method that is called every time SXRF creates a new
      * {@link SXRContext}.
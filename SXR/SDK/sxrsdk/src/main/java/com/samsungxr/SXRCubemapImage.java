@@ -59,6 +59,11 @@ public class SXRCubemapImage extends SXRImage
     public void update(Bitmap[] bitmapArray)
     {
         NativeCubemapImage.update(getNative(), bitmapArray);
+        mSizeInBytes = 0;
+        for (Bitmap bitmap : bitmapArray)
+        {
+            mSizeInBytes += bitmap.getByteCount();
+        }
     }
 
     /**
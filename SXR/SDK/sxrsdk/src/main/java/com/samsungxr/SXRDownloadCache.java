@@ -0,0 +1,831 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import android.content.Context;
+
+import com.samsungxr.utility.Log;
+import com.samsungxr.utility.MarkingFileInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache of files downloaded from URLs.
+ * <p>
+ * Downloads are written to a temporary file and renamed when they are
+ * complete, so an interrupted download never leaves a corrupt file in
+ * the cache. Files are stored by the SHA-1 hash of their content followed
+ * by the file extension of the URL, so loaders which choose a format by the
+ * extension can read them: URLs which serve the same content share one file.
+ * <p>
+ * A cached file is used without contacting the server until it expires,
+ * from the Cache-Control max-age or Expires header of the response. If
+ * the response has neither, the file stays fresh for 10% of the time since
+ * its Last-Modified date (at most a day), or for the
+ * {@linkplain #setDefaultFreshness(long) default freshness} if it has no date.
+ * After that the server is asked whether the file has changed with its
+ * ETag or Last-Modified date, and it is only downloaded again if it has.
+ * If the server cannot be reached or fails the cached file is used, but
+ * not if it answers that the request is wrong (4xx), for example when the
+ * file no longer exists.
+ * <p>
+ * When the total size of the cache exceeds its limit the least recently
+ * used files are deleted. Several threads can use the cache at the same
+ * time; a URL requested by several threads is only downloaded once.
+ * @see SXRAssetLoader#downloadFile(Context, String)
+ */
+public final class SXRDownloadCache
+{
+    private static final String TAG = SXRDownloadCache.class.getSimpleName();
+    private static final String DATA_SUFFIX = ".data";
+    private static final String INDEX_SUFFIX = ".url";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String KEY_URL = "url";
+    private static final String KEY_HASH = "hash";
+    private static final String KEY_FILE = "file";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_EXPIRES = "expires";
+    private static final int CONNECT_TIMEOUT = 15000;
+    private static final int READ_TIMEOUT = 30000;
+    private static final int BUFFER_SIZE = 65536;
+    private static final int MAX_OPEN_ATTEMPTS = 3;
+    private static final int MAX_EXTENSION_LENGTH = 8;
+    private static final long MAX_HEURISTIC_FRESHNESS = 24L * 60 * 60 * 1000;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Size limit of the default cache.
+     */
+    public static final long DEFAULT_MAX_SIZE = 100L * 1024 * 1024;
+
+    /**
+     * Milliseconds a file without cache headers or Last-Modified date
+     * is used before it is revalidated, unless set otherwise.
+     * @see #setDefaultFreshness(long)
+     */
+    public static final long DEFAULT_FRESHNESS = 5L * 60 * 1000;
+
+    private static SXRDownloadCache sDefault = null;
+
+    /*
+     * What the cache knows about a URL.
+     */
+    private static final class Entry
+    {
+        final String url;
+        final String hash;
+        final String fileName;
+        final String etag;
+        final String lastModified;
+        final long expires;
+
+        Entry(String url, String hash, String fileName, String etag, String lastModified, long expires)
+        {
+            this.url = url;
+            this.hash = hash;
+            this.fileName = fileName;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+    }
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private volatile long mDefaultFreshness = DEFAULT_FRESHNESS;
+    private final ConcurrentHashMap<String, FutureTask<File>> mPending = new ConcurrentHashMap<String, FutureTask<File>>();
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mRevalidations = new AtomicLong();
+    private final AtomicLong mCoalesced = new AtomicLong();
+    private final AtomicLong mDuplicates = new AtomicLong();
+    private final AtomicLong mEvictions = new AtomicLong();
+    private final AtomicLong mDownloadedBytes = new AtomicLong();
+
+    /**
+     * Create a download cache.
+     * Temporary files left by a previous run are deleted.
+     * @param directory directory to keep the cache files in,
+     *                  created if it does not exist.
+     * @param maxSize   maximum number of bytes used by all the cache files.
+     */
+    public SXRDownloadCache(File directory, long maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        mDirectory = directory;
+        mMaxSize = maxSize;
+        for (File f : listFiles(TEMP_SUFFIX))
+        {
+            f.delete();
+        }
+    }
+
+    /**
+     * Gets the cache used by {@link SXRAssetLoader#downloadFile(Context, String)}.
+     * Unless another one was set with {@link #setDefault(SXRDownloadCache)}
+     * it is in the cache directory of the application and holds up to
+     * {@link #DEFAULT_MAX_SIZE} bytes.
+     * @param context Android context of the application
+     * @return default download cache
+     */
+    public static synchronized SXRDownloadCache getDefault(Context context)
+    {
+        if (sDefault == null)
+        {
+            sDefault = new SXRDownloadCache(new File(context.getCacheDir(), "sxr_downloads"),
+                                            DEFAULT_MAX_SIZE);
+        }
+        return sDefault;
+    }
+
+    /**
+     * Sets the cache used by {@link SXRAssetLoader#downloadFile(Context, String)}.
+     * @param cache download cache, null to use a new default one
+     */
+    public static synchronized void setDefault(SXRDownloadCache cache)
+    {
+        sDefault = cache;
+    }
+
+    /**
+     * @return directory containing the cache files
+     */
+    public File getDirectory() { return mDirectory; }
+
+    /**
+     * @return maximum number of bytes used by all the cache files
+     */
+    public long getMaxSize() { return mMaxSize; }
+
+    /**
+     * Sets how long a file is used without asking the server whether it
+     * has changed when the response had no Cache-Control max-age, Expires
+     * or Last-Modified header.
+     * @param millis freshness in milliseconds, 0 to revalidate every time
+     */
+    public void setDefaultFreshness(long millis)
+    {
+        if (millis < 0)
+        {
+            throw new IllegalArgumentException("freshness must not be negative");
+        }
+        mDefaultFreshness = millis;
+    }
+
+    /**
+     * @return freshness of files without cache headers in milliseconds
+     * @see #setDefaultFreshness(long)
+     */
+    public long getDefaultFreshness() { return mDefaultFreshness; }
+
+    /**
+     * @return number of bytes used by all the cache files
+     */
+    public synchronized long getSize()
+    {
+        long total = 0;
+
+        for (File f : listCacheFiles())
+        {
+            total += f.length();
+        }
+        return total;
+    }
+
+    /** @return number of requests answered without downloading the file */
+    public long getHitCount() { return mHits.get(); }
+
+    /** @return number of requests which downloaded the file */
+    public long getMissCount() { return mMisses.get(); }
+
+    /** @return number of times the server was asked if a cached file changed */
+    public long getRevalidationCount() { return mRevalidations.get(); }
+
+    /** @return number of requests which waited for a download by another thread */
+    public long getCoalescedCount() { return mCoalesced.get(); }
+
+    /** @return number of downloads with the same content as a cached file */
+    public long getDuplicateCount() { return mDuplicates.get(); }
+
+    /** @return number of files deleted to keep the cache within its size */
+    public long getEvictionCount() { return mEvictions.get(); }
+
+    /** @return number of bytes downloaded */
+    public long getDownloadedBytes() { return mDownloadedBytes.get(); }
+
+    /**
+     * Deletes all the cache files.
+     */
+    public synchronized void clear()
+    {
+        for (File f : listCacheFiles())
+        {
+            f.delete();
+        }
+    }
+
+    /**
+     * Gets the local copy of a URL, downloading it if it is not in
+     * the cache or has changed. The file must not be modified.
+     * <p>
+     * Another thread can evict the file before it is opened; use
+     * {@link #openStream(String)} to read it.
+     * @param urlString URL to download
+     * @return file with the content of the URL
+     * @throws IOException if the URL cannot be downloaded
+     *                     and is not in the cache.
+     */
+    public File get(final String urlString) throws IOException
+    {
+        FutureTask<File> task = new FutureTask<File>(new Callable<File>()
+        {
+            @Override
+            public File call() throws IOException
+            {
+                return fetch(urlString);
+            }
+        });
+        FutureTask<File> pending = mPending.putIfAbsent(urlString, task);
+
+        if (pending == null)
+        {
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                mPending.remove(urlString, task);
+            }
+            pending = task;
+        }
+        else
+        {
+            mCoalesced.incrementAndGet();
+        }
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return pending.get();
+                }
+                catch (InterruptedException ex)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException ex)
+                {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException)
+                    {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof RuntimeException)
+                    {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Opens the local copy of a URL, downloading it if it is not in
+     * the cache or has changed. The file is opened while files cannot be
+     * evicted, so the stream stays readable if it is evicted later.
+     * @param urlString URL to download
+     * @return stream which supports {@link InputStream#mark(int)}
+     * @throws IOException if the URL cannot be downloaded
+     *                     and is not in the cache.
+     */
+    public FileInputStream openStream(String urlString) throws IOException
+    {
+        for (int i = 0; i < MAX_OPEN_ATTEMPTS; ++i)
+        {
+            File file = get(urlString);
+
+            synchronized (this)
+            {
+                if (file.exists())
+                {
+                    return new MarkingFileInputStream(file);
+                }
+            }
+            // evicted by another thread before it was opened, fetch it again
+        }
+        throw new FileNotFoundException("Cannot keep " + urlString + " in the cache");
+    }
+
+    private File fetch(String urlString) throws IOException
+    {
+        URL url = new URL(urlString);
+        File indexFile = new File(mDirectory, hash(urlString) + INDEX_SUFFIX);
+        Entry entry = readEntry(indexFile, urlString);
+        long now = System.currentTimeMillis();
+
+        if ((entry != null) && (now < entry.expires))
+        {
+            return hit(indexFile, entry);
+        }
+        URLConnection connection = null;
+        try
+        {
+            connection = url.openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            if (connection instanceof HttpURLConnection)
+            {
+                HttpURLConnection http = (HttpURLConnection) connection;
+
+                if (entry != null)
+                {
+                    if (entry.etag != null)
+                    {
+                        http.setRequestProperty("If-None-Match", entry.etag);
+                    }
+                    if (entry.lastModified != null)
+                    {
+                        http.setRequestProperty("If-Modified-Since", entry.lastModified);
+                    }
+                    mRevalidations.incrementAndGet();
+                }
+                int status = http.getResponseCode();
+
+                if ((status == HttpURLConnection.HTTP_NOT_MODIFIED) && (entry != null))
+                {
+                    entry = new Entry(urlString, entry.hash, entry.fileName, entry.etag,
+                                      entry.lastModified, getExpiration(connection, now));
+                    writeEntry(indexFile, entry);
+                    return hit(indexFile, entry);
+                }
+                if ((status >= 400) && (status < 500))
+                {
+                    // the server says the request is wrong, the cached copy must not be used
+                    if (entry != null)
+                    {
+                        removeEntry(indexFile);
+                        entry = null;
+                    }
+                    throw new FileNotFoundException("HTTP " + status + " downloading " + urlString);
+                }
+                if (status != HttpURLConnection.HTTP_OK)
+                {
+                    throw new IOException("HTTP " + status + " downloading " + urlString);
+                }
+            }
+            else if (entry != null)
+            {
+                // only HTTP can tell whether the file changed
+                return hit(indexFile, entry);
+            }
+            return download(connection, urlString, indexFile, now);
+        }
+        catch (IOException ex)
+        {
+            if (entry == null)
+            {
+                throw ex;
+            }
+            Log.w(TAG, "Cannot revalidate %s, using cached copy: %s", urlString, ex.getMessage());
+            return hit(indexFile, entry);
+        }
+        finally
+        {
+            if (connection instanceof HttpURLConnection)
+            {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    private synchronized File hit(File indexFile, Entry entry)
+    {
+        File file = new File(mDirectory, entry.fileName);
+        long now = System.currentTimeMillis();
+
+        mHits.incrementAndGet();
+        file.setLastModified(now);
+        indexFile.setLastModified(now);
+        return file;
+    }
+
+    /*
+     * Downloads to a temporary file while hashing the content,
+     * then renames it to the hash unless that file already exists.
+     */
+    private File download(URLConnection connection, String urlString, File indexFile, long now) throws IOException
+    {
+        if (!mDirectory.exists() && !mDirectory.mkdirs() && !mDirectory.isDirectory())
+        {
+            throw new IOException("Cannot create " + mDirectory);
+        }
+        File temp = File.createTempFile("download", TEMP_SUFFIX, mDirectory);
+        MessageDigest digest = newDigest();
+        long length = 0;
+
+        try
+        {
+            InputStream input = connection.getInputStream();
+            try
+            {
+                FileOutputStream output = new FileOutputStream(temp);
+                try
+                {
+                    byte[] buf = new byte[BUFFER_SIZE];
+                    int n;
+
+                    while ((n = input.read(buf)) >= 0)
+                    {
+                        output.write(buf, 0, n);
+                        digest.update(buf, 0, n);
+                        length += n;
+                    }
+                    output.getFD().sync();
+                }
+                finally
+                {
+                    output.close();
+                }
+            }
+            finally
+            {
+                input.close();
+            }
+            int expected = connection.getContentLength();
+            if ((expected >= 0) && (expected != length))
+            {
+                throw new IOException("Download of " + urlString + " is incomplete: "
+                                      + length + " of " + expected + " bytes");
+            }
+            mMisses.incrementAndGet();
+            mDownloadedBytes.addAndGet(length);
+
+            String hash = toHex(digest.digest());
+            String fileName = getDataFileName(hash, connection.getURL());
+            File file = new File(mDirectory, fileName);
+
+            synchronized (this)
+            {
+                if (file.exists())
+                {
+                    mDuplicates.incrementAndGet();
+                    file.setLastModified(System.currentTimeMillis());
+                }
+                else if (!temp.renameTo(file))
+                {
+                    throw new IOException("Cannot rename " + temp);
+                }
+                writeEntry(indexFile, new Entry(urlString, hash, fileName,
+                                                connection.getHeaderField("ETag"),
+                                                connection.getHeaderField("Last-Modified"),
+                                                getExpiration(connection, now)));
+                evict(file, indexFile);
+            }
+            return file;
+        }
+        finally
+        {
+            temp.delete();
+        }
+    }
+
+    /*
+     * Name of the data file: the hash of the content followed by
+     * the extension of the last path segment of the URL, if it has
+     * a short alphanumeric one.
+     */
+    private static String getDataFileName(String hash, URL url)
+    {
+        String path = url.getPath();
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        String name = hash + DATA_SUFFIX;
+
+        if ((dot <= slash + 1) || (path.length() - dot - 1 > MAX_EXTENSION_LENGTH))
+        {
+            return name;
+        }
+        String extension = path.substring(dot + 1);
+
+        for (int i = 0; i < extension.length(); ++i)
+        {
+            if (!Character.isLetterOrDigit(extension.charAt(i)) || (extension.charAt(i) > 127))
+            {
+                return name;
+            }
+        }
+        return extension.isEmpty() ? name : (name + "." + extension);
+    }
+
+    private static boolean isDataFile(String name)
+    {
+        return name.endsWith(DATA_SUFFIX) || name.contains(DATA_SUFFIX + ".");
+    }
+
+    /*
+     * Expiration time from the Cache-Control or Expires headers.
+     * Without them the file is fresh for 10% of its age from the
+     * Last-Modified date, up to a day, or the default freshness.
+     */
+    private long getExpiration(URLConnection connection, long now)
+    {
+        String cacheControl = connection.getHeaderField("Cache-Control");
+
+        if (cacheControl != null)
+        {
+            for (String directive : cacheControl.split(","))
+            {
+                directive = directive.trim().toLowerCase(Locale.US);
+                if (directive.equals("no-cache") || directive.equals("no-store"))
+                {
+                    return now;
+                }
+                if (directive.startsWith("max-age="))
+                {
+                    try
+                    {
+                        return now + 1000L * Long.parseLong(directive.substring(8).trim());
+                    }
+                    catch (NumberFormatException ex)
+                    {
+                        return now;
+                    }
+                }
+            }
+        }
+        if (connection.getHeaderField("Expires") != null)
+        {
+            long expires = connection.getExpiration();
+            return (expires > now) ? expires : now;
+        }
+        long lastModified = connection.getLastModified();
+        if (lastModified > 0)
+        {
+            long date = connection.getDate();
+            long age = ((date > 0) ? date : now) - lastModified;
+
+            return now + Math.min(Math.max(age / 10, 0), MAX_HEURISTIC_FRESHNESS);
+        }
+        return now + mDefaultFreshness;
+    }
+
+    private synchronized Entry readEntry(File indexFile, String urlString)
+    {
+        if (!indexFile.exists())
+        {
+            return null;
+        }
+        Properties properties = new Properties();
+        try
+        {
+            FileInputStream input = new FileInputStream(indexFile);
+            try
+            {
+                properties.load(input);
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+        catch (IOException ex)
+        {
+            indexFile.delete();
+            return null;
+        }
+        String hash = properties.getProperty(KEY_HASH);
+        String fileName = properties.getProperty(KEY_FILE, hash + DATA_SUFFIX);
+        long expires;
+
+        try
+        {
+            expires = Long.parseLong(properties.getProperty(KEY_EXPIRES, "0"));
+        }
+        catch (NumberFormatException ex)
+        {
+            expires = 0;
+        }
+        if ((hash == null) || !urlString.equals(properties.getProperty(KEY_URL)) ||
+            !new File(mDirectory, fileName).exists())
+        {
+            indexFile.delete();
+            return null;
+        }
+        return new Entry(urlString, hash, fileName, properties.getProperty(KEY_ETAG),
+                         properties.getProperty(KEY_LAST_MODIFIED), expires);
+    }
+
+    private synchronized void removeEntry(File indexFile)
+    {
+        indexFile.delete();
+    }
+
+    private void writeEntry(File indexFile, Entry entry) throws IOException
+    {
+        Properties properties = new Properties();
+        File temp = File.createTempFile("index", TEMP_SUFFIX, mDirectory);
+
+        properties.setProperty(KEY_URL, entry.url);
+        properties.setProperty(KEY_HASH, entry.hash);
+        properties.setProperty(KEY_FILE, entry.fileName);
+        properties.setProperty(KEY_EXPIRES, Long.toString(entry.expires));
+        if (entry.etag != null)
+        {
+            properties.setProperty(KEY_ETAG, entry.etag);
+        }
+        if (entry.lastModified != null)
+        {
+            properties.setProperty(KEY_LAST_MODIFIED, entry.lastModified);
+        }
+        try
+        {
+            FileOutputStream output = new FileOutputStream(temp);
+            try
+            {
+                properties.store(output, null);
+            }
+            finally
+            {
+                output.close();
+            }
+            if (!temp.renameTo(indexFile))
+            {
+                throw new IOException("Cannot rename " + temp);
+            }
+        }
+        finally
+        {
+            temp.delete();
+        }
+    }
+
+    /*
+     * Deletes the least recently used files until the cache fits,
+     * except for the files which were just added.
+     */
+    private void evict(File keepData, File keepIndex)
+    {
+        File[] files = listCacheFiles();
+        long total = 0;
+
+        for (File f : files)
+        {
+            total += f.length();
+        }
+        if (total <= mMaxSize)
+        {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>()
+        {
+            @Override
+            public int compare(File a, File b)
+            {
+                long ta = a.lastModified();
+                long tb = b.lastModified();
+                return (ta < tb) ? -1 : ((ta == tb) ? 0 : 1);
+            }
+        });
+        for (int i = 0; (i < files.length) && (total > mMaxSize); ++i)
+        {
+            long length = files[i].length();
+
+            if (files[i].equals(keepData) || files[i].equals(keepIndex))
+            {
+                continue;
+            }
+            if (files[i].delete())
+            {
+                total -= length;
+                if (isDataFile(files[i].getName()))
+                {
+                    mEvictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /*
+     * Data and index files, all the files except temporary ones.
+     */
+    private File[] listCacheFiles()
+    {
+        File[] files = mDirectory.listFiles();
+        List<File> cacheFiles = new ArrayList<>();
+
+        if (files != null)
+        {
+            for (File f : files)
+            {
+                String name = f.getName();
+
+                if (!name.endsWith(TEMP_SUFFIX) && (name.endsWith(INDEX_SUFFIX) || isDataFile(name)))
+                {
+                    cacheFiles.add(f);
+                }
+            }
+        }
+        return cacheFiles.toArray(new File[cacheFiles.size()]);
+    }
+
+    private File[] listFiles(String... suffixes)
+    {
+        File[] files = mDirectory.listFiles();
+        List<File> cacheFiles = new ArrayList<>();
+
+        if (files != null)
+        {
+            for (File f : files)
+            {
+                for (String suffix : suffixes)
+                {
+                    if (f.getName().endsWith(suffix))
+                    {
+                        cacheFiles.add(f);
+                        break;
+                    }
+                }
+            }
+        }
+        return cacheFiles.toArray(new File[cacheFiles.size()]);
+    }
+
+    private static String hash(String s)
+    {
+        return toHex(newDigest().digest(s.getBytes(UTF8)));
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
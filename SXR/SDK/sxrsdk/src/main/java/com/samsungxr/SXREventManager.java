@@ -17,10 +17,8 @@ package com.samsungxr;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.samsungxr.script.IScriptManager;
 import com.samsungxr.script.IScriptFile;
@@ -54,13 +52,21 @@ import com.samsungxr.script.IScriptable;
  * end
  * }
  * </pre>
+ *
+ * Events which are sent every frame (picking, collisions) should use the
+ * typed {@code sendEvent} overloads which take an {@link EventInvoker1},
+ * {@link EventInvoker2} or {@link EventInvoker3F}. The invoker calls the
+ * interface method directly so no parameter array is allocated, primitive
+ * arguments are not boxed and no reflection is involved unless the
+ * target has a script attached.
  */
 public class SXREventManager {
     private static final String TAG = SXREventManager.class.getSimpleName();
     private SXRContext mGvrContext;
 
-    // Cache for Java handler methods; keys *must* be weakly referenced
-    private final WeakHashMap<Object, Map<String, Method>> mHandlerMethodCache;
+    // Cache for Java handler methods per events interface and event name.
+    // Handler methods only depend on the interface so the cache never needs locking.
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Method>> mHandlerMethodCache;
 
     public static final int SEND_MASK_OBJECT = 0x1;
     protected static final int SEND_MASK_LISTENERS = 0x2;
@@ -69,7 +75,132 @@ public class SXREventManager {
 
     SXREventManager(SXRContext gvrContext) {
         mGvrContext = gvrContext;
-        mHandlerMethodCache = new WeakHashMap<Object, Map<String, Method>>();
+        mHandlerMethodCache = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Method>>();
+    }
+
+    /**
+     * Base class for typed event invokers. An invoker is bound to a single
+     * event of an events interface and calls the handler method directly
+     * instead of going through reflection. Invokers are stateless and should
+     * be created once and kept in a static field.
+     *
+     * @param <E> events interface, such as {@link IPickEvents}
+     */
+    public static abstract class EventInvoker<E extends IEvents> {
+        private final Class<E> mEventsClass;
+        private final String mEventName;
+
+        protected EventInvoker(Class<E> eventsClass, String eventName, int numParams) {
+            mEventsClass = eventsClass;
+            mEventName = eventName;
+            boolean nameMatch = false;
+            for (Method method : eventsClass.getMethods()) {
+                if (method.getName().equals(eventName)) {
+                    nameMatch = true;
+                    if (method.getParameterTypes().length == numParams) {
+                        return;
+                    }
+                }
+            }
+            if (!nameMatch) {
+                throw new RuntimeException(String.format("The interface contains no method %s", eventName));
+            }
+            throw new RuntimeException(String.format("The interface contains a method %s but "
+                    + "parameters don't match", eventName));
+        }
+
+        /**
+         * @return the events interface this invoker dispatches to
+         */
+        public final Class<E> getEventsClass() {
+            return mEventsClass;
+        }
+
+        /**
+         * @return the name of the event this invoker dispatches
+         */
+        public final String getEventName() {
+            return mEventName;
+        }
+
+        /*
+         * Calls the handler with the arguments passed to the sendEvent
+         * overload of this invoker. Unused arguments are null or 0.
+         */
+        abstract void dispatch(E handler, Object a, Object b, Object c, float f);
+
+        /*
+         * Arguments passed to a script handler.
+         */
+        abstract Object[] getScriptArgs(Object a, Object b, Object c, float f);
+    }
+
+    /**
+     * Typed invoker for an event with one parameter.
+     */
+    public static abstract class EventInvoker1<E extends IEvents, A> extends EventInvoker<E> {
+        protected EventInvoker1(Class<E> eventsClass, String eventName) {
+            super(eventsClass, eventName, 1);
+        }
+
+        public abstract void invoke(E handler, A a);
+
+        @SuppressWarnings("unchecked")
+        @Override
+        final void dispatch(E handler, Object a, Object b, Object c, float f) {
+            invoke(handler, (A) a);
+        }
+
+        @Override
+        final Object[] getScriptArgs(Object a, Object b, Object c, float f) {
+            return new Object[] { a };
+        }
+    }
+
+    /**
+     * Typed invoker for an event with two parameters, such as
+     * {@link IPickEvents#onEnter(SXRNode, SXRPicker.SXRPickedObject)}.
+     */
+    public static abstract class EventInvoker2<E extends IEvents, A, B> extends EventInvoker<E> {
+        protected EventInvoker2(Class<E> eventsClass, String eventName) {
+            super(eventsClass, eventName, 2);
+        }
+
+        public abstract void invoke(E handler, A a, B b);
+
+        @SuppressWarnings("unchecked")
+        @Override
+        final void dispatch(E handler, Object a, Object b, Object c, float f) {
+            invoke(handler, (A) a, (B) b);
+        }
+
+        @Override
+        final Object[] getScriptArgs(Object a, Object b, Object c, float f) {
+            return new Object[] { a, b };
+        }
+    }
+
+    /**
+     * Typed invoker for an event with three object parameters followed
+     * by a float, such as the collision events.
+     */
+    public static abstract class EventInvoker3F<E extends IEvents, A, B, C> extends EventInvoker<E> {
+        protected EventInvoker3F(Class<E> eventsClass, String eventName) {
+            super(eventsClass, eventName, 4);
+        }
+
+        public abstract void invoke(E handler, A a, B b, C c, float f);
+
+        @SuppressWarnings("unchecked")
+        @Override
+        final void dispatch(E handler, Object a, Object b, Object c, float f) {
+            invoke(handler, (A) a, (B) b, (C) c, f);
+        }
+
+        @Override
+        final Object[] getScriptArgs(Object a, Object b, Object c, float f) {
+            return new Object[] { a, b, c, f };
+        }
     }
 
     /**
@@ -108,6 +239,87 @@ public class SXREventManager {
         return sendEventWithMask(SEND_MASK_ALL, target, eventsClass, eventName, params);
     }
 
+    /**
+     * Delivers an event to a handler object using a typed invoker. The event
+     * is delivered in the same order as {@link #sendEvent(Object, Class, String, Object...)}
+     * but without reflection or allocation unless a script is attached to the target.
+     *
+     * @param target  The object which handles the event.
+     * @param invoker Invoker for the event.
+     * @param a       Event parameter.
+     * @return {@code true} if the event is handled successfully, {@code false} if not handled
+     */
+    public <E extends IEvents, A> boolean sendEvent(Object target, EventInvoker1<E, A> invoker, A a) {
+        return sendEventWithMask(SEND_MASK_ALL, target, invoker, a);
+    }
+
+    public <E extends IEvents, A> boolean sendEventWithMask(int sendMask, Object target,
+            EventInvoker1<E, A> invoker, A a) {
+        return dispatch(sendMask, target, invoker, a, null, null, 0);
+    }
+
+    /**
+     * Delivers an event with two parameters to a handler object using a typed invoker.
+     * @see #sendEvent(Object, EventInvoker1, Object)
+     */
+    public <E extends IEvents, A, B> boolean sendEvent(Object target, EventInvoker2<E, A, B> invoker,
+            A a, B b) {
+        return sendEventWithMask(SEND_MASK_ALL, target, invoker, a, b);
+    }
+
+    public <E extends IEvents, A, B> boolean sendEventWithMask(int sendMask, Object target,
+            EventInvoker2<E, A, B> invoker, A a, B b) {
+        return dispatch(sendMask, target, invoker, a, b, null, 0);
+    }
+
+    /**
+     * Delivers an event with three object parameters and a float to a handler
+     * object using a typed invoker.
+     * @see #sendEvent(Object, EventInvoker1, Object)
+     */
+    public <E extends IEvents, A, B, C> boolean sendEvent(Object target,
+            EventInvoker3F<E, A, B, C> invoker, A a, B b, C c, float f) {
+        return sendEventWithMask(SEND_MASK_ALL, target, invoker, a, b, c, f);
+    }
+
+    public <E extends IEvents, A, B, C> boolean sendEventWithMask(int sendMask, Object target,
+            EventInvoker3F<E, A, B, C> invoker, A a, B b, C c, float f) {
+        return dispatch(sendMask, target, invoker, a, b, c, f);
+    }
+
+    /*
+     * Delivers an event through a typed invoker to the target, its listeners
+     * and its script, as selected by sendMask.
+     */
+    private <E extends IEvents> boolean dispatch(int sendMask, Object target, EventInvoker<E> invoker,
+            Object a, Object b, Object c, float f) {
+        final Class<E> eventsClass = invoker.getEventsClass();
+        boolean handledSuccessful = false;
+
+        if (((sendMask & SEND_MASK_OBJECT) != 0) && eventsClass.isInstance(target)) {
+            invoker.dispatch(eventsClass.cast(target), a, b, c, f);
+            handledSuccessful = true;
+        }
+        if (((sendMask & SEND_MASK_LISTENERS) != 0) && (target instanceof IEventReceiver)) {
+            SXREventReceiver receiver = ((IEventReceiver) target).getEventReceiver();
+            IEvents[] listeners = receiver.getListenerArray();
+
+            for (IEvents listener : listeners) {
+                if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
+                    continue;
+                invoker.dispatch(eventsClass.cast(listener), a, b, c, f);
+                handledSuccessful = true;
+            }
+        }
+        if (((sendMask & SEND_MASK_SCRIPTS) != 0) && (target instanceof IScriptable)) {
+            IScriptFile script = getScriptFile((IScriptable) target);
+            if (script != null) {
+                handledSuccessful |= script.invokeFunction(invoker.getEventName(), invoker.getScriptArgs(a, b, c, f));
+            }
+        }
+        return handledSuccessful;
+    }
+
     public boolean sendEventWithMask(int sendMask, Object target, Class<? extends IEvents> eventsClass,
             String eventName, Object... params) {
         return sendEventWithMaskParamArray(sendMask, target, eventsClass, eventName, params);
@@ -134,7 +346,7 @@ public class SXREventManager {
                 IEventReceiver receivingTarget = (IEventReceiver) target;
                 SXREventReceiver receiver = receivingTarget.getEventReceiver();
 
-                List<IEvents> listeners = receiver.getListeners();
+                IEvents[] listeners = receiver.getListenerArray();
 
                 for (IEvents listener : listeners) {
                     // Skip the listener due to different type, or has been removed
@@ -170,7 +382,7 @@ public class SXREventManager {
             String eventName, Object[] params) {
         // Use cached method if available. Note: no further type checking is done if the
         // method has been cached. It will be checked by JRE when the method is invoked.
-        Method cachedMethod = getCachedMethod(target, eventName);
+        Method cachedMethod = getCachedMethod(eventsClass, eventName);
         if (cachedMethod != null) {
             return cachedMethod;
         }
@@ -214,9 +426,9 @@ public class SXREventManager {
                     + "parameters don't match", eventName));
         }
 
-        // Cache the method for the target, even if it doesn't implement the interface. This is
+        // Cache the method for the interface, even if the target doesn't implement it. This is
         // to avoid always verifying the event.
-        addCachedMethod(target, eventName, signatureMatch);
+        addCachedMethod(eventsClass, eventName, signatureMatch);
 
         return signatureMatch;
     }
@@ -268,39 +480,40 @@ public class SXREventManager {
         return false;
     }
 
-    private Method getCachedMethod(Object target, String eventName) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                return null;
-            }
-
-            return targetCache.get(eventName);
+    private Method getCachedMethod(Class<?> eventsClass, String eventName) {
+        Map<String, Method> classCache = mHandlerMethodCache.get(eventsClass);
+        if (classCache == null) {
+            return null;
         }
+
+        return classCache.get(eventName);
     }
 
-    private void addCachedMethod(Object target, String eventName, Method method) {
-        // Lock the whole cache for both first- and second-level lookup
-        synchronized (mHandlerMethodCache) {
-            Map<String, Method> targetCache = mHandlerMethodCache.get(target);
-            if (targetCache == null) {
-                targetCache = new TreeMap<String, Method>();
-                mHandlerMethodCache.put(target, targetCache);
+    private void addCachedMethod(Class<?> eventsClass, String eventName, Method method) {
+        ConcurrentHashMap<String, Method> classCache = mHandlerMethodCache.get(eventsClass);
+        if (classCache == null) {
+            classCache = new ConcurrentHashMap<String, Method>();
+            ConcurrentHashMap<String, Method> existing = mHandlerMethodCache.putIfAbsent(eventsClass, classCache);
+            if (existing != null) {
+                classCache = existing;
             }
-
-            targetCache.put(eventName, method);
         }
+
+        classCache.put(eventName, method);
     }
 
-    private boolean tryInvokeScript(IScriptable target, String eventName,
-            Object[] params) {
+    private IScriptFile getScriptFile(IScriptable target) {
         IScriptManager sm = mGvrContext.getScriptManager();
         if (sm == null) {
-            return false;
+            return null;
         }
 
-        IScriptFile script = sm.getScriptFile(target);
+        return sm.getScriptFile(target);
+    }
+
+    private boolean tryInvokeScript(IScriptable target, String eventName,
+            Object[] params) {
+        IScriptFile script = getScriptFile(target);
         if (script == null)
             return false;
 
@@ -15,6 +15,8 @@
 
 package com.samsungxr;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -44,6 +46,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class SXREventReceiver {
     protected IEventReceiver mOwner;
     protected List<IEvents> mListeners;
+    private volatile IEvents[] mListenerArray = NO_LISTENERS;
+    // Makes each change to the listeners and its snapshot atomic
+    private final Object mListenerLock = new Object();
+    private static final IEvents[] NO_LISTENERS = new IEvents[0];
 
     /**
      * Constructs an event receiver for the host object.
@@ -66,9 +72,12 @@ public class SXREventReceiver {
      *         The listener to be added.
      */
     public void addListener(IEvents listener) {
-        if (!mListeners.contains(listener))
-        {
-            mListeners.add(listener);
+        synchronized (mListenerLock) {
+            if (!mListeners.contains(listener))
+            {
+                mListeners.add(listener);
+                mListenerArray = mListeners.toArray(NO_LISTENERS);
+            }
         }
     }
 
@@ -79,16 +88,31 @@ public class SXREventReceiver {
      *         The listener to be removed.
      */
     public void removeListener(IEvents listener) {
-        mListeners.remove(listener);
+        synchronized (mListenerLock) {
+            if (mListeners.remove(listener)) {
+                mListenerArray = mListeners.toArray(NO_LISTENERS);
+            }
+        }
     }
 
     /**
      * Gets all listeners. Don't use this method directly to deliver
      * events to the listeners. Instead, use SXREventManager to deliver
      * an event to the owner of this {@link SXREventReceiver}.
+     * The returned list is a read-only snapshot.
      */
     protected List<IEvents> getListeners() {
-        return mListeners;
+        return Collections.unmodifiableList(Arrays.asList(mListenerArray));
+    }
+
+    /**
+     * Gets a snapshot of the listeners as an array. The array is only
+     * rebuilt when listeners are added or removed so it can be iterated
+     * by {@link SXREventManager} without allocating an iterator per event.
+     * The returned array must not be modified.
+     */
+    IEvents[] getListenerArray() {
+        return mListenerArray;
     }
 
     /**
@@ -51,6 +51,22 @@ public class SXRImage extends SXRHybridObject
 
     protected static final String TAG = "SXRImage";
 
+    /**
+     * Approximate number of bytes used by the pixels of the image,
+     * 0 if unknown. Used to keep the texture cache within its budget.
+     */
+    protected long mSizeInBytes = 0;
+
+    /**
+     * Get the approximate number of bytes used by the pixels of this image.
+     * @return number of bytes, 0 if unknown.
+     * @see com.samsungxr.utility.ResourceCacheBase#setMemoryBudget(long)
+     */
+    public long getSizeInBytes()
+    {
+        return mSizeInBytes;
+    }
+
     public String getFileName()
     {
         return NativeBitmapImage.getFileName(getNative());
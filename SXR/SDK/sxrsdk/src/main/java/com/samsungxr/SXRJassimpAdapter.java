@@ -8,14 +8,20 @@ import java.io.IOException;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.Math.max;
 
 import com.samsungxr.animation.SXRAnimation;
@@ -67,6 +73,17 @@ class  SXRJassimpAdapter
 
     private static final int MAX_TEX_COORDS = JassimpConfig.MAX_NUMBER_TEXCOORDS;
     private static final int MAX_VERTEX_COLORS = JassimpConfig.MAX_NUMBER_COLORSETS;
+    private static final float ANIM_POS_TOLERANCE = 0.0001f;
+    private static final float ANIM_ROT_TOLERANCE = 0.00001f;
+    private static final float ANIM_SCALE_TOLERANCE = 0.0001f;
+    private static final int MAX_CONVERSION_THREADS = 4;
+
+    /*
+     * Worker threads shared by all adapters to convert
+     * meshes, materials and animations in parallel.
+     */
+    private static ExecutorService sConversionPool = null;
+    private static int sNumConversionThreads = 0;
 
     /*
      * Maps the name of the SXRNode / AiNode to the SXRBone
@@ -77,8 +94,10 @@ class  SXRJassimpAdapter
     /*
      * Maps SXRNode created for each Assimp node to the Assimp
      * mesh ID (the index of the mesh in AiScene).
+     * Kept in traversal order so the meshes are always
+     * attached in the same order.
      */
-    private HashMap<SXRNode, Integer> mNodeMap = new HashMap<>();
+    private LinkedHashMap<SXRNode, Integer> mNodeMap = new LinkedHashMap<>();
 
     /**
      * Maps the Assimp mesh ID to the corresponding SXRMesh
@@ -91,6 +110,34 @@ class  SXRJassimpAdapter
      */
     private SXRMaterial[] mMaterials;
 
+    /**
+     * Converted mesh and material data for the model cache,
+     * indexed like {@link #mMeshes} and {@link #mMaterials}
+     */
+    private SXRModelCache.MeshData[] mMeshData;
+    private SXRModelCache.MaterialData[] mMaterialData;
+
+    /*
+     * Vertex data, bone weights and blend shapes of one
+     * Assimp mesh, converted before the SXRMesh is made.
+     */
+    private static final class ConvertedMesh
+    {
+        SXRModelCache.MeshData mesh;
+        int[] boneMap;
+        float[] boneWeights;
+        int[] boneIndices;
+        List<MorphTarget> morphTargets;
+    }
+
+    private static final class MorphTarget
+    {
+        float[] positions;
+        float[] normals;
+        float[] tangents;
+        float[] bitangents;
+    }
+
 
     public SXRJassimpAdapter(SXRAssetLoader loader, String filename)
     {
@@ -99,21 +146,25 @@ class  SXRJassimpAdapter
 
     public SXRMesh createMesh(SXRContext ctx, AiMesh aiMesh, EnumSet<SXRImportSettings> settings)
     {
+        return createMesh(ctx, extractMesh(aiMesh, settings));
+    }
+
+    /*
+     * Collects the vertex attributes and indices of an Assimp mesh.
+     * The buffers made by Assimp are used directly when possible.
+     */
+    private SXRModelCache.MeshData extractMesh(AiMesh aiMesh, EnumSet<SXRImportSettings> settings)
+    {
+        SXRModelCache.MeshData data = new SXRModelCache.MeshData();
         String vertexDescriptor = "float3 a_position";
-        float[] verticesArray = null;
-        float[] tangentsArray = null;
-        float[] bitangentsArray = null;
-        float[] normalsArray = null;
+        FloatBuffer normalsBuffer = null;
         boolean doTexturing = !settings.contains(SXRImportSettings.NO_TEXTURING);
         boolean doLighting = !settings.contains(SXRImportSettings.NO_LIGHTING);
 
+        data.texCoords = new FloatBuffer[MAX_TEX_COORDS];
+        data.colors = new FloatBuffer[MAX_VERTEX_COLORS];
         // Vertices
-        FloatBuffer verticesBuffer = aiMesh.getPositionBuffer();
-        if (verticesBuffer != null)
-        {
-            verticesArray = new float[verticesBuffer.capacity()];
-            verticesBuffer.get(verticesArray, 0, verticesBuffer.capacity());
-        }
+        data.positions = aiMesh.getPositionBuffer();
         // TexCoords
         if (doTexturing)
         {
@@ -127,22 +178,34 @@ class  SXRJassimpAdapter
                     {
                         vertexDescriptor += texIndex;
                     }
+                    FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 2);
+                    if (aiMesh.getNumUVComponents(texIndex) == 2)
+                    {
+                        coords.put(fbuf);
+                    }
+                    else
+                    {
+                        for (int i = 0; i < aiMesh.getNumVertices(); ++i)
+                        {
+                            float u = aiMesh.getTexCoordU(i, texIndex);
+                            float v = aiMesh.getTexCoordV(i, texIndex);
+                            coords.put(u);
+                            coords.put(v);
+                        }
+                    }
+                    data.texCoords[texIndex] = coords;
                 }
             }
         }
         // Normals
         if (doLighting)
         {
-
-            FloatBuffer normalsBuffer = aiMesh.getNormalBuffer();
+            normalsBuffer = aiMesh.getNormalBuffer();
             if (normalsBuffer != null)
             {
                 vertexDescriptor += " float3 a_normal";
-
-                normalsArray = new float[normalsBuffer.capacity()];
-                normalsBuffer.get(normalsArray, 0, normalsBuffer.capacity());
+                data.normals = normalsBuffer;
             }
-
         }
 
         for (int c = 0; c < MAX_VERTEX_COLORS; c++)
@@ -157,6 +220,7 @@ class  SXRJassimpAdapter
                     name += c;
                 }
                 vertexDescriptor += " float4 " + name;
+                data.colors[c] = fbuf;
             }
         }
 
@@ -171,9 +235,9 @@ class  SXRJassimpAdapter
 
             FloatBuffer tangentBuffer = aiMesh.getTangentBuffer();
 
-            tangentsArray = new float[tangentBuffer.capacity()];
+            float[] tangentsArray = new float[tangentBuffer.capacity()];
             tangentBuffer.get(tangentsArray, 0, tangentBuffer.capacity());
-            bitangentsArray = new float[tangentsArray.length];
+            float[] bitangentsArray = new float[tangentsArray.length];
 
             Vector3f tangent = new Vector3f();
             Vector3f normal = new Vector3f();
@@ -182,21 +246,32 @@ class  SXRJassimpAdapter
             for (int i = 0; i < tangentsArray.length; i += 3)
             {
                 tangent.set(tangentsArray[i], tangentsArray[i + 1], tangentsArray[i + 2]);
-                normal.set(normalsArray[i], normalsArray[i + 1], normalsArray[i + 2]);
+                normal.set(normalsBuffer.get(i), normalsBuffer.get(i + 1), normalsBuffer.get(i + 2));
                 normal.cross(tangent, bitangent);
                 bitangentsArray[i] = bitangent.x; bitangentsArray[i+1] = bitangent.y; bitangentsArray[i + 2] = bitangent.z;
             }
+            data.tangents = FloatBuffer.wrap(tangentsArray);
+            data.bitangents = FloatBuffer.wrap(bitangentsArray);
         }
+        data.descriptor = vertexDescriptor;
+        data.indices = aiMesh.getIndexBuffer();
+        return data;
+    }
 
-        SXRMesh mesh = new SXRMesh(ctx, vertexDescriptor);
+    /*
+     * Makes a mesh from converted mesh data,
+     * either from Assimp or from the model cache.
+     */
+    private SXRMesh createMesh(SXRContext ctx, SXRModelCache.MeshData data)
+    {
+        SXRMesh mesh = new SXRMesh(ctx, data.descriptor);
 
         // Vertex Colors
-        for (int c = 0; c < MAX_VERTEX_COLORS; c++)
+        for (int c = 0; c < data.colors.length; c++)
         {
-            FloatBuffer fbuf = aiMesh.getColorBuffer(c);
-            if (fbuf != null)
+            FloatBuffer source = data.colors[c];
+            if (source != null)
             {
-                FloatBuffer source = aiMesh.getColorBuffer(c);
                 String name = "a_color";
 
                 if (c > 0)
@@ -207,55 +282,36 @@ class  SXRJassimpAdapter
             }
         }
 
-        IntBuffer indices = aiMesh.getIndexBuffer();
-        int len = indices.capacity();
+        int len = data.indices.capacity();
         SXRIndexBuffer indexBuffer = new SXRIndexBuffer(ctx, 4, len);
 
-        indexBuffer.setIntVec(indices);
+        indexBuffer.setIntVec(data.indices);
         mesh.setIndexBuffer(indexBuffer);
 
-        if (verticesArray != null)
+        if (data.positions != null)
         {
-            mesh.setVertices(verticesArray);
+            mesh.setFloatVec(SXRMesh.KEY_POSITION, data.positions);
         }
-        if (normalsArray != null)
+        if (data.normals != null)
         {
-            mesh.setNormals(normalsArray);
+            mesh.setFloatVec(SXRMesh.KEY_NORMAL, data.normals);
         }
-        if (tangentsArray != null)
+        if (data.tangents != null)
         {
-            mesh.setFloatArray("a_tangent", tangentsArray);
+            mesh.setFloatVec("a_tangent", data.tangents);
         }
-        if (bitangentsArray != null)
+        if (data.bitangents != null)
         {
-            mesh.setFloatArray("a_bitangent", bitangentsArray);
+            mesh.setFloatVec("a_bitangent", data.bitangents);
         }
         // TexCords
-        if (doTexturing)
+        for (int texIndex = 0; texIndex < data.texCoords.length; texIndex++)
         {
-            for (int texIndex = 0; texIndex < MAX_TEX_COORDS; texIndex++)
+            FloatBuffer coords = data.texCoords[texIndex];
+            if (coords != null)
             {
-                FloatBuffer fbuf = aiMesh.getTexCoordBuffer(texIndex);
-                if (fbuf != null)
-                {
-                    FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 2);
-                    if (aiMesh.getNumUVComponents(texIndex) == 2)
-                    {
-                        FloatBuffer coordsSource = aiMesh.getTexCoordBuffer(texIndex);
-                        coords.put(coordsSource);
-                    }
-                    else
-                    {
-                        for (int i = 0; i < aiMesh.getNumVertices(); ++i)
-                        {
-                            float u = aiMesh.getTexCoordU(i, texIndex);
-                            float v = aiMesh.getTexCoordV(i, texIndex);
-                            coords.put(u);
-                            coords.put(v);
-                        }
-                    }
-                    mesh.setTexCoords(coords.array(), texIndex);
-                }
+                String key = (texIndex > 0) ? (SXRMesh.KEY_TEXCOORD + texIndex) : SXRMesh.KEY_TEXCOORD;
+                mesh.setFloatVec(key, coords);
             }
         }
         return mesh;
@@ -263,7 +319,61 @@ class  SXRJassimpAdapter
 
     public void setMeshMorphComponent(SXRMesh mesh, SXRNode sceneObject, AiMesh aiMesh)
     {
-        int nAnimationMeshes = aiMesh.getAnimationMeshes().size();
+        attachMorph(mesh, sceneObject, extractMorphTargets(aiMesh));
+    }
+
+    /*
+     * Copies the blend shapes of an Assimp mesh into float arrays
+     * and computes their bitangents. Does not use the SXRContext
+     * so it can run on a conversion thread.
+     */
+    private static List<MorphTarget> extractMorphTargets(AiMesh aiMesh)
+    {
+        List<AiAnimMesh> animMeshes = aiMesh.getAnimationMeshes();
+        List<MorphTarget> targets = new ArrayList<>(animMeshes.size());
+
+        for (AiAnimMesh animMesh : animMeshes)
+        {
+            MorphTarget target = new MorphTarget();
+
+            target.positions = toArray(animMesh.getPositionBuffer());
+            target.normals = toArray(animMesh.getNormalBuffer());
+            target.tangents = toArray(animMesh.getTangentBuffer());
+            if (target.tangents != null)
+            {
+                float[] t = target.tangents;
+                float[] n = target.normals;
+                float[] b = new float[t.length];
+
+                //bitangent = normal x tangent
+                for (int i = 0; i < t.length; i += 3)
+                {
+                    b[i] = n[i + 1] * t[i + 2] - n[i + 2] * t[i + 1];
+                    b[i + 1] = n[i + 2] * t[i] - n[i] * t[i + 2];
+                    b[i + 2] = n[i] * t[i + 1] - n[i + 1] * t[i];
+                }
+                target.bitangents = b;
+            }
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    private static float[] toArray(FloatBuffer buffer)
+    {
+        if (buffer == null)
+        {
+            return null;
+        }
+        float[] array = new float[buffer.capacity()];
+
+        buffer.get(array, 0, array.length);
+        return array;
+    }
+
+    private void attachMorph(SXRMesh mesh, SXRNode sceneObject, List<MorphTarget> targets)
+    {
+        int nAnimationMeshes = targets.size();
         if (nAnimationMeshes == 0)
             return;
         try
@@ -272,55 +382,24 @@ class  SXRJassimpAdapter
             sceneObject.attachComponent(morph);
             int blendShapeNum = 0;
 
-            for (AiAnimMesh animMesh : aiMesh.getAnimationMeshes())
+            for (MorphTarget target : targets)
             {
                 SXRVertexBuffer animBuff = new SXRVertexBuffer(mesh.getVertexBuffer(),
                                                                "float3 a_position float3 a_normal float3 a_tangent float3 a_bitangent");
-                float[] vertexArray = null;
-                float[] normalArray = null;
-                float[] tangentArray = null;
-                float[] bitangentArray = null;
-
-                //copy target positions to anim vertex buffer
-                FloatBuffer animPositionBuffer = animMesh.getPositionBuffer();
-                if (animPositionBuffer != null)
+
+                //copy target positions, normals and tangents to anim vertex buffer
+                if (target.positions != null)
                 {
-                    vertexArray = new float[animPositionBuffer.capacity()];
-                    animPositionBuffer.get(vertexArray, 0, animPositionBuffer.capacity());
-                    animBuff.setFloatArray("a_position", vertexArray);
+                    animBuff.setFloatArray("a_position", target.positions);
                 }
-
-                //copy target normals to anim normal buffer
-                FloatBuffer animNormalBuffer = animMesh.getNormalBuffer();
-                if (animNormalBuffer != null)
+                if (target.normals != null)
                 {
-                    normalArray = new float[animNormalBuffer.capacity()];
-                    animNormalBuffer.get(normalArray, 0, animNormalBuffer.capacity());
-                    animBuff.setFloatArray("a_normal", normalArray);
+                    animBuff.setFloatArray("a_normal", target.normals);
                 }
-
-                //copy target tangents to anim tangent buffer
-                FloatBuffer animTangentBuffer = animMesh.getTangentBuffer();
-                if (animTangentBuffer != null)
+                if (target.tangents != null)
                 {
-                    tangentArray = new float[animTangentBuffer.capacity()];
-                    animTangentBuffer.get(tangentArray, 0, animTangentBuffer.capacity());
-                    animBuff.setFloatArray("a_tangent", tangentArray);
-                    //calculate bitangents
-                    bitangentArray = new float[tangentArray.length];
-                    for (int i = 0; i < tangentArray.length; i += 3)
-                    {
-                        Vector3f tangent =
-                            new Vector3f(tangentArray[i], tangentArray[i + 1], tangentArray[i + 2]);
-                        Vector3f normal =
-                            new Vector3f(normalArray[i], normalArray[i + 1], normalArray[i + 2]);
-                        Vector3f bitangent = new Vector3f();
-                        normal.cross(tangent, bitangent);
-                        bitangentArray[i] = bitangent.x;
-                        bitangentArray[i + 1] = bitangent.y;
-                        bitangentArray[i + 2] = bitangent.z;
-                    }
-                    animBuff.setFloatArray("a_bitangent", bitangentArray);
+                    animBuff.setFloatArray("a_tangent", target.tangents);
+                    animBuff.setFloatArray("a_bitangent", target.bitangents);
                 }
                 morph.setBlendShape(blendShapeNum, animBuff);
                 blendShapeNum++;
@@ -334,20 +413,25 @@ class  SXRJassimpAdapter
     }
 
     public SXRSkin processBones(SXRMesh mesh, List<AiBone> aiBones)
+    {
+        ConvertedMesh data = new ConvertedMesh();
+
+        extractBones(aiBones, mesh.getVertexBuffer().getVertexCount(), data);
+        return attachBones(mesh, data);
+    }
+
+    /*
+     * Computes the normalized bone weights and indices of a skinned mesh.
+     * Only reads the skeleton so it can run on a conversion thread.
+     */
+    private void extractBones(List<AiBone> aiBones, int nverts, ConvertedMesh data)
     {
         final int MAX_WEIGHTS = 4;
-        SXRVertexBuffer vbuf = mesh.getVertexBuffer();
-        int nverts = vbuf.getVertexCount();
         int n = nverts * MAX_WEIGHTS;
         float[] weights = new float[n];
         int[] indices = new int[n];
         int[] boneMap = new int[aiBones.size()];
         int boneIndex = -1;
-        SXRSkin skin = new SXRSkin(mSkeleton);
-
-        // Process bones
-        Arrays.fill(weights, 0, n - 1,  0.0f);
-        Arrays.fill(indices, 0, n - 1, 0);
 
         /*
          * Accumulate vertex weights and indices for all the bones
@@ -387,7 +471,6 @@ class  SXRJassimpAdapter
                 }
             }
         }
-        skin.setBoneMap(boneMap);
         /*
          * Normalize the weights for each vertex.
          * Sum the weights and divide by the sum.
@@ -395,16 +478,10 @@ class  SXRJassimpAdapter
         for (int v = 0; v < nverts; ++v)
         {
             float t = 0.0f;
-            String is = v + " ";
-            String ws = "";
             for (int i = 0; i < MAX_WEIGHTS; ++i)
             {
-                int j = (v * MAX_WEIGHTS) + i;
-                t += weights[j];
-                //is += " " + indices[j];
-                //ws += " " + weights[j];
+                t += weights[(v * MAX_WEIGHTS) + i];
             }
-            //Log.v("BONES", is + ws);
             if (t > 0.000001f)
             {
                 for (int i = 0; i < MAX_WEIGHTS; ++i)
@@ -413,8 +490,19 @@ class  SXRJassimpAdapter
                 }
             }
         }
-        vbuf.setFloatArray("a_bone_weights", weights);
-        vbuf.setIntArray("a_bone_indices", indices);
+        data.boneMap = boneMap;
+        data.boneWeights = weights;
+        data.boneIndices = indices;
+    }
+
+    private SXRSkin attachBones(SXRMesh mesh, ConvertedMesh data)
+    {
+        SXRVertexBuffer vbuf = mesh.getVertexBuffer();
+        SXRSkin skin = new SXRSkin(mSkeleton);
+
+        skin.setBoneMap(data.boneMap);
+        vbuf.setFloatArray("a_bone_weights", data.boneWeights);
+        vbuf.setIntArray("a_bone_indices", data.boneIndices);
         return skin;
     }
 
@@ -498,13 +586,32 @@ class  SXRJassimpAdapter
     {
         Map<String, SXRAnimationChannel> animMap = new HashMap<>();
         float duration =  (float) (aiAnim.getDuration() / aiAnim.getTicksPerSecond());
+        final float ticksPerSec = (float) aiAnim.getTicksPerSecond();
+        final List<AiNodeAnim> aiChannels = aiAnim.getChannels();
+        final SXRAnimationChannel[] channels = new SXRAnimationChannel[aiChannels.size()];
+        List<Runnable> tasks = new ArrayList<>(channels.length);
 
-        for (AiNodeAnim aiNodeAnim : aiAnim.getChannels())
+        /*
+         * The channels are independent, convert them in parallel
+         * and add them in the order of the Assimp channels.
+         */
+        for (int i = 0; i < channels.length; ++i)
         {
-            String nodeName = aiNodeAnim.getNodeName();
-            SXRAnimationChannel channel = createAnimChannel(aiNodeAnim, (float) aiAnim.getTicksPerSecond());
+            final int index = i;
 
-            animMap.put(nodeName, channel);
+            tasks.add(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    channels[index] = createAnimChannel(aiChannels.get(index), ticksPerSec);
+                }
+            });
+        }
+        runConversions(tasks);
+        for (int i = 0; i < channels.length; ++i)
+        {
+            animMap.put(aiChannels.get(i).getNodeName(), channels[i]);
         }
         if (mSkeleton != null)
         {
@@ -671,97 +778,31 @@ class  SXRJassimpAdapter
                 aiNodeAnim.getNumRotKeys(),  aiNodeAnim.getNumScaleKeys(),
                 convertAnimationBehavior(aiNodeAnim.getPreState()),
                 convertAnimationBehavior(aiNodeAnim.getPostState()));
-        // Pos keys
         int i;
-        float t;
 
-        if (aiNodeAnim.getNumPosKeys() > 0)
+        for (i = 0; i < aiNodeAnim.getNumPosKeys(); ++i)
         {
-            float[] curpos = aiNodeAnim.getPosKeyVector(0, sWrapperProvider);
-            int nextIndex = 1;
-
-            t = (float) aiNodeAnim.getPosKeyTime(0) / ticksPerSec;
-            channel.setPosKeyVector(0, t, curpos);
-            for (i = 1; i < aiNodeAnim.getNumPosKeys(); ++i)
-            {
-                float[] pos = aiNodeAnim.getPosKeyVector(i, sWrapperProvider);
-                if (!isEqual(pos, curpos))
-                {
-                    t = (float) aiNodeAnim.getPosKeyTime(i) / ticksPerSec;
-                    channel.setPosKeyVector(nextIndex++, t, pos);
-                    curpos = pos;
-                }
-            }
-            channel.resizePosKeys(nextIndex);
+            float t = (float) aiNodeAnim.getPosKeyTime(i) / ticksPerSec;
+            channel.setPosKeyVector(i, t, aiNodeAnim.getPosKeyVector(i, sWrapperProvider));
         }
-
-        if (aiNodeAnim.getNumRotKeys() > 0)
+        for (i = 0; i < aiNodeAnim.getNumRotKeys(); ++i)
         {
-            Quaternionf currot = aiNodeAnim.getRotKeyQuaternion(0, sWrapperProvider);
-            int nextIndex = 1;
-
-            t = (float) aiNodeAnim.getRotKeyTime(0) / ticksPerSec;
-            channel.setRotKeyQuaternion(0, t, currot);
-            for (i = 1; i < aiNodeAnim.getNumRotKeys(); ++i)
-            {
-                Quaternionf rot = aiNodeAnim.getRotKeyQuaternion(i, sWrapperProvider);
-                if (!isEqual(rot, currot))
-                {
-                    t = (float) aiNodeAnim.getRotKeyTime(i) / ticksPerSec;
-                    channel.setRotKeyQuaternion(nextIndex++, t, rot);
-                    currot = rot;
-                }
-            }
-            channel.resizeRotKeys(nextIndex);
+            float t = (float) aiNodeAnim.getRotKeyTime(i) / ticksPerSec;
+            channel.setRotKeyQuaternion(i, t, aiNodeAnim.getRotKeyQuaternion(i, sWrapperProvider));
         }
-
-        if (aiNodeAnim.getNumScaleKeys() > 0)
+        for (i = 0; i < aiNodeAnim.getNumScaleKeys(); ++i)
         {
-            int nextIndex = 1;
-            float[] curscale = aiNodeAnim.getScaleKeyVector(0, sWrapperProvider);
-
-            t = (float) aiNodeAnim.getScaleKeyTime(0) / ticksPerSec;
-            channel.setScaleKeyVector(0, t, curscale);
-            for (i = 1; i < aiNodeAnim.getNumScaleKeys(); ++i)
-            {
-                float[] scale = aiNodeAnim.getScaleKeyVector(i, sWrapperProvider);
-
-                if (!isEqual(scale, curscale))
-                {
-                    t = (float) aiNodeAnim.getScaleKeyTime(i) / ticksPerSec;
-                    channel.setScaleKeyVector(nextIndex++, t, scale);
-                }
-            }
-            channel.resizeScaleKeys(nextIndex);
+            float t = (float) aiNodeAnim.getScaleKeyTime(i) / ticksPerSec;
+            channel.setScaleKeyVector(i, t, aiNodeAnim.getScaleKeyVector(i, sWrapperProvider));
         }
+        /*
+         * Remove redundant keys, keeping the keys at the start
+         * and end of a hold so they interpolate correctly.
+         */
+        channel.reduceKeys(ANIM_POS_TOLERANCE, ANIM_ROT_TOLERANCE, ANIM_SCALE_TOLERANCE);
         return channel;
     }
 
-    private boolean isEqual(float[] arr1, float[] arr2)
-    {
-        final float EPSILON = 0.0001f;
-
-        for (int i = 0; i < arr1.length; ++i)
-        {
-            if (Math.abs(arr2[i] - arr1[i]) > EPSILON)
-            {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean isEqual(Quaternionf q1, Quaternionf q2)
-    {
-        final float EPSILON = 0.00001f;
-
-        if (Math.abs(q1.x - q2.x) > EPSILON) return false;
-        if (Math.abs(q1.y - q2.y) > EPSILON) return false;
-        if (Math.abs(q1.z - q2.z) > EPSILON) return false;
-        if (Math.abs(q1.w - q2.w) > EPSILON) return false;
-        return true;
-    }
-
     private SXRAnimationBehavior convertAnimationBehavior(AiAnimBehavior behavior)
     {
         switch (behavior)
@@ -859,6 +900,8 @@ class  SXRJassimpAdapter
         }
         mMeshes = new SXRMesh[scene.getNumMeshes()];
         mMaterials = new SXRMaterial[scene.getNumMaterials()];
+        mMeshData = new SXRModelCache.MeshData[scene.getNumMeshes()];
+        mMaterialData = new SXRModelCache.MaterialData[scene.getNumMaterials()];
 
         traverseGraph(model, scene.getSceneRoot(sWrapperProvider), lightList);
         makeSkeleton(model);
@@ -866,6 +909,8 @@ class  SXRJassimpAdapter
         {
             processAnimations(model, scene, settings.contains(SXRImportSettings.START_ANIMATIONS));
         }
+        ConvertedMesh[] converted = convertMeshes(settings);
+
         for (Map.Entry<SXRNode, Integer> entry : mNodeMap.entrySet())
         {
             SXRNode obj = entry.getKey();
@@ -873,8 +918,212 @@ class  SXRJassimpAdapter
 
             if (meshId >= 0)
             {
-                processMesh(request, obj, meshId);
+                processMesh(request, obj, meshId, converted[meshId]);
+            }
+        }
+        if (modelParent != null)
+        {
+            modelParent.addChildObject(model);
+        }
+    }
+
+    /*
+     * Converts the vertices, bone weights and blend shapes of every
+     * mesh and the properties of every material used by the scene.
+     * This is only CPU work on the Assimp data so each mesh and material
+     * is a separate task. The SXR objects are made afterwards on the
+     * calling thread in traversal order.
+     */
+    private ConvertedMesh[] convertMeshes(final EnumSet<SXRImportSettings> settings)
+    {
+        final List<AiMesh> aiMeshes = mScene.getMeshes();
+        final List<AiMaterial> aiMaterials = mScene.getMaterials();
+        final ConvertedMesh[] converted = new ConvertedMesh[aiMeshes.size()];
+        final boolean doBones = (mSkeleton != null);
+        boolean[] hasMaterial = new boolean[aiMaterials.size()];
+        List<Runnable> tasks = new ArrayList<>();
+
+        for (int meshId : mNodeMap.values())
+        {
+            if ((meshId < 0) || (converted[meshId] != null))
+            {
+                continue;
+            }
+            final AiMesh aiMesh = aiMeshes.get(meshId);
+            final ConvertedMesh data = new ConvertedMesh();
+            final int materialId = aiMesh.getMaterialIndex();
+
+            converted[meshId] = data;
+            tasks.add(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    data.mesh = extractMesh(aiMesh, settings);
+                    if (doBones && aiMesh.hasBones())
+                    {
+                        extractBones(aiMesh.getBones(), aiMesh.getNumVertices(), data);
+                    }
+                    data.morphTargets = extractMorphTargets(aiMesh);
+                }
+            });
+            if (!hasMaterial[materialId])
+            {
+                hasMaterial[materialId] = true;
+                tasks.add(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        mMaterialData[materialId] =
+                            extractMaterial(aiMaterials.get(materialId), aiMesh, settings);
+                    }
+                });
+            }
+        }
+        runConversions(tasks);
+        return converted;
+    }
+
+    /*
+     * Runs the tasks on the conversion threads and the calling thread
+     * and waits for all of them to finish. Each thread takes the next
+     * task from the list so the load is balanced between the threads.
+     */
+    private static void runConversions(final List<Runnable> tasks)
+    {
+        ExecutorService executor = (tasks.size() > 1) ? getConversionPool() : null;
+        final AtomicInteger nextTask = new AtomicInteger(0);
+        Runnable worker = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                int i;
+                try
+                {
+                    while ((i = nextTask.getAndIncrement()) < tasks.size())
+                    {
+                        tasks.get(i).run();
+                    }
+                }
+                catch (RuntimeException ex)
+                {
+                    nextTask.set(tasks.size());
+                    throw ex;
+                }
+            }
+        };
+        List<Future<?>> futures = new ArrayList<>();
+
+        if (executor != null)
+        {
+            int numWorkers = Math.min(sNumConversionThreads, tasks.size() - 1);
+
+            for (int i = 0; i < numWorkers; ++i)
+            {
+                futures.add(executor.submit(worker));
+            }
+        }
+        RuntimeException error = null;
+        boolean interrupted = false;
+        try
+        {
+            worker.run();
+        }
+        catch (RuntimeException ex)
+        {
+            error = ex;
+        }
+        for (Future<?> future : futures)
+        {
+            while (true)
+            {
+                try
+                {
+                    future.get();
+                    break;
+                }
+                catch (InterruptedException ex)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException ex)
+                {
+                    if (error == null)
+                    {
+                        Throwable cause = ex.getCause();
+                        error = (cause instanceof RuntimeException)
+                                ? (RuntimeException) cause : new RuntimeException(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null)
+        {
+            throw error;
+        }
+    }
+
+    /*
+     * Lazily makes the conversion threads, one less than the
+     * number of cores because the calling thread also converts.
+     * Returns null on a single core device.
+     */
+    private static synchronized ExecutorService getConversionPool()
+    {
+        if (sConversionPool == null)
+        {
+            int numThreads = Math.min(Runtime.getRuntime().availableProcessors() - 1,
+                                      MAX_CONVERSION_THREADS);
+            if (numThreads <= 0)
+            {
+                return null;
             }
+            sNumConversionThreads = numThreads;
+            sConversionPool = Executors.newFixedThreadPool(numThreads, new ThreadFactory()
+            {
+                private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "SXRJassimp-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sConversionPool;
+    }
+
+    /**
+     * Rebuilds a model from the model cache without Assimp.
+     * @param request   request to load the model
+     * @param model     root of the model
+     * @param scene     scene read from the cache
+     * @see SXRModelCache
+     */
+    public void processCachedScene(SXRAssetLoader.AssetRequest request, final SXRNode model,
+                                   SXRModelCache.SceneData scene)
+    {
+        SXRNode modelParent = model.getParent();
+
+        if (modelParent != null)
+        {
+            modelParent.removeChildObject(model);
+        }
+        mContext = model.getSXRContext();
+        mMeshes = new SXRMesh[scene.meshes.length];
+        mMaterials = new SXRMaterial[scene.materials.length];
+        for (SXRModelCache.NodeData node : scene.nodes)
+        {
+            createNode(request, model, node, scene);
         }
         if (modelParent != null)
         {
@@ -882,6 +1131,107 @@ class  SXRJassimpAdapter
         }
     }
 
+    private void createNode(SXRAssetLoader.AssetRequest request, SXRNode parent,
+                            SXRModelCache.NodeData nodeData, SXRModelCache.SceneData scene)
+    {
+        SXRNode sceneObject = new SXRNode(mContext);
+        int meshId = nodeData.meshId;
+
+        sceneObject.setName(nodeData.name);
+        sceneObject.getTransform().setModelMatrix(nodeData.matrix);
+        parent.addChildObject(sceneObject);
+        if (meshId >= 0)
+        {
+            int materialId = scene.meshMaterials[meshId];
+            SXRMesh mesh = mMeshes[meshId];
+            SXRMaterial material = mMaterials[materialId];
+
+            if (mesh == null)
+            {
+                mesh = createMesh(mContext, scene.meshes[meshId]);
+                mMeshes[meshId] = mesh;
+            }
+            if (material == null)
+            {
+                material = processMaterial(request, scene.materials[materialId]);
+                mMaterials[materialId] = material;
+            }
+            attachRenderData(request.getImportSettings(), sceneObject, mesh, material);
+        }
+        for (SXRModelCache.NodeData child : nodeData.children)
+        {
+            createNode(request, sceneObject, child, scene);
+        }
+    }
+
+    /**
+     * Gets the converted scene to put in the model cache.
+     * Must be called after {@link #processScene}.
+     * @param model root of the model
+     * @return converted scene or null if the model cannot be cached
+     * @see SXRModelCache
+     */
+    public SXRModelCache.SceneData getCacheData(SXRNode model)
+    {
+        if ((mScene == null) ||
+            (mScene.getNumCameras() > 0) ||
+            (mScene.getNumLights() > 0) ||
+            (mScene.getNumAnimations() > 0) ||
+            !mBoneMap.isEmpty())
+        {
+            return null;
+        }
+        SXRModelCache.SceneData scene = new SXRModelCache.SceneData();
+        List<AiMesh> aiMeshes = mScene.getMeshes();
+
+        scene.meshes = mMeshData;
+        scene.materials = mMaterialData;
+        scene.meshMaterials = new int[mMeshData.length];
+        for (int i = 0; i < mMeshData.length; ++i)
+        {
+            AiMesh aiMesh = aiMeshes.get(i);
+
+            if ((mMeshData[i] != null) && (aiMesh.getAnimationMeshes().size() > 0))
+            {
+                return null;
+            }
+            scene.meshMaterials[i] = aiMesh.getMaterialIndex();
+        }
+        for (SXRModelCache.MaterialData material : mMaterialData)
+        {
+            if (material != null)
+            {
+                for (SXRModelCache.TextureData tex : material.textures)
+                {
+                    if (tex.fileName.startsWith("*"))
+                    {
+                        return null;
+                    }
+                }
+            }
+        }
+        for (SXRNode child : model.getChildren())
+        {
+            scene.nodes.add(getNodeData(child));
+        }
+        return scene;
+    }
+
+    private SXRModelCache.NodeData getNodeData(SXRNode sceneObject)
+    {
+        SXRModelCache.NodeData nodeData = new SXRModelCache.NodeData();
+        Integer meshId = mNodeMap.get(sceneObject);
+
+        nodeData.name = sceneObject.getName();
+        System.arraycopy(sceneObject.getTransform().getLocalModelMatrix(), 0, nodeData.matrix, 0, 16);
+        nodeData.meshId = (meshId != null) ? meshId : -1;
+        for (SXRNode child : sceneObject.getChildren())
+        {
+            nodeData.children.add(getNodeData(child));
+        }
+        return nodeData;
+    }
+
     private SXRAnimator processAnimations(SXRNode model, AiScene scene, boolean startAnimations)
     {
         List<AiAnimation> animations = scene.getAnimations();
@@ -1053,24 +1403,30 @@ class  SXRJassimpAdapter
      *
      * @param meshId
      *            The index of the assimp mesh in the AiScene mesh list
+     *
+     * @param converted
+     *            The mesh data from {@link #convertMeshes}
      */
     private void processMesh(
             SXRAssetLoader.AssetRequest assetRequest,
             SXRNode sceneObject,
-            int meshId)
+            int meshId,
+            ConvertedMesh converted)
     {
         EnumSet<SXRImportSettings> settings = assetRequest.getImportSettings();
         AiMesh aiMesh = mScene.getMeshes().get(meshId);
+        int materialId = aiMesh.getMaterialIndex();
         SXRMesh mesh = mMeshes[meshId];
-        SXRMaterial gvrMaterial = mMaterials[aiMesh.getMaterialIndex()];
+        SXRMaterial gvrMaterial = mMaterials[materialId];
 
         if (mesh == null)
         {
-            mesh = createMesh(mContext, aiMesh, settings);
+            mMeshData[meshId] = converted.mesh;
+            mesh = createMesh(mContext, converted.mesh);
             mMeshes[meshId] = mesh;
-            if (aiMesh.hasBones() && (mSkeleton != null))
+            if (converted.boneMap != null)
             {
-                SXRSkin skin = processBones(mesh, aiMesh.getBones());
+                SXRSkin skin = attachBones(mesh, converted);
                 if (skin != null)
                 {
                     sceneObject.attachComponent(skin);
@@ -1083,11 +1439,17 @@ class  SXRJassimpAdapter
         }
         if (gvrMaterial == null)
         {
-            AiMaterial material = mScene.getMaterials().get(aiMesh.getMaterialIndex());
-            gvrMaterial = processMaterial(assetRequest, material, aiMesh);
-            mMaterials[aiMesh.getMaterialIndex()] = gvrMaterial;
+            gvrMaterial = processMaterial(assetRequest, mMaterialData[materialId]);
+            mMaterials[materialId] = gvrMaterial;
         }
-        SXRRenderData renderData = new SXRRenderData(mContext, gvrMaterial);
+        attachRenderData(settings, sceneObject, mesh, gvrMaterial);
+        attachMorph(mesh, sceneObject, converted.morphTargets);
+    }
+
+    private void attachRenderData(EnumSet<SXRImportSettings> settings, SXRNode sceneObject,
+                                  SXRMesh mesh, SXRMaterial material)
+    {
+        SXRRenderData renderData = new SXRRenderData(mContext, material);
 
         renderData.setMesh(mesh);
         if (settings.contains(SXRImportSettings.NO_LIGHTING))
@@ -1095,7 +1457,6 @@ class  SXRJassimpAdapter
             renderData.disableLight();
         }
         sceneObject.attachRenderData(renderData);
-        setMeshMorphComponent(mesh, sceneObject, aiMesh);
     }
 
     private static final Map<AiTextureType, String> textureMap;
@@ -1142,74 +1503,72 @@ class  SXRJassimpAdapter
 
     private SXRMaterial processMaterial(
             SXRAssetLoader.AssetRequest assetRequest,
-            AiMaterial aiMaterial,
-            AiMesh aiMesh)
+            SXRModelCache.MaterialData data)
     {
         EnumSet<SXRImportSettings> settings = assetRequest.getImportSettings();
-        SXRMaterial gvrMaterial = createMaterial(aiMaterial, settings);
-        AiColor diffuseColor = aiMaterial.getDiffuseColor(sWrapperProvider);
-        float opacity = diffuseColor.getAlpha();
+        SXRMaterial gvrMaterial = createMaterial(data);
+        float opacity = data.diffuseColor[3];
 
         if (!settings.contains(SXRImportSettings.NO_TEXTURING))
         {
-            loadTextures(assetRequest, aiMaterial, gvrMaterial, aiMesh);
+            for (SXRModelCache.TextureData tex : data.textures)
+            {
+                loadTexture(assetRequest, gvrMaterial, tex);
+            }
+        }
+        if (data.opacity > 0)
+        {
+            opacity *= data.opacity;
         }
         if (settings.contains(SXRImportSettings.NO_LIGHTING))
         {
-            if (aiMaterial.getOpacity() > 0)
-            {
-                opacity *= aiMaterial.getOpacity();
-            }
             gvrMaterial.setVec3("u_color",
-                    diffuseColor.getRed(),
-                    diffuseColor.getGreen(),
-                    diffuseColor.getBlue());
+                    data.diffuseColor[0],
+                    data.diffuseColor[1],
+                    data.diffuseColor[2]);
             gvrMaterial.setFloat("u_opacity", opacity);
         }
         else
         {
             /* Diffuse color & Opacity */
-            if (aiMaterial.getOpacity() > 0)
-            {
-                opacity *= aiMaterial.getOpacity();
-            }
-            gvrMaterial.setVec4("diffuse_color",diffuseColor.getRed(),
-                    diffuseColor.getGreen(), diffuseColor.getBlue(), opacity);
+            gvrMaterial.setVec4("diffuse_color", data.diffuseColor[0],
+                    data.diffuseColor[1], data.diffuseColor[2], opacity);
 
             /* Specular color */
-            AiColor specularColor = aiMaterial.getSpecularColor(sWrapperProvider);
-            gvrMaterial.setSpecularColor(specularColor.getRed(),
-                    specularColor.getGreen(), specularColor.getBlue(),
-                    specularColor.getAlpha());
+            gvrMaterial.setSpecularColor(data.specularColor[0],
+                    data.specularColor[1], data.specularColor[2],
+                    data.specularColor[3]);
 
 
             /* Ambient color */
-            AiColor ambientColor = aiMaterial.getAmbientColor(sWrapperProvider);
             if (gvrMaterial.hasUniform("ambient_color"))
             {
-                gvrMaterial.setAmbientColor(ambientColor.getRed(),
-                        ambientColor.getGreen(), ambientColor.getBlue(),
-                        ambientColor.getAlpha());
+                gvrMaterial.setAmbientColor(data.ambientColor[0],
+                        data.ambientColor[1], data.ambientColor[2],
+                        data.ambientColor[3]);
             }
 
 
             /* Emissive color */
-            AiColor emissiveColor = aiMaterial.getEmissiveColor(sWrapperProvider);
-            gvrMaterial.setVec4("emissive_color", emissiveColor.getRed(),
-                    emissiveColor.getGreen(), emissiveColor.getBlue(),
-                    emissiveColor.getAlpha());
+            gvrMaterial.setVec4("emissive_color", data.emissiveColor[0],
+                    data.emissiveColor[1], data.emissiveColor[2],
+                    data.emissiveColor[3]);
         }
 
         /* Specular Exponent */
-        float specularExponent = aiMaterial.getShininess();
-        gvrMaterial.setSpecularExponent(specularExponent);
+        gvrMaterial.setSpecularExponent(data.shininess);
         return gvrMaterial;
     }
 
-    private SXRMaterial createMaterial(AiMaterial material, EnumSet<SXRImportSettings> settings)
+    /*
+     * Collects the shader type, colors and texture references
+     * of an Assimp material.
+     */
+    private SXRModelCache.MaterialData extractMaterial(AiMaterial material, AiMesh aiMesh,
+                                                       EnumSet<SXRImportSettings> settings)
     {
+        SXRModelCache.MaterialData data = new SXRModelCache.MaterialData();
         boolean layered = false;
-        SXRShaderId shaderType;
 
         for (final AiTextureType texType : AiTextureType.values())
         {
@@ -1221,35 +1580,81 @@ class  SXRJassimpAdapter
                 }
             }
         }
+        getRGBA(material.getDiffuseColor(sWrapperProvider), data.diffuseColor);
+        getRGBA(material.getSpecularColor(sWrapperProvider), data.specularColor);
+        getRGBA(material.getAmbientColor(sWrapperProvider), data.ambientColor);
+        getRGBA(material.getEmissiveColor(sWrapperProvider), data.emissiveColor);
+        data.opacity = material.getOpacity();
+        data.shininess = material.getShininess();
         if (!settings.contains(SXRImportSettings.NO_LIGHTING))
         {
             try
             {
-                boolean glosspresent = material.getSpecularGlossinessUsage();
+                //use specular glossiness workflow, if present
+                if (material.getSpecularGlossinessUsage())
+                {
+                    data.shader = SXRModelCache.MaterialData.SHADER_PBR_GLOSSINESS;
+                }
+                else
+                {
+                    data.metallic = material.getMetallic();
+                    data.roughness = material.getRoughness();
+                    data.shader = SXRModelCache.MaterialData.SHADER_PBR_METALLIC;
+                }
+            }
+            catch (IllegalArgumentException e)
+            {
+                data.shader = layered ? SXRModelCache.MaterialData.SHADER_PHONG_LAYERED
+                                      : SXRModelCache.MaterialData.SHADER_PHONG;
+            }
+        }
+        else
+        {
+            data.shader = SXRModelCache.MaterialData.SHADER_TEXTURE;
+        }
+        if (!settings.contains(SXRImportSettings.NO_TEXTURING))
+        {
+            extractTextures(material, aiMesh, data);
+        }
+        return data;
+    }
+
+    private static void getRGBA(AiColor color, float[] dest)
+    {
+        dest[0] = color.getRed();
+        dest[1] = color.getGreen();
+        dest[2] = color.getBlue();
+        dest[3] = color.getAlpha();
+    }
+
+    private SXRMaterial createMaterial(SXRModelCache.MaterialData data)
+    {
+        SXRShaderId shaderType;
+
+        switch (data.shader)
+        {
+            case SXRModelCache.MaterialData.SHADER_PBR_GLOSSINESS:
+            case SXRModelCache.MaterialData.SHADER_PBR_METALLIC:
+            {
                 shaderType = new SXRShaderId(SXRPBRShader.class);
                 SXRMaterial m = new SXRMaterial(mContext, shaderType);
+                float[] diffuse = data.diffuseColor;
 
-                //use specular glossiness workflow, if present
-                if (glosspresent)
+                if (data.shader == SXRModelCache.MaterialData.SHADER_PBR_GLOSSINESS)
                 {
-                    AiColor diffuseFactor = material.getDiffuseColor(sWrapperProvider);
-                    AiColor specularFactor = material.getSpecularColor(sWrapperProvider);
+                    float[] specular = data.specularColor;
                     //gltf2importer.cpp in the assimp lib defines shininess as glossiness_factor * 1000.0f
-                    float glossinessFactor = material.getShininess() / 1000.0f;
+                    float glossinessFactor = data.shininess / 1000.0f;
 
-                    m.setDiffuseColor(diffuseFactor.getRed(), diffuseFactor.getGreen(), diffuseFactor.getBlue(), diffuseFactor.getAlpha());
-                    m.setSpecularColor(specularFactor.getRed(), specularFactor.getGreen(), specularFactor.getBlue(), specularFactor.getAlpha());
+                    m.setDiffuseColor(diffuse[0], diffuse[1], diffuse[2], diffuse[3]);
+                    m.setSpecularColor(specular[0], specular[1], specular[2], specular[3]);
                     m.setFloat("glossinessFactor", glossinessFactor);
                 }
                 else
                 {
-                    float metallic = material.getMetallic();
-                    float roughness = material.getRoughness();
-                    AiColor baseColorFactor = material.getDiffuseColor(sWrapperProvider);
-
-                    m.setFloat("roughness", roughness);
-                    m.setFloat("metallic", metallic);
-                    m.setDiffuseColor(baseColorFactor.getRed(), baseColorFactor.getGreen(), baseColorFactor.getBlue(), baseColorFactor.getAlpha());
+                    m.setFloat("roughness", data.roughness);
+                    m.setFloat("metallic", data.metallic);
+                    m.setDiffuseColor(diffuse[0], diffuse[1], diffuse[2], diffuse[3]);
                 }
 
                 Bitmap bitmap = BitmapFactory.decodeResource(
@@ -1259,33 +1664,33 @@ class  SXRJassimpAdapter
                 m.setTexture("brdfLUTTexture", brdfLUTtex);
                 return m;
             }
-            catch (IllegalArgumentException e)
-            {
-                shaderType = SXRMaterial.SXRShaderType.Phong.ID;
-            }
-            if (layered)
-            {
-                shaderType = SXRMaterial.SXRShaderType.PhongLayered.ID;
-            }
-        }
-        else
-        {
+
+            case SXRModelCache.MaterialData.SHADER_PHONG_LAYERED:
+            shaderType = SXRMaterial.SXRShaderType.PhongLayered.ID;
+            break;
+
+            case SXRModelCache.MaterialData.SHADER_PHONG:
+            shaderType = SXRMaterial.SXRShaderType.Phong.ID;
+            break;
+
+            default:
             shaderType = SXRMaterial.SXRShaderType.Texture.ID;
+            break;
         }
         return new SXRMaterial(mContext, shaderType);
     }
 
     private void loadTexture(SXRAssetLoader.AssetRequest assetRequest,
-                             final AiMaterial aimtl, final SXRMaterial gvrmtl,
-                             final AiTextureType texType, int texIndex,
-                             int uvIndex)
+                             final SXRMaterial gvrmtl,
+                             SXRModelCache.TextureData tex)
     {
-        int blendop = aimtl.getTextureOp(texType, texIndex).ordinal();
-        String typeName = textureMap.get(texType);
+        int texIndex = tex.index;
+        int uvIndex = tex.uvIndex;
+        String typeName = textureMap.get(AiTextureType.values()[tex.type]);
         String textureKey = typeName + "Texture";
         String texCoordKey = "a_texcoord";
         String shaderKey = typeName + "_coord";
-        final String texFileName = aimtl.getTextureFile(texType, texIndex);
+        final String texFileName = tex.fileName;
         final boolean usingPBR = (gvrmtl.getShaderType() == mContext.getShaderManager().getShaderType(SXRPBRShader.class));
 
         if (uvIndex > 0)
@@ -1305,13 +1710,13 @@ class  SXRJassimpAdapter
             }
             textureKey += texIndex;
             shaderKey += texIndex;
-            gvrmtl.setInt(textureKey + "_blendop", blendop);
+            gvrmtl.setInt(textureKey + "_blendop", tex.blendOp);
         }
         SXRTextureParameters texParams = new SXRTextureParameters(mContext);
-        texParams.setWrapSType(wrapModeMap.get(aimtl.getTextureMapModeU(texType, texIndex)));
-        texParams.setWrapTType(wrapModeMap.get(aimtl.getTextureMapModeV(texType, texIndex)));
-        texParams.setMinFilterType(filterMap.get(aimtl.getTextureMinFilter(texType, texIndex)));
-        texParams.setMagFilterType(filterMap.get(aimtl.getTextureMagFilter(texType, texIndex)));
+        texParams.setWrapSType(wrapModeMap.get(AiTextureMapMode.values()[tex.wrapU]));
+        texParams.setWrapTType(wrapModeMap.get(AiTextureMapMode.values()[tex.wrapV]));
+        texParams.setMinFilterType(filterMap.get(tex.minFilter));
+        texParams.setMagFilterType(filterMap.get(tex.magFilter));
 
         SXRTexture gvrTex = new SXRTexture(mContext, texParams);
         SXRAssetLoader.TextureRequest texRequest;
@@ -1326,13 +1731,13 @@ class  SXRJassimpAdapter
 
         if (texFileName.startsWith("*"))
         {
-            AiTexture tex = null;
+            AiTexture aitex = null;
             try
             {
                 int embeddedIndex = parseInt(texFileName.substring(1));
-                tex = mScene.getTextures().get(embeddedIndex);
+                aitex = mScene.getTextures().get(embeddedIndex);
                 texRequest = new SXRAssetLoader.TextureRequest(assetRequest, gvrTex, mFileName + texFileName);
-                assetRequest.loadEmbeddedTexture(texRequest, tex);
+                assetRequest.loadEmbeddedTexture(texRequest, aitex);
             }
             catch (NumberFormatException | IndexOutOfBoundsException ex)
             {
@@ -1350,7 +1755,7 @@ class  SXRJassimpAdapter
         }
     }
 
-    private void loadTextures(SXRAssetLoader.AssetRequest assetRequest, AiMaterial aimtl, final SXRMaterial gvrmtl, final AiMesh aimesh)
+    private void extractTextures(AiMaterial aimtl, final AiMesh aimesh, SXRModelCache.MaterialData data)
     {
         for (final AiTextureType texType : AiTextureType.values())
         {
@@ -1360,12 +1765,22 @@ class  SXRJassimpAdapter
 
                 if (!"".equals(texFileName))
                 {
+                    SXRModelCache.TextureData tex = new SXRModelCache.TextureData();
                     int uvIndex = aimtl.getTextureUVIndex(texType, i);
                     if (!aimesh.hasTexCoords(uvIndex))
                     {
                         uvIndex = 0;
                     }
-                    loadTexture(assetRequest, aimtl, gvrmtl, texType, i, uvIndex);
+                    tex.type = texType.ordinal();
+                    tex.index = i;
+                    tex.uvIndex = uvIndex;
+                    tex.blendOp = aimtl.getTextureOp(texType, i).ordinal();
+                    tex.wrapU = aimtl.getTextureMapModeU(texType, i).ordinal();
+                    tex.wrapV = aimtl.getTextureMapModeV(texType, i).ordinal();
+                    tex.minFilter = aimtl.getTextureMinFilter(texType, i);
+                    tex.magFilter = aimtl.getTextureMagFilter(texType, i);
+                    tex.fileName = texFileName;
+                    data.textures.add(tex);
                 }
             }
         }
@@ -16,9 +16,6 @@
 package com.samsungxr;
 
 import com.samsungxr.utility.Log;
-import org.joml.Vector4f;
-
-import java.util.LinkedList;
 
 
 /**
@@ -36,10 +33,16 @@ import java.util.LinkedList;
  * lodGroup.addRange(9, sphereLowDensity);
  * root.attachComponent(lodGroup);
  * </pre>
+ *
+ * The groups are not updated one by one: every attached group is evaluated
+ * by the context's {@link SXRLODManager} in one pass per frame.
  */
 public final class SXRLODGroup extends SXRBehavior {
     static private long TYPE_LODGROUP = newComponentType(SXRLODGroup.class);
 
+    static final int LEVEL_NONE = -1;
+    static final int LEVEL_UNKNOWN = -2;
+
     public SXRLODGroup(SXRContext gvrContext) {
         super(gvrContext, 0);
         mType = getComponentType();
@@ -49,9 +52,23 @@ public final class SXRLODGroup extends SXRBehavior {
         return TYPE_LODGROUP;
     }
 
-    private final Vector4f mCenter = new Vector4f();
-    private final Vector4f mVector = new Vector4f();
-    private final LinkedList<Object[]> mRanges = new LinkedList<>();
+    /*
+     * Squared ranges in ascending order and their nodes. Both are replaced,
+     * never modified, and mNodes is written first so a frame that sees the
+     * new ranges also sees the new nodes.
+     */
+    private SXRNode[] mNodes = new SXRNode[0];
+    private volatile float[] mRangesSq = new float[0];
+    private volatile boolean mRangesChanged;
+    private volatile boolean mHasCenter;
+    private float mCenterX;
+    private float mCenterY;
+    private float mCenterZ;
+
+    // Level shown, only used by the SXRLODManager on the GL thread
+    int mLevel = LEVEL_UNKNOWN;
+    // Index in the SXRLODManager, guarded by the manager
+    int mManagerIndex = -1;
 
     /**
      * Add a range to this LOD group. Specify the node that should be displayed in this
@@ -70,22 +87,26 @@ public final class SXRLODGroup extends SXRBehavior {
             throw new IllegalArgumentException("range cannot be negative");
         }
 
-        final int size = mRanges.size();
+        final float[] ranges = mRangesSq;
         final float rangePow2 = range*range;
-        final Object[] newElement = new Object[] {rangePow2, sceneObject};
-
-        for (int i = 0; i < size; ++i) {
-            final Object[] el = mRanges.get(i);
-            final Float r = (Float)el[0];
-            if (r > rangePow2) {
-                mRanges.add(i, newElement);
-                break;
-            }
+        int index = 0;
+        while (index < ranges.length && ranges[index] <= rangePow2) {
+            ++index;
         }
 
-        if (mRanges.size() == size) {
-            mRanges.add(newElement);
-        }
+        final SXRNode[] nodes = new SXRNode[ranges.length + 1];
+        System.arraycopy(mNodes, 0, nodes, 0, index);
+        System.arraycopy(mNodes, index, nodes, index + 1, ranges.length - index);
+        nodes[index] = sceneObject;
+
+        final float[] newRanges = new float[ranges.length + 1];
+        System.arraycopy(ranges, 0, newRanges, 0, index);
+        System.arraycopy(ranges, index, newRanges, index + 1, ranges.length - index);
+        newRanges[index] = rangePow2;
+
+        mNodes = nodes;
+        mRangesSq = newRanges;
+        mRangesChanged = true;
 
         final SXRNode owner = getOwnerObject();
         if (null != owner) {
@@ -94,63 +115,139 @@ public final class SXRLODGroup extends SXRBehavior {
     }
 
     /**
-     * Do not call directly.
-     * @deprecated
+     * Sets a fixed world position to measure the camera distance from.
+     * <p>
+     * By default the distance is measured from the center of the bounding
+     * volume of the node of the first range, which has to be queried every
+     * frame. Groups which do not move can skip that query by setting their
+     * center once.
      */
-    public void onDrawFrame(float frameTime) {
-        final SXRNode owner = getOwnerObject();
-        if (owner == null) {
-            return;
-        }
+    public void setCenter(float x, float y, float z) {
+        mCenterX = x;
+        mCenterY = y;
+        mCenterZ = z;
+        mHasCenter = true;
+    }
+
+    /**
+     * Measure the camera distance from the bounding volume again, after
+     * {@link #setCenter(float, float, float)}.
+     */
+    public void clearCenter() {
+        mHasCenter = false;
+    }
 
-        final int size = mRanges.size();
-        final SXRTransform t = getSXRContext().getMainScene().getMainCameraRig().getCenterCamera().getTransform();
+    @Override
+    public synchronized void onAttach(SXRNode newOwner) {
+        super.onAttach(newOwner);
 
-        for (final Object[] range : mRanges) {
-            ((SXRNode)range[1]).setEnable(false);
+        for (final SXRNode node : mNodes) {
+            newOwner.addChildObject(node);
         }
+        SXRLODManager.getInstance(getSXRContext()).register(this);
+    }
 
-        for (int i = size - 1; i >= 0; --i) {
-            final Object[] range = mRanges.get(i);
-            final SXRNode child = (SXRNode) range[1];
-            if (child.getParent() != owner) {
-                Log.w(TAG, "the node for distance greater than " + range[0] + " is not a child of the owner; skipping it");
-                continue;
-            }
+    @Override
+    public synchronized void onDetach(SXRNode oldOwner) {
+        super.onDetach(oldOwner);
 
-            final float[] values = child.getBoundingVolumeRawValues();
-            mCenter.set(values[0], values[1], values[2], 1.0f);
-            mVector.set(t.getPositionX(), t.getPositionY(), t.getPositionZ(), 1.0f);
+        SXRLODManager.getInstance(getSXRContext()).unregister(this);
+        for (final SXRNode node : mNodes) {
+            oldOwner.removeChildObject(node);
+        }
+    }
 
-            mVector.sub(mCenter);
-            mVector.negate();
+    /**
+     * Stores the point to measure the distance from at {@code centers[offset]}.
+     * @return false if there is no such point
+     */
+    boolean getCenter(float[] centers, int offset) {
+        if (mHasCenter) {
+            centers[offset] = mCenterX;
+            centers[offset + 1] = mCenterY;
+            centers[offset + 2] = mCenterZ;
+            return true;
+        }
+        final float[] ranges = mRangesSq;
+        if (ranges.length == 0) {
+            return false;
+        }
+        final float[] values = mNodes[0].getBoundingVolumeRawValues();
+        centers[offset] = values[0];
+        centers[offset + 1] = values[1];
+        centers[offset + 2] = values[2];
+        return true;
+    }
 
-            float distance = mVector.dot(mVector);
+    /**
+     * @return the squared ranges in ascending order, never modified
+     */
+    float[] getRangesSq() {
+        return mRangesSq;
+    }
 
-            if (distance >= (Float) range[0]) {
-                child.setEnable(true);
-                break;
+    /**
+     * The level is the last range the distance reaches. Ranges above the
+     * current level have to be passed by the upper band to switch to them,
+     * ranges up to it are kept until the distance falls below the lower band.
+     * @param rangesSq squared ranges in ascending order
+     * @param current level shown, {@link #LEVEL_UNKNOWN} for no band
+     * @param distanceSq squared distance from the camera, LOD bias applied
+     * @param up factor of the squared ranges above the current level
+     * @param down factor of the squared ranges up to the current level
+     * @return the level to show, {@link #LEVEL_NONE} if the camera is nearer
+     * than the first range
+     */
+    static int selectLevel(float[] rangesSq, int current, float distanceSq, float up, float down) {
+        if (current == LEVEL_UNKNOWN) {
+            up = down = 1.0f;
+        }
+        for (int level = rangesSq.length - 1; level >= 0; --level) {
+            if (distanceSq >= rangesSq[level] * (level > current ? up : down)) {
+                return level;
             }
         }
+        return LEVEL_NONE;
     }
 
-    @Override
-    public synchronized void onAttach(SXRNode newOwner) {
-        super.onAttach(newOwner);
+    /**
+     * Shows the node of {@code level} and hides the one shown before.
+     * Called on the GL thread when the level changes.
+     */
+    void showLevel(int level) {
+        final SXRNode owner = getOwnerObject();
+        final float[] ranges = mRangesSq;
+        final SXRNode[] nodes = mNodes;
 
-        for (final Object[] el : mRanges) {
-            newOwner.addChildObject((SXRNode)el[1]);
+        if (mLevel == LEVEL_UNKNOWN) {
+            for (int i = 0; i < nodes.length; ++i) {
+                nodes[i].setEnable(i == level);
+            }
+        } else {
+            if (mLevel != LEVEL_NONE) {
+                nodes[mLevel].setEnable(false);
+            }
+            if (level != LEVEL_NONE) {
+                nodes[level].setEnable(true);
+            }
+        }
+        if (level != LEVEL_NONE && nodes[level].getParent() != owner) {
+            Log.w(TAG, "the node for distance greater than " + Math.sqrt(ranges[level])
+                    + " is not a child of the owner");
         }
+        mLevel = level;
     }
 
-    @Override
-    public synchronized void onDetach(SXRNode oldOwner) {
-        super.onDetach(oldOwner);
-
-        for (final Object[] el : mRanges) {
-            oldOwner.removeChildObject((SXRNode)el[1]);
+    /**
+     * Forgets the level shown if ranges were added, so the next
+     * {@link #showLevel(int)} updates every node.
+     */
+    void checkRanges() {
+        if (mRangesChanged) {
+            mRangesChanged = false;
+            mLevel = LEVEL_UNKNOWN;
         }
     }
 
     private static final String TAG = "SXRLODGroup";
-}
\ No newline at end of file
+}
@@ -0,0 +1,451 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the level of detail of every attached {@link SXRLODGroup} in one
+ * pass per frame.
+ * <p>
+ * Each frame the camera position is read once, then every group's distance
+ * and level are computed from primitive arrays. A group's nodes are only
+ * enabled or disabled when its level changes.
+ * <p>
+ * Two settings trade quality for speed without touching the groups:
+ * <ul>
+ * <li>{@link #setLODBias(float)} scales all distances, so a bias above 1
+ * switches to coarser levels nearer to the camera. Lower the detail this
+ * way when the frame rate drops.
+ * <li>{@link #setHysteresis(float)} keeps a level until the distance leaves
+ * a band around its range, so groups near a range don't switch back and
+ * forth every frame.
+ * </ul>
+ * The distances and levels can optionally be computed on worker threads,
+ * see {@link #setParallelThreads(int)}. Nodes are always enabled and
+ * disabled on the GL thread.
+ */
+public final class SXRLODManager {
+
+    private static SXRLODManager sInstance = null;
+
+    static {
+        SXRContext.addResetOnRestartHandler(new Runnable() {
+
+            @Override
+            public void run() {
+                sInstance = null;
+            }
+        });
+    }
+
+    /* Groups per task when the levels are computed in parallel */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final SXRContext mContext;
+    private final List<SXRLODGroup> mGroups = new ArrayList<SXRLODGroup>();
+    private final SXRDrawFrameListener mOnDrawFrame = new DrawFrame();
+    private volatile float mBias = 1.0f;
+    private volatile float mHysteresis = 0.0f;
+    private final LevelPass mPass = new LevelPass();
+
+    // Frame state, only used on the GL thread
+    private SXRLODGroup[] mFrameGroups = new SXRLODGroup[0];
+    private int mFrameCount;
+    private boolean mGroupsChanged = true;
+
+    private SXRLODManager(SXRContext gvrContext) {
+        mContext = gvrContext;
+        gvrContext.registerDrawFrameListener(mOnDrawFrame);
+    }
+
+    /**
+     * @param gvrContext current SXR context
+     * @return the LOD manager singleton
+     */
+    public static synchronized SXRLODManager getInstance(SXRContext gvrContext) {
+        if (sInstance == null) {
+            sInstance = new SXRLODManager(gvrContext);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Scales the camera distance of all groups.
+     * @param bias 1 for the ranges as given, above 1 for less detail,
+     *             below 1 for more
+     */
+    public void setLODBias(float bias) {
+        if (!(bias > 0)) {
+            throw new IllegalArgumentException("bias must be positive");
+        }
+        mBias = bias;
+    }
+
+    /**
+     * @return the distance scale of all groups
+     * @see #setLODBias(float)
+     */
+    public float getLODBias() {
+        return mBias;
+    }
+
+    /**
+     * Sets the band around each range in which a group keeps its level.
+     * <p>
+     * A group switches to a coarser level when the distance is more than
+     * {@code range * (1 + fraction)}, and back when it is less than
+     * {@code range * (1 - fraction)}. The default is 0: no band.
+     * @param fraction of the range, from 0 to less than 1
+     */
+    public void setHysteresis(float fraction) {
+        if (!(fraction >= 0 && fraction < 1)) {
+            throw new IllegalArgumentException("fraction must be at least 0 and less than 1");
+        }
+        mHysteresis = fraction;
+    }
+
+    /**
+     * @return the band around each range, as a fraction of the range
+     * @see #setHysteresis(float)
+     */
+    public float getHysteresis() {
+        return mHysteresis;
+    }
+
+    /**
+     * Enables or disables computing the levels on worker threads.
+     * <p>
+     * Only worth it for many thousands of groups. Parallel evaluation is
+     * disabled by default. May be called from any thread, the previous
+     * threads finish the frame in progress before they stop.
+     * @param numThreads number of worker threads in addition to the GL
+     *                   thread, 0 to compute all levels on the GL thread.
+     */
+    public void setParallelThreads(int numThreads) {
+        mPass.setParallelThreads(numThreads);
+    }
+
+    /**
+     * @return number of worker threads used to compute the levels,
+     *         0 if parallel evaluation is disabled.
+     * @see #setParallelThreads(int)
+     */
+    public int getParallelThreads() {
+        return mPass.getParallelThreads();
+    }
+
+    /**
+     * @return number of groups evaluated every frame
+     */
+    public synchronized int getGroupCount() {
+        return mGroups.size();
+    }
+
+    /**
+     * Called by {@link SXRLODGroup#onAttach(SXRNode)}.
+     */
+    synchronized void register(SXRLODGroup group) {
+        if (group.mManagerIndex < 0) {
+            group.mManagerIndex = mGroups.size();
+            mGroups.add(group);
+            mGroupsChanged = true;
+        }
+    }
+
+    /**
+     * Called by {@link SXRLODGroup#onDetach(SXRNode)}.
+     */
+    synchronized void unregister(SXRLODGroup group) {
+        final int index = group.mManagerIndex;
+        if (index < 0) {
+            return;
+        }
+        final SXRLODGroup last = mGroups.remove(mGroups.size() - 1);
+        if (last != group) {
+            mGroups.set(index, last);
+            last.mManagerIndex = index;
+        }
+        group.mManagerIndex = -1;
+        mGroupsChanged = true;
+    }
+
+    /*
+     * Copies the registered groups for the frame if they changed.
+     */
+    private synchronized void beginFrame() {
+        if (mGroupsChanged) {
+            mFrameCount = mGroups.size();
+            if (mFrameGroups.length < mFrameCount || mFrameGroups.length > 2 * mFrameCount) {
+                mFrameGroups = new SXRLODGroup[mFrameCount];
+            }
+            mGroups.toArray(mFrameGroups);
+            Arrays.fill(mFrameGroups, mFrameCount, mFrameGroups.length, null);
+            mPass.resize(mFrameCount);
+            mGroupsChanged = false;
+        }
+    }
+
+    private final class DrawFrame implements SXRDrawFrameListener {
+
+        /*
+         * Runs one frame in three phases. Only the second can be parallel.
+         * 1. read the camera position and the group centers
+         * 2. compute the levels from the squared distances
+         * 3. show the new levels of the groups whose level changed
+         */
+        @Override
+        public void onDrawFrame(float frameTime) {
+            beginFrame();
+            final int count = mFrameCount;
+            final SXRScene scene = mContext.getMainScene();
+
+            if (count == 0 || scene == null) {
+                return;
+            }
+            final SXRTransform camera = scene.getMainCameraRig().getCenterCamera().getTransform();
+            final float cameraX = camera.getPositionX();
+            final float cameraY = camera.getPositionY();
+            final float cameraZ = camera.getPositionZ();
+            final float[] centers = mPass.mCenters;
+            final float[][] rangesSq = mPass.mRangesSq;
+            final int[] levels = mPass.mLevels;
+
+            for (int i = 0; i < count; ++i) {
+                final SXRLODGroup group = mFrameGroups[i];
+
+                group.checkRanges();
+                levels[i] = group.mLevel;
+                rangesSq[i] = group.getRangesSq();
+                if (!group.isEnabled() || !group.getCenter(centers, 3 * i)) {
+                    centers[3 * i] = Float.NaN;
+                    continue;
+                }
+                centers[3 * i] -= cameraX;
+                centers[3 * i + 1] -= cameraY;
+                centers[3 * i + 2] -= cameraZ;
+            }
+
+            final float bias = mBias;
+            final float hysteresis = mHysteresis;
+
+            mPass.compute(count, bias * bias,
+                    (1 + hysteresis) * (1 + hysteresis), (1 - hysteresis) * (1 - hysteresis));
+
+            for (int i = 0; i < count; ++i) {
+                final SXRLODGroup group = mFrameGroups[i];
+
+                if (levels[i] != group.mLevel) {
+                    group.showLevel(levels[i]);
+                }
+            }
+        }
+    }
+
+    /*
+     * Computes the levels of a frame from the group centers relative to the
+     * camera, on the calling thread or split into chunks for worker threads.
+     * Owns the worker threads. Does not touch the groups, so it also runs
+     * without a context.
+     */
+    static final class LevelPass {
+        private ExecutorService mExecutor = null;
+        private int mNumThreads = 0;
+        private boolean mComputing = false;
+        private final List<ExecutorService> mRetired = new ArrayList<ExecutorService>();
+
+        // Frame state, only used by the thread computing the levels
+        float[] mCenters = new float[0];
+        float[][] mRangesSq = new float[0][];
+        int[] mLevels = new int[0];
+        private int mFrameThreads;
+        private final List<LevelTask> mTasks = new ArrayList<LevelTask>();
+        private final List<Future<Void>> mFutures = new ArrayList<Future<Void>>();
+
+        synchronized void setParallelThreads(int numThreads) {
+            if (numThreads < 0) {
+                throw new IllegalArgumentException("numThreads must not be negative");
+            }
+            if (numThreads == mNumThreads) {
+                return;
+            }
+            if (mExecutor != null) {
+                // a frame may still submit to it, endCompute() shuts it down
+                if (mComputing) {
+                    mRetired.add(mExecutor);
+                } else {
+                    mExecutor.shutdown();
+                }
+                mExecutor = null;
+            }
+            mNumThreads = numThreads;
+            if (numThreads > 0) {
+                mExecutor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "SXRLODManager-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
+
+        synchronized int getParallelThreads() {
+            return mNumThreads;
+        }
+
+        /*
+         * Makes room for the state of count groups.
+         */
+        void resize(int count) {
+            if (mLevels.length < count || mLevels.length > 2 * count) {
+                mCenters = new float[3 * count];
+                mRangesSq = new float[count][];
+                mLevels = new int[count];
+            } else {
+                Arrays.fill(mRangesSq, count, mRangesSq.length, null);
+            }
+        }
+
+        /*
+         * Replaces the current levels in mLevels by the new ones. Groups
+         * whose center is NaN keep their level.
+         */
+        void compute(int count, float biasSq, float up, float down) {
+            final ExecutorService executor = beginCompute();
+
+            try {
+                if (executor != null && count >= 2 * MIN_CHUNK_SIZE) {
+                    computeParallel(executor, count, biasSq, up, down);
+                } else {
+                    computeLevels(0, count, biasSq, up, down);
+                }
+            } finally {
+                endCompute();
+            }
+        }
+
+        /*
+         * Takes the executor of the frame. It is not shut down before
+         * endCompute(), even if the number of threads changes meanwhile.
+         */
+        private synchronized ExecutorService beginCompute() {
+            mComputing = true;
+            mFrameThreads = mNumThreads;
+            return mExecutor;
+        }
+
+        private synchronized void endCompute() {
+            mComputing = false;
+            for (ExecutorService executor : mRetired) {
+                executor.shutdown();
+            }
+            mRetired.clear();
+        }
+
+        private void computeLevels(int start, int end, float biasSq, float up, float down) {
+            final float[] centers = mCenters;
+            final float[][] rangesSq = mRangesSq;
+            final int[] levels = mLevels;
+
+            for (int i = start; i < end; ++i) {
+                final float x = centers[3 * i];
+                if (Float.isNaN(x)) {
+                    continue;
+                }
+                final float y = centers[3 * i + 1];
+                final float z = centers[3 * i + 2];
+                levels[i] = SXRLODGroup.selectLevel(rangesSq[i], levels[i],
+                        (x * x + y * y + z * z) * biasSq, up, down);
+            }
+        }
+
+        /*
+         * Splits the groups into one chunk per thread, computes the first
+         * chunk on the calling thread and waits for the others.
+         */
+        private void computeParallel(ExecutorService executor, int count, float biasSq, float up, float down) {
+            final int numChunks = Math.min(mFrameThreads + 1, count / MIN_CHUNK_SIZE);
+            final int chunkSize = (count + numChunks - 1) / numChunks;
+
+            while (mTasks.size() < numChunks) {
+                mTasks.add(new LevelTask());
+            }
+            for (int c = 1; c < numChunks; ++c) {
+                final LevelTask task = mTasks.get(c);
+                task.set(c * chunkSize, Math.min(count, (c + 1) * chunkSize), biasSq, up, down);
+                mFutures.add(executor.submit(task));
+            }
+            RuntimeException error = null;
+            try {
+                computeLevels(0, chunkSize, biasSq, up, down);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            for (Future<Void> future : mFutures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        Throwable cause = e.getCause();
+                        error = (cause instanceof RuntimeException)
+                                ? (RuntimeException) cause : new RuntimeException(cause);
+                    }
+                }
+            }
+            mFutures.clear();
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private final class LevelTask implements Callable<Void> {
+            private int mStart;
+            private int mEnd;
+            private float mBiasSq;
+            private float mUp;
+            private float mDown;
+
+            void set(int start, int end, float biasSq, float up, float down) {
+                mStart = start;
+                mEnd = end;
+                mBiasSq = biasSq;
+                mUp = up;
+                mDown = down;
+            }
+
+            @Override
+            public Void call() {
+                computeLevels(mStart, mEnd, mBiasSq, mUp, mDown);
+                return null;
+            }
+        }
+    }
+}
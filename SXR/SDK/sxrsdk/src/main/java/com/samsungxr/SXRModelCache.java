@@ -0,0 +1,1098 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import com.samsungxr.utility.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * On-disk cache of models converted by the asset loader.
+ * <p>
+ * The first time a model is loaded it is imported with Assimp as usual
+ * and the converted scene (node hierarchy, meshes, materials and texture
+ * references) is written to a file in the cache directory. The next time
+ * the same model is loaded with the same {@link SXRImportSettings} the
+ * file is memory-mapped and the nodes are rebuilt without Assimp.
+ * The vertex and index data are passed to the meshes straight from
+ * the mapped file.
+ * <p>
+ * A cache file is keyed by the path of the model in its volume and the
+ * import settings. It also records the size, modification time (or CRC-32
+ * for files in a zip volume) and SHA-1 hash of every file Assimp read to
+ * import the model. When a model is loaded from the cache the size and
+ * time of each file are checked first and the file is only hashed if they
+ * have changed. Files in the assets are stamped with the time the
+ * application was installed or updated. The cache file is discarded when:
+ * <ul>
+ * <li>the content of any of these files has changed or cannot be read</li>
+ * <li>it was written with a different version of the format</li>
+ * <li>it is corrupt</li>
+ * </ul>
+ * Cache files are written on a background thread after the model has been
+ * imported, so caching does not slow down the first load. When the total
+ * size of the cache exceeds its limit the least recently used files are
+ * deleted.
+ * <p>
+ * Only static models are cached. Models with cameras, lights, bones,
+ * animations, blend shapes or embedded textures are always imported
+ * with Assimp. Models from network and stream volumes are not cached.
+ * @see SXRAssetLoader#setModelCache(SXRModelCache)
+ */
+public final class SXRModelCache
+{
+    private static final String TAG = SXRModelCache.class.getSimpleName();
+    private static final String SUFFIX = ".sxrm";
+    private static final int MAGIC = 0x4D525853; // "SXRM"
+    private static final int VERSION = 2;
+    private static final int HASH_SIZE = 20;
+    private static final int STAMP_SIZE = 3;
+    private static final long UNKNOWN = -1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private ExecutorService mWriter = null;
+
+    /**
+     * Create a model cache.
+     * @param directory directory to keep the cache files in,
+     *                  created if it does not exist.
+     * @param maxSize   maximum number of bytes used by all the cache files.
+     */
+    public SXRModelCache(File directory, long maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * @return directory containing the cache files
+     */
+    public File getDirectory() { return mDirectory; }
+
+    /**
+     * @return maximum number of bytes used by all the cache files
+     */
+    public long getMaxSize() { return mMaxSize; }
+
+    /**
+     * Deletes all the cache files.
+     */
+    public synchronized void clear()
+    {
+        for (File f : listFiles())
+        {
+            f.delete();
+        }
+    }
+
+    /**
+     * Waits until the models which were imported so far
+     * have been written to the cache.
+     */
+    public void flush()
+    {
+        ExecutorService writer;
+
+        synchronized (this)
+        {
+            writer = mWriter;
+        }
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.submit(new Runnable()
+            {
+                @Override
+                public void run() { }
+            }).get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex)
+        {
+            Log.w(TAG, "Cannot flush model cache: %s", ex.getMessage());
+        }
+    }
+
+    /**
+     * Determine whether models from a volume can be cached.
+     * Network and stream volumes cannot be read again to check
+     * if a cached model is still valid.
+     */
+    static boolean isCacheable(SXRResourceVolume volume)
+    {
+        return (volume.volumeType != SXRResourceVolume.VolumeType.NETWORK) &&
+               (volume.volumeType != SXRResourceVolume.VolumeType.INPUT_STREAM) &&
+               (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Loads a cached model.
+     * @param volume    volume the model is loaded from
+     * @param settings  import settings for the model
+     * @return the cached scene or null if the model is not in the cache
+     *         or the cache file is no longer valid.
+     */
+    synchronized SceneData load(SXRResourceVolume volume, EnumSet<SXRImportSettings> settings)
+    {
+        File file = getFile(volume, settings);
+
+        if (!file.exists())
+        {
+            return null;
+        }
+        try
+        {
+            ByteBuffer buffer = map(file);
+            Reader reader = new Reader(buffer);
+
+            if ((reader.readInt() != MAGIC) || (reader.readInt() != VERSION))
+            {
+                file.delete();
+                return null;
+            }
+            int numFiles = reader.readInt();
+            Map<String, long[]> changedStamps = null;
+
+            for (int i = 0; i < numFiles; ++i)
+            {
+                String path = reader.readString();
+                long[] recorded = reader.readLongs(STAMP_SIZE);
+                byte[] hash = reader.readBytes(HASH_SIZE);
+                long[] stamp = getStamp(volume, path);
+
+                if ((stamp != null) && Arrays.equals(stamp, recorded))
+                {
+                    continue;
+                }
+                if (!Arrays.equals(hash, computeHash(volume, path)))
+                {
+                    Log.d(TAG, "%s has changed, discarding cached model %s", path, file.getName());
+                    file.delete();
+                    return null;
+                }
+                if (stamp != null)
+                {
+                    if (changedStamps == null)
+                    {
+                        changedStamps = new HashMap<>();
+                    }
+                    changedStamps.put(path, stamp);
+                }
+            }
+            if (changedStamps != null)
+            {
+                updateStamps(file, volume, changedStamps);
+            }
+            SceneData scene = reader.readScene();
+            file.setLastModified(System.currentTimeMillis());
+            return scene;
+        }
+        catch (IOException | BufferUnderflowException | IllegalArgumentException ex)
+        {
+            Log.w(TAG, "Cannot read cached model %s: %s", file.getName(), ex.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Adds a model to the cache, replacing the previous version.
+     * The model is written on a background thread.
+     * Errors are logged, a model which cannot be cached is
+     * imported with Assimp the next time.
+     * @param volume    volume the model was loaded from
+     * @param settings  import settings for the model
+     * @param files     paths of the files which were read to import the model
+     * @param scene     converted scene, must not be changed afterwards
+     * @see #flush()
+     */
+    void store(final SXRResourceVolume volume, final EnumSet<SXRImportSettings> settings,
+               Collection<String> files, final SceneData scene)
+    {
+        final List<String> paths = new ArrayList<>(files);
+
+        getWriter().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                write(volume, settings, paths, scene);
+            }
+        });
+    }
+
+    /*
+     * Writes a cache file. Only replacing the previous
+     * version and evicting old files hold the lock.
+     */
+    private void write(SXRResourceVolume volume, EnumSet<SXRImportSettings> settings,
+                       List<String> files, SceneData scene)
+    {
+        File file = getFile(volume, settings);
+        File temp = new File(mDirectory, file.getName() + ".tmp");
+
+        try
+        {
+            Writer writer = new Writer();
+
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            writer.writeInt(files.size());
+            for (String path : files)
+            {
+                long[] stamp = getStamp(volume, path);
+
+                writer.writeString(path);
+                writer.writeLongs((stamp != null) ? stamp : new long[] { UNKNOWN, UNKNOWN, UNKNOWN });
+                writer.writeBytes(computeHash(volume, path));
+            }
+            writer.writeScene(scene);
+            if (!mDirectory.exists() && !mDirectory.mkdirs())
+            {
+                throw new IOException("Cannot create " + mDirectory);
+            }
+            writer.writeTo(temp);
+            synchronized (this)
+            {
+                if (!temp.renameTo(file))
+                {
+                    throw new IOException("Cannot rename " + temp);
+                }
+                evict();
+            }
+        }
+        catch (IOException ex)
+        {
+            Log.w(TAG, "Cannot cache model %s: %s", volume.getFullPath(), ex.getMessage());
+            temp.delete();
+        }
+    }
+
+    /*
+     * Records the new size and time of files whose content has not
+     * changed so they are not hashed again. A stamp is only written
+     * if the file has not changed since it was hashed.
+     */
+    private void updateStamps(final File file, final SXRResourceVolume volume,
+                              final Map<String, long[]> stamps)
+    {
+        getWriter().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized (SXRModelCache.this)
+                {
+                    try
+                    {
+                        writeStamps(file, volume, stamps);
+                    }
+                    catch (IOException | BufferUnderflowException | IllegalArgumentException ex)
+                    {
+                        Log.w(TAG, "Cannot update cached model %s: %s", file.getName(), ex.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private void writeStamps(File file, SXRResourceVolume volume, Map<String, long[]> stamps) throws IOException
+    {
+        if (!file.exists())
+        {
+            return;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size())
+                                       .order(ByteOrder.LITTLE_ENDIAN);
+            Reader reader = new Reader(buffer);
+
+            if ((reader.readInt() != MAGIC) || (reader.readInt() != VERSION))
+            {
+                return;
+            }
+            int numFiles = reader.readInt();
+            for (int i = 0; i < numFiles; ++i)
+            {
+                String path = reader.readString();
+                int pos = buffer.position();
+                long[] validated = stamps.get(path);
+
+                reader.readLongs(STAMP_SIZE);
+                reader.readBytes(HASH_SIZE);
+                if ((validated != null) && Arrays.equals(validated, getStamp(volume, path)))
+                {
+                    for (int j = 0; j < STAMP_SIZE; ++j)
+                    {
+                        buffer.putLong(pos + j * 8, validated[j]);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    private synchronized ExecutorService getWriter()
+    {
+        if (mWriter == null)
+        {
+            mWriter = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, TAG);
+
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                }
+            });
+        }
+        return mWriter;
+    }
+
+    /*
+     * Deletes the least recently used files until the cache fits.
+     */
+    private void evict()
+    {
+        File[] files = listFiles();
+        long total = 0;
+
+        for (File f : files)
+        {
+            total += f.length();
+        }
+        if (total <= mMaxSize)
+        {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>()
+        {
+            @Override
+            public int compare(File a, File b)
+            {
+                long ta = a.lastModified();
+                long tb = b.lastModified();
+                return (ta < tb) ? -1 : ((ta == tb) ? 0 : 1);
+            }
+        });
+        for (int i = 0; (i < files.length) && (total > mMaxSize); ++i)
+        {
+            long length = files[i].length();
+            if (files[i].delete())
+            {
+                total -= length;
+            }
+        }
+    }
+
+    private File[] listFiles()
+    {
+        File[] files = mDirectory.listFiles();
+        List<File> cacheFiles = new ArrayList<>();
+
+        if (files != null)
+        {
+            for (File f : files)
+            {
+                if (f.getName().endsWith(SUFFIX))
+                {
+                    cacheFiles.add(f);
+                }
+            }
+        }
+        return cacheFiles.toArray(new File[cacheFiles.size()]);
+    }
+
+    private File getFile(SXRResourceVolume volume, EnumSet<SXRImportSettings> settings)
+    {
+        StringBuilder key = new StringBuilder();
+
+        key.append(volume.volumeType.getName());
+        key.append(':');
+        key.append(volume.getFullPath());
+        for (SXRImportSettings s : settings)
+        {
+            key.append('|');
+            key.append(s.name());
+        }
+        return new File(mDirectory, toHex(newDigest().digest(key.toString().getBytes(UTF8))) + SUFFIX);
+    }
+
+    private static ByteBuffer map(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                          .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    /*
+     * Gets the size, modification time and CRC-32 of a file, which
+     * are cheap to get and change whenever the content changes.
+     * Values which are not known are UNKNOWN. Returns null if
+     * the volume cannot tell whether the file has changed.
+     */
+    private static long[] getStamp(SXRResourceVolume volume, String path)
+    {
+        try
+        {
+            if (volume instanceof SXRZipVolume)
+            {
+                long[] entry = ((SXRZipVolume) volume).getEntryStamp(path);
+
+                return (entry != null) ? new long[] { entry[0], UNKNOWN, entry[1] } : null;
+            }
+            switch (volume.volumeType)
+            {
+                case LINUX_FILESYSTEM:
+                case ANDROID_SDCARD:
+                {
+                    String filePath = volume.openResource(path).getResourcePath();
+                    File f = (filePath != null) ? new File(filePath) : null;
+
+                    if ((f == null) || !f.isFile())
+                    {
+                        return null;
+                    }
+                    return new long[] { f.length(), f.lastModified(), UNKNOWN };
+                }
+
+                case ANDROID_ASSETS:
+                case ANDROID_RESOURCE:
+                {
+                    Context context = volume.gvrContext.getContext();
+                    PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+
+                    return new long[] { UNKNOWN, info.lastUpdateTime, UNKNOWN };
+                }
+
+                default:
+                    return null;
+            }
+        }
+        catch (IOException | PackageManager.NameNotFoundException ex)
+        {
+            return null;
+        }
+    }
+
+    private static byte[] computeHash(SXRResourceVolume volume, String path) throws IOException
+    {
+        SXRAndroidResource resource = volume.openResource(path);
+
+        try
+        {
+            InputStream stream = resource.getStream();
+            MessageDigest digest = newDigest();
+            byte[] buf = new byte[16384];
+            int n;
+
+            if (stream == null)
+            {
+                throw new IOException("Cannot open " + path);
+            }
+            while ((n = stream.read(buf)) > 0)
+            {
+                digest.update(buf, 0, n);
+            }
+            return digest.digest();
+        }
+        finally
+        {
+            resource.closeStream();
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Converted mesh. The vertex attributes and indices are either
+     * the buffers made by the importer or views of the mapped cache file.
+     */
+    static final class MeshData
+    {
+        String descriptor;
+        FloatBuffer positions;
+        FloatBuffer normals;
+        FloatBuffer tangents;
+        FloatBuffer bitangents;
+        FloatBuffer[] texCoords;
+        FloatBuffer[] colors;
+        IntBuffer indices;
+    }
+
+    static final class TextureData
+    {
+        int type;
+        int index;
+        int uvIndex;
+        int blendOp;
+        int wrapU;
+        int wrapV;
+        int minFilter;
+        int magFilter;
+        String fileName;
+    }
+
+    static final class MaterialData
+    {
+        static final int SHADER_TEXTURE = 0;
+        static final int SHADER_PHONG = 1;
+        static final int SHADER_PHONG_LAYERED = 2;
+        static final int SHADER_PBR_METALLIC = 3;
+        static final int SHADER_PBR_GLOSSINESS = 4;
+
+        int shader;
+        final float[] diffuseColor = new float[4];
+        final float[] specularColor = new float[4];
+        final float[] ambientColor = new float[4];
+        final float[] emissiveColor = new float[4];
+        float opacity;
+        float shininess;
+        float metallic;
+        float roughness;
+        final List<TextureData> textures = new ArrayList<>();
+    }
+
+    static final class NodeData
+    {
+        String name;
+        final float[] matrix = new float[16];
+        int meshId = -1;
+        final List<NodeData> children = new ArrayList<>();
+    }
+
+    /*
+     * Converted scene: the nodes below the model root, the meshes
+     * and the material of each mesh.
+     */
+    static final class SceneData
+    {
+        MeshData[] meshes;
+        MaterialData[] materials;
+        int[] meshMaterials;
+        final List<NodeData> nodes = new ArrayList<>();
+    }
+
+    /*
+     * Writes the little-endian cache format into a growing buffer.
+     * Float and int arrays start on a 4 byte boundary so they
+     * can be used directly from the mapped file.
+     */
+    private static final class Writer
+    {
+        private ByteBuffer mBuffer = ByteBuffer.allocate(65536).order(ByteOrder.LITTLE_ENDIAN);
+
+        void writeTo(File file) throws IOException
+        {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+            try
+            {
+                FileChannel channel = raf.getChannel();
+
+                mBuffer.flip();
+                channel.truncate(0);
+                while (mBuffer.hasRemaining())
+                {
+                    channel.write(mBuffer);
+                }
+            }
+            finally
+            {
+                raf.close();
+            }
+        }
+
+        void writeInt(int v)
+        {
+            ensure(4);
+            mBuffer.putInt(v);
+        }
+
+        void writeLongs(long[] v)
+        {
+            ensure(v.length * 8);
+            for (long l : v)
+            {
+                mBuffer.putLong(l);
+            }
+        }
+
+        void writeFloat(float v)
+        {
+            ensure(4);
+            mBuffer.putFloat(v);
+        }
+
+        void writeBytes(byte[] bytes)
+        {
+            ensure(bytes.length + 3);
+            mBuffer.put(bytes);
+            align();
+        }
+
+        void writeString(String s)
+        {
+            byte[] bytes = s.getBytes(UTF8);
+
+            writeInt(bytes.length);
+            writeBytes(bytes);
+        }
+
+        void writeFloats(float[] v)
+        {
+            ensure(v.length * 4);
+            for (float f : v)
+            {
+                mBuffer.putFloat(f);
+            }
+        }
+
+        void writeFloats(FloatBuffer v)
+        {
+            if (v == null)
+            {
+                writeInt(-1);
+                return;
+            }
+            FloatBuffer src = v.duplicate();
+            src.rewind();
+            int n = src.remaining();
+
+            writeInt(n);
+            ensure(n * 4);
+            mBuffer.asFloatBuffer().put(src);
+            mBuffer.position(mBuffer.position() + n * 4);
+        }
+
+        void writeInts(IntBuffer v)
+        {
+            IntBuffer src = v.duplicate();
+            src.rewind();
+            int n = src.remaining();
+
+            writeInt(n);
+            ensure(n * 4);
+            mBuffer.asIntBuffer().put(src);
+            mBuffer.position(mBuffer.position() + n * 4);
+        }
+
+        void writeScene(SceneData scene)
+        {
+            writeInt(scene.meshes.length);
+            for (MeshData mesh : scene.meshes)
+            {
+                writeInt((mesh != null) ? 1 : 0);
+                if (mesh != null)
+                {
+                    writeMesh(mesh);
+                }
+            }
+            writeInt(scene.materials.length);
+            for (MaterialData material : scene.materials)
+            {
+                writeInt((material != null) ? 1 : 0);
+                if (material != null)
+                {
+                    writeMaterial(material);
+                }
+            }
+            for (int i = 0; i < scene.meshes.length; ++i)
+            {
+                writeInt(scene.meshMaterials[i]);
+            }
+            writeInt(scene.nodes.size());
+            for (NodeData node : scene.nodes)
+            {
+                writeNode(node);
+            }
+        }
+
+        private void writeMesh(MeshData mesh)
+        {
+            writeString(mesh.descriptor);
+            writeFloats(mesh.positions);
+            writeFloats(mesh.normals);
+            writeFloats(mesh.tangents);
+            writeFloats(mesh.bitangents);
+            writeInt(mesh.texCoords.length);
+            for (FloatBuffer coords : mesh.texCoords)
+            {
+                writeFloats(coords);
+            }
+            writeInt(mesh.colors.length);
+            for (FloatBuffer colors : mesh.colors)
+            {
+                writeFloats(colors);
+            }
+            writeInts(mesh.indices);
+        }
+
+        private void writeMaterial(MaterialData material)
+        {
+            writeInt(material.shader);
+            writeFloats(material.diffuseColor);
+            writeFloats(material.specularColor);
+            writeFloats(material.ambientColor);
+            writeFloats(material.emissiveColor);
+            writeFloat(material.opacity);
+            writeFloat(material.shininess);
+            writeFloat(material.metallic);
+            writeFloat(material.roughness);
+            writeInt(material.textures.size());
+            for (TextureData tex : material.textures)
+            {
+                writeInt(tex.type);
+                writeInt(tex.index);
+                writeInt(tex.uvIndex);
+                writeInt(tex.blendOp);
+                writeInt(tex.wrapU);
+                writeInt(tex.wrapV);
+                writeInt(tex.minFilter);
+                writeInt(tex.magFilter);
+                writeString(tex.fileName);
+            }
+        }
+
+        private void writeNode(NodeData node)
+        {
+            writeString(node.name);
+            writeFloats(node.matrix);
+            writeInt(node.meshId);
+            writeInt(node.children.size());
+            for (NodeData child : node.children)
+            {
+                writeNode(child);
+            }
+        }
+
+        private void align()
+        {
+            while ((mBuffer.position() & 3) != 0)
+            {
+                mBuffer.put((byte) 0);
+            }
+        }
+
+        private void ensure(int n)
+        {
+            if (mBuffer.remaining() < n)
+            {
+                int capacity = Math.max(mBuffer.capacity() * 2, mBuffer.position() + n);
+                ByteBuffer buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+
+                mBuffer.flip();
+                buffer.put(mBuffer);
+                mBuffer = buffer;
+            }
+        }
+    }
+
+    /*
+     * Reads the cache format from a mapped file.
+     * Vertex and index arrays are returned as views of the file.
+     */
+    private static final class Reader
+    {
+        private final ByteBuffer mBuffer;
+
+        Reader(ByteBuffer buffer)
+        {
+            mBuffer = buffer;
+        }
+
+        int readInt()
+        {
+            return mBuffer.getInt();
+        }
+
+        float readFloat()
+        {
+            return mBuffer.getFloat();
+        }
+
+        long[] readLongs(int n)
+        {
+            long[] v = new long[n];
+
+            for (int i = 0; i < n; ++i)
+            {
+                v[i] = mBuffer.getLong();
+            }
+            return v;
+        }
+
+        byte[] readBytes(int n)
+        {
+            byte[] bytes = new byte[n];
+
+            mBuffer.get(bytes);
+            mBuffer.position((mBuffer.position() + 3) & ~3);
+            return bytes;
+        }
+
+        String readString()
+        {
+            return new String(readBytes(readCount()), UTF8);
+        }
+
+        void readFloats(float[] v)
+        {
+            for (int i = 0; i < v.length; ++i)
+            {
+                v[i] = mBuffer.getFloat();
+            }
+        }
+
+        FloatBuffer readFloatBuffer()
+        {
+            int n = mBuffer.getInt();
+
+            if (n < 0)
+            {
+                return null;
+            }
+            return slice(n).asFloatBuffer();
+        }
+
+        IntBuffer readIntBuffer()
+        {
+            return slice(readCount()).asIntBuffer();
+        }
+
+        SceneData readScene()
+        {
+            SceneData scene = new SceneData();
+
+            scene.meshes = new MeshData[readCount()];
+            for (int i = 0; i < scene.meshes.length; ++i)
+            {
+                if (readInt() != 0)
+                {
+                    scene.meshes[i] = readMesh();
+                }
+            }
+            scene.materials = new MaterialData[readCount()];
+            for (int i = 0; i < scene.materials.length; ++i)
+            {
+                if (readInt() != 0)
+                {
+                    scene.materials[i] = readMaterial();
+                }
+            }
+            scene.meshMaterials = new int[scene.meshes.length];
+            for (int i = 0; i < scene.meshes.length; ++i)
+            {
+                int materialId = readInt();
+
+                if ((scene.meshes[i] != null) &&
+                    ((materialId < 0) || (materialId >= scene.materials.length) ||
+                     (scene.materials[materialId] == null)))
+                {
+                    throw new IllegalArgumentException("corrupt material index " + materialId);
+                }
+                scene.meshMaterials[i] = materialId;
+            }
+            int numNodes = readCount();
+            for (int i = 0; i < numNodes; ++i)
+            {
+                scene.nodes.add(readNode(scene));
+            }
+            return scene;
+        }
+
+        private MeshData readMesh()
+        {
+            MeshData mesh = new MeshData();
+
+            mesh.descriptor = readString();
+            mesh.positions = readFloatBuffer();
+            mesh.normals = readFloatBuffer();
+            mesh.tangents = readFloatBuffer();
+            mesh.bitangents = readFloatBuffer();
+            mesh.texCoords = new FloatBuffer[readCount()];
+            for (int i = 0; i < mesh.texCoords.length; ++i)
+            {
+                mesh.texCoords[i] = readFloatBuffer();
+            }
+            mesh.colors = new FloatBuffer[readCount()];
+            for (int i = 0; i < mesh.colors.length; ++i)
+            {
+                mesh.colors[i] = readFloatBuffer();
+            }
+            mesh.indices = readIntBuffer();
+            return mesh;
+        }
+
+        private MaterialData readMaterial()
+        {
+            MaterialData material = new MaterialData();
+
+            material.shader = readInt();
+            readFloats(material.diffuseColor);
+            readFloats(material.specularColor);
+            readFloats(material.ambientColor);
+            readFloats(material.emissiveColor);
+            material.opacity = readFloat();
+            material.shininess = readFloat();
+            material.metallic = readFloat();
+            material.roughness = readFloat();
+            int numTextures = readCount();
+            for (int i = 0; i < numTextures; ++i)
+            {
+                TextureData tex = new TextureData();
+
+                tex.type = readInt();
+                tex.index = readInt();
+                tex.uvIndex = readInt();
+                tex.blendOp = readInt();
+                tex.wrapU = readInt();
+                tex.wrapV = readInt();
+                tex.minFilter = readInt();
+                tex.magFilter = readInt();
+                tex.fileName = readString();
+                material.textures.add(tex);
+            }
+            return material;
+        }
+
+        private NodeData readNode(SceneData scene)
+        {
+            NodeData node = new NodeData();
+
+            node.name = readString();
+            readFloats(node.matrix);
+            node.meshId = readInt();
+            if ((node.meshId >= scene.meshes.length) ||
+                ((node.meshId >= 0) ? (scene.meshes[node.meshId] == null) : (node.meshId != -1)))
+            {
+                throw new IllegalArgumentException("corrupt mesh index " + node.meshId);
+            }
+            int numChildren = readCount();
+            for (int i = 0; i < numChildren; ++i)
+            {
+                node.children.add(readNode(scene));
+            }
+            return node;
+        }
+
+        private int readCount()
+        {
+            int n = mBuffer.getInt();
+
+            if ((n < 0) || (n > mBuffer.remaining()))
+            {
+                throw new IllegalArgumentException("corrupt count " + n);
+            }
+            return n;
+        }
+
+        private ByteBuffer slice(int n)
+        {
+            int end = mBuffer.position() + n * 4;
+
+            if ((n > mBuffer.remaining() / 4))
+            {
+                throw new BufferUnderflowException();
+            }
+            ByteBuffer view = mBuffer.duplicate();
+            view.limit(end);
+            mBuffer.position(end);
+            return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -94,6 +94,66 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
             EventOptions.SEND_TO_HIT_OBJECT,
             EventOptions.SEND_TO_LISTENERS);
 
+    /*
+     * Typed invokers for the pick and touch events sent every frame.
+     */
+    private static final SXREventManager.EventInvoker2<IPickEvents, SXRNode, SXRPickedObject> PICK_ENTER =
+            new SXREventManager.EventInvoker2<IPickEvents, SXRNode, SXRPickedObject>(IPickEvents.class, "onEnter") {
+                @Override
+                public void invoke(IPickEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onEnter(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<IPickEvents, SXRNode, SXRPickedObject> PICK_INSIDE =
+            new SXREventManager.EventInvoker2<IPickEvents, SXRNode, SXRPickedObject>(IPickEvents.class, "onInside") {
+                @Override
+                public void invoke(IPickEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onInside(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker1<IPickEvents, SXRNode> PICK_EXIT =
+            new SXREventManager.EventInvoker1<IPickEvents, SXRNode>(IPickEvents.class, "onExit") {
+                @Override
+                public void invoke(IPickEvents handler, SXRNode node) {
+                    handler.onExit(node);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject> TOUCH_ENTER =
+            new SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject>(ITouchEvents.class, "onEnter") {
+                @Override
+                public void invoke(ITouchEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onEnter(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject> TOUCH_EXIT =
+            new SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject>(ITouchEvents.class, "onExit") {
+                @Override
+                public void invoke(ITouchEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onExit(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject> TOUCH_INSIDE =
+            new SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject>(ITouchEvents.class, "onInside") {
+                @Override
+                public void invoke(ITouchEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onInside(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject> TOUCH_START =
+            new SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject>(ITouchEvents.class, "onTouchStart") {
+                @Override
+                public void invoke(ITouchEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onTouchStart(node, hit);
+                }
+            };
+    private static final SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject> TOUCH_END =
+            new SXREventManager.EventInvoker2<ITouchEvents, SXRNode, SXRPickedObject>(ITouchEvents.class, "onTouchEnd") {
+                @Override
+                public void invoke(ITouchEvents handler, SXRNode node, SXRPickedObject hit) {
+                    handler.onTouchEnd(node, hit);
+                }
+            };
+
     /**
      * One or more of these options may be combined to control
      * what events the picker sends and to which objects.
@@ -727,30 +787,30 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, ITouchEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(this, TOUCH_ENTER, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, ITouchEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(hitObject, TOUCH_ENTER, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, ITouchEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(mScene, TOUCH_ENTER, hitObject, hit);
             }
         }
         if (mEventOptions.contains(EventOptions.SEND_PICK_EVENTS))
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, IPickEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(this, PICK_ENTER, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, IPickEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(hitObject, PICK_ENTER, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, IPickEvents.class, "onEnter", hitObject, hit);
+                eventManager.sendEvent(mScene, PICK_ENTER, hitObject, hit);
             }
         }
     }
@@ -767,15 +827,15 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
             SXRNode hitObject = hit.getHitObject();
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, ITouchEvents.class, "onTouchStart", hitObject, hit);
+                eventManager.sendEvent(this, TOUCH_START, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, ITouchEvents.class, "onTouchStart", hitObject, hit);
+                eventManager.sendEvent(hitObject, TOUCH_START, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, ITouchEvents.class, "onTouchStart", hitObject, hit);
+                eventManager.sendEvent(mScene, TOUCH_START, hitObject, hit);
             }
         }
     }
@@ -792,15 +852,15 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
             SXRNode hitObject = hit.getHitObject();
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, ITouchEvents.class, "onTouchEnd", hitObject, hit);
+                eventManager.sendEvent(this, TOUCH_END, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, ITouchEvents.class, "onTouchEnd", hitObject, hit);
+                eventManager.sendEvent(hitObject, TOUCH_END, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, ITouchEvents.class, "onTouchEnd", hitObject, hit);
+                eventManager.sendEvent(mScene, TOUCH_END, hitObject, hit);
             }
         }
     }
@@ -817,30 +877,30 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, ITouchEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(this, TOUCH_INSIDE, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, ITouchEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(hitObject, TOUCH_INSIDE, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, ITouchEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(mScene, TOUCH_INSIDE, hitObject, hit);
             }
         }
         if (mEventOptions.contains(EventOptions.SEND_PICK_EVENTS))
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, IPickEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(this, PICK_INSIDE, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, IPickEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(hitObject, PICK_INSIDE, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, IPickEvents.class, "onInside", hitObject, hit);
+                eventManager.sendEvent(mScene, PICK_INSIDE, hitObject, hit);
             }
         }
     }
@@ -856,30 +916,30 @@ public class SXRPicker extends SXRBehavior implements IEventReceiver {
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, ITouchEvents.class, "onExit", hitObject, hit);
+                eventManager.sendEvent(this, TOUCH_EXIT, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, ITouchEvents.class, "onExit", hitObject, hit);
+                eventManager.sendEvent(hitObject, TOUCH_EXIT, hitObject, hit);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, ITouchEvents.class, "onExit", hitObject, hit);
+                eventManager.sendEvent(mScene, TOUCH_EXIT, hitObject, hit);
             }
         }
         if (mEventOptions.contains(EventOptions.SEND_PICK_EVENTS))
         {
             if (mEventOptions.contains(EventOptions.SEND_TO_LISTENERS))
             {
-                eventManager.sendEvent(this, IPickEvents.class, "onExit", hitObject);
+                eventManager.sendEvent(this, PICK_EXIT, hitObject);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_HIT_OBJECT))
             {
-                eventManager.sendEvent(hitObject, IPickEvents.class, "onExit", hitObject);
+                eventManager.sendEvent(hitObject, PICK_EXIT, hitObject);
             }
             if (mEventOptions.contains(EventOptions.SEND_TO_SCENE) && (mScene != null))
             {
-                eventManager.sendEvent(mScene, IPickEvents.class, "onExit", hitObject);
+                eventManager.sendEvent(mScene, PICK_EXIT, hitObject);
             }
         }
     }
@@ -40,7 +40,8 @@ public class SXRResourceVolume {
         ANDROID_SDCARD ("sdcard", "/"),
         LINUX_FILESYSTEM ("linux", "/"),
         NETWORK ("url", "/"),
-        INPUT_STREAM ("stream", "/");
+        INPUT_STREAM ("stream", "/"),
+        ZIP ("zip", "/");
 
         private String name;
         private String separator;
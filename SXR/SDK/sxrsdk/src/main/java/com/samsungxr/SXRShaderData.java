@@ -55,6 +55,124 @@ public class SXRShaderData extends SXRHybridObject
 
     final protected Map<String, SXRTexture> textures = new HashMap();
 
+    /**
+     * A uniform or texture resolved once from the descriptors of a shader.
+     * <p>
+     * The setters which take a handle instead of a name do not have to
+     * look up the name. They skip the validation and conversion of the name
+     * string, in Java and in native code.
+     * A handle can be used with any {@link SXRShaderData} with the same
+     * descriptors as the one it was obtained from.
+     * @see #getUniform(String)
+     * @see #getTextureUniform(String)
+     */
+    public static final class Uniform
+    {
+        public enum Type { FLOAT, INT, MATRIX, TEXTURE }
+
+        final String mName;
+        final String mDescriptor;
+        final int mSlot;
+        final Type mType;
+        final int mSize;
+        final int mCount;
+
+        Uniform(String name, String descriptor, int slot, Type type, int size, int count)
+        {
+            mName = name;
+            mDescriptor = descriptor;
+            mSlot = slot;
+            mType = type;
+            mSize = size;
+            mCount = count;
+        }
+
+        /**
+         * @return name of the uniform or texture
+         */
+        public String getName() { return mName; }
+
+        /**
+         * @return index of the uniform or texture in its descriptor
+         */
+        public int getSlot() { return mSlot; }
+
+        public Type getType() { return mType; }
+
+        /**
+         * @return number of {@code float}s or {@code int}s in the uniform,
+         * for all array elements. 1 for a texture.
+         */
+        public int getSize() { return mSize; }
+
+        /**
+         * @return number of array elements, 1 if the uniform is not an array
+         */
+        public int getCount() { return mCount; }
+
+        @Override
+        public String toString() { return mType + " " + mName + "@" + mSlot; }
+    }
+
+    /**
+     * A fixed list of floating point uniforms to set in one call with
+     * {@link #setUniforms(UniformBatch, float[])}.
+     * <p>
+     * The values of the uniforms are packed one after the other, in the
+     * order of the list, each taking {@link Uniform#getSize()} floats.
+     */
+    public static final class UniformBatch
+    {
+        final String mDescriptor;
+        final int[] mSlots;
+        final int[] mSizes;
+        final int mSize;
+
+        /**
+         * @param uniforms float or matrix uniforms obtained from shader data
+         *                 with the same descriptor.
+         * @throws IllegalArgumentException if a uniform is an {@code int} or a
+         *         texture or the uniforms are from different descriptors.
+         */
+        public UniformBatch(Uniform... uniforms)
+        {
+            if (uniforms.length == 0)
+            {
+                throw new IllegalArgumentException("batch must have at least one uniform");
+            }
+            mDescriptor = uniforms[0].mDescriptor;
+            mSlots = new int[uniforms.length];
+            mSizes = new int[uniforms.length];
+            int size = 0;
+            for (int i = 0; i < uniforms.length; ++i)
+            {
+                final Uniform u = uniforms[i];
+                if ((u.mType != Uniform.Type.FLOAT) && (u.mType != Uniform.Type.MATRIX))
+                {
+                    throw Exceptions.IllegalArgument("uniform %s is not a float uniform", u.mName);
+                }
+                if (!mDescriptor.equals(u.mDescriptor))
+                {
+                    throw Exceptions.IllegalArgument("uniform %s is from another descriptor", u.mName);
+                }
+                mSlots[i] = u.mSlot;
+                mSizes[i] = u.mSize;
+                size += u.mSize;
+            }
+            mSize = size;
+        }
+
+        /**
+         * @return number of uniforms in the batch
+         */
+        public int getCount() { return mSlots.length; }
+
+        /**
+         * @return number of floats taken by the values of all the uniforms
+         */
+        public int getSize() { return mSize; }
+    }
+
     /**
      * Initialize shader data for a specific shader.
      * <p>
@@ -436,6 +554,198 @@ public class SXRShaderData extends SXRHybridObject
         NativeShaderData.setIntVec(getNative(), key, val, val.length);
     }
 
+    /**
+     * Resolve a uniform of this shader data to a handle for the setters
+     * which take a {@link Uniform} instead of a name.
+     * <p>
+     * Unlike the setters by name, the name must match a uniform in the
+     * descriptor exactly.
+     * @param name name of the uniform in the uniform descriptor
+     * @return handle of the uniform
+     * @throws IllegalArgumentException if the uniform is not in the descriptor
+     * @see #getUniformDescriptor()
+     */
+    public Uniform getUniform(String name)
+    {
+        checkStringNotNullOrEmpty("name", name);
+        final int[] info = new int[3];
+        final int slot = NativeShaderData.getUniformSlot(getNative(), name, info);
+        if (slot < 0)
+        {
+            throw Exceptions.IllegalArgument("uniform %s not in material", name);
+        }
+        final Uniform.Type type = ((info[2] & 1) != 0) ? Uniform.Type.INT
+                : ((info[2] & 2) != 0) ? Uniform.Type.MATRIX : Uniform.Type.FLOAT;
+        return new Uniform(name, mUniformDescriptor, slot, type, info[0] / 4, info[1]);
+    }
+
+    /**
+     * Resolve a texture of this shader data to a handle for
+     * {@link #setTexture(Uniform, SXRTexture)}.
+     * @param name name of the texture in the texture descriptor
+     * @return handle of the texture
+     * @throws IllegalArgumentException if the texture is not in the descriptor
+     * @see #getTextureDescriptor()
+     */
+    public Uniform getTextureUniform(String name)
+    {
+        checkStringNotNullOrEmpty("name", name);
+        final int slot = NativeShaderData.getTextureSlot(getNative(), name);
+        if (slot < 0)
+        {
+            throw Exceptions.IllegalArgument("texture %s not in material", name);
+        }
+        return new Uniform(name, mTextureDescriptor, slot, Uniform.Type.TEXTURE, 1, 1);
+    }
+
+    /**
+     * Bind a {@link SXRTexture texture} to a texture resolved
+     * by {@link #getTextureUniform(String)}.
+     * @param texture   The {@link SXRTexture texture} to bind.
+     */
+    public void setTexture(Uniform uniform, SXRTexture texture)
+    {
+        checkHandle(uniform, mTextureDescriptor, Uniform.Type.TEXTURE);
+        synchronized (textures)
+        {
+            textures.put(uniform.mName, texture);
+            NativeShaderData.setTextureAt(getNative(), uniform.mSlot,
+                                          texture != null ? texture.getNative() : 0);
+        }
+    }
+
+    /**
+     * Bind a {@code float} to a uniform resolved by {@link #getUniform(String)}.
+     * @see #setFloat(String, float)
+     */
+    public void setFloat(Uniform uniform, float value)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.FLOAT);
+        checkFloatNotNaNOrInfinity("value", value);
+        NativeShaderData.setFloatAt(getNative(), uniform.mSlot, value);
+    }
+
+    /**
+     * Bind an {@code int} to a uniform resolved by {@link #getUniform(String)}.
+     * @see #setInt(String, int)
+     */
+    public void setInt(Uniform uniform, int value)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.INT);
+        NativeShaderData.setIntAt(getNative(), uniform.mSlot, value);
+    }
+
+    /**
+     * Set a vector of length 2 resolved by {@link #getUniform(String)}.
+     * @see #setVec2(String, float, float)
+     */
+    public void setVec2(Uniform uniform, float x, float y)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.FLOAT);
+        NativeShaderData.setVec2At(getNative(), uniform.mSlot, x, y);
+    }
+
+    /**
+     * Set a vector of length 3 resolved by {@link #getUniform(String)}.
+     * @see #setVec3(String, float, float, float)
+     */
+    public void setVec3(Uniform uniform, float x, float y, float z)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.FLOAT);
+        NativeShaderData.setVec3At(getNative(), uniform.mSlot, x, y, z);
+    }
+
+    /**
+     * Set a vector of length 4 resolved by {@link #getUniform(String)}.
+     * @see #setVec4(String, float, float, float, float)
+     */
+    public void setVec4(Uniform uniform, float x, float y, float z, float w)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.FLOAT);
+        NativeShaderData.setVec4At(getNative(), uniform.mSlot, x, y, z, w);
+    }
+
+    /**
+     * Set a 4x4 matrix resolved by {@link #getUniform(String)}.
+     * @see #setMat4(String, float, float, float, float, float, float, float, float,
+     *               float, float, float, float, float, float, float, float)
+     */
+    public void setMat4(Uniform uniform, float x1, float y1, float z1, float w1,
+                        float x2, float y2, float z2, float w2, float x3, float y3,
+                        float z3, float w3, float x4, float y4, float z4, float w4)
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.MATRIX);
+        NativeShaderData.setMat4At(getNative(), uniform.mSlot, x1, y1, z1, w1, x2, y2,
+                z2, w2, x3, y3, z3, w3, x4, y4, z4, w4);
+    }
+
+    /**
+     * Set a floating point vector, array or matrix resolved by {@link #getUniform(String)}.
+     * At most {@link Uniform#getSize()} values are copied.
+     * @see #setFloatArray(String, float[])
+     */
+    public void setFloatArray(Uniform uniform, float val[])
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.FLOAT);
+        NativeShaderData.setFloatVecAt(getNative(), uniform.mSlot, val, val.length);
+    }
+
+    /**
+     * Set an integer vector or array resolved by {@link #getUniform(String)}.
+     * At most {@link Uniform#getSize()} values are copied.
+     * @see #setIntArray(String, int[])
+     */
+    public void setIntArray(Uniform uniform, int val[])
+    {
+        checkHandle(uniform, mUniformDescriptor, Uniform.Type.INT);
+        NativeShaderData.setIntVecAt(getNative(), uniform.mSlot, val, val.length);
+    }
+
+    /**
+     * Set all the uniforms of a batch in one call.
+     * @param batch  uniforms resolved from shader data with the same descriptor
+     * @param values values of the uniforms, packed in the order of the batch
+     * @throws IllegalArgumentException if the batch is from another descriptor
+     *         or there are less than {@link UniformBatch#getSize()} values.
+     */
+    public void setUniforms(UniformBatch batch, float[] values)
+    {
+        if (!isSameDescriptor(batch.mDescriptor, mUniformDescriptor))
+        {
+            throw Exceptions.IllegalArgument("uniform batch not from this material");
+        }
+        if (values.length < batch.mSize)
+        {
+            throw Exceptions.IllegalArgument("%d values needed, got %d", batch.mSize, values.length);
+        }
+        NativeShaderData.setFloatsAt(getNative(), batch.mSlots, batch.mSizes, batch.mSlots.length, values);
+    }
+
+    /*
+     * Matrices are float uniforms too.
+     */
+    private static void checkHandle(Uniform uniform, String descriptor, Uniform.Type type)
+    {
+        if (!isSameDescriptor(uniform.mDescriptor, descriptor))
+        {
+            throw Exceptions.IllegalArgument("uniform %s not in material", uniform.mName);
+        }
+        if ((uniform.mType != type) &&
+            ((type != Uniform.Type.FLOAT) || (uniform.mType != Uniform.Type.MATRIX)))
+        {
+            throw Exceptions.IllegalArgument("uniform %s is %s, not %s", uniform.mName, uniform.mType, type);
+        }
+    }
+
+    /*
+     * Shader data of the same shader share the descriptor strings,
+     * so this usually doesn't have to compare the characters.
+     */
+    private static boolean isSameDescriptor(String a, String b)
+    {
+        return (a == b) || ((a != null) && a.equals(b));
+    }
+
     private void checkKeyIsTexture(String key)
     {
         checkStringNotNullOrEmpty("key", key);
@@ -571,4 +881,31 @@ class NativeShaderData {
     static native String makeShaderLayout(long shaderData);
 
     static native boolean copyUniforms(long shaderDataDest, long shaderDataSrc);
+
+    static native int getUniformSlot(long shaderData, String key, int[] info);
+
+    static native int getTextureSlot(long shaderData, String key);
+
+    static native boolean setTextureAt(long shaderData, int slot, long texture);
+
+    static native boolean setFloatAt(long shaderData, int slot, float value);
+
+    static native boolean setIntAt(long shaderData, int slot, int value);
+
+    static native boolean setVec2At(long shaderData, int slot, float x, float y);
+
+    static native boolean setVec3At(long shaderData, int slot, float x, float y, float z);
+
+    static native boolean setVec4At(long shaderData, int slot, float x, float y, float z, float w);
+
+    static native boolean setMat4At(long shaderData, int slot, float x1,
+                                    float y1, float z1, float w1, float x2, float y2, float z2,
+                                    float w2, float x3, float y3, float z3, float w3, float x4,
+                                    float y4, float z4, float w4);
+
+    static native boolean setFloatVecAt(long shaderData, int slot, float[] val, int n);
+
+    static native boolean setIntVecAt(long shaderData, int slot, int[] val, int n);
+
+    static native boolean setFloatsAt(long shaderData, int[] slots, int[] sizes, int count, float[] values);
 }
\ No newline at end of file
@@ -350,6 +350,31 @@ public class SXRVertexBuffer extends SXRHybridObject implements PrettyPrint
         }
     }
 
+    /**
+     * Updates a vertex attribute for a range of vertices from a float array.
+     * The array holds the attribute for all vertices, as for
+     * {@link #setFloatArray(String, float[])}, but only the entries for
+     * the vertices from {@code firstVertex} to {@code firstVertex + vertexCount}
+     * are copied. Other vertices and attributes are not affected,
+     * and the number of vertices does not change.
+     * <p>
+     * Use this to update the part of a large vertex buffer which changed
+     * without copying the whole attribute.
+     * @param attributeName name of the attribute to update
+     * @param data float array containing the values for all vertices
+     * @param firstVertex index of the first vertex to update
+     * @param vertexCount number of vertices to update
+     * @throws IllegalArgumentException if attribute name not in descriptor or the range is outside the vertices
+     * @see #setFloatArray(String, float[])
+     */
+    public void setFloatRange(String attributeName, float[] data, int firstVertex, int vertexCount)
+    {
+        if (!NativeVertexBuffer.setFloatRange(getNative(), attributeName, data, firstVertex, vertexCount))
+        {
+            throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
+        }
+    }
+
     /**
      * Updates a vertex attribute from a float buffer.
      * All of the entries of the input float buffer are copied into
@@ -611,6 +636,8 @@ class NativeVertexBuffer {
 
     static native boolean setFloatArray(long vbuf, String name, float[] data, int stride, int offset);
 
+    static native boolean setFloatRange(long vbuf, String name, float[] data, int first, int count);
+
     static native int  getAttributeSize(long vbuf, String name);
 
     static native int getBoundingVolume(long vbuf, float[] bv);
@@ -26,6 +26,7 @@ import com.samsungxr.asynchronous.SXRAsynchronousResourceLoader;
 import com.samsungxr.io.SXRGearCursorController;
 import com.samsungxr.io.SXRInputManager;
 import com.samsungxr.script.IScriptManager;
+import com.samsungxr.utility.FrameBudgetScheduler;
 import com.samsungxr.utility.ImageUtils;
 import com.samsungxr.utility.Log;
 import com.samsungxr.utility.Threads;
@@ -39,9 +40,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
 abstract class SXRViewManager extends SXRContext {
@@ -264,15 +263,7 @@ abstract class SXRViewManager extends SXRContext {
          * Without the sensor data, can't draw a scene properly.
          */
         if (!(mSensoredScene == null || !mMainScene.equals(mSensoredScene))) {
-            Runnable runnable;
-            while ((runnable = mRunnables.poll()) != null) {
-                try {
-                    runnable.run();
-                } catch (final Exception exc) {
-                    Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                    exc.printStackTrace();
-                }
-            }
+            mRunnables.runFrame();
 
             final List<SXRDrawFrameListener> frameListeners = mFrameListeners;
             for (SXRDrawFrameListener listener : frameListeners) {
@@ -332,17 +323,7 @@ abstract class SXRViewManager extends SXRContext {
             // execute pending runnables now so any necessary gl calls
             // are done before onInit().  As an example the request to
             // get the GL_MAX_TEXTURE_SIZE needs to be fulfilled.
-            synchronized (mRunnables) {
-                Runnable runnable = null;
-                while ((runnable = mRunnables.poll()) != null) {
-                    try {
-                        runnable.run();
-                    } catch (final Exception exc) {
-                        Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                        exc.printStackTrace();
-                    }
-                }
-            }
+            mRunnables.runAll();
 
             runOnTheFrameworkThread(new Runnable() {
                 @Override
@@ -498,10 +479,25 @@ abstract class SXRViewManager extends SXRContext {
         if (mGLThreadID == Thread.currentThread().getId()) {
             runnable.run();
         } else {
-            mRunnables.add(runnable);
+            mRunnables.post(FrameBudgetScheduler.PRIORITY_NORMAL, runnable);
         }
     }
 
+    @Override
+    public void runOnGlThread(int priority, Runnable runnable) {
+        mRunnables.post(priority, runnable);
+    }
+
+    @Override
+    public void setGlRunnableBudget(long budgetNanos) {
+        mRunnables.setBudgetNanos(budgetNanos);
+    }
+
+    @Override
+    public FrameBudgetScheduler getGlRunnableScheduler() {
+        return mRunnables;
+    }
+
     @Override
     public void runOnGlThreadPostRender(int delayFrames, Runnable runnable) {
         synchronized (mRunnablesPostRender) {
@@ -830,7 +826,13 @@ abstract class SXRViewManager extends SXRContext {
     protected FrameHandler mFrameHandler = firstFrame;
 
     protected List<SXRDrawFrameListener> mFrameListeners = new CopyOnWriteArrayList<SXRDrawFrameListener>();
-    protected final Queue<Runnable> mRunnables = new LinkedBlockingQueue<Runnable>();
+    protected final FrameBudgetScheduler mRunnables = new FrameBudgetScheduler() {
+        @Override
+        protected void onException(Runnable runnable, Exception exc) {
+            Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
+            exc.printStackTrace();
+        }
+    };
     protected final Map<Runnable, Integer> mRunnablesPostRender = new HashMap<Runnable, Integer>();
 
     protected SXRScene mMainScene;
@@ -0,0 +1,849 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import android.content.res.AssetFileDescriptor;
+import android.os.ParcelFileDescriptor;
+
+import com.samsungxr.utility.FileNameUtils;
+import com.samsungxr.utility.Log;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A read only volume with the files in a zip archive.
+ * <p>
+ * The central directory of the archive is read once when the volume
+ * is opened, the files are only read when their resources are opened.
+ * Stored files are memory mapped from the archive without copying them,
+ * deflated files are inflated as they are read.
+ * Unlike {@link ZipLoader} the archive is never read into memory.
+ * <p>
+ * A volume can be shared by several threads, every resource stream
+ * reads the archive independently. File paths are relative to the
+ * directory of the file the volume was opened with, like the
+ * other volume types.
+ * <pre>
+ *     SXRZipVolume volume = new SXRZipVolume(context, new File(dir, "pack.zip"), "models/robot.fbx");
+ *     context.getAssetLoader().loadModel(volume, model, settings, true, null);
+ * </pre>
+ */
+public class SXRZipVolume extends SXRResourceVolume implements Closeable
+{
+    private static final String TAG = SXRZipVolume.class.getSimpleName();
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_HEADER_SIG = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_END_HEADER_SIG = 0x06064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_HEADER_SIZE = 56;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int FLAG_ENCRYPTED = 1;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int BUFFER_SIZE = 8192;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /*
+     * Location of one file in the archive. The offset of the
+     * file data is only known after reading its local header.
+     */
+    private static final class Entry
+    {
+        final String name;
+        final int method;
+        final int crc;
+        final long compressedSize;
+        final long size;
+        final long headerOffset;
+        volatile long dataOffset = -1;
+
+        Entry(String name, int method, int crc, long compressedSize, long size, long headerOffset)
+        {
+            this.name = name;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+        }
+    }
+
+    private final String mZipPath;
+    private final File mFile;
+    private final AssetFileDescriptor mAssetDescriptor;
+    private final long mStart;
+    private final long mLength;
+    private final Map<String, Entry> mEntries;
+    private volatile FileChannel mChannel;
+    private volatile boolean mClosed = false;
+
+    /**
+     * Opens a zip file as a volume.
+     * @param context   SXR context
+     * @param zipFile   zip file to open
+     * @throws IOException if the file is not a valid zip file
+     */
+    public SXRZipVolume(SXRContext context, File zipFile) throws IOException
+    {
+        this(context, zipFile, null);
+    }
+
+    /**
+     * Opens a zip file as a volume and sets the file to load from it.
+     * <p>
+     * Other files are opened relative to the directory of this file,
+     * like {@link SXRResourceVolume#SXRResourceVolume(SXRContext, String)}.
+     * @param context   SXR context
+     * @param zipFile   zip file to open
+     * @param fileName  path of a file in the archive, may be null
+     * @throws IOException if the file is not a valid zip file
+     */
+    public SXRZipVolume(SXRContext context, File zipFile, String fileName) throws IOException
+    {
+        this(context, zipFile.getPath(), zipFile, null, fileName);
+    }
+
+    /**
+     * Opens a zip file in the assets of the application as a volume.
+     * <p>
+     * The zip file must not be compressed in the APK so it can be opened with
+     * {@link android.content.res.AssetManager#openFd(String)}.
+     * Files ending in ".zip" are not compressed by default.
+     * The volume closes the descriptor when it is closed.
+     * @param context   SXR context
+     * @param zipAsset  descriptor of the zip file in the assets
+     * @param fileName  path of a file in the archive, may be null
+     * @throws IOException if the asset is not a valid zip file
+     */
+    public SXRZipVolume(SXRContext context, AssetFileDescriptor zipAsset, String fileName) throws IOException
+    {
+        this(context, "assets", null, zipAsset, fileName);
+    }
+
+    private SXRZipVolume(SXRContext context, String zipPath, File file,
+                         AssetFileDescriptor asset, String fileName) throws IOException
+    {
+        super(context, VolumeType.ZIP, (fileName != null) ? FileNameUtils.getParentDirectory(fileName) : null);
+        mZipPath = zipPath;
+        mFile = file;
+        mAssetDescriptor = asset;
+        mChannel = openChannel();
+        try
+        {
+            if (asset != null)
+            {
+                long length = asset.getLength();
+
+                mStart = asset.getStartOffset();
+                mLength = (length >= 0) ? length : mChannel.size() - mStart;
+            }
+            else
+            {
+                mStart = 0;
+                mLength = mChannel.size();
+            }
+            mEntries = readCentralDirectory();
+        }
+        catch (IOException ex)
+        {
+            close();
+            throw ex;
+        }
+        if ((fileName != null) && (defaultPath != null))
+        {
+            this.fileName = fileName.substring(defaultPath.length() + 1);
+        }
+        else
+        {
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * Gets the paths of all the files in the archive
+     * in the order they are in the archive.
+     * @return read only set of file paths
+     */
+    public Set<String> getEntryNames()
+    {
+        return Collections.unmodifiableSet(mEntries.keySet());
+    }
+
+    /**
+     * Determines whether the archive contains a file.
+     * @param filePath path of the file relative to the default path
+     * @return true if the file is in the archive
+     */
+    public boolean contains(String filePath)
+    {
+        return mEntries.containsKey(resolvePath(filePath));
+    }
+
+    /**
+     * Gets the uncompressed size and CRC-32 of a file in the archive
+     * from the central directory, without reading the file.
+     * @param filePath path of the file relative to the default path
+     * @return { size, CRC-32 } or null if the file is not in the archive
+     */
+    long[] getEntryStamp(String filePath)
+    {
+        Entry entry = mEntries.get(resolvePath(filePath));
+
+        if (entry == null)
+        {
+            return null;
+        }
+        return new long[] { entry.size, entry.crc & 0xFFFFFFFFL };
+    }
+
+    /**
+     * Opens a file in the archive. The filePath is relative to the
+     * defaultPath. The resource can be opened and read again after
+     * its stream has been closed.
+     *
+     * @param filePath
+     *            File path of the resource to open.
+     *
+     * @throws IOException if the file is not in the archive
+     */
+    @Override
+    public SXRAndroidResource openResource(String filePath) throws IOException
+    {
+        Entry entry = mEntries.get(resolvePath(filePath));
+
+        if (entry == null)
+        {
+            throw new FileNotFoundException(filePath + " not found in " + mZipPath);
+        }
+        return addResource(new ZipResource(this, entry));
+    }
+
+    /**
+     * Gets the path of the file this volume was opened with.
+     * The path includes the zip file so models in different
+     * archives have different paths.
+     */
+    @Override
+    public String getFullPath()
+    {
+        return mZipPath + "!/" + super.getFullPath();
+    }
+
+    /**
+     * Closes the zip file. Streams which are still open cannot be read
+     * any more but memory mapped files stay valid.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        mClosed = true;
+        try
+        {
+            if (mChannel != null)
+            {
+                mChannel.close();
+            }
+        }
+        finally
+        {
+            if (mAssetDescriptor != null)
+            {
+                mAssetDescriptor.close();
+            }
+        }
+    }
+
+    /*
+     * Resolves '.' and '..' in a path relative to the default path
+     * and converts it to the form used in the archive.
+     */
+    private String resolvePath(String filePath)
+    {
+        if (filePath.startsWith("/"))
+        {
+            filePath = filePath.substring(1);
+        }
+        String path = getFullPath(defaultPath, adaptFilePath(filePath));
+        List<String> names = new ArrayList<String>();
+
+        for (String name : path.split("/"))
+        {
+            if (name.isEmpty() || name.equals("."))
+            {
+                continue;
+            }
+            if (name.equals(".."))
+            {
+                if (!names.isEmpty())
+                {
+                    names.remove(names.size() - 1);
+                }
+                continue;
+            }
+            names.add(name);
+        }
+        StringBuilder sb = new StringBuilder(path.length());
+        for (String name : names)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append('/');
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+
+    private Map<String, Entry> readCentralDirectory() throws IOException
+    {
+        int tailSize = (int) Math.min(mLength, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        long tailOffset = mLength - tailSize;
+        ByteBuffer tail = read(tailOffset, tailSize);
+        int end = -1;
+
+        for (int i = tailSize - END_HEADER_SIZE; i >= 0; --i)
+        {
+            if (tail.getInt(i) == END_HEADER_SIG)
+            {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0)
+        {
+            throw new ZipException(mZipPath + " is not a zip file");
+        }
+        long numEntries = tail.getShort(end + 10) & 0xFFFF;
+        long dirSize = tail.getInt(end + 12) & ZIP64_MAGIC;
+        long dirOffset = tail.getInt(end + 16) & ZIP64_MAGIC;
+        long endOffset = tailOffset + end;
+
+        if (((numEntries == 0xFFFF) || (dirSize == ZIP64_MAGIC) || (dirOffset == ZIP64_MAGIC)) &&
+            (endOffset >= ZIP64_LOCATOR_SIZE))
+        {
+            ByteBuffer locator = read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIG)
+            {
+                ByteBuffer end64 = read(locator.getLong(8), ZIP64_END_HEADER_SIZE);
+
+                if (end64.getInt(0) != ZIP64_END_HEADER_SIG)
+                {
+                    throw new ZipException("Invalid zip64 end header in " + mZipPath);
+                }
+                numEntries = end64.getLong(32);
+                dirSize = end64.getLong(40);
+                dirOffset = end64.getLong(48);
+            }
+        }
+        if ((dirOffset < 0) || (dirSize > Integer.MAX_VALUE) || (dirOffset + dirSize > mLength))
+        {
+            throw new ZipException("Invalid central directory in " + mZipPath);
+        }
+        ByteBuffer dir = read(dirOffset, (int) dirSize);
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        int pos = 0;
+
+        for (long i = 0; i < numEntries; ++i)
+        {
+            if ((pos + CENTRAL_HEADER_SIZE > dirSize) || (dir.getInt(pos) != CENTRAL_HEADER_SIG))
+            {
+                throw new ZipException("Invalid central directory in " + mZipPath);
+            }
+            int flags = dir.getShort(pos + 8) & 0xFFFF;
+            int method = dir.getShort(pos + 10) & 0xFFFF;
+            int crc = dir.getInt(pos + 16);
+            long compressedSize = dir.getInt(pos + 20) & ZIP64_MAGIC;
+            long size = dir.getInt(pos + 24) & ZIP64_MAGIC;
+            int nameLength = dir.getShort(pos + 28) & 0xFFFF;
+            int extraLength = dir.getShort(pos + 30) & 0xFFFF;
+            int commentLength = dir.getShort(pos + 32) & 0xFFFF;
+            long headerOffset = dir.getInt(pos + 42) & ZIP64_MAGIC;
+            int extraStart = pos + CENTRAL_HEADER_SIZE + nameLength;
+            int extraEnd = extraStart + extraLength;
+
+            if (extraEnd + commentLength > dirSize)
+            {
+                throw new ZipException("Invalid central directory in " + mZipPath);
+            }
+            String name = new String(dir.array(), pos + CENTRAL_HEADER_SIZE, nameLength, UTF8);
+
+            /*
+             * Sizes and offsets which do not fit in 32 bits
+             * are in the zip64 extra field in this order.
+             */
+            for (int e = extraStart; e + 4 <= extraEnd; )
+            {
+                int id = dir.getShort(e) & 0xFFFF;
+                int length = dir.getShort(e + 2) & 0xFFFF;
+                int p = e + 4;
+
+                if (id == ZIP64_EXTRA_ID)
+                {
+                    if ((size == ZIP64_MAGIC) && (p + 8 <= extraEnd))
+                    {
+                        size = dir.getLong(p);
+                        p += 8;
+                    }
+                    if ((compressedSize == ZIP64_MAGIC) && (p + 8 <= extraEnd))
+                    {
+                        compressedSize = dir.getLong(p);
+                        p += 8;
+                    }
+                    if ((headerOffset == ZIP64_MAGIC) && (p + 8 <= extraEnd))
+                    {
+                        headerOffset = dir.getLong(p);
+                    }
+                    break;
+                }
+                e = p + length;
+            }
+            pos = extraEnd + commentLength;
+            if (name.endsWith("/"))
+            {
+                continue;
+            }
+            if ((flags & FLAG_ENCRYPTED) != 0)
+            {
+                Log.w(TAG, "Skipping encrypted file %s in %s", name, mZipPath);
+                continue;
+            }
+            entries.put(name, new Entry(name, method, crc, compressedSize, size, headerOffset));
+        }
+        return entries;
+    }
+
+    /*
+     * Opens a stream to read a file in the archive.
+     * Stored files are mapped, deflated files are inflated
+     * from the archive as they are read.
+     */
+    private InputStream openEntry(Entry entry) throws IOException
+    {
+        long offset = getDataOffset(entry);
+
+        switch (entry.method)
+        {
+            case STORED:
+            return new MappedInputStream(map(offset, entry.size));
+
+            case DEFLATED:
+            return new BufferedInputStream(new EntryInflaterStream(
+                    new ArchiveInputStream(offset, entry.compressedSize), entry.size), BUFFER_SIZE);
+
+            default:
+            throw new ZipException("Unsupported compression method " + entry.method
+                                   + " for " + entry.name + " in " + mZipPath);
+        }
+    }
+
+    private long getDataOffset(Entry entry) throws IOException
+    {
+        long offset = entry.dataOffset;
+
+        if (offset < 0)
+        {
+            ByteBuffer header = read(entry.headerOffset, LOCAL_HEADER_SIZE);
+
+            if (header.getInt(0) != LOCAL_HEADER_SIG)
+            {
+                throw new ZipException("Invalid header for " + entry.name + " in " + mZipPath);
+            }
+            offset = entry.headerOffset + LOCAL_HEADER_SIZE
+                     + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+            if (offset + entry.compressedSize > mLength)
+            {
+                throw new ZipException(entry.name + " is truncated in " + mZipPath);
+            }
+            entry.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    private FileChannel openChannel() throws IOException
+    {
+        if (mFile != null)
+        {
+            return new FileInputStream(mFile).getChannel();
+        }
+        ParcelFileDescriptor fd = mAssetDescriptor.getParcelFileDescriptor().dup();
+        return new ParcelFileDescriptor.AutoCloseInputStream(fd).getChannel();
+    }
+
+    /*
+     * A channel is closed when a thread reading it is interrupted.
+     * The archive is opened again so the other threads can continue.
+     */
+    private FileChannel getChannel() throws IOException
+    {
+        FileChannel channel = mChannel;
+
+        if (!channel.isOpen())
+        {
+            synchronized (this)
+            {
+                if (mClosed)
+                {
+                    throw new ClosedChannelException();
+                }
+                channel = mChannel;
+                if (!channel.isOpen())
+                {
+                    channel = openChannel();
+                    mChannel = channel;
+                }
+            }
+        }
+        return channel;
+    }
+
+    private ByteBuffer read(long offset, int size) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining())
+        {
+            if (readAt(buffer, offset + buffer.position()) < 0)
+            {
+                throw new EOFException("Unexpected end of " + mZipPath);
+            }
+        }
+        return buffer;
+    }
+
+    /*
+     * Positional reads do not change the state of the channel
+     * so any number of threads can read at the same time.
+     * A read is only tried again if the channel was closed by
+     * another thread being interrupted while the volume is open.
+     */
+    private int readAt(ByteBuffer dst, long offset) throws IOException
+    {
+        while (true)
+        {
+            try
+            {
+                return getChannel().read(dst, mStart + offset);
+            }
+            catch (ClosedByInterruptException ex)
+            {
+                throw ex;
+            }
+            catch (ClosedChannelException ex)
+            {
+                checkOpen(ex);
+            }
+        }
+    }
+
+    private ByteBuffer map(long offset, long size) throws IOException
+    {
+        while (true)
+        {
+            try
+            {
+                return getChannel().map(FileChannel.MapMode.READ_ONLY, mStart + offset, size);
+            }
+            catch (ClosedByInterruptException ex)
+            {
+                throw ex;
+            }
+            catch (ClosedChannelException ex)
+            {
+                checkOpen(ex);
+            }
+        }
+    }
+
+    /*
+     * Rethrows the exception of an operation on a closed
+     * channel if the volume itself has been closed.
+     */
+    private void checkOpen(ClosedChannelException ex) throws IOException
+    {
+        if (mClosed)
+        {
+            throw new IOException(mZipPath + " is closed", ex);
+        }
+    }
+
+    /*
+     * Reads the compressed data of a file from the archive.
+     * Adds the extra byte at the end which the Inflater
+     * needs for raw deflate data.
+     */
+    private final class ArchiveInputStream extends InputStream
+    {
+        private long mPosition;
+        private final long mEnd;
+        private boolean mPadded = false;
+
+        ArchiveInputStream(long offset, long size)
+        {
+            mPosition = offset;
+            mEnd = offset + size;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            byte[] b = new byte[1];
+            return (read(b, 0, 1) > 0) ? (b[0] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (mPosition >= mEnd)
+            {
+                if (mPadded)
+                {
+                    return -1;
+                }
+                mPadded = true;
+                b[off] = 0;
+                return 1;
+            }
+            int n = readAt(ByteBuffer.wrap(b, off, (int) Math.min(len, mEnd - mPosition)), mPosition);
+
+            if (n < 0)
+            {
+                throw new EOFException("Unexpected end of " + mZipPath);
+            }
+            mPosition += n;
+            return n;
+        }
+
+        @Override
+        public int available()
+        {
+            return (int) Math.min(mEnd - mPosition, Integer.MAX_VALUE);
+        }
+    }
+
+    /*
+     * Inflates a deflated file and releases the native
+     * inflater as soon as the stream is closed.
+     */
+    private static final class EntryInflaterStream extends InflaterInputStream
+    {
+        private final long mSize;
+        private boolean mEnded = false;
+
+        EntryInflaterStream(InputStream in, long size)
+        {
+            super(in, new Inflater(true), BUFFER_SIZE);
+            mSize = size;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            if (mEnded)
+            {
+                return 0;
+            }
+            return (int) Math.max(0, Math.min(mSize - inf.getBytesWritten(), Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (!mEnded)
+            {
+                mEnded = true;
+                inf.end();
+            }
+            super.close();
+        }
+    }
+
+    /*
+     * Reads a memory mapped file, supports mark and reset.
+     */
+    private static final class MappedInputStream extends InputStream
+    {
+        private final ByteBuffer mBuffer;
+
+        MappedInputStream(ByteBuffer buffer)
+        {
+            mBuffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return mBuffer.hasRemaining() ? (mBuffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (!mBuffer.hasRemaining())
+            {
+                return -1;
+            }
+            len = Math.min(len, mBuffer.remaining());
+            mBuffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n)
+        {
+            int skipped = (int) Math.max(0, Math.min(n, mBuffer.remaining()));
+
+            mBuffer.position(mBuffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return mBuffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit)
+        {
+            mBuffer.mark();
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            mBuffer.reset();
+        }
+    }
+
+    /*
+     * Notes when the stream of a resource is closed
+     * so the resource can open it again.
+     */
+    private static final class EntryStream extends FilterInputStream
+    {
+        boolean mClosed = false;
+
+        EntryStream(InputStream in)
+        {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            mClosed = true;
+            super.close();
+        }
+    }
+
+    /*
+     * Identifies the archive in the resource caches. Archives in the
+     * assets are told apart by their offset in the APK.
+     */
+    private String getArchiveKey()
+    {
+        return (mFile != null) ? mFile.getAbsolutePath() : (mZipPath + "@" + mStart);
+    }
+
+    /*
+     * Resource for a file in the archive. Unlike other stream
+     * resources it opens a new stream after the last one was closed.
+     * Equal only to resources for the same file in the same archive,
+     * so the asset caches don't mix up files with the same path
+     * in different archives.
+     */
+    private static final class ZipResource extends SXRAndroidResource
+    {
+        private final SXRZipVolume mVolume;
+        private final Entry mEntry;
+        private EntryStream mStream = null;
+
+        ZipResource(SXRZipVolume volume, Entry entry)
+        {
+            super(entry.name, null);
+            mVolume = volume;
+            mEntry = entry;
+        }
+
+        @Override
+        public synchronized void openStream() throws IOException
+        {
+            if ((mStream == null) || mStream.mClosed)
+            {
+                mStream = new EntryStream(mVolume.openEntry(mEntry));
+                setStream(mStream);
+            }
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * super.hashCode() + mVolume.getArchiveKey().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return super.equals(obj)
+                   && mVolume.getArchiveKey().equals(((ZipResource) obj).mVolume.getArchiveKey());
+        }
+    }
+}
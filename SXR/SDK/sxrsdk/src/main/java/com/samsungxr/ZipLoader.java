@@ -39,6 +39,9 @@ import java.util.zip.ZipInputStream;
  * Note that the
  * {@link ZipLoader} makes use of a {@link ZipEntryProcessor}. The {@link ZipEntryProcessor} is a
  * user defined method that is applied to all entries in a zip file.
+ *
+ * The {@link ZipLoader} reads every entry into memory. To load a few files
+ * from a large archive use a {@link SXRZipVolume} instead.
  */
 public abstract class ZipLoader {
     private static final String TAG = ZipLoader.class.getSimpleName();
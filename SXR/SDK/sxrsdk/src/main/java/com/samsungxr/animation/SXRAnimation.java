@@ -122,6 +122,9 @@ public abstract class SXRAnimation {
 
     protected boolean isFinished = false;
 
+    // Ratio for the current frame, see advanceFrame()
+    private float mFrameRatio = 0f;
+
     /**
      * Base constructor.
      * 
@@ -413,6 +416,26 @@ public abstract class SXRAnimation {
      */
 
     final boolean onDrawFrame(float frameTime) {
+        final boolean stillRunning = advanceFrame(frameTime);
+
+        animateFrame();
+        finishFrame(stillRunning);
+        return stillRunning;
+    }
+
+    /**
+     * Advances the animation time and computes the ratio for this frame
+     * without animating the target. Repeat callbacks are called here.
+     * The engine splits {@link #onDrawFrame(float)} into this call,
+     * {@link #animateFrame()} and {@link #finishFrame(boolean)} so the
+     * animation can be evaluated on another thread.
+     *
+     * @param frameTime
+     *            elapsed time since the previous animation frame, in seconds
+     * @return {@code true} to keep running the animation; {@code false} if
+     *         this is the last frame
+     */
+    final boolean advanceFrame(float frameTime) {
         /*
         if (mCurrentTime < mStartTime)
         {
@@ -451,28 +474,43 @@ public abstract class SXRAnimation {
             final boolean countDown = mRepeatMode == SXRRepeatMode.PINGPONG
                     && (mIterations & 1) == 1;
 
-            float elapsedRatio = //
+            mFrameRatio = //
             countDown != true ? interpolate(cycleTime, mDuration)
                     : interpolate(mDuration - cycleTime, mDuration);
-
-
-            animate(mTarget, elapsedRatio);
         } else {
-            float endRatio = mRepeatMode == SXRRepeatMode.ONCE ? 1f : 0f;
+            mFrameRatio = interpolate(mDuration, mDuration);
+        }
+        return stillRunning;
+    }
 
-            endRatio = interpolate(mDuration, mDuration);
+    /**
+     * @return the ratio computed by the last {@link #advanceFrame(float)}
+     */
+    final float getFrameRatio() {
+        return mFrameRatio;
+    }
 
-            animate(mTarget, endRatio);
+    /**
+     * Animates the target with the ratio computed by the last
+     * {@link #advanceFrame(float)}.
+     */
+    final void animateFrame() {
+        animate(mTarget, mFrameRatio);
+    }
 
+    /**
+     * Calls the finish callbacks if the frame just animated was the last one.
+     * @param stillRunning value returned by {@link #advanceFrame(float)}
+     */
+    final void finishFrame(boolean stillRunning) {
+        if (!stillRunning) {
             onFinish();
             if (mOnFinish != null) {
                 mOnFinish.finished(this);
             }
-            
+
             isFinished = true;
         }
-
-        return stillRunning;
     }
 
     private float interpolate(float cycleTime, float duration) {
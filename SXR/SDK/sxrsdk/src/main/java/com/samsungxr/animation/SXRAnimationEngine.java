@@ -15,8 +15,19 @@
 
 package com.samsungxr.animation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.samsungxr.SXRContext;
 import com.samsungxr.SXRDrawFrameListener;
@@ -44,6 +55,10 @@ import com.samsungxr.SXRNode;
  * {@linkplain SXROnRepeat callback,} which allows you to terminate the
  * animation before the next loop.
  * </ul>
+ * 
+ * <p>
+ * Animations which compute skeleton poses ({@link SXRPoseAnimation}) can
+ * optionally be evaluated in parallel, see {@link #setParallelThreads(int)}.
  */
 public class SXRAnimationEngine {
 
@@ -61,6 +76,9 @@ public class SXRAnimationEngine {
 
     private final List<SXRAnimation> mAnimations = new CopyOnWriteArrayList<SXRAnimation>();
     private final SXRDrawFrameListener mOnDrawFrame = new DrawFrame();
+    private final ParallelFrame mParallelFrame = new ParallelFrame();
+    private ExecutorService mExecutor = null;
+    private int mNumThreads = 0;
 
     protected SXRAnimationEngine(SXRContext gvrContext) {
         gvrContext.registerDrawFrameListener(mOnDrawFrame);
@@ -142,10 +160,71 @@ public class SXRAnimationEngine {
         mAnimations.remove(animation);
     }
 
+    /**
+     * Enables or disables parallel evaluation of skeleton poses.
+     * <p>
+     * When enabled, each frame the poses of running
+     * {@link SXRPoseAnimation}s are computed on a pool of worker threads
+     * and the GL thread. Consecutive pose animations in start order are
+     * computed together, animations of the same skeleton in the order they
+     * were started. The poses are then applied on the GL thread before the
+     * next other animation runs, so all animations take effect in the order
+     * they were started, as they do without parallel evaluation.
+     * Callbacks such as {@link SXROnFinish} are always called on the GL thread.
+     * <p>
+     * Parallel evaluation is disabled by default.
+     * @param numThreads number of worker threads in addition to the GL thread,
+     *                   0 to evaluate all animations on the GL thread.
+     */
+    public synchronized void setParallelThreads(int numThreads) {
+        if (numThreads < 0) {
+            throw new IllegalArgumentException("numThreads must not be negative");
+        }
+        if (numThreads == mNumThreads) {
+            return;
+        }
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+            mExecutor = null;
+        }
+        mNumThreads = numThreads;
+        if (numThreads > 0) {
+            mExecutor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "SXRAnimation-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * @return number of worker threads used to compute skeleton poses,
+     *         0 if parallel evaluation is disabled.
+     * @see #setParallelThreads(int)
+     */
+    public synchronized int getParallelThreads() {
+        return mNumThreads;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        return mExecutor;
+    }
+
     private final class DrawFrame implements SXRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
+            final ExecutorService executor = getExecutor();
+
+            if (executor != null) {
+                mParallelFrame.run(executor, frameTime);
+                return;
+            }
             for (SXRAnimation animation : mAnimations) {
                 if (animation.onDrawFrame(frameTime) == false) {
                     mAnimations.remove(animation);
@@ -153,4 +232,191 @@ public class SXRAnimationEngine {
             }
         }
     }
+
+    /*
+     * Poses computed on one thread: all the animations of one skeleton
+     * in the order they were started. An exception thrown by one
+     * animation is kept for that animation and the others still run.
+     */
+    private static final class PoseTask implements Callable<Void> {
+        final List<SXRAnimation> animations = new ArrayList<SXRAnimation>();
+        int[] indices = new int[8];             // frame index of each animation
+        RuntimeException[] errors;
+
+        void add(SXRAnimation animation, int index) {
+            if (animations.size() == indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+            }
+            indices[animations.size()] = index;
+            animations.add(animation);
+        }
+
+        @Override
+        public Void call() {
+            for (int i = 0; i < animations.size(); ++i) {
+                SXRAnimation animation = animations.get(i);
+
+                try {
+                    ((SXRPoseAnimation) animation).computeFrame(animation.getFrameRatio());
+                } catch (RuntimeException e) {
+                    errors[indices[i]] = e;
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Runs one frame in phases. Only the pose computation is parallel.
+     * 1. advance the time of all animations on the GL thread
+     * 2. walk the animations in the order they were started:
+     *    - each run of consecutive pose animations is computed in
+     *      parallel, one task per skeleton, then applied in order
+     *    - any other animation is run on the GL thread
+     *    so an animation which reads a pose (like SXRPoseMapper) sees
+     *    the poses of the animations started before it.
+     * 3. finish callbacks are called in start order for every animation,
+     *    also when its pose could not be computed. The first exception
+     *    thrown by a pose animation is rethrown after the frame.
+     * Only called from the GL thread so the frame state is reused.
+     */
+    private final class ParallelFrame {
+        private final List<SXRAnimation> mFrameAnimations = new ArrayList<SXRAnimation>();
+        private boolean[] mRunning = new boolean[16];
+        private RuntimeException[] mErrors = new RuntimeException[16];
+        private final IdentityHashMap<SXRSkeleton, PoseTask> mTaskMap = new IdentityHashMap<SXRSkeleton, PoseTask>();
+        private final List<PoseTask> mTasks = new ArrayList<PoseTask>();
+        private final List<PoseTask> mFreeTasks = new ArrayList<PoseTask>();
+        private final List<Future<Void>> mFutures = new ArrayList<Future<Void>>();
+
+        void run(ExecutorService executor, float frameTime) {
+            mFrameAnimations.addAll(mAnimations);
+            final int n = mFrameAnimations.size();
+            RuntimeException error = null;
+
+            if (mRunning.length < n) {
+                mRunning = new boolean[n * 2];
+                mErrors = new RuntimeException[n * 2];
+            }
+            try {
+                for (int i = 0; i < n; ++i) {
+                    mRunning[i] = mFrameAnimations.get(i).advanceFrame(frameTime);
+                }
+                int i = 0;
+                while (i < n) {
+                    SXRAnimation animation = mFrameAnimations.get(i);
+
+                    if (!isParallel(animation)) {
+                        animation.animateFrame();
+                        finish(i);
+                        ++i;
+                        continue;
+                    }
+                    int end = i;
+                    while ((end < n) && isParallel(mFrameAnimations.get(end))) {
+                        addToTask(end);
+                        ++end;
+                    }
+                    try {
+                        computePoses(executor);
+                    } finally {
+                        releaseTasks();
+                    }
+                    for (; i < end; ++i) {
+                        if (mErrors[i] == null) {
+                            ((SXRPoseAnimation) mFrameAnimations.get(i)).applyFrame();
+                        } else if (error == null) {
+                            error = mErrors[i];
+                        }
+                        finish(i);
+                    }
+                }
+            } finally {
+                mFrameAnimations.clear();
+                Arrays.fill(mErrors, 0, n, null);
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void finish(int i) {
+            SXRAnimation animation = mFrameAnimations.get(i);
+
+            animation.finishFrame(mRunning[i]);
+            if (!mRunning[i]) {
+                mAnimations.remove(animation);
+            }
+        }
+
+        /*
+         * Runs the first task on the GL thread while the
+         * workers compute the others, then waits for all of them.
+         * Exceptions from the animations are kept by the tasks.
+         */
+        private void computePoses(ExecutorService executor) {
+            final int numTasks = mTasks.size();
+
+            for (int i = 1; i < numTasks; ++i) {
+                try {
+                    mFutures.add(executor.submit(mTasks.get(i)));
+                } catch (RejectedExecutionException e) {
+                    mTasks.get(i).call();       // pool shut down by setParallelThreads
+                }
+            }
+            mTasks.get(0).call();
+            Error error = null;
+            for (Future<Void> future : mFutures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    if ((error == null) && (e.getCause() instanceof Error)) {
+                        error = (Error) e.getCause();
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void addToTask(int index) {
+            SXRAnimation animation = mFrameAnimations.get(index);
+            PoseTask task = getTask(((SXRPoseAnimation) animation).getSkeleton());
+
+            task.add(animation, index);
+            task.errors = mErrors;
+        }
+
+        private void releaseTasks() {
+            mTaskMap.clear();
+            for (PoseTask task : mTasks) {
+                task.animations.clear();
+                task.errors = null;
+            }
+            mFreeTasks.addAll(mTasks);
+            mTasks.clear();
+            mFutures.clear();
+        }
+
+        private PoseTask getTask(SXRSkeleton skeleton) {
+            PoseTask task = mTaskMap.get(skeleton);
+
+            if (task == null) {
+                int last = mFreeTasks.size() - 1;
+
+                task = (last >= 0) ? mFreeTasks.remove(last) : new PoseTask();
+                mTaskMap.put(skeleton, task);
+                mTasks.add(task);
+            }
+            return task;
+        }
+
+        private boolean isParallel(SXRAnimation animation) {
+            return (animation instanceof SXRPoseAnimation)
+                    && (((SXRPoseAnimation) animation).getSkeleton() != null);
+        }
+    }
 }
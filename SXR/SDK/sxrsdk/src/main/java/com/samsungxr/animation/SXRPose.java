@@ -20,8 +20,8 @@ import org.joml.Math;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
-import org.joml.Vector4f;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Formatter;
 import java.util.Locale;
@@ -46,6 +46,15 @@ import static com.samsungxr.animation.SXRPose.Bone.WORLD_ROT;
  * <p>
  * Each skeleton has a current pose. Usually the current pose of a skeleton is used to
  * drive a skinned animation.
+ * <p>
+ * The local and world matrices of all the bones are kept in two flat arrays,
+ * 16 floats per bone in column major order. Bones which were changed since
+ * the last {@link #sync()} are kept in a dirty set and only those bones
+ * and the bones below them are recomputed when the pose is synchronized.
+ * <p>
+ * A pose does not share any scratch state with other poses so different
+ * poses may be updated and synchronized on different threads at the same time.
+ * A single pose is not thread safe.
  *
  * @see SXRTransform
  * @see SXRSkeleton
@@ -54,12 +63,34 @@ import static com.samsungxr.animation.SXRPose.Bone.WORLD_ROT;
 public class SXRPose implements PrettyPrint
 {
     static final float EPSILON = Float.intBitsToFloat(1);
+
+    /**
+     * @deprecated Poses no longer use shared scratch matrices,
+     * these are not used by the SDK and will be removed.
+     */
+    @Deprecated
+    public static final Matrix4f mTempMtxA = new Matrix4f();
+
+    /**
+     * @deprecated Poses no longer use shared scratch matrices,
+     * these are not used by the SDK and will be removed.
+     */
+    @Deprecated
+    public static final Matrix4f mTempMtxB = new Matrix4f();
+
     protected SXRSkeleton mSkeleton;
     private boolean	      mNeedSync;
-    private Bone[]        mBones;
+    private final int     mNumBones;
+    private final int[]   mParents;             // parent of each bone, -1 for roots
+    private final float[] mLocalMatrices;       // local transformations (relative to parent)
+    private final float[] mWorldMatrices;       // world transformations (relative to root of skeleton)
+    private final int[]   mChanged;             // WORLD_ROT, LOCAL_ROT, WORLD_POS
+    private final BitSet  mDirty;               // bones changed since the last sync
+    private final Bone[]  mBones;
+    private final float[] mTempArray = new float[16];
     private final Quaternionf mTempQuat = new Quaternionf();
-    public static final Matrix4f mTempMtxA = new Matrix4f();
-    public static final Matrix4f mTempMtxB = new Matrix4f();
+    private final Matrix4f    mTempMtx = new Matrix4f();
+    private final Vector3f    mTempVec = new Vector3f();
     private static boolean sDebug = false;
 
     /**
@@ -94,11 +125,23 @@ public class SXRPose implements PrettyPrint
     public SXRPose(SXRSkeleton skel)
     {
         mSkeleton = skel;
-        mBones = new Bone[skel.getNumBones()];
-        for (int i = 0; i < mBones.length; ++i)
+        mNumBones = skel.getNumBones();
+        mParents = new int[mNumBones];
+        mLocalMatrices = new float[mNumBones * 16];
+        mWorldMatrices = new float[mNumBones * 16];
+        mChanged = new int[mNumBones];
+        mDirty = new BitSet(mNumBones);
+        mBones = new Bone[mNumBones];
+        for (int i = 0; i < mNumBones; ++i)
         {
-            mBones[i] = new Bone();
+            int pid = skel.getParentBoneIndex(i);
+
+            mParents[i] = pid;
+            mLocalMatrices[i * 16] = mLocalMatrices[i * 16 + 5] =
+                mLocalMatrices[i * 16 + 10] = mLocalMatrices[i * 16 + 15] = 1;
+            mBones[i] = new Bone(this, i);
         }
+        System.arraycopy(mLocalMatrices, 0, mWorldMatrices, 0, mWorldMatrices.length);
     }
 
 
@@ -112,12 +155,8 @@ public class SXRPose implements PrettyPrint
      */
     public SXRPose(SXRPose src)
     {
-        mSkeleton = src.getSkeleton();
-        mBones = new Bone[mSkeleton.getNumBones()];
-        for (int i = 0; i < mBones.length; ++i)
-        {
-            mBones[i] = new Bone(src.getBone(i));
-        }
+        this(src.getSkeleton());
+        copyBones(src);
     }
 
 
@@ -155,18 +194,18 @@ public class SXRPose implements PrettyPrint
      * @see #setWorldPositions
      */
 
-    public void     getWorldPosition(int boneindex, Vector3f pos) 
+    public void     getWorldPosition(int boneindex, Vector3f pos)
     {
-        Bone bone = mBones[boneindex];
-        int boneParent = mSkeleton.getParentBoneIndex(boneindex);
+        int boneParent = mParents[boneindex];
+        int t = boneindex * 16;
 
-        if ((boneParent >= 0) && ((bone.Changed & LOCAL_ROT) == LOCAL_ROT))
+        if ((boneParent >= 0) && ((mChanged[boneindex] & LOCAL_ROT) == LOCAL_ROT))
         {
-            calcWorld(bone, boneParent);
+            calcWorld(boneindex, boneParent);
         }
-        pos.x = bone.WorldMatrix.m30();
-        pos.y = bone.WorldMatrix.m31();
-        pos.z = bone.WorldMatrix.m32();
+        pos.x = mWorldMatrices[t + 12];
+        pos.y = mWorldMatrices[t + 13];
+        pos.z = mWorldMatrices[t + 14];
     }
 
     /**
@@ -190,17 +229,19 @@ public class SXRPose implements PrettyPrint
      */
     public void	getWorldPositions(float[] dest)
     {
-        if (dest.length != mBones.length * 3)
+        if (dest.length != mNumBones * 3)
         {
             throw new IllegalArgumentException("Destination array is the wrong size");
         }
         sync();
-        for (int i = 0; i < mBones.length; ++i)
+        for (int i = 0; i < mNumBones; ++i)
         {
             int t = i * 3;
-            dest[t] = mBones[i].WorldMatrix.m30();
-            dest[t + 1] = mBones[i].WorldMatrix.m31();
-            dest[t + 2] = mBones[i].WorldMatrix.m32();
+            int m = i * 16;
+
+            dest[t] = mWorldMatrices[m + 12];
+            dest[t + 1] = mWorldMatrices[m + 13];
+            dest[t + 2] = mWorldMatrices[m + 14];
         }
     }
 
@@ -219,14 +260,73 @@ public class SXRPose implements PrettyPrint
      */
     public void	getWorldMatrices(float[] dest)
     {
-        if (dest.length != mBones.length * 16)
+        if (dest.length != mNumBones * 16)
         {
             throw new IllegalArgumentException("Destination array is the wrong size");
         }
         sync();
-        for (int i = 0; i < mBones.length; ++i)
+        System.arraycopy(mWorldMatrices, 0, dest, 0, dest.length);
+    }
+
+    /**
+     * Get the local matrices of all the bones in this pose (relative to their parent).
+     * <p>
+     * The local matrices for each bone are copied into the destination
+     * array in column major order in the order of their bone index.
+     * The array must be as large as 16 times the number of bones in the skeleton.
+     * @param dest	destination array to get local matrices.
+     *
+     * @see #setLocalMatrices
+     * @see #getLocalMatrix
+     */
+    public void	getLocalMatrices(float[] dest)
+    {
+        if (dest.length != mNumBones * 16)
+        {
+            throw new IllegalArgumentException("Destination array is the wrong size");
+        }
+        for (int i = mDirty.nextSetBit(0); i >= 0; i = mDirty.nextSetBit(i + 1))
+        {
+            if ((mChanged[i] & (WORLD_ROT | WORLD_POS)) != 0)
+            {
+                calcLocal(i, mParents[i]);
+            }
+        }
+        System.arraycopy(mLocalMatrices, 0, dest, 0, dest.length);
+    }
+
+    /**
+     * Set the local matrices for all the bones in this pose (relative to their parent).
+     * <p>
+     * The local matrices are copied from the source array in column major order
+     * in the order of their bone index. Locked bones are not changed.
+     * The world matrices are updated by the next call to {@link #sync()}.
+     * The array must be as large as 16 times the number of bones in the skeleton.
+     * @param src	source array with local matrices.
+     *
+     * @see #getLocalMatrices
+     * @see #setLocalMatrix
+     */
+    public void	setLocalMatrices(float[] src)
+    {
+        if (src.length != mNumBones * 16)
         {
-            mBones[i].WorldMatrix.get(dest, i * 16);
+            throw new IllegalArgumentException("Source array is the wrong size");
+        }
+        mNeedSync = true;
+        for (int i = 0; i < mNumBones; ++i)
+        {
+            if (!mSkeleton.isLocked(i))
+            {
+                int t = i * 16;
+
+                System.arraycopy(src, t, mLocalMatrices, t, 16);
+                setChanged(i, LOCAL_ROT);
+                if (mParents[i] < 0)
+                {
+                    System.arraycopy(src, t, mWorldMatrices, t, 16);
+                }
+            }
         }
     }
 
@@ -251,21 +351,23 @@ public class SXRPose implements PrettyPrint
      */
     public void	setWorldPositions(float[] positions)
     {
-        if (positions.length != mBones.length * 3)
+        if (positions.length != mNumBones * 3)
         {
             throw new IllegalArgumentException("Destination array is the wrong size");
         }
         mNeedSync = true;
-        for (int i = 0; i < mBones.length; ++i)
+        for (int i = 0; i < mNumBones; ++i)
         {
-            Bone bone = mBones[i];
             int t = i * 3;
+            int m = i * 16;
 
-            bone.setWorldPosition(positions[t], positions[t + 1], positions[t + 2]);
-            bone.Changed = WORLD_POS;
+            mWorldMatrices[m + 12] = positions[t];
+            mWorldMatrices[m + 13] = positions[t + 1];
+            mWorldMatrices[m + 14] = positions[t + 2];
+            setChanged(i, WORLD_POS);
             if (sDebug)
             {
-                Log.d("BONE", "setWorldPosition: %s %s", mSkeleton.getBoneName(i), bone.toString());
+                Log.d("BONE", "setWorldPosition: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
             }
         }
         sync();
@@ -294,24 +396,23 @@ public class SXRPose implements PrettyPrint
      */
     public void setWorldRotations(float[] rotations)
     {
-        if (rotations.length != mBones.length * 4)
+        if (rotations.length != mNumBones * 4)
         {
             throw new IllegalArgumentException("Source array is the wrong size");
         }
         mNeedSync = true;
-        for (int i = 0; i < mBones.length; ++i)
+        for (int i = 0; i < mNumBones; ++i)
         {
-            Bone bone = mBones[i];
             int t = i * 4;
 
-            bone.setWorldRotation(rotations[t], rotations[t + 1], rotations[t + 2], rotations[t + 3]);
-            bone.Changed |= WORLD_ROT;
+            setRotation(mWorldMatrices, i * 16, rotations[t], rotations[t + 1], rotations[t + 2], rotations[t + 3]);
+            setChanged(i, mChanged[i] | WORLD_ROT);
 
-            calcLocal(bone, mSkeleton.getParentBoneIndex(i));
+            calcLocal(i, mParents[i]);
 
             if (sDebug)
             {
-                Log.d("BONE", "setWorldRotation: %s %s", mSkeleton.getBoneName(i), bone.toString());
+                Log.d("BONE", "setWorldRotation: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
             }
         }
     }
@@ -334,7 +435,7 @@ public class SXRPose implements PrettyPrint
      */
     public void getWorldMatrix(int boneindex, Matrix4f mtx)
     {
-        mBones[boneindex].getWorldMatrix(mtx);
+        mtx.set(mWorldMatrices, boneindex * 16);
     }
 
     /**
@@ -355,22 +456,22 @@ public class SXRPose implements PrettyPrint
      */
     public void setWorldMatrix(int boneindex, Matrix4f mtx)
     {
-        Bone	  bone = mBones[boneindex];
+        int     parentid = mParents[boneindex];
 
-        bone.WorldMatrix.set(mtx);
-        if (mSkeleton.getParentBoneIndex(boneindex) >= 0)
+        mtx.get(mWorldMatrices, boneindex * 16);
+        if (parentid >= 0)
         {
-            calcLocal(bone, mSkeleton.getParentBoneIndex(boneindex));
+            calcLocal(boneindex, parentid);
         }
         else
         {
-            bone.LocalMatrix.set(mtx);
+            mtx.get(mLocalMatrices, boneindex * 16);
         }
         mNeedSync = true;
-        bone.Changed = Bone.WORLD_POS | Bone.WORLD_ROT;
+        setChanged(boneindex, WORLD_POS | WORLD_ROT);
         if (sDebug)
         {
-            Log.d("BONE", "setWorldMatrix: %s %s", mSkeleton.getBoneName(boneindex), bone.toString());
+            Log.d("BONE", "setWorldMatrix: %s %s", mSkeleton.getBoneName(boneindex), mBones[boneindex].toString());
         }
     }
 
@@ -396,17 +497,17 @@ public class SXRPose implements PrettyPrint
      */
     public void getWorldRotations(float[] rotations)
     {
-        if (rotations.length != mBones.length * 4)
+        if (rotations.length != mNumBones * 4)
         {
             throw new IllegalArgumentException("Destination array is the wrong size");
         }
         sync();
-        for (int i = 0; i < mBones.length; i++)
+        for (int i = 0; i < mNumBones; i++)
         {
-            Bone bone = mBones[i];
             int t = i * 4;
 
-            bone.WorldMatrix.getUnnormalizedRotation(mTempQuat);
+            mTempMtx.set(mWorldMatrices, i * 16);
+            mTempMtx.getUnnormalizedRotation(mTempQuat);
             mTempQuat.normalize();
 
             rotations[t++] = mTempQuat.x;
@@ -429,13 +530,14 @@ public class SXRPose implements PrettyPrint
      */
     public void	getWorldRotation(int boneindex, Quaternionf q)
     {
-        Bone bone = mBones[boneindex];
+        int boneParent = mParents[boneindex];
 
-        if ((bone.Changed & LOCAL_ROT) == LOCAL_ROT)
+        if ((boneParent >= 0) && ((mChanged[boneindex] & LOCAL_ROT) == LOCAL_ROT))
         {
-            calcWorld(bone, mSkeleton.getParentBoneIndex(boneindex));
+            calcWorld(boneindex, boneParent);
         }
-        bone.WorldMatrix.getUnnormalizedRotation(q);
+        mTempMtx.set(mWorldMatrices, boneindex * 16);
+        mTempMtx.getUnnormalizedRotation(q);
         q.normalize();
     }
 
@@ -457,12 +559,15 @@ public class SXRPose implements PrettyPrint
             return false;
         }
 
-        Bone	bone = mBones[boneindex];
-        bone.setWorldRotation(x, y, z, w);
-        bone.Changed |= WORLD_ROT;
-        if (mSkeleton.getParentBoneIndex(boneindex) < 0)
+        int     t = boneindex * 16;
+
+        setRotation(mWorldMatrices, t, x, y, z, w);
+        setChanged(boneindex, mChanged[boneindex] | WORLD_ROT);
+        if (mParents[boneindex] < 0)
         {
-            bone.LocalMatrix.set3x3(bone.WorldMatrix);
+            System.arraycopy(mWorldMatrices, t, mLocalMatrices, t, 3);
+            System.arraycopy(mWorldMatrices, t + 4, mLocalMatrices, t + 4, 3);
+            System.arraycopy(mWorldMatrices, t + 8, mLocalMatrices, t + 8, 3);
         }
         else
         {
@@ -488,13 +593,11 @@ public class SXRPose implements PrettyPrint
      */
     public void getLocalMatrix(int boneindex, Matrix4f mtx)
     {
-        Bone bone = mBones[boneindex];
-
-        if ((bone.Changed & (WORLD_ROT | WORLD_POS)) != 0)
+        if ((mChanged[boneindex] & (WORLD_ROT | WORLD_POS)) != 0)
         {
-            calcLocal(bone, mSkeleton.getParentBoneIndex(boneindex));
+            calcLocal(boneindex, mParents[boneindex]);
         }
-        bone.getLocalMatrix(mtx);
+        mtx.set(mLocalMatrices, boneindex * 16);
     }
 
     /**
@@ -503,7 +606,7 @@ public class SXRPose implements PrettyPrint
      * All bones in the skeleton start out at the origin oriented along the bone axis (usually 0,0,1).
      * The pose orients and positions each bone in the skeleton with respect to this initial state.
      * The local bone matrix expresses the orientation and position of the bone relative
-     * to the parent of this bone.
+     * to the parent of this bone. Locked bones are not changed.
      * @param boneindex	zero based index of bone to set matrix for.
      * @param mtx		new bone matrix.
      * @see #getLocalRotation
@@ -512,14 +615,18 @@ public class SXRPose implements PrettyPrint
      */
     public void setLocalMatrix(int boneindex, Matrix4f mtx)
     {
-        Bone	  bone = mBones[boneindex];
-        int		  parentid = mSkeleton.getParentBoneIndex(boneindex);
+        if (mSkeleton.isLocked(boneindex))
+        {
+            return;
+        }
+
+        int		  t = boneindex * 16;
 
-        bone.LocalMatrix.set(mtx);
-        bone.Changed = Bone.LOCAL_ROT;
-        if (parentid < 0)
+        mtx.get(mLocalMatrices, t);
+        setChanged(boneindex, LOCAL_ROT);
+        if (mParents[boneindex] < 0)
         {
-            bone.WorldMatrix.set(bone.LocalMatrix);
+            mtx.get(mWorldMatrices, t);
         }
         else
         {
@@ -531,7 +638,7 @@ public class SXRPose implements PrettyPrint
             Log.d("BONE",
                   "setLocalMatrix: %s %s",
                   mSkeleton.getBoneName(boneindex),
-                  bone.toString());
+                  mBones[boneindex].toString());
         }
     }
 
@@ -558,18 +665,16 @@ public class SXRPose implements PrettyPrint
     public void setLocalRotations(float[] rotations)
     {
         mNeedSync = true;
-        for (int i = 0; i < mBones.length; ++i)
+        for (int i = 0; i < mNumBones; ++i)
         {
             int t = i * 4;
             if (!mSkeleton.isLocked(i))
             {
-                Bone bone = mBones[i];
-
-                bone.setLocalRotation(rotations[t], rotations[t + 1], rotations[t + 2], rotations[t + 3]);
-                bone.Changed = LOCAL_ROT;
+                setRotation(mLocalMatrices, i * 16, rotations[t], rotations[t + 1], rotations[t + 2], rotations[t + 3]);
+                setChanged(i, LOCAL_ROT);
                 if (sDebug)
                 {
-                    Log.d("BONE", "setLocalRotation: %s %s", mSkeleton.getBoneName(i), bone.toString());
+                    Log.d("BONE", "setLocalRotation: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
                 }
             }
         }
@@ -587,13 +692,12 @@ public class SXRPose implements PrettyPrint
      */
     public void getLocalRotation(int boneindex, Quaternionf q)
     {
-        Bone bone = mBones[boneindex];
-
-        if ((bone.Changed & (WORLD_POS | WORLD_ROT)) != 0)
+        if ((mChanged[boneindex] & (WORLD_POS | WORLD_ROT)) != 0)
         {
-            calcLocal(bone, mSkeleton.getParentBoneIndex(boneindex));
+            calcLocal(boneindex, mParents[boneindex]);
         }
-        bone.LocalMatrix.getUnnormalizedRotation(q);
+        mTempMtx.set(mLocalMatrices, boneindex * 16);
+        mTempMtx.getUnnormalizedRotation(q);
         q.normalize();
     }
 
@@ -617,21 +721,21 @@ public class SXRPose implements PrettyPrint
         if (mSkeleton.isLocked(boneindex))
             return false;
 
-        Bone bone = mBones[boneindex];
+        int t = boneindex * 16;
 
-        bone.setLocalRotation(x, y, z, w);
-        if (mSkeleton.getParentBoneIndex(boneindex) < 0)
+        setRotation(mLocalMatrices, t, x, y, z, w);
+        if (mParents[boneindex] < 0)
         {
-            bone.WorldMatrix.set(bone.LocalMatrix);
+            System.arraycopy(mLocalMatrices, t, mWorldMatrices, t, 16);
         }
         else
         {
             mNeedSync = true;
         }
-        bone.Changed = LOCAL_ROT;
+        setChanged(boneindex, LOCAL_ROT);
         if (sDebug)
         {
-            Log.d("BONE", "setLocalRotation: %s %s", mSkeleton.getBoneName(boneindex), bone.toString());
+            Log.d("BONE", "setLocalRotation: %s %s", mSkeleton.getBoneName(boneindex), mBones[boneindex].toString());
         }
         return true;
     }
@@ -653,33 +757,37 @@ public class SXRPose implements PrettyPrint
      */
     public void     getLocalPosition(int boneindex, Vector3f pos)
     {
-        pos.x = mBones[boneindex].LocalMatrix.m30();
-        pos.y = mBones[boneindex].LocalMatrix.m31();
-        pos.z = mBones[boneindex].LocalMatrix.m32();
+        int t = boneindex * 16;
+
+        pos.x = mLocalMatrices[t + 12];
+        pos.y = mLocalMatrices[t + 13];
+        pos.z = mLocalMatrices[t + 14];
     }
 
     public void getLocalScale(int boneindex, Vector3f scale)
     {
-        mBones[boneindex].getScale(scale);
+        getScale(mLocalMatrices, boneindex * 16, scale);
     }
 
     public void setLocalPosition(int boneindex, float x, float y, float z)
     {
-        Bone bone = mBones[boneindex];
-        bone.setLocalPosition(x, y, z);
+        int t = boneindex * 16;
 
-        if (mSkeleton.getParentBoneIndex(boneindex) < 0)
+        mLocalMatrices[t + 12] = x;
+        mLocalMatrices[t + 13] = y;
+        mLocalMatrices[t + 14] = z;
+        if (mParents[boneindex] < 0)
         {
-            bone.WorldMatrix.set(bone.LocalMatrix);
+            System.arraycopy(mLocalMatrices, t, mWorldMatrices, t, 16);
         }
         else
         {
             mNeedSync = true;
         }
-        bone.Changed = LOCAL_ROT;
+        setChanged(boneindex, LOCAL_ROT);
         if (sDebug)
         {
-            Log.d("BONE", "setLocalPosition: %s %s", mSkeleton.getBoneName(boneindex), bone.toString());
+            Log.d("BONE", "setLocalPosition: %s %s", mSkeleton.getBoneName(boneindex), mBones[boneindex].toString());
         }
     }
 
@@ -689,11 +797,9 @@ public class SXRPose implements PrettyPrint
      */
     public void transformPose(Matrix4f trans)
     {
-        Bone bone = mBones[0];
-
-        bone.LocalMatrix.set(trans);
-        bone.WorldMatrix.set(trans);
-        bone.Changed = WORLD_POS | WORLD_ROT;
+        trans.get(mLocalMatrices, 0);
+        trans.get(mWorldMatrices, 0);
+        setChanged(0, WORLD_POS | WORLD_ROT);
         mNeedSync = true;
         sync();
     }
@@ -732,15 +838,19 @@ public class SXRPose implements PrettyPrint
      */
     public void  copy(SXRPose src)
     {
-        int numbones = getNumBones();
-
         if (getSkeleton() != src.getSkeleton())
             throw new IllegalArgumentException("SXRPose.copy: input pose does not have same skeleton as this pose");
         src.sync();
-        for (int i = 0; i < numbones; ++i)
-        {
-            mBones[i].copy(src.getBone(i));
-        }
+        copyBones(src);
+    }
+
+    private void copyBones(SXRPose src)
+    {
+        System.arraycopy(src.mLocalMatrices, 0, mLocalMatrices, 0, mLocalMatrices.length);
+        System.arraycopy(src.mWorldMatrices, 0, mWorldMatrices, 0, mWorldMatrices.length);
+        System.arraycopy(src.mChanged, 0, mChanged, 0, mChanged.length);
+        mDirty.clear();
+        mDirty.or(src.mDirty);
     }
 
     /**
@@ -760,16 +870,18 @@ public class SXRPose implements PrettyPrint
         src.sync();
         for (int i = 0; i < numbones; ++i)
         {
-            Bone bone = mBones[i];
+            int t = i * 16;
 
-            bone.WorldMatrix.mul(src.mBones[i].WorldMatrix);
-            calcLocal(bone, mSkeleton.getParentBoneIndex(i));
+            mul(mWorldMatrices, t, src.mWorldMatrices, t, mTempArray, 0);
+            System.arraycopy(mTempArray, 0, mWorldMatrices, t, 16);
+            calcLocal(i, mParents[i]);
             if (sDebug)
             {
-                Log.d("BONE", "combine: %s %s", mSkeleton.getBoneName(i), bone.toString());
+                Log.d("BONE", "combine: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
             }
-            bone.Changed = 0;
+            mChanged[i] = 0;
         }
+        mDirty.clear();
         sync();
     }
 
@@ -785,10 +897,8 @@ public class SXRPose implements PrettyPrint
         mNeedSync = true;
         for (int i = 0; i < numbones; ++i)
         {
-            Bone bone = mBones[i];
-
-            bone.clearRotation();
-            bone.Changed = 0;
+            setRotation(mLocalMatrices, i * 16, 0, 0, 0, 1);
+            mChanged[i] = 0;
         }
     }
 
@@ -802,26 +912,26 @@ public class SXRPose implements PrettyPrint
             throw new IllegalArgumentException("SXRPose.copy: input pose is incompatible with this pose");
         src.sync();
         int numbones = getNumBones();
-        Bone srcBone = src.mBones[0];
-        Bone dstBone = mBones[0];
 
         mNeedSync = true;
-        srcBone.WorldMatrix.invertAffine(dstBone.WorldMatrix);
-        srcBone.LocalMatrix.set(dstBone.WorldMatrix);
+        mTempMtx.set(src.mWorldMatrices, 0);
+        mTempMtx.invertAffine();
+        mTempMtx.get(mWorldMatrices, 0);
+        mTempMtx.get(mLocalMatrices, 0);
         if (sDebug)
         {
-            Log.d("BONE", "invert: %s %s", mSkeleton.getBoneName(0), dstBone.toString());
+            Log.d("BONE", "invert: %s %s", mSkeleton.getBoneName(0), mBones[0].toString());
 
         }
         for (int i = 1; i < numbones; ++i)
         {
-            srcBone = src.mBones[i];
-            dstBone = mBones[i];
-            srcBone.WorldMatrix.invertAffine(dstBone.WorldMatrix);
-            dstBone.Changed = WORLD_ROT | WORLD_POS;
+            mTempMtx.set(src.mWorldMatrices, i * 16);
+            mTempMtx.invertAffine();
+            mTempMtx.get(mWorldMatrices, i * 16);
+            setChanged(i, WORLD_ROT | WORLD_POS);
             if (sDebug)
             {
-                Log.d("BONE", "invert: %s %s", mSkeleton.getBoneName(i), dstBone.toString());
+                Log.d("BONE", "invert: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
             }
         }
         sync();
@@ -840,48 +950,46 @@ public class SXRPose implements PrettyPrint
      */
     public boolean	setPosition(float x, float y, float z)
     {
-        Bone bone = mBones[0];
-        float dx = x - bone.WorldMatrix.m30();
-        float dy = y - bone.WorldMatrix.m31();
-        float dz = z - bone.WorldMatrix.m32();
+        float dx = x - mWorldMatrices[12];
+        float dy = y - mWorldMatrices[13];
+        float dz = z - mWorldMatrices[14];
 
         sync();
-        bone.LocalMatrix.setTranslation(x, y, z);
-        for (int i = 0; i < mBones.length; ++i)
+        mLocalMatrices[12] = x;
+        mLocalMatrices[13] = y;
+        mLocalMatrices[14] = z;
+        for (int t = 0; t < mWorldMatrices.length; t += 16)
         {
-            bone = mBones[i];
-            bone.WorldMatrix.m30(bone.WorldMatrix.m30() + dx);
-            bone.WorldMatrix.m31(bone.WorldMatrix.m31() + dy);
-            bone.WorldMatrix.m32(bone.WorldMatrix.m32() + dz);
+            mWorldMatrices[t + 12] += dx;
+            mWorldMatrices[t + 13] += dy;
+            mWorldMatrices[t + 14] += dz;
         }
         if (sDebug)
         {
-            Log.d("BONE", "setWorldPosition: %s ", mSkeleton.getBoneName(0), bone.toString());
+            Log.d("BONE", "setWorldPosition: %s ", mSkeleton.getBoneName(0), mBones[0].toString());
         }
         return true;
     }
 
     public boolean	setScale(float sx, float sy, float sz)
     {
-        Bone bone = mBones[0];
-        Vector3f v = new Vector3f();
+        Vector3f v = mTempVec;
 
-        bone.getScale(v);
+        getScale(mLocalMatrices, 0, v);
         v.x /= sx;
         v.y /= sy;
         v.z /= sz;
-        bone.WorldMatrix.scale(v.x, v.y, v.z);
-        bone.LocalMatrix.scale(1 / v.x, 1 / v.y, 1 / v.z);
-        bone.Changed = WORLD_ROT | WORLD_POS;
-        for (int i = 1; i < mBones.length; ++i)
+        scale(mWorldMatrices, 0, v.x, v.y, v.z);
+        scale(mLocalMatrices, 0, 1 / v.x, 1 / v.y, 1 / v.z);
+        setChanged(0, WORLD_ROT | WORLD_POS);
+        for (int i = 1; i < mNumBones; ++i)
         {
-            bone = mBones[i];
-            bone.WorldMatrix.scale(v.x, v.y, v.z);
-            bone.Changed = WORLD_ROT | WORLD_POS;
+            scale(mWorldMatrices, i * 16, v.x, v.y, v.z);
+            setChanged(i, WORLD_ROT | WORLD_POS);
         }
         if (sDebug)
         {
-            Log.d("BONE", "setWorldScale: %s ", mSkeleton.getBoneName(0), bone.toString());
+            Log.d("BONE", "setWorldScale: %s ", mSkeleton.getBoneName(0), mBones[0].toString());
         }
         mNeedSync = true;
         sync();
@@ -894,80 +1002,206 @@ public class SXRPose implements PrettyPrint
      * The local and world rotations are not automatically kept in sync.
      * When a pose is updated, the updates do not take complete
      * effect until you call this function.
+     * <p>
+     * Only the bones which changed and the bones below them are recomputed.
+     * Parent bones come before their children in the skeleton so the
+     * bones before the first dirty bone are skipped entirely and
+     * a parent is always updated before its children.
      */
     public boolean	sync()
     {
         if (!mNeedSync)
             return false;
         mNeedSync = false;
-        for (int i = 0; i < mBones.length; ++i)
+        int first = mDirty.nextSetBit(0);
+
+        if (first < 0)
+        {
+            return true;
+        }
+        for (int i = first; i < mNumBones; ++i)
         {
-            Bone 	bone = mBones[i];
-            int		pid = mSkeleton.getParentBoneIndex(i);
-            boolean	update;
+            int		pid = mParents[i];
 
-            if (pid < 0)							        // root bone?
-                continue;
-            update = (mBones[pid].Changed & (WORLD_ROT | LOCAL_ROT)) != 0;
-            if (!mSkeleton.isLocked(i))				        // bone not locked?
+            if ((pid < 0) ||                                // root bone?
+                ((mChanged[i] == 0) &&                      // bone and parent unchanged?
+                 ((mChanged[pid] & (WORLD_ROT | LOCAL_ROT)) == 0)))
             {
-                if ((bone.Changed == WORLD_ROT) ||
-                    ((bone.Changed & Bone.WORLD_POS) != 0))	// world matrix changed?
-                {
-                    calcLocal(bone, pid);					// calculate local rotation and position
-                    if (sDebug)
-                    {
-                        Log.d("BONE", "sync: %s %s", mSkeleton.getBoneName(i), bone.toString());
-                    }
-                    continue;
-                }
+                continue;
             }
-            if (update ||								    // use local pos & rot?
-                (bone.Changed & (LOCAL_ROT | WORLD_ROT)) != 0)
+            syncBone(i, pid);
+        }
+        Arrays.fill(mChanged, first, mNumBones, 0);
+        mDirty.clear();
+        return true;
+    }
+
+    private void syncBone(int i, int pid)
+    {
+        int changed = mChanged[i];
+
+        if (!mSkeleton.isLocked(i))				            // bone not locked?
+        {
+            if ((changed == WORLD_ROT) ||
+                ((changed & WORLD_POS) != 0))	            // world matrix changed?
             {
-                bone.Changed = LOCAL_ROT;
-                calcWorld(bone, pid);				        // update world rotation & position
+                calcLocal(i, pid);					        // calculate local rotation and position
                 if (sDebug)
                 {
-                    Log.d("BONE", "sync: %s %s", mSkeleton.getBoneName(i), bone.toString());
+                    Log.d("BONE", "sync: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
                 }
+                return;
             }
         }
-        for (int i = 0; i < mBones.length; ++i)
+        if (((mChanged[pid] & (WORLD_ROT | LOCAL_ROT)) != 0) ||	// use local pos & rot?
+            ((changed & (LOCAL_ROT | WORLD_ROT)) != 0))
         {
-            mBones[i].Changed = 0;
+            mChanged[i] = LOCAL_ROT;
+            calcWorld(i, pid);				                // update world rotation & position
+            if (sDebug)
+            {
+                Log.d("BONE", "sync: %s %s", mSkeleton.getBoneName(i), mBones[i].toString());
+            }
         }
-        return true;
     }
 
     /**
      * Calculates the world matrix based on the local matrix.
      */
-    protected void		calcWorld(Bone bone, int parentId)
+    protected void		calcWorld(int boneindex, int parentId)
     {
-        getWorldMatrix(parentId, mTempMtxB);   // WorldMatrix (parent) TempMtxB
-        mTempMtxB.mul(bone.LocalMatrix);       // WorldMatrix = WorldMatrix(parent) * LocalMatrix
-        bone.WorldMatrix.set(mTempMtxB);
-     }
+        // WorldMatrix = WorldMatrix(parent) * LocalMatrix
+        mul(mWorldMatrices, parentId * 16, mLocalMatrices, boneindex * 16, mWorldMatrices, boneindex * 16);
+    }
 
     /**
      * Calculates the local translation and rotation for a bone.
      * Assumes WorldRot and WorldPos have been calculated for the bone.
      */
-    protected void		calcLocal(Bone bone, int parentId)
+    protected void		calcLocal(int boneindex, int parentId)
     {
+        int t = boneindex * 16;
+
         if (parentId < 0)
         {
-            bone.LocalMatrix.set(bone.WorldMatrix);
+            System.arraycopy(mWorldMatrices, t, mLocalMatrices, t, 16);
             return;
         }
 	/*
 	 * WorldMatrix = WorldMatrix(parent) * LocalMatrix
 	 * LocalMatrix = INVERSE[ WorldMatrix(parent) ] * WorldMatrix
 	 */
-        getWorldMatrix(parentId, mTempMtxA);	// WorldMatrix(par)
-        mTempMtxA.invert();					    // INVERSE[ WorldMatrix(parent) ]
-        mTempMtxA.mul(bone.WorldMatrix, bone.LocalMatrix);  // LocalMatrix = INVERSE[ WorldMatrix(parent) ] * WorldMatrix
+        mTempMtx.set(mWorldMatrices, parentId * 16);
+        mTempMtx.invert();                                  // INVERSE[ WorldMatrix(parent) ]
+        mTempMtx.get(mTempArray, 0);
+        mul(mTempArray, 0, mWorldMatrices, t, mLocalMatrices, t);
+    }
+
+    /**
+     * Record how a bone changed and add it to the bones
+     * visited by the next {@link #sync()}.
+     */
+    private void setChanged(int boneindex, int flags)
+    {
+        mChanged[boneindex] = flags;
+        mDirty.set(boneindex);
+    }
+
+    /**
+     * Multiplies two column major 4x4 matrices stored in float arrays.
+     * The destination must not overlap either input.
+     * Bone matrices are almost always affine so the bottom row
+     * is skipped when both inputs have 0, 0, 0, 1 there.
+     */
+    private static void mul(float[] a, int ao, float[] b, int bo, float[] dest, int d)
+    {
+        if ((a[ao + 3] == 0) && (a[ao + 7] == 0) && (a[ao + 11] == 0) && (a[ao + 15] == 1) &&
+            (b[bo + 3] == 0) && (b[bo + 7] == 0) && (b[bo + 11] == 0) && (b[bo + 15] == 1))
+        {
+            float a00 = a[ao], a01 = a[ao + 1], a02 = a[ao + 2];
+            float a10 = a[ao + 4], a11 = a[ao + 5], a12 = a[ao + 6];
+            float a20 = a[ao + 8], a21 = a[ao + 9], a22 = a[ao + 10];
+            float a30 = a[ao + 12], a31 = a[ao + 13], a32 = a[ao + 14];
+            float b00 = b[bo], b01 = b[bo + 1], b02 = b[bo + 2];
+            float b10 = b[bo + 4], b11 = b[bo + 5], b12 = b[bo + 6];
+            float b20 = b[bo + 8], b21 = b[bo + 9], b22 = b[bo + 10];
+            float b30 = b[bo + 12], b31 = b[bo + 13], b32 = b[bo + 14];
+
+            dest[d] = a00 * b00 + a10 * b01 + a20 * b02;
+            dest[d + 1] = a01 * b00 + a11 * b01 + a21 * b02;
+            dest[d + 2] = a02 * b00 + a12 * b01 + a22 * b02;
+            dest[d + 3] = 0;
+            dest[d + 4] = a00 * b10 + a10 * b11 + a20 * b12;
+            dest[d + 5] = a01 * b10 + a11 * b11 + a21 * b12;
+            dest[d + 6] = a02 * b10 + a12 * b11 + a22 * b12;
+            dest[d + 7] = 0;
+            dest[d + 8] = a00 * b20 + a10 * b21 + a20 * b22;
+            dest[d + 9] = a01 * b20 + a11 * b21 + a21 * b22;
+            dest[d + 10] = a02 * b20 + a12 * b21 + a22 * b22;
+            dest[d + 11] = 0;
+            dest[d + 12] = a00 * b30 + a10 * b31 + a20 * b32 + a30;
+            dest[d + 13] = a01 * b30 + a11 * b31 + a21 * b32 + a31;
+            dest[d + 14] = a02 * b30 + a12 * b31 + a22 * b32 + a32;
+            dest[d + 15] = 1;
+            return;
+        }
+        for (int c = 0; c < 16; c += 4)
+        {
+            float b0 = b[bo + c];
+            float b1 = b[bo + c + 1];
+            float b2 = b[bo + c + 2];
+            float b3 = b[bo + c + 3];
+
+            for (int r = 0; r < 4; ++r)
+            {
+                dest[d + c + r] = a[ao + r] * b0 + a[ao + 4 + r] * b1 + a[ao + 8 + r] * b2 + a[ao + 12 + r] * b3;
+            }
+        }
+    }
+
+    private static void scale(float[] m, int t, float sx, float sy, float sz)
+    {
+        for (int r = 0; r < 4; ++r)
+        {
+            m[t + r] *= sx;
+            m[t + 4 + r] *= sy;
+            m[t + 8 + r] *= sz;
+        }
+    }
+
+    private static void getScale(float[] m, int t, Vector3f scale)
+    {
+        scale.x = (float) Math.sqrt(m[t] * m[t] + m[t + 1] * m[t + 1] + m[t + 2] * m[t + 2]);
+        scale.y = (float) Math.sqrt(m[t + 4] * m[t + 4] + m[t + 5] * m[t + 5] + m[t + 6] * m[t + 6]);
+        scale.z = (float) Math.sqrt(m[t + 8] * m[t + 8] + m[t + 9] * m[t + 9] + m[t + 10] * m[t + 10]);
+    }
+
+    /**
+     * Replaces the rotation of a matrix, keeping its translation and scale.
+     */
+    private static void setRotation(float[] m, int t, float x, float y, float z, float w)
+    {
+        float sx = (float) Math.sqrt(m[t] * m[t] + m[t + 1] * m[t + 1] + m[t + 2] * m[t + 2]);
+        float sy = (float) Math.sqrt(m[t + 4] * m[t + 4] + m[t + 5] * m[t + 5] + m[t + 6] * m[t + 6]);
+        float sz = (float) Math.sqrt(m[t + 8] * m[t + 8] + m[t + 9] * m[t + 9] + m[t + 10] * m[t + 10]);
+        float dx = x + x, dy = y + y, dz = z + z;
+        float xx = dx * x, yy = dy * y, zz = dz * z;
+        float xy = dx * y, xz = dx * z, xw = dx * w;
+        float yz = dy * z, yw = dy * w, zw = dz * w;
+
+        m[t] = sx - (yy + zz) * sx;
+        m[t + 1] = (xy + zw) * sx;
+        m[t + 2] = (xz - yw) * sx;
+        m[t + 3] = 0;
+        m[t + 4] = (xy - zw) * sy;
+        m[t + 5] = sy - (zz + xx) * sy;
+        m[t + 6] = (yz + xw) * sy;
+        m[t + 7] = 0;
+        m[t + 8] = (xz + yw) * sz;
+        m[t + 9] = (yz - xw) * sz;
+        m[t + 10] = sz - (yy + xx) * sz;
+        m[t + 11] = 0;
+        m[t + 15] = 1;
     }
 
     @Override
@@ -998,138 +1232,83 @@ public class SXRPose implements PrettyPrint
 
 
 /**
- * Internal structure used to maintain information about each bone.
+ * View of one bone in the arrays of a pose.
  */
 static class Bone
 {
-    public int Changed;             // WORLD_ROT, LOCAL_ROT, WORLD_POS
-    public Matrix4f LocalMatrix;    // local transformations (relative to parent)
-    public Matrix4f WorldMatrix;    // world transformations (relative to root of skeleton)
-
     public static final int LOCAL_ROT = 1;
     public static final int WORLD_ROT = 2;
     public static final int WORLD_POS = 4;
-    private static final Quaternionf mTempQuat = new Quaternionf();
 
-    public Bone()
-    {
-        LocalMatrix = new Matrix4f();
-        WorldMatrix = new Matrix4f();
-    }
+    private final SXRPose mPose;
+    private final int mIndex;
 
-    public Bone(Bone src)
+    Bone(SXRPose pose, int index)
     {
-        LocalMatrix = new Matrix4f();
-        WorldMatrix = new Matrix4f();
-        copy(src);
+        mPose = pose;
+        mIndex = index;
     }
 
-    public void copy(Bone src)
+    /**
+     * @return WORLD_ROT, LOCAL_ROT, WORLD_POS flags set since the last sync
+     */
+    public int getChanged()
     {
-        LocalMatrix.set(src.LocalMatrix);
-        WorldMatrix.set(src.WorldMatrix);
-        Changed = src.Changed;
+        return mPose.mChanged[mIndex];
     }
 
-    public void clearRotation()
+    public void clearChanged()
     {
-        setLocalRotation(0, 0, 0, 1);
+        mPose.mChanged[mIndex] = 0;
     }
 
     public void getWorldMatrix(Matrix4f mtx)
     {
-        mtx.set(WorldMatrix);
+        mtx.set(mPose.mWorldMatrices, mIndex * 16);
     }
 
     public void getLocalMatrix(Matrix4f mtx)
     {
-        mtx.set(LocalMatrix);
+        mtx.set(mPose.mLocalMatrices, mIndex * 16);
     }
 
-    public void setWorldPosition(float x, float y, float z)
-    {
-        WorldMatrix.setTranslation(x, y, z);
-    }
-
-    public void setLocalPosition(float x, float y, float z)
-    {
-        LocalMatrix.setTranslation(x, y, z);
-    }
-
-    public void getScale(Vector3f scale)
-    {
-        scale.x = (float) Math.sqrt( LocalMatrix.m00() *  LocalMatrix.m00() +
-                LocalMatrix.m01() *  LocalMatrix.m01() +
-                LocalMatrix.m02() *  LocalMatrix.m02());
-        scale.y = (float) Math.sqrt( LocalMatrix.m10() *  LocalMatrix.m10() +
-                LocalMatrix.m11() *  LocalMatrix.m11() +
-                LocalMatrix.m12() *  LocalMatrix.m12());
-        scale.z = (float) Math.sqrt( LocalMatrix.m20() *  LocalMatrix.m20() +
-                LocalMatrix.m21() *  LocalMatrix.m21() +
-                LocalMatrix.m22() *  LocalMatrix.m22());
-    }
-
-    public void setLocalRotation(float x, float y, float z, float w)
+    /**
+     * Multiplies the input matrix by the local matrix of this bone.
+     * @param mtx   matrix to post multiply, gets the result.
+     */
+    public void mulLocalMatrix(Matrix4f mtx)
     {
-        float posx = LocalMatrix.m30();
-        float posy = LocalMatrix.m31();
-        float posz = LocalMatrix.m32();
-        float scalex = (float) Math.sqrt( LocalMatrix.m00() *  LocalMatrix.m00() +
-                                            LocalMatrix.m01() *  LocalMatrix.m01() +
-                                            LocalMatrix.m02() *  LocalMatrix.m02());
-        float scaley = (float) Math.sqrt( LocalMatrix.m10() *  LocalMatrix.m10() +
-                                        LocalMatrix.m11() *  LocalMatrix.m11() +
-                                        LocalMatrix.m12() *  LocalMatrix.m12());
-        float scalez = (float) Math.sqrt( LocalMatrix.m20() *  LocalMatrix.m20() +
-                LocalMatrix.m21() *  LocalMatrix.m21() +
-                LocalMatrix.m22() *  LocalMatrix.m22());
-
-        LocalMatrix.translationRotateScale(posx, posy, posz, x, y, z, w, scalex, scaley, scalez);
-    }
+        Matrix4f local = mPose.mTempMtx;
 
-    public void setWorldRotation(float x, float y, float z, float w)
-    {
-        float posx = WorldMatrix.m30();
-        float posy = WorldMatrix.m31();
-        float posz = WorldMatrix.m32();
-        float scalex = (float) Math.sqrt( WorldMatrix.m00() *  WorldMatrix.m00() +
-                WorldMatrix.m01() *  WorldMatrix.m01() +
-                WorldMatrix.m02() *  WorldMatrix.m02());
-        float scaley = (float) Math.sqrt( WorldMatrix.m10() *  WorldMatrix.m10() +
-                WorldMatrix.m11() *  WorldMatrix.m11() +
-                WorldMatrix.m12() *  WorldMatrix.m12());
-        float scalez = (float) Math.sqrt( WorldMatrix.m20() *  WorldMatrix.m20() +
-                WorldMatrix.m21() *  WorldMatrix.m21() +
-                WorldMatrix.m22() *  WorldMatrix.m22());
-
-        WorldMatrix.translationRotateScale(posx, posy, posz, x, y, z, w, scalex, scaley, scalez);
-    }
-
-    public void setWorldRotation(Quaternionf q)
-    {
-        setWorldRotation(q.z, q.y, q.z, q.w);
+        local.set(mPose.mLocalMatrices, mIndex * 16);
+        mtx.mul(local);
     }
 
     @Override
     public String toString()
     {
         Vector3f scale = new Vector3f();
+        Quaternionf q = new Quaternionf();
+        Matrix4f world = new Matrix4f();
+        Matrix4f local = new Matrix4f();
         StringBuilder sb = new StringBuilder();
         Formatter format = new Formatter(sb, Locale.US);
 
-        LocalMatrix.getScale(scale);
+        getWorldMatrix(world);
+        getLocalMatrix(local);
+        local.getScale(scale);
         format.format(" wpos (%.2f %.2f %.2f)",
-                WorldMatrix.m30(), WorldMatrix.m31(), WorldMatrix.m32());
-        mTempQuat.setFromUnnormalized(WorldMatrix);
-        mTempQuat.normalize();
+                world.m30(), world.m31(), world.m32());
+        q.setFromUnnormalized(world);
+        q.normalize();
         format.format(" wrot (%.2f %.2f %.2f %.2f)",
-                mTempQuat.x, mTempQuat.y, mTempQuat.z, mTempQuat.w);
+                q.x, q.y, q.z, q.w);
         format.format(" lpos (%.2f %.2f %.2f)",
-                LocalMatrix.m30(), LocalMatrix.m31(), LocalMatrix.m32());
-        mTempQuat.setFromUnnormalized(LocalMatrix);
-        mTempQuat.normalize();
+                local.m30(), local.m31(), local.m32());
+        q.setFromUnnormalized(local);
+        q.normalize();
         format.format(" lrot (%.2f %.2f %.2f %.2f)",
-                mTempQuat.x, mTempQuat.y, mTempQuat.z, mTempQuat.w);
+                q.x, q.y, q.z, q.w);
         format.format(" lscale (%.2f %.2f %.2f)", scale.x, scale.y, scale.z);
         return sb.toString();
     }
@@ -0,0 +1,58 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.animation;
+
+/**
+ * Implemented by animations which produce the pose of a skeleton
+ * and can compute it off the GL thread.
+ * <p>
+ * When parallel evaluation is enabled with
+ * {@link SXRAnimationEngine#setParallelThreads(int)} each frame is split in two.
+ * First {@link #computeFrame(float)} is called on a worker thread. It may only
+ * change state owned by the animation and the current pose of
+ * {@link #getSkeleton()}. Animations of the same skeleton are computed on
+ * the same thread in the order they were started. Animation channels
+ * may be shared with animations on other threads, so per evaluation
+ * scratch state belongs to the animation, not the channel.
+ * When the poses of consecutive pose animations are computed,
+ * {@link #applyFrame()} is called on the GL thread in the order
+ * the animations were started to copy the pose to the bones and the
+ * native skeleton.
+ * <p>
+ * Without parallel evaluation the animation is run as usual by
+ * {@link SXRAnimation#animate(com.samsungxr.SXRHybridObject, float)}.
+ * @see SXRAnimationEngine
+ */
+public interface SXRPoseAnimation
+{
+    /**
+     * @return skeleton whose pose this animation computes
+     */
+    SXRSkeleton getSkeleton();
+
+    /**
+     * Computes the pose of the skeleton for this frame.
+     * Called on a worker thread, must not touch the scene graph.
+     * @param ratio The start state is 0; the stop state is 1.
+     */
+    void computeFrame(float ratio);
+
+    /**
+     * Applies the pose computed by {@link #computeFrame(float)} to
+     * the bones and the native skeleton. Called on the GL thread.
+     */
+    void applyFrame();
+}
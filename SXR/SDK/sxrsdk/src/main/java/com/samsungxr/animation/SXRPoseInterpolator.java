@@ -17,20 +17,23 @@ package com.samsungxr.animation;
 
 import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRNode;
-import com.samsungxr.animation.keyframe.SXRFloatAnimation;
-import com.samsungxr.animation.keyframe.SXRQuatAnimation;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
-import static com.samsungxr.animation.SXRPose.Bone;
-import com.samsungxr.utility.Log;
 
-public class SXRPoseInterpolator extends SXRAnimation
+/**
+ * Blends the current pose of a skeleton towards a final pose.
+ * <p>
+ * The initial and final position, rotation and scale of every bone are
+ * kept in one flat float array, {@code poseDataSize} floats per bone.
+ * Each frame the bones are interpolated straight from that array with
+ * preallocated temporaries, so animating does not allocate.
+ */
+public class SXRPoseInterpolator extends SXRAnimation implements SXRPoseAnimation
 {
     private SXRPose initialPose;
     private SXRPose finalPose;
     private SXRSkeleton pSkeleton;
-    private Bone[] mBones;
 
     private Vector3f poseOnePos;
     private Vector3f poseTwoPos;
@@ -39,21 +42,12 @@ public class SXRPoseInterpolator extends SXRAnimation
     private Quaternionf poseOneRot;
     private Quaternionf poseTwoRot;
 
-    private Vector3f tempVec;
-    private Quaternionf tempQuat;
-
-    private SXRQuatAnimation mRotInterpolator;
-    private SXRFloatAnimation mPosInterpolator;
-    private SXRFloatAnimation mSclInterpolator;
-
     private float pDuration;
-    private float[] rotData;
+    private float[] poseData;
+    // Only used by the deprecated update methods
     private float[] posData;
+    private float[] rotData;
     private float[] sclData;
-    private float[] poseData;
-    private float[] posIData;
-    private float[] sclIData;
-    private float[] rotIData;
 
     private int poseDataSize;
     private int initialPosIndex;
@@ -64,8 +58,6 @@ public class SXRPoseInterpolator extends SXRAnimation
     private int finalSclIndex;
     private float startTime;
     private float endTime;
-    private int startTimeIndex;
-    private int endTimeIndex;
     private int offset;
     private Matrix4f mat;
 
@@ -84,16 +76,6 @@ public class SXRPoseInterpolator extends SXRAnimation
         poseOneRot =  new Quaternionf(0,0,0,1);
         poseTwoRot =  new Quaternionf(0,0,0,1);
 
-        rotData = new float[10];
-        posData = new float[8];
-        sclData = new float[8];
-
-        posIData = new float[3];
-        sclIData = new float[3];
-        rotIData = new float[4];
-
-        tempVec = new Vector3f(0,0,0);
-        tempQuat = new Quaternionf(0,0,0,1);
         initialPosIndex=0; //initial position index
         finalPosIndex=10; //final position index
         initialRotIndex=3; //initial rotation index
@@ -102,11 +84,8 @@ public class SXRPoseInterpolator extends SXRAnimation
         finalSclIndex=17;
         startTime = 0;
         endTime =  duration;
-        startTimeIndex = 0;
-        endTimeIndex =  4;
         offset = 0;
         poseDataSize = 20;
-        mBones = new Bone[pSkeleton.getNumBones()];
         poseData = new float[poseDataSize*pSkeleton.getNumBones()];
         pDuration = duration;
 
@@ -176,50 +155,91 @@ public class SXRPoseInterpolator extends SXRAnimation
         poseData[sclOffset+2]=poseScl.z();
     }
 
-   public void updatePos(int offset)
-   {
-       posData[startTimeIndex] = startTime;
-       posData[endTimeIndex] = endTime;
-       updatePos(1, offset+initialPosIndex);
-       updatePos(5, offset+finalPosIndex);
-   }
+    /**
+     * Copies the start and end position of a bone into a key array.
+     * @param offset index of the bone's first float in the pose data
+     * @deprecated The bones are interpolated straight from the pose data,
+     * nothing reads the key array any more.
+     */
+    @Deprecated
+    public void updatePos(int offset)
+    {
+        posData = updateKeys(posData, 8, 4);
+        updatePos(1, offset+initialPosIndex);
+        updatePos(5, offset+finalPosIndex);
+    }
 
+    /**
+     * @deprecated see {@link #updatePos(int)}
+     */
+    @Deprecated
     public void updatePos(int pos, int posOffset)
     {
-        posData[pos] = poseData[posOffset];
-        posData[pos+1] = poseData[posOffset+1];
-        posData[pos+2] = poseData[posOffset+2];
+        posData = updateKeys(posData, 8, 4);
+        System.arraycopy(poseData, posOffset, posData, pos, 3);
     }
 
+    /**
+     * Copies the start and end rotation of a bone into a key array.
+     * @param offset index of the bone's first float in the pose data
+     * @deprecated The bones are interpolated straight from the pose data,
+     * nothing reads the key array any more.
+     */
+    @Deprecated
     public void updateRot(int offset)
     {
-        rotData[startTimeIndex] = startTime;
-        rotData[endTimeIndex+1] = endTime;
+        rotData = updateKeys(rotData, 10, 5);
         updateRot(1, offset+initialRotIndex);
         updateRot(6, offset+finalRotIndex);
     }
 
+    /**
+     * @deprecated see {@link #updateRot(int)}
+     */
+    @Deprecated
     public void updateRot(int rot, int rotOffset)
     {
-        rotData[rot] = poseData[rotOffset];
-        rotData[rot+1] = poseData[rotOffset+1];
-        rotData[rot+2] = poseData[rotOffset+2];
-        rotData[rot+3] = poseData[rotOffset+3];
+        rotData = updateKeys(rotData, 10, 5);
+        System.arraycopy(poseData, rotOffset, rotData, rot, 4);
     }
 
+    /**
+     * Copies the start and end scale of a bone into a key array.
+     * @param offset index of the bone's first float in the pose data
+     * @deprecated The bones are interpolated straight from the pose data,
+     * nothing reads the key array any more.
+     */
+    @Deprecated
     public void updateScl(int offset)
     {
-        sclData[startTimeIndex] = startTime;
-        sclData[endTimeIndex] = endTime;
+        sclData = updateKeys(sclData, 8, 4);
         updateScl(1, offset+initialSclIndex);
         updateScl(5, offset+finalSclIndex);
     }
 
+    /**
+     * @deprecated see {@link #updateScl(int)}
+     */
+    @Deprecated
     public void updateScl(int scl, int sclOffset)
     {
-        sclData[scl] = poseData[sclOffset];
-        sclData[scl+1] = poseData[sclOffset+1];
-        sclData[scl+2] = poseData[sclOffset+2];
+        sclData = updateKeys(sclData, 8, 4);
+        System.arraycopy(poseData, sclOffset, sclData, scl, 3);
+    }
+
+    /*
+     * Allocates a key array of the deprecated update methods on first use
+     * and sets its start and end time.
+     */
+    private float[] updateKeys(float[] keys, int size, int endTimeIndex)
+    {
+        if (keys == null)
+        {
+            keys = new float[size];
+        }
+        keys[0] = startTime;
+        keys[endTimeIndex] = endTime;
+        return keys;
     }
 
     protected void animate(SXRHybridObject target, float ratio)
@@ -227,34 +247,88 @@ public class SXRPoseInterpolator extends SXRAnimation
         animate(pDuration * ratio);
     }
 
+    public SXRSkeleton getSkeleton()
+    {
+        return pSkeleton;
+    }
+
     public void animate(float timer)
     {
+        computePose(timer);
+        applyFrame();
+    }
 
-        initialPose = pSkeleton.getPose();
+    @Override
+    public void computeFrame(float ratio)
+    {
+        computePose(pDuration * ratio);
+    }
 
-        for(int  i= 0;i < pSkeleton.getNumBones();i++)
-        {
-            offset = i*poseDataSize;
-            updatePos(offset);
-            updateRot(offset);
-            updateScl(offset);
-            mPosInterpolator = new SXRFloatAnimation(posData, 4);
-            mRotInterpolator = new SXRQuatAnimation(rotData);
-            mSclInterpolator = new SXRFloatAnimation(sclData, 4);
-            mPosInterpolator.animate(timer,posIData);
-            mRotInterpolator.animate(timer,rotIData);
-            mSclInterpolator.animate(timer,sclIData);
-            mat.translationRotateScale(posIData[0], posIData[1], posIData[2],rotIData[0], rotIData[1], rotIData[2], rotIData[3],sclIData[0], sclIData[1], sclIData[2]);
-            initialPose.setLocalMatrix(i, mat);
-            setPosePositions(i);
-            setPoseRotations(i);
-            setPoseScale(i);
-        }
+    @Override
+    public void applyFrame()
+    {
         pSkeleton.poseToBones();
         pSkeleton.updateBonePose();
         pSkeleton.updateSkinPose();
+    }
+
+    private void computePose(float timer)
+    {
+        final int numBones = pSkeleton.getNumBones();
+        final float factor = getFactor(timer);
 
+        initialPose = pSkeleton.getPose();
+        for (int i = 0; i < numBones; i++)
+        {
+            offset = i * poseDataSize;
+            interpolate(offset + initialPosIndex, offset + finalPosIndex, factor, poseOnePos);
+            interpolate(offset + initialSclIndex, offset + finalSclIndex, factor, poseOneScl);
+            interpolate(offset + initialRotIndex, offset + finalRotIndex, factor, poseOneRot);
+            mat.translationRotateScale(poseOnePos.x, poseOnePos.y, poseOnePos.z,
+                                       poseOneRot.x, poseOneRot.y, poseOneRot.z, poseOneRot.w,
+                                       poseOneScl.x, poseOneScl.y, poseOneScl.z);
+            initialPose.setLocalMatrix(i, mat);
+            poseInterpolate(i);
+        }
     }
 
+    /*
+     * Computes the blend factor between the initial (0) and final (1) pose.
+     * Times outside the animation use the nearest pose.
+     */
+    private float getFactor(float time)
+    {
+        if (time <= startTime)
+        {
+            return 0.0f;
+        }
+        if (time >= endTime)
+        {
+            return 1.0f;
+        }
+        return (time - startTime) / (endTime - startTime);
+    }
+
+    private void interpolate(int first, int last, float factor, Vector3f dest)
+    {
+        float f0 = 1.0f - factor;
+
+        dest.x = factor * poseData[last] + f0 * poseData[first];
+        dest.y = factor * poseData[last + 1] + f0 * poseData[first + 1];
+        dest.z = factor * poseData[last + 2] + f0 * poseData[first + 2];
+    }
 
-}
\ No newline at end of file
+    private void interpolate(int first, int last, float factor, Quaternionf dest)
+    {
+        dest.set(poseData[first], poseData[first + 1], poseData[first + 2], poseData[first + 3]);
+        poseTwoRot.set(poseData[last], poseData[last + 1], poseData[last + 2], poseData[last + 3]);
+        if ((factor > 0.0f) && (factor < 1.0f))
+        {
+            dest.slerp(poseTwoRot, factor);
+        }
+        else if (factor >= 1.0f)
+        {
+            dest.set(poseTwoRot);
+        }
+    }
+}
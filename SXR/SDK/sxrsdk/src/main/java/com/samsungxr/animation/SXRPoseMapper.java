@@ -302,7 +302,7 @@ public class SXRPoseMapper extends SXRAnimation
             {
                 dstbindpose.getLocalMatrix(boneindex, mtx);
                 mtx.invert();
-                mtx.mul(srcpose.getBone(i).LocalMatrix);
+                srcpose.getBone(i).mulLocalMatrix(mtx);
                 mDestPose.setLocalMatrix(boneindex, mtx);
             }
         }
@@ -587,13 +587,13 @@ public class SXRSkeleton extends SXRComponent implements PrettyPrint
             {
                 SXRPose.Bone srcBone = newpose.getBone(i);
 
-                if ((srcBone.Changed != 0) && !isLocked(i))
+                if ((srcBone.getChanged() != 0) && !isLocked(i))
                 {
                     mBindPose.getLocalMatrix(i, mTempMtx);
-                    mTempMtx.mul(srcBone.LocalMatrix);
+                    srcBone.mulLocalMatrix(mTempMtx);
                     mTempMtx.getUnnormalizedRotation(mTempQuatA);
                     mPose.setLocalRotation(i, mTempQuatA.x, mTempQuatA.y, mTempQuatA.z, mTempQuatA.w);
-                    srcBone.Changed = 0;
+                    srcBone.clearChanged();
                 }
             }
         }
@@ -606,11 +606,11 @@ public class SXRSkeleton extends SXRComponent implements PrettyPrint
             {
                 SXRPose.Bone srcBone = newpose.getBone(i);
 
-                if ((srcBone.Changed != 0) && !isLocked(i))
+                if ((srcBone.getChanged() != 0) && !isLocked(i))
                 {
                     newpose.getLocalRotation(i, mTempQuatA);
                     mPose.setLocalRotation(i, mTempQuatA.x, mTempQuatA.y, mTempQuatA.z, mTempQuatA.w);
-                    srcBone.Changed = 0;
+                    srcBone.clearChanged();
                 }
             }
         }
@@ -667,7 +667,7 @@ public class SXRSkeleton extends SXRComponent implements PrettyPrint
             if ((mBoneOptions[i] & BONE_LOCK_ROTATION) == 0)
             {
                 rootMtx.mul(mTempMtx, mTempMtx);
-                mTempMtx.mul(srcBone.LocalMatrix, mTempMtx);
+                srcBone.mulLocalMatrix(mTempMtx);
                 mPose.setWorldMatrix(i, mTempMtx);
             }
         }
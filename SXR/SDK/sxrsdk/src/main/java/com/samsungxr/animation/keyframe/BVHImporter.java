@@ -22,6 +22,7 @@ import com.samsungxr.animation.keyframe.SXRAnimationBehavior;
 import com.samsungxr.animation.keyframe.SXRAnimationChannel;
 import com.samsungxr.animation.keyframe.SXRSkeletonAnimation;
 import com.samsungxr.utility.Log;
+import com.samsungxr.utility.Threads;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
@@ -29,33 +30,124 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
-
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Imports skeletons, poses and animations from BVH motion capture files.
+ * <p>
+ * The motion is read in chunks of whole frame lines which are parsed
+ * straight into the keyframe arrays of the animation, one key per frame.
+ * The chunks can be parsed in parallel, see {@link #setParallelThreads(int)}.
+ * A long motion can also be played while it is being read,
+ * see {@link #streamAnimation}.
+ */
 public class BVHImporter
 {
+    /**
+     * Called when a motion started by {@link #streamAnimation} has been read.
+     * Both methods are called on the thread reading the motion.
+     */
+    public interface MotionListener
+    {
+        /**
+         * Called after all the frames of the motion have been read.
+         * @param animation animation returned by {@link #streamAnimation}
+         */
+        void onMotionLoaded(SXRSkeletonAnimation animation);
+
+        /**
+         * Called if the motion could not be read or parsed. The animation
+         * holds the last frame which was read for the rest of its duration.
+         * @param animation animation returned by {@link #streamAnimation}
+         * @param error     error message
+         */
+        void onMotionError(SXRSkeletonAnimation animation, String error);
+    }
+
+    /*
+     * Channel types in the CHANNELS line of a joint
+     */
+    private static final int XPOSITION = 0;
+    private static final int YPOSITION = 1;
+    private static final int ZPOSITION = 2;
+    private static final int XROTATION = 3;
+    private static final int YROTATION = 4;
+    private static final int ZROTATION = 5;
+    private static final float DEG_TO_RAD = (float) Math.PI / 180;
+
+    /*
+     * Initial number of characters in a chunk of frames
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final double[] POWERS_OF_TEN =
+    {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     private String mFileName;
     private final SXRContext mContext;
     private final ArrayList<String> mBoneNames = new ArrayList();
     private final ArrayList<Vector3f> mBonePositions = new ArrayList();
     private final ArrayList<Integer> mBoneParents = new ArrayList();
     private final ArrayList<Integer> mBoneChannels = new ArrayList();
+    private final ArrayList<int[]> mBoneChannelTypes = new ArrayList();
     private BufferedReader mReader;
-    private boolean channelOrder=false;
-    private int xPosOffset;
-    private int yPosOffset;
-    private int zPosOffset;
-    private int xRotOffset;
-    private int yRotOffset;
-    private int zRotOffset;
+    private int mNumThreads = 0;
+
+    /*
+     * State of the motion being read. The keys of each bone
+     * are preallocated for all the frames in the file.
+     */
+    private int mNumFrames;
+    private float mSecondsPerFrame;
+    private float[][] mPosKeys;
+    private float[][] mRotKeys;
+    private Quaternionf[] mBindRotations;
+    private char[] mCarry = new char[0];
+    private int mCarryLength;
+    private boolean mEndOfFile;
+    private StreamedAnimation mStreamedAnimation = null;
 
     public BVHImporter(SXRContext ctx)
     {
         mContext = ctx;
     }
 
+    /**
+     * Sets the number of threads used to parse the motion.
+     * <p>
+     * When enabled, the frames are read in chunks on the calling
+     * thread and the chunks are parsed on up to this many thread pool
+     * threads at once. Parallel parsing is disabled by default.
+     * @param numThreads number of threads parsing frames,
+     *                   0 to parse all frames on the calling thread.
+     */
+    public void setParallelThreads(int numThreads)
+    {
+        if (numThreads < 0)
+        {
+            throw new IllegalArgumentException("numThreads must not be negative");
+        }
+        mNumThreads = numThreads;
+    }
+
+    /**
+     * @return number of threads used to parse the motion,
+     *         0 if the motion is parsed on the calling thread.
+     * @see #setParallelThreads(int)
+     */
+    public int getParallelThreads()
+    {
+        return mNumThreads;
+    }
+
     public SXRSkeletonAnimation importAnimation(SXRAndroidResource res, SXRSkeleton skel) throws IOException
     {
         InputStream stream = res.getStream();
@@ -71,6 +163,87 @@ public class BVHImporter
         return readMotion(skel);
     }
 
+    /**
+     * Imports an animation which can be played while it is being read.
+     * <p>
+     * The skeleton and the motion header are read on the calling thread.
+     * The returned animation has a key for every frame in the file.
+     * The frames are read in the background in the order they are in the file
+     * and the animation only uses frames which have been completely read:
+     * it shows the bind pose of the skeleton until the first frame is read
+     * and holds the last frame read until the next ones are available.
+     * @param res       resource with the BVH file
+     * @param skel      skeleton to animate
+     * @param listener  optional listener called when the motion is read
+     * @return skeleton animation for the motion
+     * @throws IOException if the header cannot be read
+     */
+    public SXRSkeletonAnimation streamAnimation(SXRAndroidResource res, SXRSkeleton skel,
+                                                final MotionListener listener) throws IOException
+    {
+        InputStream stream = res.getStream();
+
+        mFileName = res.getResourceFilename();
+        if (stream == null)
+        {
+            throw new IOException("Cannot open " + mFileName);
+        }
+        InputStreamReader inputreader = new InputStreamReader(stream);
+        mReader = new BufferedReader(inputreader);
+        readSkeleton();
+        readMotionHeader();
+        final StreamedAnimation skelanim = new StreamedAnimation(mFileName, skel, mNumFrames, mSecondsPerFrame);
+
+        mStreamedAnimation = skelanim;
+        addChannels(skelanim, skel);
+        Threads.spawn(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                String error = null;
+
+                try
+                {
+                    readFrames();
+                }
+                catch (IOException ex)
+                {
+                    error = ex.getMessage();
+                }
+                catch (RuntimeException ex)
+                {
+                    error = ex.toString();
+                }
+                finally
+                {
+                    mStreamedAnimation = null;
+                    try
+                    {
+                        mReader.close();
+                    }
+                    catch (IOException ex)
+                    {
+                        Log.w("BVH", "Cannot close %s: %s", mFileName, ex.getMessage());
+                    }
+                }
+                if (error != null)
+                {
+                    Log.e("BVH", "Cannot read motion from %s: %s", mFileName, error);
+                    if (listener != null)
+                    {
+                        listener.onMotionError(skelanim, error);
+                    }
+                }
+                else if (listener != null)
+                {
+                    listener.onMotionLoaded(skelanim);
+                }
+            }
+        });
+        return skelanim;
+    }
+
     public SXRPose importPose(SXRAndroidResource res)  throws IOException
     {
         InputStream stream = res.getStream();
@@ -129,9 +302,10 @@ public class BVHImporter
         mBoneParents.add(boneIndex, parentIndex);
         mBoneNames.add(boneIndex, bonename);
         mBoneChannels.add(boneIndex, 0);
+        mBoneChannelTypes.add(boneIndex, new int[0]);
         while ((line = mReader.readLine().trim()) != null)
         {
-            String[]    words = line.split("[ \t]");
+            String[]    words = line.split("\\s+");
             String      opcode;
 
             if (line == "")
@@ -159,45 +333,23 @@ public class BVHImporter
             }
             else if (opcode.equals("CHANNELS"))
             {
-                if(!channelOrder)
+                /*
+                 * Each joint can have its own channels in any order.
+                 * Rotations are applied in the order of their channels.
+                 */
+                int numChannels = Integer.parseInt(words[1]);
+                int[] channelTypes = new int[numChannels];
+
+                if (words.length < numChannels + 2)
                 {
-                       for(int j=2; j<5; j++)
-                       {
-                           if(words[j].equals("Xposition"))  //positions order
-                           {
-                               xPosOffset = j-2;
-                           }
-                           else if (words[j].equals("Yposition"))
-                           {
-                               yPosOffset = j-2;
-                           }
-                           else if (words[j].equals("Zposition"))
-                           {
-                               zPosOffset = j-2;
-                           }
-
-                       }
-
-                        for(int j=5; j<words.length; j++)
-                        {
-                            if(words[j].equals("Xrotation"))  //rotations order
-                            {
-                                xRotOffset = j-5;
-                            }
-                            else if (words[j].equals("Yrotation"))
-                            {
-                                yRotOffset = j-5;
-                            }
-                            else if (words[j].equals("Zrotation"))
-                            {
-                                zRotOffset = j-5;
-                            }
-
-                        }
-
-                    channelOrder = true;
+                    throw new IOException("Missing channels for bone " + mBoneNames.get(boneIndex));
                 }
-               mBoneChannels.add(boneIndex, Integer.parseInt(words[1]));
+                for (int j = 0; j < numChannels; j++)
+                {
+                    channelTypes[j] = getChannelType(words[j + 2]);
+                }
+                mBoneChannels.set(boneIndex, numChannels);
+                mBoneChannelTypes.set(boneIndex, channelTypes);
             }
             else if (opcode.equals("MOTION") || opcode.equals("}"))
             {
@@ -206,6 +358,35 @@ public class BVHImporter
         }
     }
 
+    private static int getChannelType(String channel) throws IOException
+    {
+        if (channel.equals("Xposition"))
+        {
+            return XPOSITION;
+        }
+        if (channel.equals("Yposition"))
+        {
+            return YPOSITION;
+        }
+        if (channel.equals("Zposition"))
+        {
+            return ZPOSITION;
+        }
+        if (channel.equals("Xrotation"))
+        {
+            return XROTATION;
+        }
+        if (channel.equals("Yrotation"))
+        {
+            return YROTATION;
+        }
+        if (channel.equals("Zrotation"))
+        {
+            return ZROTATION;
+        }
+        throw new IOException("Unknown channel " + channel);
+    }
+
     public SXRSkeleton createSkeleton()
     {
         int[] boneparents = new int[mBoneParents.size()];
@@ -230,293 +411,601 @@ public class BVHImporter
 
     private SXRPose readPose(SXRSkeleton skel) throws IOException
     {
-        float       x, y, z;
-        String      line;
-        String      bvhbonename = "";
-        Quaternionf q = new Quaternionf();
         SXRPose     pose = new SXRPose(skel);
+        int         numFrames;
 
         /*
-         * Parse and accumulate all the motion keyframes.
-         * Keyframes for the root bone position are in rootPosKeys;
-         * Keyframes for each bone's rotations are in rootKeysPerBone;
+         * Parse all the frames, the pose is the last frame read.
          */
-        while ((line = mReader.readLine().trim()) != null)
+        readMotionHeader();
+        allocateKeys(skel);
+        numFrames = readFrames();
+        if (numFrames == 0)
+        {
+            throw new IOException("No motion frames in " + mFileName);
+        }
+        for (int boneIndex = 0; boneIndex < mBoneNames.size(); ++boneIndex)
         {
-            String[]    words;
+            float[] posKeys = mPosKeys[boneIndex];
+            float[] rotKeys = mRotKeys[boneIndex];
 
-            line = line.trim();
-            words = line.split("[\t ]");
-            if (line == "")
+            if (posKeys != null)
             {
-                continue;
+                int f = 4 * (numFrames - 1);
+                pose.setLocalPosition(boneIndex, posKeys[f + 1], posKeys[f + 2], posKeys[f + 3]);
             }
-            if (words[0].startsWith("Frame"))
+            else
             {
-                continue;
+                Vector3f p = mBonePositions.get(boneIndex);
+                pose.setLocalPosition(boneIndex, p.x, p.y, p.z);
             }
-            int boneIndex = 0;
-            int bvhboneIndex = 0;
-            int i = 0;
-            while (i + 5 < words.length)
+            if (rotKeys != null)
             {
-                String boneNameSkel = skel.getBoneName(boneIndex);
-                bvhbonename = mBoneNames.get(bvhboneIndex);
-                if (bvhbonename.equals(boneNameSkel))
-                {
-                    if (bvhbonename == null)
-                    {
-                        throw new IOException("Cannot find bone " + bvhbonename + " in skeleton");
-                    }
-                    x = Float.parseFloat(words[i+xPosOffset]);    // positions
-                    y = Float.parseFloat(words[i+yPosOffset]);
-                    z = Float.parseFloat(words[i+zPosOffset]);
-                    pose.setLocalPosition(boneIndex, x, y, z);
-
-                    x = Float.parseFloat(words[i+xRotOffset]);
-                    y = Float.parseFloat(words[i+yRotOffset]);
-                    z = Float.parseFloat(words[i+zRotOffset]);
-
-                    //rotation order
+                int f = 5 * (numFrames - 1);
+                pose.setLocalRotation(boneIndex, rotKeys[f + 1], rotKeys[f + 2], rotKeys[f + 3], rotKeys[f + 4]);
+            }
+        }
+        return pose;
+    }
 
-                    for(int order = 0; order < 3; order++)
-                    {
-                        if(xRotOffset == order)
-                        {
-                            if(order == 0)
-                            {
-                                q.rotationX(x * (float) Math.PI / 180);
-                            }
-                            else
-                            {
-                                q.rotateX(x * (float) Math.PI / 180);
-                            }
-
-                        }
-                        else if(yRotOffset == order)
-                        {
-                            if(order == 0)
-                            {
-                                q.rotationY(y * (float) Math.PI / 180);
-                            }
-                            else
-                            {
-                                q.rotateY(y * (float) Math.PI / 180);
-                            }
-
-                        }
-                        else if(zRotOffset == order)
-                        {
-                            if(order == 0)
-                            {
-                                q.rotationZ(z * (float) Math.PI / 180);
-                            }
-                            else
-                            {
-                                q.rotateZ(z * (float) Math.PI / 180);
-                            }
-
-                        }
+    public SXRSkeletonAnimation readMotion(SXRSkeleton skel) throws IOException
+    {
+        readMotionHeader();
+        SXRSkeletonAnimation skelanim = createAnimation(skel);
 
-                    }
-                    q.normalize();
+        readFrames();
+        return skelanim;
+    }
 
-                    pose.setLocalRotation(boneIndex, q.x, q.y, q.z, q.w);
-                    boneIndex++;
-                    bvhboneIndex++;
+    /*
+     * Reads the number of frames and the frame time
+     * which come before the frames of the motion.
+     */
+    private void readMotionHeader() throws IOException
+    {
+        String line;
 
-                }
-                else
-                {
-                    boneIndex++;
-                }
+        mNumFrames = 0;
+        mSecondsPerFrame = 0;
+        while ((line = mReader.readLine()) != null)
+        {
+            line = line.trim();
+            if (line.startsWith("Frames"))
+            {
+                mNumFrames = Integer.parseInt(line.substring(line.indexOf(':') + 1).trim());
+            }
+            else if (line.startsWith("Frame Time"))
+            {
+                mSecondsPerFrame = Float.parseFloat(line.substring(line.indexOf(':') + 1).trim());
+                break;
             }
         }
-        return pose;
+        if (mNumFrames <= 0)
+        {
+            throw new IOException("No motion frames in " + mFileName);
+        }
     }
 
-    public SXRSkeletonAnimation readMotion(SXRSkeleton skel) throws IOException
+    /*
+     * Allocates the keys of every animated bone for all the frames.
+     * The key times are set and the values start as the bind pose,
+     * the frames only have to fill in the values.
+     */
+    private void allocateKeys(SXRSkeleton skel)
     {
-        int         numbones = skel.getNumBones();
-        float       x, y, z;
-        String      line;
-        String      bonename = "";
-        float       secondsPerFrame = 0;
-        float       curTime = 0;
-        float[]     rotKeys;
-        float[]     posKeys;
-        ArrayList<float[]> rotKeysPerBone = new ArrayList<>(numbones);
-        ArrayList<float[]> posKeysPerBone = new ArrayList<>(numbones);
-        Quaternionf q = new Quaternionf();
-        Quaternionf b = new Quaternionf();
+        final int numBones = mBoneNames.size();
         SXRPose bindpose = skel.getBindPose();
-        int frameIndex = 0;
-        int numFrames = 0;
+        Vector3f pos = new Vector3f();
 
-        /*
-         * Parse and accumulate all the motion keyframes.
-         * Keyframes for the root bone position are in rootPosKeys;
-         * Keyframes for each bone's rotations are in rootKeysPerBone;
-         */
-        while ((line = mReader.readLine()) != null)
+        mPosKeys = new float[numBones][];
+        mRotKeys = new float[numBones][];
+        mBindRotations = new Quaternionf[numBones];
+        for (int boneIndex = 0; boneIndex < numBones; ++boneIndex)
         {
-            String[] words;
+            int[] channelTypes = mBoneChannelTypes.get(boneIndex);
+            boolean hasPosition = false;
 
-            line = line.trim();
-            if (line == "")
+            if (channelTypes.length == 0)
             {
                 continue;
             }
-            words = line.split("[\t ]");
-            if (words[0].equals("MOTION"))
+            for (int type : channelTypes)
             {
-                continue;
+                hasPosition |= (type <= ZPOSITION);
+            }
+            Quaternionf b = new Quaternionf();
+            float[] rotKeys = new float[5 * mNumFrames];
+
+            bindpose.getLocalRotation(boneIndex, b);
+            bindpose.getLocalPosition(boneIndex, pos);
+            for (int i = 0, f = 0; i < mNumFrames; ++i)
+            {
+                rotKeys[f++] = i * mSecondsPerFrame;
+                rotKeys[f++] = b.x;
+                rotKeys[f++] = b.y;
+                rotKeys[f++] = b.z;
+                rotKeys[f++] = b.w;
             }
-            if (words[0].startsWith("Frames"))
+            mBindRotations[boneIndex] = b;
+            mRotKeys[boneIndex] = rotKeys;
+            if (hasPosition)
             {
-                for (int i = 0; i < numbones; i++)
+                float[] posKeys = new float[4 * mNumFrames];
+
+                for (int i = 0, f = 0; i < mNumFrames; ++i)
                 {
-                    numFrames = Integer.parseInt(words[1]);
-                    float[] r = new float[5 * numFrames];
-                    float[] p = new float[4 * numFrames];
-                    rotKeysPerBone.add(r);
-                    posKeysPerBone.add(p);
+                    posKeys[f++] = i * mSecondsPerFrame;
+                    posKeys[f++] = pos.x;
+                    posKeys[f++] = pos.y;
+                    posKeys[f++] = pos.z;
                 }
-                continue;
+                mPosKeys[boneIndex] = posKeys;
             }
-            if (words[0].equals("Frame") && words[1].startsWith("Time"))
+        }
+    }
+
+    /*
+     * Create a skeleton animation with separate channels for each bone.
+     * The channels use the keys which the frames are parsed into.
+     */
+    private SXRSkeletonAnimation createAnimation(SXRSkeleton skel)
+    {
+        SXRSkeletonAnimation skelanim = new SXRSkeletonAnimation(mFileName, skel, mNumFrames * mSecondsPerFrame);
+
+        addChannels(skelanim, skel);
+        return skelanim;
+    }
+
+    private void addChannels(SXRSkeletonAnimation skelanim, SXRSkeleton skel)
+    {
+        SXRAnimationChannel channel;
+        Vector3f pos = new Vector3f();
+
+        allocateKeys(skel);
+        for (int boneIndex = 0; boneIndex < mBoneNames.size(); ++boneIndex)
+        {
+            if (mBoneChannels.get(boneIndex) == 0)
             {
-                secondsPerFrame = Float.parseFloat(words[2]);
                 continue;
             }
-            /*
-             * Parsing motion for each frame.
-             * Each line in the file contains the root joint position and rotations for all joints.
-             */
-            int boneIndex = 0;
-            int i = 0;
-            int f;
-            while (i + 3 <= words.length)
+            String bonename = mBoneNames.get(boneIndex);
+            float[] posKeys = mPosKeys[boneIndex];
+
+            if (posKeys == null)
+            {
+                skel.getBindPose().getLocalPosition(boneIndex, pos);
+                posKeys = new float[] { 0, pos.x, pos.y, pos.z };
+            }
+            channel = new SXRAnimationChannel(bonename, posKeys, mRotKeys[boneIndex], null,
+                    SXRAnimationBehavior.DEFAULT, SXRAnimationBehavior.DEFAULT);
+            skelanim.addChannel(bonename, channel);
+        }
+    }
+
+    /*
+     * Reads the frames in chunks of whole lines and parses each chunk
+     * into the keys of its frames. With parallel threads, the calling
+     * thread reads the next chunk while up to mNumThreads chunks
+     * are being parsed. Returns the number of frames read.
+     */
+    private int readFrames() throws IOException
+    {
+        ArrayDeque<MotionChunk> busy = new ArrayDeque<>();
+        ArrayDeque<Future<?>> futures = new ArrayDeque<>();
+        List<MotionChunk> free = new ArrayList<>();
+        IOException error = null;
+        int frameIndex = 0;
+
+        mCarryLength = 0;
+        mEndOfFile = false;
+        try
+        {
+            while (frameIndex < mNumFrames)
             {
-                bonename = mBoneNames.get(boneIndex);
-                if (bonename == null)
+                MotionChunk chunk = free.isEmpty() ? new MotionChunk() : free.remove(free.size() - 1);
+
+                readChunk(chunk, frameIndex);
+                if (chunk.mNumFrames == 0)
                 {
-                    throw new IOException("Cannot find bone " + bonename + " in skeleton");
+                    break;
                 }
-                if (mBoneChannels.get(boneIndex) == 0)
+                frameIndex += chunk.mNumFrames;
+                if (mNumThreads == 0)
                 {
-                    ++boneIndex;
+                    parseChunk(chunk);
+                    publishFrames(chunk);
+                    free.add(chunk);
                     continue;
                 }
-                if (mBoneChannels.get(boneIndex) > 3)
+                futures.add(Threads.spawn(chunk));
+                busy.add(chunk);
+                if (busy.size() >= mNumThreads)
                 {
-
-                    f = frameIndex * 4;
-                    posKeys = posKeysPerBone.get(boneIndex);
-                    x = Float.parseFloat(words[i + xPosOffset]);     // X, Y, Z position
-                    y = Float.parseFloat(words[i + yPosOffset]);
-                    z = Float.parseFloat(words[i + zPosOffset]);
-
-                    posKeys[f] = curTime;
-                    posKeys[f + 1] = x;                 // bone position
-                    posKeys[f + 2] = y;
-                    posKeys[f + 3] = z;
-                    i += 3;
+                    waitForChunk(futures.poll());
+                    chunk = busy.poll();
+                    publishFrames(chunk);
+                    free.add(chunk);
                 }
+            }
+        }
+        catch (IOException ex)
+        {
+            error = ex;
+        }
+        while (!futures.isEmpty())
+        {
+            try
+            {
+                waitForChunk(futures.poll());
+                if (error == null)
+                {
+                    publishFrames(busy.poll());
+                }
+            }
+            catch (IOException ex)
+            {
+                if (error == null)
+                {
+                    error = ex;
+                }
+            }
+        }
+        if (error != null)
+        {
+            throw error;
+        }
+        if (frameIndex < mNumFrames)
+        {
+            Log.w("BVH", "%s has only %d of %d frames", mFileName, frameIndex, mNumFrames);
+        }
+        return frameIndex;
+    }
 
-                rotKeys = rotKeysPerBone.get(boneIndex);
+    /*
+     * Makes the frames up to the end of a parsed chunk visible to
+     * the animation being streamed. Chunks are published in order.
+     */
+    private void publishFrames(MotionChunk chunk)
+    {
+        StreamedAnimation anim = mStreamedAnimation;
 
-                x = Float.parseFloat(words[i + xRotOffset]);
-                y = Float.parseFloat(words[i + yRotOffset]);
-                z = Float.parseFloat(words[i + zRotOffset]);
-                i += 3;
+        if (anim != null)
+        {
+            anim.mFramesRead = chunk.mFirstFrame + chunk.mNumFrames;
+        }
+    }
 
-                //rotation order
+    /*
+     * Fills the chunk with as many whole frame lines as fit in its text.
+     * The partial line at the end is kept for the next chunk. The text
+     * grows if a single line does not fit.
+     */
+    private void readChunk(MotionChunk chunk, int firstFrame) throws IOException
+    {
+        char[] text = chunk.mText;
+        int length = mCarryLength;
 
-                for(int order = 0; order < 3; order++)
+        if (text.length <= length)
+        {
+            text = new char[length * 2];
+        }
+        System.arraycopy(mCarry, 0, text, 0, length);
+        while (!mEndOfFile)
+        {
+            if (length == text.length)
+            {
+                if (getLineEnd(text, length) > 0)
                 {
-                    if(xRotOffset == order)
-                    {
-                        if(order == 0)
-                        {
-                            q.rotationX(x * (float) Math.PI / 180);
-                        }
-                        else
-                        {
-                            q.rotateX(x * (float) Math.PI / 180);
-                        }
+                    break;
+                }
+                char[] larger = new char[text.length * 2];
+                System.arraycopy(text, 0, larger, 0, length);
+                text = larger;
+            }
+            int n = mReader.read(text, length, text.length - length);
+            if (n < 0)
+            {
+                mEndOfFile = true;
+            }
+            else
+            {
+                length += n;
+            }
+        }
+        int end = mEndOfFile ? length : getLineEnd(text, length);
+        int maxFrames = mNumFrames - firstFrame;
+        int numFrames = 0;
+        boolean blank = true;
 
-                    }
-                    else if(yRotOffset == order)
-                    {
-                        if(order == 0)
-                        {
-                            q.rotationY(y * (float) Math.PI / 180);
-                        }
-                        else
-                        {
-                            q.rotateY(y * (float) Math.PI / 180);
-                        }
+        /*
+         * Count the lines which are not blank, each one is a frame
+         */
+        for (int i = 0; i < end; ++i)
+        {
+            char c = text[i];
 
-                    }
-                    else if(zRotOffset == order)
-                    {
-                        if(order == 0)
-                        {
-                            q.rotationZ(z * (float) Math.PI / 180);
-                        }
-                        else
-                        {
-                            q.rotateZ(z * (float) Math.PI / 180);
-                        }
+            if (c == '\n')
+            {
+                if (!blank && (++numFrames >= maxFrames))
+                {
+                    end = i + 1;
+                    break;
+                }
+                blank = true;
+            }
+            else if ((c != ' ') && (c != '\t') && (c != '\r'))
+            {
+                blank = false;
+            }
+        }
+        if (!blank && (end == length) && mEndOfFile && (numFrames < maxFrames))
+        {
+            ++numFrames;            // last line has no newline
+        }
+        mCarryLength = length - end;
+        if (mCarry.length < mCarryLength)
+        {
+            mCarry = new char[Math.max(mCarryLength, CHUNK_SIZE)];
+        }
+        System.arraycopy(text, end, mCarry, 0, mCarryLength);
+        chunk.mText = text;
+        chunk.mLength = end;
+        chunk.mFirstFrame = firstFrame;
+        chunk.mNumFrames = numFrames;
+    }
 
-                    }
+    /*
+     * Returns the index after the last newline or 0 if there is none.
+     */
+    private static int getLineEnd(char[] text, int length)
+    {
+        for (int i = length - 1; i >= 0; --i)
+        {
+            if (text[i] == '\n')
+            {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void parseChunk(MotionChunk chunk) throws IOException
+    {
+        try
+        {
+            chunk.run();
+        }
+        catch (NumberFormatException ex)
+        {
+            throw new IOException("Cannot parse motion in " + mFileName + ": " + ex.getMessage());
+        }
+    }
 
+    private void waitForChunk(Future<?> future) throws IOException
+    {
+        try
+        {
+            future.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted reading " + mFileName);
+        }
+        catch (ExecutionException ex)
+        {
+            throw new IOException("Cannot parse motion in " + mFileName + ": " + ex.getCause().getMessage());
+        }
+    }
+
+    /*
+     * Animation of a motion which is still being read. The keys are
+     * written by the thread reading the motion. The time is clamped to the
+     * last frame which was read, so the pose only depends on the keys of
+     * frames before mFramesRead. The volatile write after a
+     * chunk is parsed and the volatile read before the keys are used make
+     * the keys of the chunk visible to the thread computing the pose.
+     */
+    private static final class StreamedAnimation extends SXRSkeletonAnimation
+    {
+        volatile int mFramesRead = 0;
+        private final float mSecondsPerFrame;
+
+        StreamedAnimation(String name, SXRSkeleton skel, int numFrames, float secondsPerFrame)
+        {
+            super(name, skel, numFrames * secondsPerFrame);
+            mSecondsPerFrame = secondsPerFrame;
+        }
+
+        @Override
+        public SXRPose computePose(float timeInSec, SXRPose pose)
+        {
+            int framesRead = mFramesRead;
+
+            if (framesRead == 0)
+            {
+                pose.copy(getSkeleton().getBindPose());
+                return pose;
+            }
+            return super.computePose(Math.min(timeInSec, (framesRead - 1) * mSecondsPerFrame), pose);
+        }
+    }
+
+    /*
+     * Text of consecutive frames and the parser for them.
+     * Each frame line has the channel values of all the
+     * bones in the order the bones are in the file.
+     */
+    private final class MotionChunk implements Runnable
+    {
+        char[]  mText = new char[CHUNK_SIZE];
+        int     mLength;
+        int     mFirstFrame;
+        int     mNumFrames;
+        private int mPos;
+        private int mFrame;
+        private final Quaternionf mRotation = new Quaternionf();
+
+        @Override
+        public void run()
+        {
+            mPos = 0;
+            for (int i = 0; i < mNumFrames; ++i)
+            {
+                mFrame = mFirstFrame + i;
+                parseFrame();
+            }
+        }
+
+        private void parseFrame()
+        {
+            final int numBones = mBoneChannelTypes.size();
+            final int posOfs = 4 * mFrame + 1;
+            final int rotOfs = 5 * mFrame + 1;
+
+            skipBlankLines();
+            for (int boneIndex = 0; boneIndex < numBones; ++boneIndex)
+            {
+                int[]       channelTypes = mBoneChannelTypes.get(boneIndex);
+                float[]     posKeys = mPosKeys[boneIndex];
+                float[]     rotKeys = mRotKeys[boneIndex];
+                Quaternionf q = mRotation;
+
+                if (channelTypes.length == 0)
+                {
+                    continue;
                 }
+                q.identity();
+                for (int type : channelTypes)
+                {
+                    float v = nextFloat();
 
+                    switch (type)
+                    {
+                        case XPOSITION: posKeys[posOfs] = v; break;
+                        case YPOSITION: posKeys[posOfs + 1] = v; break;
+                        case ZPOSITION: posKeys[posOfs + 2] = v; break;
+                        case XROTATION: q.rotateX(v * DEG_TO_RAD); break;
+                        case YROTATION: q.rotateY(v * DEG_TO_RAD); break;
+                        default: q.rotateZ(v * DEG_TO_RAD); break;
+                    }
+                }
                 q.normalize();
-                bindpose.getLocalRotation(boneIndex, b);
-                q.mul(b);
-                f = 5 * frameIndex;
-                rotKeys[f++] = curTime;
-                rotKeys[f++] = q.x;
-                rotKeys[f++] = q.y;
-                rotKeys[f++] = q.z;
-                rotKeys[f] = q.w;
-                boneIndex++;
-                //Log.d("BVH", "%s %f %f %f %f", bonename, q.x, q.y, q.z, q.w);
-            }
-            curTime += secondsPerFrame;
-            if (++frameIndex >= numFrames)
+                q.mul(mBindRotations[boneIndex]);
+                rotKeys[rotOfs] = q.x;
+                rotKeys[rotOfs + 1] = q.y;
+                rotKeys[rotOfs + 2] = q.z;
+                rotKeys[rotOfs + 3] = q.w;
+            }
+            skipLine();
+        }
+
+        private void skipBlankLines()
+        {
+            while ((mPos < mLength) && (mText[mPos] <= ' '))
+            {
+                ++mPos;
+            }
+        }
+
+        private void skipLine()
+        {
+            while ((mPos < mLength) && (mText[mPos++] != '\n'))
             {
-                break;
             }
         }
+
         /*
-         * Create a skeleton animation with separate channels for each bone
+         * Parses the next number on the current line without making
+         * a string. Numbers which are too long for a long mantissa
+         * or a double power of ten are given to Float.parseFloat.
          */
-        SXRAnimationChannel channel;
-        SXRSkeletonAnimation skelanim = new SXRSkeletonAnimation(mFileName, skel, curTime);
-        Vector3f pos = new Vector3f();
-        for (int boneIndex = 0; boneIndex < mBoneNames.size(); ++boneIndex)
+        private float nextFloat()
         {
-            if (mBoneChannels.get(boneIndex) == 0)
+            final char[] text = mText;
+            final int end = mLength;
+            int pos = mPos;
+
+            while ((pos < end) && ((text[pos] == ' ') || (text[pos] == '\t') || (text[pos] == '\r')))
             {
-                continue;
+                ++pos;
             }
-            bonename = mBoneNames.get(boneIndex);
-            rotKeys = rotKeysPerBone.get(boneIndex);
-            posKeys = posKeysPerBone.get(boneIndex);
-            if (mBoneChannels.get(boneIndex) == 3)
+            final int start = pos;
+            boolean negative = false;
+            boolean hasDigits = false;
+            long mantissa = 0;
+            int numDigits = 0;
+            int exponent = 0;
+
+            if ((pos < end) && ((text[pos] == '-') || (text[pos] == '+')))
             {
-                skel.getBindPose().getLocalPosition(boneIndex, pos);
-                posKeys = new float[] { 0, pos.x, pos.y, pos.z };
+                negative = (text[pos++] == '-');
             }
-            channel = new SXRAnimationChannel(bonename, posKeys, rotKeys, null,
-                    SXRAnimationBehavior.DEFAULT, SXRAnimationBehavior.DEFAULT);
-            skelanim.addChannel(bonename, channel);
+            for (; (pos < end) && (text[pos] >= '0') && (text[pos] <= '9'); ++pos)
+            {
+                hasDigits = true;
+                if (numDigits < 18)
+                {
+                    mantissa = mantissa * 10 + (text[pos] - '0');
+                    numDigits += (mantissa != 0) ? 1 : 0;
+                }
+                else
+                {
+                    ++exponent;
+                }
+            }
+            if ((pos < end) && (text[pos] == '.'))
+            {
+                for (++pos; (pos < end) && (text[pos] >= '0') && (text[pos] <= '9'); ++pos)
+                {
+                    hasDigits = true;
+                    if (numDigits < 18)
+                    {
+                        mantissa = mantissa * 10 + (text[pos] - '0');
+                        numDigits += (mantissa != 0) ? 1 : 0;
+                        --exponent;
+                    }
+                }
+            }
+            if (hasDigits && (pos < end) && ((text[pos] == 'e') || (text[pos] == 'E')))
+            {
+                int e = 0;
+                boolean negativeExp = false;
+
+                ++pos;
+                if ((pos < end) && ((text[pos] == '-') || (text[pos] == '+')))
+                {
+                    negativeExp = (text[pos++] == '-');
+                }
+                for (; (pos < end) && (text[pos] >= '0') && (text[pos] <= '9'); ++pos)
+                {
+                    e = Math.min(e * 10 + (text[pos] - '0'), 1000);
+                }
+                exponent += negativeExp ? -e : e;
+            }
+            if (hasDigits &&
+                ((pos >= end) || (text[pos] <= ' ')) &&
+                (Math.abs(exponent) < POWERS_OF_TEN.length))
+            {
+                double value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent]
+                                              : mantissa * POWERS_OF_TEN[exponent];
+                mPos = pos;
+                return (float) (negative ? -value : value);
+            }
+            /*
+             * Not a plain decimal number, let Java parse it
+             */
+            pos = start;
+            while ((pos < end) && (text[pos] > ' '))
+            {
+                ++pos;
+            }
+            if (pos == start)
+            {
+                throw new NumberFormatException("Frame " + mFrame + " has too few values");
+            }
+            mPos = pos;
+            return Float.parseFloat(new String(text, start, pos - start));
         }
-        return skelanim;
     }
 }
-
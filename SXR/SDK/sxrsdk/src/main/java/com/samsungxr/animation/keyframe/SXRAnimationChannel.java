@@ -290,11 +290,68 @@ public final class SXRAnimationChannel implements PrettyPrint {
      */
     public void animate(float animationTime, Matrix4f mat)
     {
-        mRotInterpolator.animate(animationTime, mRotKey);
-        mPosInterpolator.animate(animationTime, mPosKey);
-        mSclInterpolator.animate(animationTime, mScaleKey);
-        mat.translationRotateScale(mPosKey[0], mPosKey[1], mPosKey[2], mRotKey[0], mRotKey[1], mRotKey[2], mRotKey[3], mScaleKey[0], mScaleKey[1], mScaleKey[2]);
+        animate(animationTime, mat, mPosKey, mRotKey, mScaleKey);
+    }
 
+    /**
+     * Obtains the transform for a specific time in animation
+     * using key buffers owned by the caller.
+     * <p>
+     * A channel may be shared by several animations. Animations
+     * which are evaluated on worker threads pass their own buffers
+     * so the channel is not modified.
+     *
+     * @param animationTime The time in animation.
+     * @param mat           gets the transform.
+     * @param pos           receives the position, 3 floats.
+     * @param rot           receives the rotation quaternion, 4 floats.
+     * @param scale         receives the scale, 3 floats.
+     * @see com.samsungxr.animation.SXRPoseAnimation
+     */
+    public void animate(float animationTime, Matrix4f mat, float[] pos, float[] rot, float[] scale)
+    {
+        mRotInterpolator.animate(animationTime, rot);
+        mPosInterpolator.animate(animationTime, pos);
+        mSclInterpolator.animate(animationTime, scale);
+        mat.translationRotateScale(pos[0], pos[1], pos[2], rot[0], rot[1], rot[2], rot[3], scale[0], scale[1], scale[2]);
+    }
+
+    /**
+     * Removes position, rotation and scale keys which can be interpolated
+     * from the keys around them within the given tolerances.
+     * The first and last key of each series are always kept.
+     *
+     * @param posTolerance   largest position error allowed
+     * @param rotTolerance   largest error allowed for any quaternion component
+     * @param scaleTolerance largest scale error allowed
+     * @return total number of keys removed
+     * @see SXRFloatAnimation#reduceKeys(float)
+     */
+    public int reduceKeys(float posTolerance, float rotTolerance, float scaleTolerance)
+    {
+        return mPosInterpolator.reduceKeys(posTolerance)
+             + mRotInterpolator.reduceKeys(rotTolerance)
+             + mSclInterpolator.reduceKeys(scaleTolerance);
+    }
+
+    /**
+     * Stores the position, rotation and scale keys in compressed form.
+     * Position, rotation and scale keys sampled at the same times
+     * share one time track.
+     *
+     * @param timePool pool to share key times with other animations,
+     *                 null to share them only within this channel.
+     * @see SXRFloatAnimation#compress(SXRTimeTrackPool)
+     */
+    public void compress(SXRTimeTrackPool timePool)
+    {
+        if (timePool == null)
+        {
+            timePool = new SXRTimeTrackPool();
+        }
+        mPosInterpolator.compress(timePool);
+        mRotInterpolator.compress(timePool);
+        mSclInterpolator.compress(timePool);
     }
 
     @Override
@@ -323,7 +380,6 @@ public final class SXRAnimationChannel implements PrettyPrint {
     final private float[] mPosKey = new float[] {  0, 0, 0 };
     final private float[] mScaleKey = new float[] { 1, 1, 1 };
     final private float[] mRotKey = new float[] { 0, 0, 0, 1 };
-    final private Quaternionf mTempQuat = new Quaternionf(0, 0, 0, 1);
     final private SXRFloatAnimation mPosInterpolator;
     final private SXRQuatAnimation mRotInterpolator;
     final private SXRFloatAnimation mSclInterpolator;
@@ -26,6 +26,13 @@ public class SXRFloatAnimation implements PrettyPrint
 {
     private static final String TAG = SXRFloatAnimation.class.getSimpleName();
 
+    /*
+     * Most keys reduceKeys() removes between two kept keys. Every step checks
+     * all the keys since the last kept one, so this keeps long held poses
+     * from taking quadratic time.
+     */
+    private static final int MAX_REDUCED_SPAN = 32;
+
     public static class LinearInterpolator
     {
         protected final int mFloatsPerKey;
@@ -159,38 +166,46 @@ public class SXRFloatAnimation implements PrettyPrint
             return false;
         }
 
+        /**
+         * Finds the key interval containing the given time.
+         * The last interval found is kept as a hint for the next call.
+         * The hint is read once and only written back, so animations
+         * on different threads may share the interpolator; a lost update
+         * only costs another search.
+         */
         public int getKeyIndex(float time)
         {
             // Try cached key first
             int numKeys = getNumKeys();
-            int lastOfs = getKeyOffset(mLastKeyIndex + 1);
-            float lastTime = getTime(mLastKeyIndex);
-            float nextTime = getTime(mLastKeyIndex + 1);
+            int lastIndex = mLastKeyIndex;
+            int lastOfs = getKeyOffset(lastIndex + 1);
+            float lastTime = getTime(lastIndex);
+            float nextTime = getTime(lastIndex + 1);
 
-            if ((mLastKeyIndex != -1) && (lastOfs >= 0))
+            if ((lastIndex != -1) && (lastOfs >= 0))
             {
                 if ((lastTime <= time) &&
                         (time < nextTime))
                 {
-                    return mLastKeyIndex;
+                    return lastIndex;
                 }
-                float prevTime = getTime(mLastKeyIndex - 1);
+                float prevTime = getTime(lastIndex - 1);
 
                 if ((prevTime >= 0) &&
                         (prevTime <= time) &&
                         (time < lastTime))
                 {
-                    return --mLastKeyIndex;
+                    return mLastKeyIndex = lastIndex - 1;
                 }
                 lastTime = nextTime;
-                nextTime = getTime(mLastKeyIndex + 2);
+                nextTime = getTime(lastIndex + 2);
 
                 // Try neighboring keys
                 if ((nextTime >= 0) &&
                         (lastTime <= time) &&
                         (time < nextTime))
                 {
-                    return ++mLastKeyIndex;
+                    return mLastKeyIndex = lastIndex + 1;
                 }
             }
 
@@ -241,6 +256,168 @@ public class SXRFloatAnimation implements PrettyPrint
         }
     };
 
+    /**
+     * Interpolates keys stored in compressed form.
+     * <p>
+     * The key times are kept in their own array, which may be shared with
+     * other animations, and each value is quantized to 16 bits over the
+     * range of its component. Keys are decoded as they are interpolated.
+     * The keys are read only.
+     * @see SXRFloatAnimation#compress(SXRTimeTrackPool)
+     */
+    public static class QuantizedInterpolator extends LinearInterpolator
+    {
+        protected final float[] mTimes;
+        protected final short[] mValues;
+        protected final float[] mOffsets;
+        protected final float[] mScales;
+        protected final int mValuesPerKey;
+
+        /**
+         * @param times     key times
+         * @param values    quantized values, (keySize - 1) per key
+         * @param offsets   smallest value of each component
+         * @param scales    quantization step of each component
+         * @param keySize   number of floats per key including time
+         */
+        public QuantizedInterpolator(float[] times, short[] values, float[] offsets, float[] scales, int keySize)
+        {
+            super(new float[0], keySize);
+            mTimes = times;
+            mValues = values;
+            mOffsets = offsets;
+            mScales = scales;
+            mValuesPerKey = keySize - 1;
+        }
+
+        float[] getTimes() { return mTimes; }
+
+        @Override
+        public int getKeyOffset(int keyIndex)
+        {
+            if ((keyIndex < 0) || (keyIndex >= mTimes.length))
+            {
+                return -1;
+            }
+            return keyIndex * mValuesPerKey;
+        }
+
+        @Override
+        public int getNumKeys()
+        {
+            return mTimes.length;
+        }
+
+        @Override
+        public float getTime(int keyIndex)
+        {
+            if ((keyIndex < 0) || (keyIndex >= mTimes.length))
+            {
+                return -1.0f;
+            }
+            return mTimes[keyIndex];
+        }
+
+        @Override
+        public void setTime(int keyIndex, float time)
+        {
+            throw new UnsupportedOperationException("Compressed keys cannot be changed");
+        }
+
+        @Override
+        public boolean setValues(int keyIndex, float[] values)
+        {
+            throw new UnsupportedOperationException("Compressed keys cannot be changed");
+        }
+
+        @Override
+        public boolean interpolateValues(int keyIndex, float[] values, float factor)
+        {
+            int firstOfs = getKeyOffset(keyIndex);
+            int lastOfs = getKeyOffset(keyIndex + 1);
+
+            if ((firstOfs < 0) || (lastOfs < 0))
+            {
+                return false;
+            }
+            for (int i = 0; i < mValuesPerKey; ++i)
+            {
+                values[i] = factor * decode(lastOfs + i, i) + (1.0f - factor) * decode(firstOfs + i, i);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean getValues(int keyIndex, float[] values)
+        {
+            int ofs = getKeyOffset(keyIndex);
+
+            if (ofs < 0)
+            {
+                return false;
+            }
+            int n = Math.min(values.length, mValuesPerKey);
+            for (int i = 0; i < n; ++i)
+            {
+                values[i] = decode(ofs + i, i);
+            }
+            return true;
+        }
+
+        /**
+         * Decodes one quantized value.
+         * @param index     index of the value in the quantized values
+         * @param component which component of the key it is
+         */
+        protected final float decode(int index, int component)
+        {
+            return mOffsets[component] + (mValues[index] + 32768) * mScales[component];
+        }
+
+        /**
+         * Quantizes the values of interleaved float keys.
+         * @param keyData   keys with time followed by the values
+         * @param keySize   number of floats per key including time
+         * @param offsets   gets the smallest value of each component
+         * @param scales    gets the quantization step of each component
+         * @return quantized values, (keySize - 1) per key
+         */
+        static short[] quantize(float[] keyData, int keySize, float[] offsets, float[] scales)
+        {
+            final int numValues = keySize - 1;
+            final int numKeys = keyData.length / keySize;
+            final short[] values = new short[numKeys * numValues];
+
+            for (int c = 0; c < numValues; ++c)
+            {
+                float min = Float.MAX_VALUE;
+                float max = -Float.MAX_VALUE;
+
+                for (int k = 0; k < numKeys; ++k)
+                {
+                    float v = keyData[k * keySize + 1 + c];
+
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                offsets[c] = min;
+                scales[c] = (max > min) ? (max - min) / 65535.0f : 0;
+                for (int k = 0; k < numKeys; ++k)
+                {
+                    int q = 0;
+
+                    if (scales[c] > 0)
+                    {
+                        q = Math.round((keyData[k * keySize + 1 + c] - min) / scales[c]);
+                        q = Math.max(0, Math.min(65535, q));
+                    }
+                    values[k * numValues + c] = (short) (q - 32768);
+                }
+            }
+            return values;
+        }
+    }
+
     final protected int mFloatsPerKey;
     protected float[] mKeys;
     protected LinearInterpolator mFloatInterpolator;
@@ -290,14 +467,16 @@ public class SXRFloatAnimation implements PrettyPrint
      */
     public int getNumKeys()
     {
-        return mKeys.length / mFloatsPerKey;
+        return mFloatInterpolator.getNumKeys();
     }
 
     public float getDuration()
     {
-        if (mKeys.length > mFloatsPerKey)
+        int numKeys = getNumKeys();
+
+        if (numKeys > 1)
         {
-            return mKeys[mKeys.length - mFloatsPerKey] - mKeys[0];
+            return getTime(numKeys - 1) - getTime(0);
         }
         return 0;
     }
@@ -310,6 +489,10 @@ public class SXRFloatAnimation implements PrettyPrint
      */
     public float getTime(int keyIndex)
     {
+        if (mKeys == null)
+        {
+            return mFloatInterpolator.getTime(keyIndex);
+        }
         return mKeys[keyIndex * mFloatsPerKey];
     }
 
@@ -320,6 +503,11 @@ public class SXRFloatAnimation implements PrettyPrint
      */
     public void getKey(int keyIndex, float[] values)
     {
+        if (mKeys == null)
+        {
+            mFloatInterpolator.getValues(keyIndex, values);
+            return;
+        }
         int index = keyIndex * mFloatsPerKey;
         System.arraycopy(mKeys, index + 1, values, 0, values.length);
     }
@@ -339,6 +527,7 @@ public class SXRFloatAnimation implements PrettyPrint
         {
             throw new IllegalArgumentException("This key needs " + valSize.toString() + " float per value");
         }
+        decompress();
         mKeys[index] = time;
         System.arraycopy(values, 0, mKeys, index + 1, values.length);
     }
@@ -364,6 +553,7 @@ public class SXRFloatAnimation implements PrettyPrint
      */
     public void resizeKeys(int numKeys)
     {
+        decompress();
         int n = numKeys * mFloatsPerKey;
         if (mKeys.length == n)
         {
@@ -377,11 +567,226 @@ public class SXRFloatAnimation implements PrettyPrint
         mFloatInterpolator.setKeyData(mKeys);
     }
 
+    /**
+     * Stores the keys in compressed form.
+     * <p>
+     * The key times are moved to a separate array which is shared through
+     * the pool with all other compressed animations which have the same
+     * key times. Each value is quantized to 16 bits over the range of its
+     * component, so the error of a value is at most 1/131070 of the
+     * difference between the largest and smallest value of that component.
+     * Keys are decoded as they are interpolated by {@link #animate}.
+     * <p>
+     * A compressed animation takes (keySize - 1) * 2 bytes per key plus
+     * its share of the time track, instead of keySize * 4 bytes.
+     * Changing the keys with {@link #setKey}, {@link #resizeKeys} or
+     * {@link #reduceKeys} first restores the float keys with {@link #decompress()}.
+     * Reduce the keys before compressing them.
+     *
+     * @param timePool pool to share key times with other animations,
+     *                 null to keep the times with this animation.
+     * @see SXRAnimationChannel#compress(SXRTimeTrackPool)
+     */
+    public void compress(SXRTimeTrackPool timePool)
+    {
+        if (mKeys == null)
+        {
+            return;
+        }
+        final int numKeys = getNumKeys();
+        final int numValues = mFloatsPerKey - 1;
+        float[] times = new float[numKeys];
+        float[] offsets = new float[numValues];
+        float[] scales = new float[numValues];
+
+        for (int i = 0; i < numKeys; ++i)
+        {
+            times[i] = mKeys[i * mFloatsPerKey];
+        }
+        if (timePool != null)
+        {
+            times = timePool.share(times);
+        }
+        short[] values = QuantizedInterpolator.quantize(mKeys, mFloatsPerKey, offsets, scales);
+
+        mFloatInterpolator = createInterpolator(times, values, offsets, scales);
+        mKeys = null;
+    }
+
+    /**
+     * Restores the float keys of a compressed animation.
+     * The values keep the error from quantization.
+     * Does nothing if the animation is not compressed.
+     * @see #compress(SXRTimeTrackPool)
+     */
+    public void decompress()
+    {
+        if (mKeys != null)
+        {
+            return;
+        }
+        final int numKeys = getNumKeys();
+        final float[] keys = new float[numKeys * mFloatsPerKey];
+        final float[] values = new float[mFloatsPerKey - 1];
+
+        for (int i = 0; i < numKeys; ++i)
+        {
+            keys[i * mFloatsPerKey] = mFloatInterpolator.getTime(i);
+            mFloatInterpolator.getValues(i, values);
+            System.arraycopy(values, 0, keys, i * mFloatsPerKey + 1, values.length);
+        }
+        mKeys = keys;
+        mFloatInterpolator = createInterpolator(keys);
+    }
+
+    /**
+     * @return true if the keys are stored in compressed form.
+     * @see #compress(SXRTimeTrackPool)
+     */
+    public boolean isCompressed()
+    {
+        return mKeys == null;
+    }
+
+    /**
+     * Creates the interpolator for float keys.
+     * @param keyData keys with the time followed by the values
+     */
+    protected LinearInterpolator createInterpolator(float[] keyData)
+    {
+        return new LinearInterpolator(keyData, mFloatsPerKey);
+    }
+
+    /**
+     * Creates the interpolator for compressed keys.
+     * @see QuantizedInterpolator
+     */
+    protected LinearInterpolator createInterpolator(float[] times, short[] values, float[] offsets, float[] scales)
+    {
+        return new QuantizedInterpolator(times, values, offsets, scales, mFloatsPerKey);
+    }
+
+    /**
+     * Removes keys which can be interpolated from the keys around them.
+     * <p>
+     * A key is removed if interpolating between the remaining keys on
+     * either side of it reproduces every removed key within the tolerance.
+     * The first and last keys are always kept so the duration does not change,
+     * and at most 32 keys in a row are removed so the time taken grows linearly
+     * with the number of keys.
+     * Animations sampled at a fixed rate, such as motion capture, often have
+     * long runs of keys which can be removed.
+     *
+     * @param tolerance largest difference allowed for any component
+     *                  of a removed key, 0 to only remove keys which
+     *                  can be reproduced exactly
+     * @return number of keys removed
+     */
+    public int reduceKeys(float tolerance)
+    {
+        decompress();
+        final int numKeys = getNumKeys();
+
+        if (numKeys <= 2)
+        {
+            return 0;
+        }
+        final boolean[] keep = new boolean[numKeys];
+        final float[] values = new float[mFloatsPerKey - 1];
+        int numKept = 2;
+        int anchor = 0;
+
+        keep[0] = true;
+        keep[numKeys - 1] = true;
+        for (int i = 1; i < numKeys - 1; ++i)
+        {
+            if ((i - anchor > MAX_REDUCED_SPAN) || !canInterpolate(anchor, i + 1, tolerance, values))
+            {
+                keep[i] = true;
+                anchor = i;
+                ++numKept;
+            }
+        }
+        if (numKept == numKeys)
+        {
+            return 0;
+        }
+        int dst = 0;
+        for (int i = 0; i < numKeys; ++i)
+        {
+            if (keep[i])
+            {
+                System.arraycopy(mKeys, i * mFloatsPerKey, mKeys, dst, mFloatsPerKey);
+                dst += mFloatsPerKey;
+            }
+        }
+        resizeKeys(numKept);
+        return numKeys - numKept;
+    }
+
+    /*
+     * Checks whether the keys between first and last are reproduced
+     * within the tolerance by interpolating first and last.
+     */
+    private boolean canInterpolate(int first, int last, float tolerance, float[] values)
+    {
+        final float firstTime = getTime(first);
+        final float deltaTime = getTime(last) - firstTime;
+
+        for (int i = first + 1; i < last; ++i)
+        {
+            float factor = (deltaTime > 0) ? (getTime(i) - firstTime) / deltaTime : 0;
+
+            interpolateKeys(first, last, factor, values);
+            if (getKeyError(i, values) > tolerance)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Interpolates the values of two keys which need not be adjacent.
+     * @param first   index of first key
+     * @param last    index of last key
+     * @param factor  0 for the first key, 1 for the last
+     * @param values  where to store the interpolated values
+     */
+    protected void interpolateKeys(int first, int last, float factor, float[] values)
+    {
+        final int firstOfs = first * mFloatsPerKey + 1;
+        final int lastOfs = last * mFloatsPerKey + 1;
+
+        for (int i = 0; i < mFloatsPerKey - 1; ++i)
+        {
+            values[i] = factor * mKeys[lastOfs + i] + (1.0f - factor) * mKeys[firstOfs + i];
+        }
+    }
+
+    /**
+     * Computes how far the given values are from a key.
+     * @param keyIndex  index of key to compare against
+     * @param values    values to compare
+     * @return largest difference of any component
+     */
+    protected float getKeyError(int keyIndex, float[] values)
+    {
+        final int ofs = keyIndex * mFloatsPerKey + 1;
+        float error = 0;
+
+        for (int i = 0; i < mFloatsPerKey - 1; ++i)
+        {
+            error = Math.max(error, Math.abs(values[i] - mKeys[ofs + i]));
+        }
+        return error;
+    }
+
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {
         sb.append(Log.getSpaces(indent));
         sb.append(SXRFloatAnimation.class.getSimpleName());
-        sb.append(" [ Keys=" + mKeys.length + "]");
+        sb.append(" [ Keys=" + getNumKeys() + (isCompressed() ? ", compressed]" : "]"));
         sb.append(System.lineSeparator());
     }
 
@@ -10,12 +10,11 @@ import org.joml.Quaternionf;
 public final class SXRQuatAnimation extends SXRFloatAnimation
 {
     private static final String TAG = SXRQuatAnimation.class.getSimpleName();
+    private final Quaternionf mTempQuatA = new Quaternionf();
+    private final Quaternionf mTempQuatB = new Quaternionf();
 
     public static class SphericalInterpolator extends LinearInterpolator
     {
-        private Quaternionf mTempQuatA = new Quaternionf();
-        private Quaternionf mTempQuatB = new Quaternionf();
-
         public SphericalInterpolator(float[] keyData, int keySize)
         {
             super(keyData, keySize);
@@ -23,6 +22,11 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
 
         public float[] getKeyData() { return mKeyData; }
 
+        /**
+         * Spherical interpolation between two keys, computed on the
+         * key data directly so no scratch state is shared by
+         * animations evaluated on different threads.
+         */
         public boolean interpolateValues(int keyIndex, float[] values, float factor)
         {
             int firstOfs = getKeyOffset(keyIndex);
@@ -34,23 +38,103 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
             }
             ++firstOfs;
             ++lastOfs;
-            mTempQuatA.x = mKeyData[firstOfs + 0];
-            mTempQuatA.y = mKeyData[firstOfs + 1];
-            mTempQuatA.z = mKeyData[firstOfs + 2];
-            mTempQuatA.w = mKeyData[firstOfs + 3];
-            mTempQuatB.x = mKeyData[lastOfs + 0];
-            mTempQuatB.y = mKeyData[lastOfs + 1];
-            mTempQuatB.z = mKeyData[lastOfs + 2];
-            mTempQuatB.w = mKeyData[lastOfs + 3];
-            mTempQuatA.slerp(mTempQuatB, factor, mTempQuatA);
-            values[0] = mTempQuatA.x;
-            values[1] = mTempQuatA.y;
-            values[2] = mTempQuatA.z;
-            values[3] = mTempQuatA.w;
+            slerp(mKeyData[firstOfs], mKeyData[firstOfs + 1], mKeyData[firstOfs + 2], mKeyData[firstOfs + 3],
+                  mKeyData[lastOfs], mKeyData[lastOfs + 1], mKeyData[lastOfs + 2], mKeyData[lastOfs + 3],
+                  factor, values);
+            return true;
+        }
+    };
+
+    /**
+     * Spherical interpolation of compressed keys.
+     * Each key is normalized after it is decoded.
+     */
+    public static class SphericalQuantizedInterpolator extends QuantizedInterpolator
+    {
+        public SphericalQuantizedInterpolator(float[] times, short[] values, float[] offsets, float[] scales, int keySize)
+        {
+            super(times, values, offsets, scales, keySize);
+        }
+
+        @Override
+        public boolean interpolateValues(int keyIndex, float[] values, float factor)
+        {
+            int firstOfs = getKeyOffset(keyIndex);
+            int lastOfs = getKeyOffset(keyIndex + 1);
+
+            if ((firstOfs < 0) || (lastOfs < 0))
+            {
+                return false;
+            }
+            float ax = decode(firstOfs, 0);
+            float ay = decode(firstOfs + 1, 1);
+            float az = decode(firstOfs + 2, 2);
+            float aw = decode(firstOfs + 3, 3);
+            float bx = decode(lastOfs, 0);
+            float by = decode(lastOfs + 1, 1);
+            float bz = decode(lastOfs + 2, 2);
+            float bw = decode(lastOfs + 3, 3);
+            float na = (float) (1.0 / Math.sqrt(ax * ax + ay * ay + az * az + aw * aw));
+            float nb = (float) (1.0 / Math.sqrt(bx * bx + by * by + bz * bz + bw * bw));
+
+            slerp(ax * na, ay * na, az * na, aw * na,
+                  bx * nb, by * nb, bz * nb, bw * nb,
+                  factor, values);
+            return true;
+        }
+
+        @Override
+        public boolean getValues(int keyIndex, float[] values)
+        {
+            if (!super.getValues(keyIndex, values))
+            {
+                return false;
+            }
+            if (values.length >= 4)
+            {
+                float n = (float) (1.0 / Math.sqrt(values[0] * values[0] + values[1] * values[1]
+                                                   + values[2] * values[2] + values[3] * values[3]));
+                values[0] *= n;
+                values[1] *= n;
+                values[2] *= n;
+                values[3] *= n;
+            }
             return true;
         }
     };
 
+    /*
+     * Same as Quaternionf.slerp on the floats of two keys.
+     */
+    private static void slerp(float ax, float ay, float az, float aw,
+                              float bx, float by, float bz, float bw,
+                              float factor, float[] values)
+    {
+        float cosom = ax * bx + ay * by + az * bz + aw * bw;
+        float absCosom = Math.abs(cosom);
+        float scale0, scale1;
+
+        if (1.0f - absCosom > 1E-6f)
+        {
+            float sinSqr = 1.0f - absCosom * absCosom;
+            float sinom = (float) (1.0 / Math.sqrt(sinSqr));
+            float omega = (float) Math.atan2(sinSqr * sinom, absCosom);
+
+            scale0 = (float) (Math.sin((1.0 - factor) * omega) * sinom);
+            scale1 = (float) (Math.sin(factor * omega) * sinom);
+        }
+        else
+        {
+            scale0 = 1.0f - factor;
+            scale1 = factor;
+        }
+        scale1 = (cosom >= 0.0f) ? scale1 : -scale1;
+        values[0] = scale0 * ax + scale1 * bx;
+        values[1] = scale0 * ay + scale1 * by;
+        values[2] = scale0 * az + scale1 * bz;
+        values[3] = scale0 * aw + scale1 * bw;
+    }
+
     /**
      * Constructor.
      *
@@ -59,7 +143,7 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
     public SXRQuatAnimation(float[] keyData)
     {
         super(keyData, 5);
-        mFloatInterpolator =  new SphericalInterpolator(mKeys, 5);
+        mFloatInterpolator = createInterpolator(mKeys);
     }
 
     /**
@@ -70,7 +154,52 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
     public SXRQuatAnimation(int numKeys)
     {
         super(numKeys, 5);
-        mFloatInterpolator =  new SphericalInterpolator(mKeys, 5);
+        mFloatInterpolator = createInterpolator(mKeys);
+    }
+
+    @Override
+    protected LinearInterpolator createInterpolator(float[] keyData)
+    {
+        return new SphericalInterpolator(keyData, mFloatsPerKey);
+    }
+
+    @Override
+    protected LinearInterpolator createInterpolator(float[] times, short[] values, float[] offsets, float[] scales)
+    {
+        return new SphericalQuantizedInterpolator(times, values, offsets, scales, mFloatsPerKey);
+    }
+
+    @Override
+    protected void interpolateKeys(int first, int last, float factor, float[] values)
+    {
+        final int firstOfs = first * mFloatsPerKey + 1;
+        final int lastOfs = last * mFloatsPerKey + 1;
+
+        mTempQuatA.set(mKeys[firstOfs], mKeys[firstOfs + 1], mKeys[firstOfs + 2], mKeys[firstOfs + 3]);
+        mTempQuatB.set(mKeys[lastOfs], mKeys[lastOfs + 1], mKeys[lastOfs + 2], mKeys[lastOfs + 3]);
+        mTempQuatA.slerp(mTempQuatB, factor);
+        values[0] = mTempQuatA.x;
+        values[1] = mTempQuatA.y;
+        values[2] = mTempQuatA.z;
+        values[3] = mTempQuatA.w;
+    }
+
+    /*
+     * q and -q are the same rotation, use whichever is closer.
+     */
+    @Override
+    protected float getKeyError(int keyIndex, float[] values)
+    {
+        final int ofs = keyIndex * mFloatsPerKey + 1;
+        float error = 0;
+        float negError = 0;
+
+        for (int i = 0; i < 4; ++i)
+        {
+            error = Math.max(error, Math.abs(values[i] - mKeys[ofs + i]));
+            negError = Math.max(negError, Math.abs(values[i] + mKeys[ofs + i]));
+        }
+        return Math.min(error, negError);
     }
 
     /**
@@ -82,6 +211,14 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
      */
     public void getKey(int keyIndex, Quaternionf q)
     {
+        if (isCompressed())
+        {
+            float[] values = new float[4];
+
+            mFloatInterpolator.getValues(keyIndex, values);
+            q.set(values[0], values[1], values[2], values[3]);
+            return;
+        }
         int index = keyIndex * mFloatsPerKey;
         q.x = mKeys[index + 1];
         q.y = mKeys[index + 2];
@@ -93,6 +230,7 @@ public final class SXRQuatAnimation extends SXRFloatAnimation
     {
         int index = keyIndex * mFloatsPerKey;
 
+        decompress();
         mKeys[index] = time;
         mKeys[index + 1] = q.x;
         mKeys[index + 2] = q.y;
@@ -20,6 +20,7 @@ import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRNode;
 import com.samsungxr.animation.SXRAnimation;
 import com.samsungxr.animation.SXRPose;
+import com.samsungxr.animation.SXRPoseAnimation;
 import com.samsungxr.animation.SXRSkeleton;
 import com.samsungxr.utility.Log;
 
@@ -48,9 +49,13 @@ import java.util.List;
  * @see com.samsungxr.animation.SXRSkin
  * @see SXRPose
  */
-public class SXRSkeletonAnimation extends SXRAnimation implements PrettyPrint {
+public class SXRSkeletonAnimation extends SXRAnimation implements SXRPoseAnimation, PrettyPrint {
     protected String mName;
     private SXRSkeleton mSkeleton = null;
+    private final Matrix4f mTempMtx = new Matrix4f();
+    private final float[] mPosKey = new float[] { 0, 0, 0 };
+    private final float[] mRotKey = new float[] { 0, 0, 0, 1 };
+    private final float[] mScaleKey = new float[] { 1, 1, 1 };
 
     /**
      * List of animation channels for each of the
@@ -126,6 +131,52 @@ public class SXRSkeletonAnimation extends SXRAnimation implements PrettyPrint {
         return null;
     }
 
+    /**
+     * Removes keys which can be interpolated within the given tolerances
+     * from all the channels of this animation.
+     * @param posTolerance   largest position error allowed
+     * @param rotTolerance   largest error allowed for any quaternion component
+     * @param scaleTolerance largest scale error allowed
+     * @return total number of keys removed
+     * @see SXRAnimationChannel#reduceKeys(float, float, float)
+     */
+    public int reduceKeys(float posTolerance, float rotTolerance, float scaleTolerance)
+    {
+        int numRemoved = 0;
+
+        if (mBoneChannels != null)
+        {
+            for (SXRAnimationChannel channel : mBoneChannels)
+            {
+                if (channel != null)
+                {
+                    numRemoved += channel.reduceKeys(posTolerance, rotTolerance, scaleTolerance);
+                }
+            }
+        }
+        return numRemoved;
+    }
+
+    /**
+     * Stores the keys of all the channels of this animation in compressed form.
+     * Reduce the keys first if they are to be reduced.
+     * @param timePool pool to share key times with other animations, may be null.
+     * @see SXRAnimationChannel#compress(SXRTimeTrackPool)
+     */
+    public void compress(SXRTimeTrackPool timePool)
+    {
+        if (mBoneChannels != null)
+        {
+            for (SXRAnimationChannel channel : mBoneChannels)
+            {
+                if (channel != null)
+                {
+                    channel.compress(timePool);
+                }
+            }
+        }
+    }
+
     private SXRNode findParent(SXRNode child, List<String> boneNames)
     {
         SXRNode parent = child.getParent();
@@ -219,6 +270,19 @@ public class SXRSkeletonAnimation extends SXRAnimation implements PrettyPrint {
         SXRSkeleton skel = getSkeleton();
         SXRPose pose = skel.getPose();
         computePose(timeInSec,pose);
+        applyFrame();
+    }
+
+    @Override
+    public void computeFrame(float ratio)
+    {
+        computePose(getDuration() * ratio, getSkeleton().getPose());
+    }
+
+    @Override
+    public void applyFrame()
+    {
+        SXRSkeleton skel = getSkeleton();
         skel.poseToBones();
         skel.updateBonePose();
         skel.updateSkinPose();
@@ -226,7 +290,7 @@ public class SXRSkeletonAnimation extends SXRAnimation implements PrettyPrint {
 
     public SXRPose computePose(float timeInSec, SXRPose pose)
     {
-        Matrix4f temp = new Matrix4f();
+        Matrix4f temp = mTempMtx;
         SXRSkeleton skel = getSkeleton();
         Vector3f rootOffset = skel.getRootOffset();
 
@@ -236,7 +300,7 @@ public class SXRSkeletonAnimation extends SXRAnimation implements PrettyPrint {
             if ((channel != null) &&
                     (skel.getBoneOptions(i) == SXRSkeleton.BONE_ANIMATE))
             {
-                channel.animate(timeInSec, temp);
+                channel.animate(timeInSec, temp, mPosKey, mRotKey, mScaleKey);
                 if (rootOffset != null)
                 {
                     temp.m30(rootOffset.x + temp.m30());
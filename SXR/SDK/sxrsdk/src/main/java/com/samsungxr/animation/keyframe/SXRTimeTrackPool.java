@@ -0,0 +1,109 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.samsungxr.animation.keyframe;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Shares the key times of compressed animations.
+ * <p>
+ * Motion capture clips sample every channel at the same times, so
+ * the position, rotation and scale keys of all the channels of a clip
+ * (and often of many clips) have the same times. When animations are
+ * compressed with the same pool each distinct time track is kept once.
+ * <p>
+ * The pool may be used from several threads. Time tracks are never
+ * modified once they are in the pool.
+ * @see SXRFloatAnimation#compress(SXRTimeTrackPool)
+ * @see SXRAnimationChannel#compress(SXRTimeTrackPool)
+ * @see SXRSkeletonAnimation#compress(SXRTimeTrackPool)
+ */
+public class SXRTimeTrackPool
+{
+    private final HashMap<TimeTrack, float[]> mTracks = new HashMap<TimeTrack, float[]>();
+    private int mNumShared = 0;
+
+    /**
+     * Get the shared time track with the same times as the input.
+     * @param times key times in seconds, must not be modified after this call.
+     * @return a track from the pool with the same times, or the input
+     *         array if it is the first track with these times.
+     */
+    public synchronized float[] share(float[] times)
+    {
+        TimeTrack key = new TimeTrack(times);
+        float[] shared = mTracks.get(key);
+
+        if (shared != null)
+        {
+            ++mNumShared;
+            return shared;
+        }
+        mTracks.put(key, times);
+        return times;
+    }
+
+    /**
+     * @return number of distinct time tracks in the pool.
+     */
+    public synchronized int getNumTracks()
+    {
+        return mTracks.size();
+    }
+
+    /**
+     * @return number of times {@link #share(float[])} returned
+     *         a track which was already in the pool.
+     */
+    public synchronized int getNumShared()
+    {
+        return mNumShared;
+    }
+
+    /**
+     * Forgets all the tracks. Animations already compressed keep
+     * the tracks they share.
+     */
+    public synchronized void clear()
+    {
+        mTracks.clear();
+        mNumShared = 0;
+    }
+
+    private static final class TimeTrack
+    {
+        final float[] mTimes;
+        final int mHash;
+
+        TimeTrack(float[] times)
+        {
+            mTimes = times;
+            mHash = Arrays.hashCode(times);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return (other instanceof TimeTrack) && Arrays.equals(mTimes, ((TimeTrack) other).mTimes);
+        }
+    }
+}
@@ -60,10 +60,16 @@ class AdaptiveScalableTextureCompression extends SXRCompressedTextureLoader {
         int width = reader.read(3);
         int height = reader.read(3);
 
-        return CompressedTexture(format, width, height, data.length - 16, 1,
+        // Every block is 128 bits, whatever its dimensions
+        int imageSize = ((width + blockdim_x - 1) / blockdim_x)
+                * ((height + blockdim_y - 1) / blockdim_y) * BLOCK_BYTES;
+
+        return CompressedTexture(format, width, height, imageSize, 1,
                 data, 16, data.length - 16);
     }
 
+    private static final int BLOCK_BYTES = 16;
+
     /**
      * Smallest entry is 4x4: subtract {@link #OFFSET} from both blockdim_x and
      * blockdim_y to read/write {@link #formatMap}
@@ -25,7 +25,6 @@ import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
 
 import com.samsungxr.SXRAndroidResource;
 import com.samsungxr.SXRAndroidResource.CancelableCallback;
@@ -360,249 +359,29 @@ class AsyncBitmapTexture {
         }
     }
 
+    /**
+     * Decodes a TGA stream in one pass, reduced by a power of two to fit
+     * {@link #glMaxTextureSize} and {@link #maxImageSize}.
+     */
     static Bitmap decodeStreamTGA(InputStream stream) throws IOException {
-        Bitmap bitmap = null;
-        byte[] headerTGA = new byte[18];
-
-        stream.read(headerTGA);
-        int type = headerTGA[2] & 0xFF;
-        // uncompressed RGB tga
-        if (type == 2) {
-            int depth = headerTGA[16] & 0xFF;
-            int descriptor = headerTGA[17] & 0xFF;
-            int width = (headerTGA[12] & 0xFF) | (headerTGA[13] & 0xFF) << 8;
-            int height = (headerTGA[14] & 0xFF) | (headerTGA[15] & 0xFF) << 8;
-            try
-            {
-                bitmap = decodeStreamRGB(stream, width, height, depth, descriptor);
-            }
-            catch (Exception ex)
-            {
-                Log.d(TAG, "Exception reading TGA file" + ex.getMessage());
-            }
-        } else {
-            Log.d(TAG, "TGA format not supported: type is not uncompressed RGB");
-        }
-        return bitmap;
-    }
-
-    private static final int RIGHT_ORIGIN = 0x10;
-    private static final int UPPER_ORIGIN = 0x20;
-
-
-    static Bitmap decodeStreamRGB(InputStream stream, int width, int height, int depth, int descriptor) throws IOException {
-        Bitmap bitmap = null;
-        byte rgb[];
-        byte data[];
-        int currentHeight = 0;
-        int size = width * height * 4;
-        int t;
-
-        if (depth == 24)
-        {
-            rgb = new byte[size];
-            data = new byte[width * 3];
-
-            if ((descriptor & RIGHT_ORIGIN) == 0)
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-            else
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = width - 1; i >= 0; i--)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-        }
-        else if (depth == 32)
-        {
-            rgb = new byte[width * height * 4];
-            data = new byte[width * 4];
-
-            if ((descriptor & RIGHT_ORIGIN) == 0)
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-            else
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        currentHeight = height - 1;
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
+        RawImageDecoder.DecodedImage image = RawImageDecoder.decodeTGA(stream,
+                glMaxTextureSize, maxImageSize, true);
+        try {
+            Bitmap bitmap = Bitmap.createBitmap(image.getWidth(),
+                    image.getHeight(), Config.ARGB_8888);
+            bitmap.copyPixelsFromBuffer(image.getBuffer());
+            bitmap.setHasAlpha(image.hasAlpha());
+            if (VERBOSE_DECODE) {
+                Log.d(TAG, "Thread %d: Decoded %dx%d TGA at 1/%d size",
+                        threadId(), image.getWidth(), image.getHeight(),
+                        image.getSampleSize());
             }
+            return bitmap;
+        } finally {
+            image.release();
         }
-        else
-        {
-            return null;
-        }
-        bitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
-        bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(rgb));
-        if(depth == 24) {
-            bitmap.setHasAlpha(false);
-        }
-        return bitmap;
     }
 
-
     /*
      * decodeStream
      */
@@ -50,6 +50,56 @@ public class AsyncManager {
         mScheduler = scheduler;
     }
 
+    /**
+     * Orders queued asynchronous loads by score, so what the user is looking
+     * at loads first.
+     *
+     * @param scorer
+     *         Scores the queued requests, {@code null} to order them by the
+     *         priorities passed with the requests.
+     * @see LoadScorer
+     */
+    public void setLoadScorer(LoadScorer scorer) {
+        Throttler.get().setLoadScorer(scorer);
+    }
+
+    /**
+     * Gets the scorer set by {@link #setLoadScorer(LoadScorer)}.
+     * @return The scorer, or {@code null} if loads are ordered by priority.
+     */
+    public LoadScorer getLoadScorer() {
+        return Throttler.get().getLoadScorer();
+    }
+
+    /**
+     * Tells the {@link LoadScorer} set by {@link #setLoadScorer(LoadScorer)}
+     * that the state it reads has changed, for example after the camera
+     * moved. Queued loads are scored when they are queued and again after
+     * this call, before the next one starts.
+     */
+    public void invalidateLoadScores() {
+        Throttler.get().invalidateLoadScores();
+    }
+
+    /**
+     * Sets how fast queued loads gain score while they wait, so loads with a
+     * low score still run eventually. The default is 0.05 per second.
+     *
+     * @param scorePerSecond
+     *         Score added per second in the queue.
+     */
+    public void setLoadAgingRate(float scorePerSecond) {
+        Throttler.get().setLoadAgingRate(scorePerSecond);
+    }
+
+    /**
+     * Gets statistics on how long loads wait in the queue.
+     * @return The queue metrics.
+     */
+    public LoadQueueMetrics getLoadQueueMetrics() {
+        return Throttler.get().getLoadQueueMetrics();
+    }
+
     /**
      * Loaders call this method to register themselves. This method can be called by
      * loaders provided by the application.
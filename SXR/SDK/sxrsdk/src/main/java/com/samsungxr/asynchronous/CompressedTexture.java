@@ -118,7 +118,17 @@ public class CompressedTexture {
         return data;
     }
 
-    SXRCompressedImage toTexture(SXRContext gvrContext, int quality) {
+    /**
+     * Creates a texture from the image data. Must be called from the GL
+     * thread.
+     * 
+     * @param gvrContext
+     *            Current {@link SXRContext}
+     * @param quality
+     *            One of the {@link SXRCompressedImage} quality constants
+     * @return The texture image
+     */
+    public SXRCompressedImage toTexture(SXRContext gvrContext, int quality) {
         SXRCompressedImage tex = new SXRCompressedImage(gvrContext, width,
                                                         height, imageSize, internalformat, getArray(), levels, quality);
         tex.setDataOffsets(new int[] { dataOffset });
@@ -167,28 +177,12 @@ public class CompressedTexture {
             }
         }
 
-        Reader reader = new Reader(data);
-
-        SXRCompressedTextureLoader valid = null;
-        List<SXRCompressedTextureLoader> loaders = SXRCompressedTextureLoader
-                .getLoaders();
-        synchronized (loaders) {
-            for (SXRCompressedTextureLoader loader : loaders) {
-                if (loader.sniff(data, reader)) {
-                    if (valid != null) {
-                        throw new IllegalArgumentException(
-                                "Multiple loaders think this smells right");
-                    }
-                    valid = loader;
-                }
-                reader.reset();
-            }
-            if (valid == null) {
-                throw new IllegalArgumentException(
-                        "No loader thinks this smells right");
-            }
-            return valid.parse(data, reader);
+        SXRCompressedTextureLoader valid = sniff(data);
+        if (valid == null) {
+            throw new IllegalArgumentException(
+                    "No loader thinks this smells right");
         }
+        return valid.parse(data, new Reader(data));
     }
 
     public static SXRCompressedTextureLoader sniff(InputStream stream)
@@ -196,6 +190,13 @@ public class CompressedTexture {
         byte[] data = readBytes(stream,
                 SXRCompressedTextureLoader.maximumHeaderLength);
 
+        return sniff(data);
+    }
+
+    /*
+     * Find the one loader which recognizes the header, or null if none does.
+     */
+    static SXRCompressedTextureLoader sniff(byte[] data) {
         Reader reader = new Reader(data);
 
         SXRCompressedTextureLoader valid = null;
@@ -220,6 +221,13 @@ public class CompressedTexture {
             SXRCompressedTextureLoader loader) throws IOException {
         byte[] data;
         try {
+            if (CompressedTextureReader.isSupported(loader)) {
+                /*
+                 * The built in formats know how much data they contain:
+                 * read it straight into an array of the right size.
+                 */
+                return new CompressedTextureReader(stream, loader).load();
+            }
             data = readBytes(stream);
         } finally {
             if (closeStream) {
@@ -232,18 +240,13 @@ public class CompressedTexture {
 
     private static byte[] readBytes(InputStream stream, final int bytes)
             throws IOException {
-        byte[] result = new byte[bytes], buffer = new byte[bytes];
+        byte[] result = new byte[bytes];
         int length = 0;
 
-        for (int read = 0; read >= 0 && length < bytes; read = stream
-                .read(buffer)) {
-            if (read > 0) {
-                for (int index = 0; index < read && length < bytes;) {
-                    result[length++] = buffer[index++];
-                }
-            }
+        for (int read = 0; read >= 0 && length < bytes; read = stream.read(
+                result, length, bytes - length)) {
+            length += read;
         }
-        buffer = null;
 
         return result;
     }
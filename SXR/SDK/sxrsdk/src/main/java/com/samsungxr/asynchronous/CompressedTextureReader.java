@@ -0,0 +1,474 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import com.samsungxr.asynchronous.SXRCompressedTextureLoader.Reader;
+
+/**
+ * Reads a KTX, ASTC or PKM (ETC2) compressed texture without loading the
+ * whole file into memory.
+ *
+ * <p>
+ * Only the header is read when the reader is created. The size of each mip
+ * level is read when it is needed, and {@link #load(int, int)} reads a range
+ * of levels into an array of (about) the right size. Loading only the
+ * smallest levels first and the rest of the chain later lets a texture be
+ * shown before all of it is in memory:
+ *
+ * <pre>
+ * CompressedTextureReader reader = new CompressedTextureReader(channel, 0, channel.size());
+ * CompressedTexture preview = reader.load(reader.getLevelCount() - 3, reader.getLevelCount() - 1);
+ * ...
+ * CompressedTexture full = reader.load();
+ * </pre>
+ *
+ * <p>
+ * A reader over a {@link FileChannel} can read the levels in any order and
+ * {@link #getLevel(int)} maps them from the file. A reader over an
+ * {@link InputStream} can only go forward: once a level has been skipped or
+ * read it cannot be read again, and {@link #getLevel(int)} copies the level to
+ * a direct buffer. Streams are not closed by the reader.
+ *
+ * <p>
+ * A reader is not thread safe.
+ */
+public class CompressedTextureReader {
+
+    private final InputStream stream;
+    private final FileChannel channel;
+    private final long channelOffset;
+    private final long channelLength;
+    private long streamPosition = 0;
+
+    private final SXRCompressedTextureLoader loader;
+    private final boolean isKtx;
+    private final boolean littleEndian;
+    private final byte[] header;
+    private final int internalformat;
+    private final int width;
+    private final int height;
+    private final int levels;
+
+    /*
+     * For KTX files the offset of the size field of each level, otherwise
+     * the offset of the image data. Offsets are known once the size of the
+     * previous level has been read.
+     */
+    private final long[] levelOffsets;
+    private final int[] levelSizes;
+    private int sizedLevels = 0;
+
+    private final byte[] scratch = new byte[Reader.INTEGER_BYTES];
+
+    /**
+     * Reads the header of a compressed texture from a stream.
+     *
+     * @param stream
+     *            Stream positioned at the start of the texture file
+     * @throws IOException
+     *             If the header cannot be read
+     * @throws IllegalArgumentException
+     *             If the file is not a KTX, ASTC or PKM file
+     */
+    public CompressedTextureReader(InputStream stream) throws IOException {
+        this(stream, null, 0, -1, null);
+    }
+
+    /**
+     * Reads the header of a compressed texture from part of a file.
+     *
+     * @param channel
+     *            Channel of the file containing the texture
+     * @param offset
+     *            Offset of the texture in the file
+     * @param length
+     *            Length of the texture in bytes
+     * @throws IOException
+     *             If the header cannot be read
+     * @throws IllegalArgumentException
+     *             If the file is not a KTX, ASTC or PKM file
+     */
+    public CompressedTextureReader(FileChannel channel, long offset,
+            long length) throws IOException {
+        this(null, channel, offset, length, null);
+    }
+
+    /*
+     * For a stream which has already been sniffed.
+     */
+    CompressedTextureReader(InputStream stream,
+            SXRCompressedTextureLoader loader) throws IOException {
+        this(stream, null, 0, -1, loader);
+    }
+
+    private CompressedTextureReader(InputStream stream, FileChannel channel,
+            long offset, long length, SXRCompressedTextureLoader loader)
+            throws IOException {
+        this.channel = channel;
+        this.channelOffset = offset;
+        this.channelLength = length;
+
+        if (loader == null) {
+            if (stream != null && !stream.markSupported()) {
+                stream = new BufferedInputStream(stream,
+                        SXRCompressedTextureLoader.maximumHeaderLength);
+            }
+            this.stream = stream;
+            loader = CompressedTexture.sniff(peekHeader());
+        } else {
+            this.stream = stream;
+        }
+        if (!isSupported(loader)) {
+            throw new IllegalArgumentException(
+                    "Not a KTX, ASTC or PKM texture");
+        }
+        this.loader = loader;
+        this.isKtx = loader instanceof KTX;
+        this.header = new byte[loader.headerLength()];
+        readAt(0, header, 0, header.length);
+
+        if (isKtx) {
+            KTX.Header ktx = KTX.readHeader(new Reader(header));
+
+            littleEndian = ktx.littleEndian;
+            internalformat = ktx.glInternalFormat;
+            width = ktx.pixelWidth;
+            height = ktx.pixelHeight;
+            levels = ktx.numberOfMipmapLevels;
+            levelOffsets = new long[levels];
+            levelSizes = new int[levels];
+            levelOffsets[0] = ktx.dataOffset();
+        } else {
+            // Single image formats: parse the header alone to get the size
+            CompressedTexture texture = loader.parse(header, new Reader(
+                    header));
+
+            littleEndian = true;
+            internalformat = texture.internalformat;
+            width = texture.width;
+            height = texture.height;
+            levels = 1;
+            levelOffsets = new long[] { header.length };
+            levelSizes = new int[] { texture.imageSize };
+            sizedLevels = 1;
+        }
+    }
+
+    /**
+     * Can this class read the files of a loader?
+     */
+    static boolean isSupported(SXRCompressedTextureLoader loader) {
+        return loader instanceof KTX
+                || loader instanceof AdaptiveScalableTextureCompression
+                || loader instanceof EricssonTextureCompression2;
+    }
+
+    /**
+     * The
+     * {@link android.opengl.GLES20#glCompressedTexImage2D(int, int, int, int, int, int, int, java.nio.Buffer)
+     * glCompressedTexImage2D()} <code>internalformat</code> parameter.
+     */
+    public int getInternalFormat() {
+        return internalformat;
+    }
+
+    /** Width in pixels of the largest level */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Height in pixels of the largest level */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Number of mip levels in the file */
+    public int getLevelCount() {
+        return levels;
+    }
+
+    /** Width in pixels of a mip level */
+    public int getLevelWidth(int level) {
+        checkLevel(level);
+        return Math.max(1, width >> level);
+    }
+
+    /** Height in pixels of a mip level */
+    public int getLevelHeight(int level) {
+        checkLevel(level);
+        return Math.max(1, height >> level);
+    }
+
+    /**
+     * Gets the number of bytes of image data in a mip level. With a stream
+     * this skips the levels before it.
+     */
+    public int getLevelSize(int level) throws IOException {
+        checkLevel(level);
+        return levelSize(level);
+    }
+
+    /**
+     * Gets the image data of a mip level, ready to pass to
+     * {@code glCompressedTexImage2D()}. The level is mapped from a
+     * {@link FileChannel} and copied to a direct buffer from a stream.
+     *
+     * @param level
+     *            Mip level, 0 is the largest
+     * @return Buffer positioned at the start of the level
+     */
+    public ByteBuffer getLevel(int level) throws IOException {
+        checkLevel(level);
+        int size = levelSize(level);
+        long offset = dataOffset(level);
+
+        if (channel != null) {
+            checkLength(offset, size);
+            return channel.map(FileChannel.MapMode.READ_ONLY, channelOffset
+                    + offset, size);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            readAt(offset + buffer.position(), chunk, 0, length);
+            buffer.put(chunk, 0, length);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads all the mip levels.
+     *
+     * @return The texture, ready to pass to
+     *         {@link CompressedTexture#toTexture(com.samsungxr.SXRContext, int)}
+     */
+    public CompressedTexture load() throws IOException {
+        return load(0, levels - 1);
+    }
+
+    /**
+     * Reads a range of mip levels. The texture made from them has the size
+     * of the first level.
+     *
+     * @param firstLevel
+     *            Largest level to read, 0 is the largest in the file
+     * @param lastLevel
+     *            Smallest level to read
+     * @return The texture, ready to pass to
+     *         {@link CompressedTexture#toTexture(com.samsungxr.SXRContext, int)}
+     */
+    public CompressedTexture load(int firstLevel, int lastLevel)
+            throws IOException {
+        checkLevel(firstLevel);
+        checkLevel(lastLevel);
+        if (lastLevel < firstLevel) {
+            throw new IllegalArgumentException("Level " + lastLevel
+                    + " is before level " + firstLevel);
+        }
+        if (!isKtx) {
+            byte[] data = Arrays.copyOf(header, header.length + levelSizes[0]);
+            readAt(levelOffsets[0], data, header.length, levelSizes[0]);
+            return loader.parse(data, new Reader(data));
+        }
+
+        byte[] data = new byte[estimateSize(firstLevel, lastLevel)];
+        int length = 0;
+
+        for (int level = firstLevel; level <= lastLevel; ++level) {
+            int size = levelSize(level);
+            int padded = Reader.INTEGER_BYTES + size + padding(size);
+
+            if (length + padded > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + padded,
+                        data.length + data.length / 2));
+            }
+            putInt(data, length, size);
+            readAt(dataOffset(level), data, length + Reader.INTEGER_BYTES,
+                    size);
+            length += padded;
+        }
+        return KTX.createTexture(internalformat, getLevelWidth(firstLevel),
+                getLevelHeight(firstLevel), lastLevel - firstLevel + 1,
+                ByteBuffer.wrap(data, 0, length), littleEndian);
+    }
+
+    /*
+     * The sizes of all the levels are only known up front with a channel.
+     * With a stream guess from the size of the first level: each level is
+     * about a quarter of the one before, block rounding makes the small ones
+     * a little bigger.
+     */
+    private int estimateSize(int firstLevel, int lastLevel) throws IOException {
+        long total = 0;
+
+        if (channel != null) {
+            for (int level = firstLevel; level <= lastLevel; ++level) {
+                int size = levelSize(level);
+                total += Reader.INTEGER_BYTES + size + padding(size);
+            }
+        } else {
+            int size = levelSize(firstLevel);
+            for (int level = firstLevel; level <= lastLevel; ++level) {
+                total += Reader.INTEGER_BYTES + size + padding(size)
+                        + MIN_LEVEL_SIZE;
+                size >>= 2;
+            }
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Texture is too large");
+        }
+        return (int) total;
+    }
+
+    private int levelSize(int level) throws IOException {
+        while (sizedLevels <= level) {
+            long offset = levelOffsets[sizedLevels];
+
+            readAt(offset, scratch, 0, scratch.length);
+            int size = getInt(scratch, 0);
+            if (size < 0) {
+                throw new IOException("Invalid size of level " + sizedLevels);
+            }
+            levelSizes[sizedLevels] = size;
+            if (sizedLevels + 1 < levels) {
+                levelOffsets[sizedLevels + 1] = offset + Reader.INTEGER_BYTES
+                        + size + padding(size);
+            }
+            ++sizedLevels;
+        }
+        return levelSizes[level];
+    }
+
+    private long dataOffset(int level) {
+        return isKtx ? levelOffsets[level] + Reader.INTEGER_BYTES
+                : levelOffsets[level];
+    }
+
+    /*
+     * Levels are padded to a multiple of four bytes.
+     */
+    private static int padding(int size) {
+        return (4 - (size & 0x03)) & 0x03;
+    }
+
+    private int getInt(byte[] data, int offset) {
+        Reader reader = new Reader(data);
+        reader.skip(offset);
+        return littleEndian ? reader.readLE(Reader.INTEGER_BYTES) : reader
+                .readBE(Reader.INTEGER_BYTES);
+    }
+
+    private void putInt(byte[] data, int offset, int value) {
+        for (int index = 0; index < Reader.INTEGER_BYTES; ++index) {
+            int shift = littleEndian ? index * Byte.SIZE
+                    : (Reader.INTEGER_BYTES - 1 - index) * Byte.SIZE;
+            data[offset + index] = (byte) (value >>> shift);
+        }
+    }
+
+    private void checkLevel(int level) {
+        if (level < 0 || level >= levels) {
+            throw new IndexOutOfBoundsException("Level " + level
+                    + " is not in 0.." + (levels - 1));
+        }
+    }
+
+    private void checkLength(long offset, long size) throws EOFException {
+        if (channelLength >= 0 && offset + size > channelLength) {
+            throw new EOFException("Texture data ends at " + channelLength);
+        }
+    }
+
+    /*
+     * Reads the start of the file without moving past it.
+     */
+    private byte[] peekHeader() throws IOException {
+        byte[] data = new byte[SXRCompressedTextureLoader.maximumHeaderLength];
+
+        if (channel != null) {
+            int length = (int) Math.min(data.length, channelLength);
+            readAt(0, data, 0, length);
+            return data;
+        }
+        stream.mark(data.length);
+        try {
+            int length = 0;
+            for (int read = 0; read >= 0 && length < data.length; read = stream
+                    .read(data, length, data.length - length)) {
+                length += read;
+            }
+        } finally {
+            stream.reset();
+        }
+        return data;
+    }
+
+    /*
+     * Reads from any position of a channel, but only forward in a stream.
+     */
+    private void readAt(long offset, byte[] data, int start, int length)
+            throws IOException {
+        if (channel != null) {
+            checkLength(offset, length);
+            ByteBuffer buffer = ByteBuffer.wrap(data, start, length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, channelOffset + offset
+                        + buffer.position() - start) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return;
+        }
+        if (offset < streamPosition) {
+            throw new IllegalStateException(
+                    "Cannot go back in a stream: already read past " + offset);
+        }
+        while (streamPosition < offset) {
+            long skipped = stream.skip(offset - streamPosition);
+            if (skipped <= 0) {
+                if (stream.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            streamPosition += skipped;
+        }
+        while (length > 0) {
+            int read = stream.read(data, start, length);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            start += read;
+            length -= read;
+            streamPosition += read;
+        }
+    }
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /** Smallest compressed block, plus its size field and padding */
+    private static final int MIN_LEVEL_SIZE = 16;
+}
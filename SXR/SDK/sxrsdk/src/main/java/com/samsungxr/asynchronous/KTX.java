@@ -49,7 +49,7 @@ class KTX extends SXRCompressedTextureLoader {
 
     @Override
     public int headerLength() {
-        return (SIGNATURE.length + 13) * Reader.INTEGER_BYTES;
+        return HEADER_LENGTH;
     }
 
     @Override
@@ -65,6 +65,65 @@ class KTX extends SXRCompressedTextureLoader {
 
     @Override
     public CompressedTexture parse(byte[] data, Reader reader) {
+        Header header = readHeader(reader);
+        int headerSize = header.dataOffset();
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, headerSize, data.length
+                - headerSize);
+        return new KtxCompressedTexture(
+        /* glBaseInternalFormat */header.glInternalFormat, header.pixelWidth,
+                header.pixelHeight, header.numberOfMipmapLevels, buffer,
+                header.littleEndian);
+    }
+
+    /**
+     * Creates a texture from mip levels in the KTX layout: each level is
+     * preceded by its size and padded to a multiple of four bytes.
+     */
+    static CompressedTexture createTexture(int internalformat, int width,
+            int height, int levels, ByteBuffer data, boolean littleEndian) {
+        return new KtxCompressedTexture(internalformat, width, height, levels,
+                data, littleEndian);
+    }
+
+    /** The header fields of a KTX file which the loaders use */
+    static final class Header {
+        final boolean littleEndian;
+        final int glInternalFormat;
+        final int pixelWidth;
+        final int pixelHeight;
+        final int numberOfMipmapLevels;
+        final int bytesOfKeyValueData;
+
+        private Header(boolean littleEndian, int glInternalFormat,
+                int pixelWidth, int pixelHeight, int numberOfMipmapLevels,
+                int bytesOfKeyValueData) {
+            this.littleEndian = littleEndian;
+            this.glInternalFormat = glInternalFormat;
+            this.pixelWidth = pixelWidth;
+            this.pixelHeight = pixelHeight;
+            this.numberOfMipmapLevels = numberOfMipmapLevels;
+            this.bytesOfKeyValueData = bytesOfKeyValueData;
+        }
+
+        /** Offset of the first mip level in the file */
+        int dataOffset() {
+            // 13 UInt32 plus a Byte[12], plus any key-value pairs
+            return HEADER_LENGTH + bytesOfKeyValueData;
+        }
+    }
+
+    static final int HEADER_LENGTH = (SIGNATURE.length + 13)
+            * Reader.INTEGER_BYTES;
+
+    /**
+     * Reads the header of a KTX file.
+     *
+     * @param reader
+     *            A data reader, pointing to the signature
+     * @return The header fields
+     */
+    static Header readHeader(Reader reader) {
         reader.skip(SIGNATURE.length * Reader.INTEGER_BYTES);
 
         int endianness = reader.readLE(Reader.INTEGER_BYTES);
@@ -113,7 +172,8 @@ class KTX extends SXRCompressedTextureLoader {
             throw new RuntimeAssertion("Cube maps not supported");
         }
 
-        int numberOfMipmapLevels = ktxReader.readInt();
+        // Zero means the file has one level and mipmaps should be generated
+        int numberOfMipmapLevels = Math.max(1, ktxReader.readInt());
         int bytesOfKeyValueData = ktxReader.readInt();
 
         Log.d(TAG,
@@ -121,15 +181,8 @@ class KTX extends SXRCompressedTextureLoader {
                 glInternalFormat, glBaseInternalFormat, pixelWidth,
                 pixelHeight, numberOfMipmapLevels, bytesOfKeyValueData);
 
-        // 13 UInt32 plus a Byte[12], plus any key-value pairs
-        int headerSize = (SIGNATURE.length + 13) * Reader.INTEGER_BYTES
-                + bytesOfKeyValueData;
-
-        ByteBuffer buffer = ByteBuffer.wrap(data, headerSize, data.length
-                - headerSize);
-        return new KtxCompressedTexture(
-        /* glBaseInternalFormat */glInternalFormat, pixelWidth, pixelHeight,
-                numberOfMipmapLevels, buffer, littleEndian);
+        return new Header(littleEndian, glInternalFormat, pixelWidth,
+                pixelHeight, numberOfMipmapLevels, bytesOfKeyValueData);
     }
 
     private static class KtxReader {
@@ -0,0 +1,113 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import com.samsungxr.SXRContext;
+
+/**
+ * How long asynchronous loads wait in the queue before they start.
+ *
+ * <p>
+ * Requests are grouped in {@link #BANDS} bands by score: band 0 holds scores
+ * below 0.25 and the last band scores of 0.75 and up. Without a
+ * {@link LoadScorer} the score of a request is its priority mapped from
+ * {@link SXRContext#LOWEST_PRIORITY} .. {@link SXRContext#HIGHEST_PRIORITY}
+ * to 0 .. 1. Requests which start at once because a loader thread is free are
+ * not counted.
+ */
+public class LoadQueueMetrics {
+
+    /** Number of score bands */
+    public static final int BANDS = 4;
+
+    private static final float NANOSECONDS_PER_MILLISECOND = 1000 * 1000;
+
+    private final long[] counts = new long[BANDS];
+    private final long[] totalWaits = new long[BANDS];
+    private final long[] maxWaits = new long[BANDS];
+    private long canceled = 0;
+
+    /** Gets the band of a score */
+    public static int getBand(float score) {
+        if (score <= 0) {
+            return 0;
+        }
+        return Math.min(BANDS - 1, (int) (score * BANDS));
+    }
+
+    /** Maps a request priority to a score from 0 to 1 */
+    static float toScore(int priority) {
+        double range = (double) SXRContext.HIGHEST_PRIORITY
+                - (double) SXRContext.LOWEST_PRIORITY;
+        double score = ((double) priority - SXRContext.LOWEST_PRIORITY)
+                / range;
+        return (float) Math.max(0, Math.min(1, score));
+    }
+
+    synchronized void record(float score, long waitNanos) {
+        int band = getBand(score);
+        ++counts[band];
+        totalWaits[band] += waitNanos;
+        maxWaits[band] = Math.max(maxWaits[band], waitNanos);
+    }
+
+    synchronized void recordCancel() {
+        ++canceled;
+    }
+
+    /** Number of queued requests started in a band */
+    public synchronized long getCount(int band) {
+        return counts[band];
+    }
+
+    /** Average time in milliseconds the requests in a band waited */
+    public synchronized float getAverageWait(int band) {
+        return (counts[band] == 0) ? 0 : totalWaits[band]
+                / NANOSECONDS_PER_MILLISECOND / counts[band];
+    }
+
+    /** Longest time in milliseconds a request in a band waited */
+    public synchronized float getMaxWait(int band) {
+        return maxWaits[band] / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    /** Number of requests canceled because their score dropped to 0 */
+    public synchronized long getCanceledCount() {
+        return canceled;
+    }
+
+    /** Clears all the counts */
+    public synchronized void reset() {
+        for (int band = 0; band < BANDS; ++band) {
+            counts[band] = 0;
+            totalWaits[band] = 0;
+            maxWaits[band] = 0;
+        }
+        canceled = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int band = 0; band < BANDS; ++band) {
+            sb.append(String.format("band %d: %d requests, %.1f ms avg, %.1f ms max; ",
+                    band, counts[band], getAverageWait(band),
+                    getMaxWait(band)));
+        }
+        sb.append(canceled).append(" canceled");
+        return sb.toString();
+    }
+}
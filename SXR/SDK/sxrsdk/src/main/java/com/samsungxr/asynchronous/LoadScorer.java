@@ -0,0 +1,61 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import com.samsungxr.SXRAndroidResource;
+
+/**
+ * Scores pending asynchronous loads, so the resources the user is looking
+ * at can load before the rest of the scene.
+ *
+ * <p>
+ * When a scorer is set with {@link AsyncManager#setLoadScorer(LoadScorer)}
+ * the priority passed to the load request no longer decides the order of the
+ * queued loads: when a loader thread becomes free, the queued request with the
+ * highest score runs next. A score typically combines whether the objects
+ * using the resource are in the camera frustum with their distance from the
+ * camera. Requests are scored when they are queued; call
+ * {@link AsyncManager#invalidateLoadScores()} when that state changes, for
+ * example once per frame while the camera moves, to score them again.
+ *
+ * <p>
+ * Requests gain score the longer they wait (see
+ * {@link AsyncManager#setLoadAgingRate(float)}), so low scoring requests are
+ * not starved. Requests which score 0 are canceled: their callbacks'
+ * {@link com.samsungxr.SXRAndroidResource.Callback#failed(Throwable, SXRAndroidResource)
+ * failed()} method is called with a
+ * {@link java.util.concurrent.CancellationException}.
+ *
+ * <p>
+ * {@link #score(SXRAndroidResource, int)} is called from the loader threads
+ * and the threads requesting loads while the scheduler is locked: it must be fast and thread safe, and must not
+ * load resources. Reading state which the app updates once per frame works
+ * well.
+ */
+public interface LoadScorer {
+    /**
+     * Scores a queued request.
+     *
+     * @param resource
+     *            The resource waiting to load
+     * @param priority
+     *            The highest priority passed with the requests for the
+     *            resource
+     * @return 0 to cancel the load, up to 1 for the resources which are most
+     *         wanted
+     */
+    float score(SXRAndroidResource resource, int priority);
+}
@@ -0,0 +1,843 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import static android.opengl.GLES20.GL_LUMINANCE;
+import static android.opengl.GLES20.GL_RGBA;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.samsungxr.utility.RecycleBin;
+
+/**
+ * Decodes TGA files and headerless RGB, RGBA and greyscale pixels straight
+ * into direct {@link ByteBuffer}s.
+ *
+ * <p>
+ * Uncompressed and run length encoded true color, greyscale and color mapped
+ * TGA files are supported. The pixels are written top row first, either as
+ * RGBA bytes or, for greyscale images, one luminance byte per pixel: the
+ * layout {@link android.graphics.Bitmap#copyPixelsFromBuffer(java.nio.Buffer)}
+ * and {@code glTexImage2D} expect.
+ *
+ * <p>
+ * Large images are reduced by a power of two while they are decoded, by
+ * averaging each block of {@code sampleSize x sampleSize} pixels, so only the
+ * reduced image is ever held in memory. The output buffers come from a small
+ * pool: call {@link DecodedImage#release()} once the pixels have been copied
+ * or uploaded, so the next decode can reuse the buffer. Do not release a
+ * buffer passed to {@link com.samsungxr.SXRBitmapImage#setBuffer(int, int, int, int, java.nio.Buffer)
+ * SXRBitmapImage.setBuffer()} before the texture has been updated on the GL
+ * thread.
+ */
+public final class RawImageDecoder {
+
+    /** Pixel layouts of {@link #decodeRaw} input */
+    public enum RawFormat {
+        /** One luminance byte per pixel */
+        GREY(LAYOUT_GREY),
+        /** Red, green and blue bytes */
+        RGB(LAYOUT_RGB),
+        /** Red, green, blue and alpha bytes */
+        RGBA(LAYOUT_RGBA);
+
+        private final int layout;
+
+        RawFormat(int layout) {
+            this.layout = layout;
+        }
+    }
+
+    /** The pixels of a decoded image, in a pooled direct buffer */
+    public static final class DecodedImage {
+        private final int width;
+        private final int height;
+        private final int channels;
+        private final int sampleSize;
+        private final boolean hasAlpha;
+        private ByteBuffer buffer;
+
+        private DecodedImage(int width, int height, int channels,
+                int sampleSize, boolean hasAlpha, ByteBuffer buffer) {
+            this.width = width;
+            this.height = height;
+            this.channels = channels;
+            this.sampleSize = sampleSize;
+            this.hasAlpha = hasAlpha;
+            this.buffer = buffer;
+        }
+
+        /** Width of the decoded (possibly reduced) image, in pixels */
+        public int getWidth() {
+            return width;
+        }
+
+        /** Height of the decoded (possibly reduced) image, in pixels */
+        public int getHeight() {
+            return height;
+        }
+
+        /** Bytes per pixel: 4 for RGBA, 1 for luminance */
+        public int getChannels() {
+            return channels;
+        }
+
+        /** {@code GL_RGBA} or {@code GL_LUMINANCE} */
+        public int getFormat() {
+            return channels == 1 ? GL_LUMINANCE : GL_RGBA;
+        }
+
+        /** The factor the source image was reduced by */
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        /** Whether any source pixel carried an alpha value */
+        public boolean hasAlpha() {
+            return hasAlpha;
+        }
+
+        /**
+         * The pixels, from position 0 to the limit. The buffer may have a
+         * larger capacity.
+         *
+         * @throws IllegalStateException
+         *             if the image has been released
+         */
+        public ByteBuffer getBuffer() {
+            if (buffer == null) {
+                throw new IllegalStateException("Image has been released");
+            }
+            buffer.position(0);
+            return buffer;
+        }
+
+        /**
+         * Returns the buffer to the pool. The image cannot be used
+         * afterwards; calling this more than once is harmless.
+         */
+        public void release() {
+            ByteBuffer released = buffer;
+            buffer = null;
+            if (released != null) {
+                releaseBuffer(released);
+            }
+        }
+    }
+
+    private RawImageDecoder() {
+    }
+
+    /*
+     * The API
+     */
+
+    /**
+     * Decodes a TGA stream, reduced as little as possible to fit the limits.
+     *
+     * @param stream
+     *            TGA stream, positioned at the start of the header. It is
+     *            not closed.
+     * @param maxDimension
+     *            Largest width and height of the decoded image, for example
+     *            {@code GL_MAX_TEXTURE_SIZE}; 0 for no limit
+     * @param maxBytes
+     *            Largest size of the decoded pixels; 0 for no limit
+     * @param rgba
+     *            If {@code true}, greyscale images are expanded to RGBA
+     * @return The decoded image; call {@link DecodedImage#release()} when done
+     * @throws IOException
+     *             if the stream cannot be read or is not a supported TGA
+     */
+    public static DecodedImage decodeTGA(InputStream stream, int maxDimension,
+            int maxBytes, boolean rgba) throws IOException {
+        TgaHeader header = new TgaHeader(stream);
+        int sampleSize = getSampleSize(header.width, header.height,
+                header.getChannels(rgba), maxDimension, maxBytes);
+        return header.decode(stream, sampleSize, rgba);
+    }
+
+    /**
+     * Decodes a TGA stream, reducing it by a fixed factor.
+     *
+     * @param stream
+     *            TGA stream, positioned at the start of the header. It is
+     *            not closed.
+     * @param sampleSize
+     *            Power of two the width and height are divided by
+     * @param rgba
+     *            If {@code true}, greyscale images are expanded to RGBA
+     * @return The decoded image; call {@link DecodedImage#release()} when done
+     * @throws IOException
+     *             if the stream cannot be read or is not a supported TGA
+     */
+    public static DecodedImage decodeTGA(InputStream stream, int sampleSize,
+            boolean rgba) throws IOException {
+        return new TgaHeader(stream).decode(stream, sampleSize, rgba);
+    }
+
+    /**
+     * Decodes headerless pixels, stored top row first.
+     *
+     * @param stream
+     *            Pixel stream. It is not closed.
+     * @param format
+     *            Layout of the source pixels
+     * @param width
+     *            Source width, in pixels
+     * @param height
+     *            Source height, in pixels
+     * @param sampleSize
+     *            Power of two the width and height are divided by
+     * @param rgba
+     *            If {@code true}, greyscale images are expanded to RGBA
+     * @return The decoded image; call {@link DecodedImage#release()} when done
+     * @throws IOException
+     *             if the stream ends early
+     */
+    public static DecodedImage decodeRaw(InputStream stream, RawFormat format,
+            int width, int height, int sampleSize, boolean rgba)
+            throws IOException {
+        PixelLayout layout = new PixelLayout(format.layout, rgba);
+        RowReader reader = new RowReader(stream, false, layout.pixelBytes);
+        try {
+            return decode(reader, layout, width, height, false, true,
+                    sampleSize);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Gets the smallest power of two an image must be reduced by to fit the
+     * limits.
+     *
+     * @param width
+     *            Source width, in pixels
+     * @param height
+     *            Source height, in pixels
+     * @param bytesPerPixel
+     *            Bytes per decoded pixel
+     * @param maxDimension
+     *            Largest width and height of the decoded image; 0 for no
+     *            limit
+     * @param maxBytes
+     *            Largest size of the decoded pixels; 0 for no limit
+     */
+    public static int getSampleSize(int width, int height, int bytesPerPixel,
+            int maxDimension, int maxBytes) {
+        int sampleSize = 1;
+        while ((width / sampleSize > 1 || height / sampleSize > 1)
+                && ((maxDimension > 0 && (width / sampleSize > maxDimension
+                        || height / sampleSize > maxDimension))
+                || (maxBytes > 0 && (long) (width / sampleSize)
+                        * (height / sampleSize) * bytesPerPixel > maxBytes))) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /*
+     * Buffer pool
+     */
+
+    /** Most buffers kept for reuse */
+    private static final int MAX_POOLED_BUFFERS = 4;
+
+    /** Most bytes kept for reuse */
+    private static final long MAX_POOLED_BYTES = 64L * 1024 * 1024;
+
+    private static final List<ByteBuffer> bufferPool = new ArrayList<ByteBuffer>();
+
+    /**
+     * Gets a direct buffer with at least {@code size} bytes from the pool,
+     * or allocates a new one. The position is 0 and the limit {@code size}.
+     */
+    public static ByteBuffer acquireBuffer(int size) {
+        ByteBuffer best = null;
+        synchronized (bufferPool) {
+            for (ByteBuffer buffer : bufferPool) {
+                if (buffer.capacity() >= size
+                        && (best == null || buffer.capacity() < best.capacity())) {
+                    best = buffer;
+                }
+            }
+            if (best != null) {
+                bufferPool.remove(best);
+            }
+        }
+        if (best == null) {
+            best = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        }
+        best.clear();
+        best.limit(size);
+        return best;
+    }
+
+    /**
+     * Returns a buffer from {@link #acquireBuffer(int)} to the pool. When the
+     * pool is full, the smallest buffer is dropped.
+     */
+    public static void releaseBuffer(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+        synchronized (bufferPool) {
+            for (ByteBuffer pooled : bufferPool) {
+                if (pooled == buffer) {
+                    return;
+                }
+            }
+            bufferPool.add(buffer);
+            long pooledBytes = 0;
+            for (ByteBuffer pooled : bufferPool) {
+                pooledBytes += pooled.capacity();
+            }
+            while (bufferPool.size() > MAX_POOLED_BUFFERS
+                    || (pooledBytes > MAX_POOLED_BYTES && !bufferPool.isEmpty())) {
+                ByteBuffer smallest = bufferPool.get(0);
+                for (ByteBuffer pooled : bufferPool) {
+                    if (pooled.capacity() < smallest.capacity()) {
+                        smallest = pooled;
+                    }
+                }
+                bufferPool.remove(smallest);
+                pooledBytes -= smallest.capacity();
+            }
+        }
+    }
+
+    /** Drops all pooled buffers, for example on low memory */
+    public static void clearPool() {
+        synchronized (bufferPool) {
+            bufferPool.clear();
+        }
+    }
+
+    /*
+     * TGA
+     */
+
+    private static final int TGA_HEADER_LENGTH = 18;
+
+    private static final int TGA_COLOR_MAPPED = 1;
+    private static final int TGA_TRUE_COLOR = 2;
+    private static final int TGA_GREYSCALE = 3;
+    private static final int TGA_RLE = 8;
+
+    private static final int RIGHT_ORIGIN = 0x10;
+    private static final int UPPER_ORIGIN = 0x20;
+    private static final int ALPHA_BITS = 0x0F;
+
+    private static class TgaHeader {
+        final int width;
+        final int height;
+        final boolean rle;
+        final boolean rightOrigin;
+        final boolean upperOrigin;
+        private final int layout;
+        private final int imageType;
+        private final int depth;
+        private final int alphaBits;
+        private final int idLength;
+        private final int colorMapType;
+        private final int colorMapFirst;
+        private final int colorMapLength;
+        private final int colorMapDepth;
+
+        TgaHeader(InputStream stream) throws IOException {
+            byte[] header = new byte[TGA_HEADER_LENGTH];
+            readFully(stream, header, 0, header.length);
+
+            idLength = header[0] & 0xFF;
+            colorMapType = header[1] & 0xFF;
+            int type = header[2] & 0xFF;
+            colorMapFirst = getShort(header, 3);
+            colorMapLength = getShort(header, 5);
+            colorMapDepth = header[7] & 0xFF;
+            width = getShort(header, 12);
+            height = getShort(header, 14);
+            depth = header[16] & 0xFF;
+            int descriptor = header[17] & 0xFF;
+
+            rle = (type & TGA_RLE) != 0;
+            imageType = type & ~TGA_RLE;
+            rightOrigin = (descriptor & RIGHT_ORIGIN) != 0;
+            upperOrigin = (descriptor & UPPER_ORIGIN) != 0;
+            alphaBits = descriptor & ALPHA_BITS;
+
+            if (width == 0 || height == 0) {
+                throw new IOException("Empty TGA image");
+            }
+            layout = getLayout();
+        }
+
+        int getChannels(boolean rgba) {
+            return !rgba && layout == LAYOUT_GREY ? 1 : 4;
+        }
+
+        DecodedImage decode(InputStream stream, int sampleSize, boolean rgba)
+                throws IOException {
+            PixelLayout pixels = new PixelLayout(layout, rgba);
+            RowReader reader = new RowReader(stream, rle, pixels.pixelBytes);
+            try {
+                reader.skip(idLength);
+                if (imageType == TGA_COLOR_MAPPED) {
+                    pixels.palette = readPalette(reader);
+                    pixels.paletteFirst = colorMapFirst;
+                    pixels.hasAlpha = colorMapDepth == 32
+                            || (colorMapDepth == 16 && alphaBits > 0);
+                } else if (colorMapType != 0) {
+                    reader.skip(colorMapLength * ((colorMapDepth + 7) / 8));
+                }
+                if (layout == LAYOUT_BGRA5551) {
+                    pixels.hasAlpha = alphaBits > 0;
+                }
+                return RawImageDecoder.decode(reader, pixels, width, height,
+                        rightOrigin, upperOrigin, sampleSize);
+            } finally {
+                reader.close();
+            }
+        }
+
+        private int getLayout() throws IOException {
+            switch (imageType) {
+            case TGA_TRUE_COLOR:
+                switch (depth) {
+                case 15:
+                case 16:
+                    return LAYOUT_BGRA5551;
+                case 24:
+                    return LAYOUT_BGR;
+                case 32:
+                    return LAYOUT_BGRA;
+                }
+                break;
+            case TGA_GREYSCALE:
+                switch (depth) {
+                case 8:
+                    return LAYOUT_GREY;
+                case 16:
+                    return LAYOUT_GREY_ALPHA;
+                }
+                break;
+            case TGA_COLOR_MAPPED:
+                if (depth == 8 && colorMapType == 1) {
+                    switch (colorMapDepth) {
+                    case 15:
+                    case 16:
+                    case 24:
+                    case 32:
+                        return LAYOUT_INDEXED;
+                    }
+                }
+                break;
+            }
+            throw new IOException(String.format(
+                    "TGA format not supported: type %d, %d bits per pixel",
+                    imageType | (rle ? TGA_RLE : 0), depth));
+        }
+
+        private byte[] readPalette(RowReader reader) throws IOException {
+            int entryBytes = (colorMapDepth + 7) / 8;
+            byte[] entries = new byte[colorMapLength * entryBytes];
+            reader.read(entries, 0, entries.length);
+
+            int entryLayout = colorMapDepth == 32 ? LAYOUT_BGRA
+                    : colorMapDepth == 24 ? LAYOUT_BGR : LAYOUT_BGRA5551;
+            PixelLayout paletteLayout = new PixelLayout(entryLayout, true);
+            paletteLayout.hasAlpha = alphaBits > 0;
+            byte[] palette = new byte[colorMapLength * 4];
+            paletteLayout.convert(entries, colorMapLength, palette);
+            return palette;
+        }
+
+        private static int getShort(byte[] header, int offset) {
+            return (header[offset] & 0xFF) | (header[offset + 1] & 0xFF) << 8;
+        }
+    }
+
+    /*
+     * Decoding
+     */
+
+    private static DecodedImage decode(RowReader reader, PixelLayout layout,
+            int width, int height, boolean rightOrigin, boolean upperOrigin,
+            int sampleSize) throws IOException {
+        if (sampleSize < 1 || Integer.bitCount(sampleSize) != 1) {
+            throw new IllegalArgumentException("sampleSize must be a power of two");
+        }
+        int channels = layout.channels;
+        int outWidth = Math.max(1, width / sampleSize);
+        int outHeight = Math.max(1, height / sampleSize);
+        int outStride = outWidth * channels;
+        // Blocks are clipped to the image when it is smaller than sampleSize
+        int blockWidth = Math.min(sampleSize, width);
+        int blockHeight = Math.min(sampleSize, height);
+        int blockArea = blockWidth * blockHeight;
+        int blockShift = Integer.bitCount(blockArea) == 1
+                ? Integer.numberOfTrailingZeros(blockArea) : -1;
+
+        byte[] source = layout.pixelBytes * width <= DECODE_BUFFER_SIZE
+                ? getScratch() : null;
+        if (source == null) {
+            source = new byte[layout.pixelBytes * width];
+        }
+        byte[] row = new byte[width * channels];
+        byte[] outRow = sampleSize == 1 ? row : new byte[outStride];
+        int[] sums = sampleSize == 1 ? null : new int[outStride];
+
+        ByteBuffer buffer = acquireBuffer(outStride * outHeight);
+        boolean succeeded = false;
+        try {
+            for (int y = 0; y < height; ++y) {
+                int outY = y / sampleSize;
+                if (outY >= outHeight) {
+                    reader.readRow(source, layout.pixelBytes * width);
+                    continue;
+                }
+                reader.readRow(source, layout.pixelBytes * width);
+                layout.convert(source, width, row);
+
+                if (sampleSize > 1) {
+                    accumulate(row, sums, outWidth, channels, blockWidth);
+                    if (y % sampleSize != blockHeight - 1) {
+                        continue;
+                    }
+                    average(sums, outRow, blockArea, blockShift);
+                    Arrays.fill(sums, 0);
+                }
+                if (rightOrigin) {
+                    mirror(outRow, outWidth, channels);
+                }
+                int line = upperOrigin ? outY : outHeight - 1 - outY;
+                buffer.position(line * outStride);
+                buffer.put(outRow, 0, outStride);
+            }
+            buffer.position(0);
+            succeeded = true;
+            return new DecodedImage(outWidth, outHeight, channels, sampleSize,
+                    layout.hasAlpha, buffer);
+        } finally {
+            if (!succeeded) {
+                releaseBuffer(buffer);
+            }
+            if (source.length == DECODE_BUFFER_SIZE) {
+                scratchBin.put(source);
+            }
+        }
+    }
+
+    private static void accumulate(byte[] row, int[] sums, int outWidth,
+            int channels, int blockWidth) {
+        if (channels == 4) {
+            for (int x = 0, in = 0, out = 0; x < outWidth; ++x, out += 4) {
+                int r = 0, g = 0, b = 0, a = 0;
+                for (int i = 0; i < blockWidth; ++i, in += 4) {
+                    r += row[in] & 0xFF;
+                    g += row[in + 1] & 0xFF;
+                    b += row[in + 2] & 0xFF;
+                    a += row[in + 3] & 0xFF;
+                }
+                sums[out] += r;
+                sums[out + 1] += g;
+                sums[out + 2] += b;
+                sums[out + 3] += a;
+            }
+        } else {
+            for (int x = 0, in = 0; x < outWidth; ++x) {
+                int sum = 0;
+                for (int i = 0; i < blockWidth; ++i) {
+                    sum += row[in++] & 0xFF;
+                }
+                sums[x] += sum;
+            }
+        }
+    }
+
+    private static void average(int[] sums, byte[] out, int blockArea,
+            int blockShift) {
+        int round = blockArea / 2;
+        if (blockShift >= 0) {
+            for (int i = 0; i < out.length; ++i) {
+                out[i] = (byte) ((sums[i] + round) >> blockShift);
+            }
+        } else {
+            for (int i = 0; i < out.length; ++i) {
+                out[i] = (byte) ((sums[i] + round) / blockArea);
+            }
+        }
+    }
+
+    private static void mirror(byte[] row, int width, int channels) {
+        for (int left = 0, right = (width - 1) * channels; left < right;
+                left += channels, right -= channels) {
+            for (int c = 0; c < channels; ++c) {
+                byte t = row[left + c];
+                row[left + c] = row[right + c];
+                row[right + c] = t;
+            }
+        }
+    }
+
+    /*
+     * Pixel layouts
+     */
+
+    private static final int LAYOUT_GREY = 0;
+    private static final int LAYOUT_GREY_ALPHA = 1;
+    private static final int LAYOUT_RGB = 2;
+    private static final int LAYOUT_RGBA = 3;
+    private static final int LAYOUT_BGR = 4;
+    private static final int LAYOUT_BGRA = 5;
+    private static final int LAYOUT_BGRA5551 = 6;
+    private static final int LAYOUT_INDEXED = 7;
+
+    private static final int[] LAYOUT_BYTES = { 1, 2, 3, 4, 3, 4, 2, 1 };
+
+    /** Converts one source row to RGBA or luminance bytes */
+    private static class PixelLayout {
+        final int layout;
+        final int pixelBytes;
+        final int channels;
+        boolean hasAlpha;
+        byte[] palette;
+        int paletteFirst;
+
+        PixelLayout(int layout, boolean rgba) {
+            this.layout = layout;
+            this.pixelBytes = LAYOUT_BYTES[layout];
+            this.channels = !rgba && layout == LAYOUT_GREY ? 1 : 4;
+            this.hasAlpha = layout == LAYOUT_GREY_ALPHA
+                    || layout == LAYOUT_RGBA || layout == LAYOUT_BGRA;
+        }
+
+        void convert(byte[] in, int width, byte[] out) {
+            switch (layout) {
+            case LAYOUT_GREY:
+                if (channels == 1) {
+                    System.arraycopy(in, 0, out, 0, width);
+                } else {
+                    for (int i = 0, o = 0; i < width; ++i, o += 4) {
+                        byte grey = in[i];
+                        out[o] = grey;
+                        out[o + 1] = grey;
+                        out[o + 2] = grey;
+                        out[o + 3] = (byte) 0xFF;
+                    }
+                }
+                break;
+            case LAYOUT_GREY_ALPHA:
+                for (int i = 0, o = 0; o < width * 4; i += 2, o += 4) {
+                    byte grey = in[i];
+                    out[o] = grey;
+                    out[o + 1] = grey;
+                    out[o + 2] = grey;
+                    out[o + 3] = in[i + 1];
+                }
+                break;
+            case LAYOUT_RGB:
+                for (int i = 0, o = 0; o < width * 4; i += 3, o += 4) {
+                    out[o] = in[i];
+                    out[o + 1] = in[i + 1];
+                    out[o + 2] = in[i + 2];
+                    out[o + 3] = (byte) 0xFF;
+                }
+                break;
+            case LAYOUT_RGBA:
+                System.arraycopy(in, 0, out, 0, width * 4);
+                break;
+            case LAYOUT_BGR:
+                for (int i = 0, o = 0; o < width * 4; i += 3, o += 4) {
+                    out[o] = in[i + 2];
+                    out[o + 1] = in[i + 1];
+                    out[o + 2] = in[i];
+                    out[o + 3] = (byte) 0xFF;
+                }
+                break;
+            case LAYOUT_BGRA:
+                for (int i = 0, o = 0; o < width * 4; i += 4, o += 4) {
+                    out[o] = in[i + 2];
+                    out[o + 1] = in[i + 1];
+                    out[o + 2] = in[i];
+                    out[o + 3] = in[i + 3];
+                }
+                break;
+            case LAYOUT_BGRA5551:
+                for (int i = 0, o = 0; o < width * 4; i += 2, o += 4) {
+                    int pixel = (in[i] & 0xFF) | (in[i + 1] & 0xFF) << 8;
+                    out[o] = expand5(pixel >> 10);
+                    out[o + 1] = expand5(pixel >> 5);
+                    out[o + 2] = expand5(pixel);
+                    out[o + 3] = !hasAlpha || (pixel & 0x8000) != 0
+                            ? (byte) 0xFF : 0;
+                }
+                break;
+            case LAYOUT_INDEXED:
+                int entries = palette.length / 4;
+                for (int i = 0, o = 0; i < width; ++i, o += 4) {
+                    int entry = (in[i] & 0xFF) - paletteFirst;
+                    if (entry < 0 || entry >= entries) {
+                        entry = 0;
+                    }
+                    System.arraycopy(palette, entry * 4, out, o, 4);
+                }
+                break;
+            }
+        }
+
+        private static byte expand5(int value) {
+            value &= 0x1F;
+            return (byte) (value << 3 | value >> 2);
+        }
+    }
+
+    /*
+     * Input
+     */
+
+    /** Size of the pooled read and row buffers */
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+
+    private static final RecycleBin<byte[]> scratchBin = RecycleBin
+            .<byte[]> soft().synchronize();
+
+    private static byte[] getScratch() {
+        byte[] scratch = scratchBin.get();
+        return scratch != null ? scratch : new byte[DECODE_BUFFER_SIZE];
+    }
+
+    /** Reads whole rows through a pooled buffer, expanding TGA RLE packets */
+    private static class RowReader {
+        private final InputStream stream;
+        private final boolean rle;
+        private final int pixelBytes;
+        private final byte[] pixel;
+        private byte[] buffer = getScratch();
+        private int position = 0;
+        private int limit = 0;
+
+        /** Pixels left in the current RLE packet */
+        private int packetLeft = 0;
+        private boolean repeat = false;
+
+        RowReader(InputStream stream, boolean rle, int pixelBytes) {
+            this.stream = stream;
+            this.rle = rle;
+            this.pixelBytes = pixelBytes;
+            this.pixel = new byte[pixelBytes];
+        }
+
+        void readRow(byte[] row, int length) throws IOException {
+            if (!rle) {
+                read(row, 0, length);
+                return;
+            }
+            // Packets may run across rows
+            int offset = 0;
+            while (offset < length) {
+                if (packetLeft == 0) {
+                    int header = readByte();
+                    packetLeft = (header & 0x7F) + 1;
+                    repeat = (header & 0x80) != 0;
+                    if (repeat) {
+                        read(pixel, 0, pixelBytes);
+                    }
+                }
+                int count = Math.min(packetLeft, (length - offset) / pixelBytes);
+                int bytes = count * pixelBytes;
+                if (!repeat) {
+                    read(row, offset, bytes);
+                } else if (pixelBytes == 1) {
+                    Arrays.fill(row, offset, offset + bytes, pixel[0]);
+                } else {
+                    for (int end = offset + bytes, i = offset; i < end; i += pixelBytes) {
+                        System.arraycopy(pixel, 0, row, i, pixelBytes);
+                    }
+                }
+                offset += bytes;
+                packetLeft -= count;
+            }
+        }
+
+        void read(byte[] dest, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == limit && !fill()) {
+                    throw new EOFException("Image data is truncated");
+                }
+                int count = Math.min(length, limit - position);
+                System.arraycopy(buffer, position, dest, offset, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        void skip(long count) throws IOException {
+            while (count > 0) {
+                if (position == limit && !fill()) {
+                    throw new EOFException("Image data is truncated");
+                }
+                int skipped = (int) Math.min(count, limit - position);
+                position += skipped;
+                count -= skipped;
+            }
+        }
+
+        void close() {
+            if (buffer != null) {
+                scratchBin.put(buffer);
+                buffer = null;
+            }
+        }
+
+        private int readByte() throws IOException {
+            if (position == limit && !fill()) {
+                throw new EOFException("Image data is truncated");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private boolean fill() throws IOException {
+            int count = stream.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = count;
+            return true;
+        }
+    }
+
+    private static void readFully(InputStream stream, byte[] dest, int offset,
+            int length) throws IOException {
+        while (length > 0) {
+            int count = stream.read(dest, offset, length);
+            if (count < 0) {
+                throw new EOFException("Image header is truncated");
+            }
+            offset += count;
+            length -= count;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import com.samsungxr.SXRHybridObject;
 import com.samsungxr.SXRImage;
 import com.samsungxr.SXRMesh;
 import com.samsungxr.SXRTexture;
+import com.samsungxr.utility.FrameBudgetScheduler;
 import com.samsungxr.utility.Log;
 import com.samsungxr.utility.ResourceCache;
 import com.samsungxr.utility.Threads;
@@ -138,7 +139,7 @@ public class SXRAsynchronousResourceLoader {
                 .get(resource);
         if (cached != null) {
             Log.v("ASSET", "Texture: %s loaded from cache", cached.getFileName());
-            gvrContext.runOnGlThread(new Runnable() {
+            gvrContext.runOnGlThread(FrameBudgetScheduler.PRIORITY_LOW, new Runnable() {
 
                 @Override
                 public void run() {
@@ -372,7 +373,7 @@ public class SXRAsynchronousResourceLoader {
         if (cached != null)
         {
             Log.v("ASSET", "Texture: %s loaded from cache", cached.getFileName());
-            context.runOnGlThread(new Runnable()
+            context.runOnGlThread(FrameBudgetScheduler.PRIORITY_LOW, new Runnable()
             {
                 @Override
                 public void run()
@@ -428,7 +429,7 @@ public class SXRAsynchronousResourceLoader {
         if (cached != null)
         {
             Log.v("ASSET", "Texture: %s loaded from cache", cached.getFileName());
-            context.runOnGlThread(new Runnable()
+            context.runOnGlThread(FrameBudgetScheduler.PRIORITY_LOW, new Runnable()
             {
                 @Override
                 public void run()
@@ -20,9 +20,11 @@ import static com.samsungxr.utility.Threads.threadId;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.samsungxr.SXRAndroidResource;
@@ -62,6 +64,41 @@ class Throttler implements Scheduler {
                 priority);
     }
 
+    /**
+     * Orders the queued requests with a {@link LoadScorer} instead of their
+     * priorities.
+     * 
+     * @param scorer
+     *            The scorer, or {@code null} to go back to priorities
+     */
+    void setLoadScorer(LoadScorer scorer) {
+        requests.policy.setScorer(scorer);
+    }
+
+    LoadScorer getLoadScorer() {
+        return requests.policy.getScorer();
+    }
+
+    /**
+     * Scores the queued requests again, because the state the
+     * {@link LoadScorer} reads has changed.
+     */
+    void invalidateLoadScores() {
+        requests.policy.invalidateScores();
+    }
+
+    /**
+     * Sets how much score a queued request gains per second, when there is a
+     * {@link LoadScorer}.
+     */
+    void setLoadAgingRate(float scorePerSecond) {
+        requests.policy.setAgingRate(scorePerSecond);
+    }
+
+    LoadQueueMetrics getLoadQueueMetrics() {
+        return requests.policy.getMetrics();
+    }
+
     /*
      * Static constants
      */
@@ -281,9 +318,12 @@ class Throttler implements Scheduler {
             return AsyncManager.get().getFactories();
         }
 
+        private final AdaptivePolicyProvider policy = new AdaptivePolicyProvider(
+                AdaptivePolicyProvider.SYSTEM_CLOCK, new LoadQueueMetrics());
+
         private final ThreadLimiter<PriorityCancelable> deviceThreadLimiter = new ThreadLimiter<PriorityCancelable>(
                 DECODE_THREAD_LIMIT,
-                new PriorityCancelingLifoThreadPolicyProvider(),
+                policy,
                 /* Don't exceed DECODE_THREAD_LIMIT when a download gets wedged */
                 Integer.MAX_VALUE);
 
@@ -484,9 +524,13 @@ class Throttler implements Scheduler {
                         }
                     }
 
-                    @SuppressWarnings("unchecked")
-                    PendingRequest<OUTPUT, INTER> removed = (PendingRequest<OUTPUT, INTER>) pendingRequests
-                            .remove(request);
+                    /*
+                     * A canceled request may already have been replaced
+                     * by a new request for the same resource.
+                     */
+                    if (pendingRequests.get(request) == this) {
+                        pendingRequests.remove(request);
+                    }
                 }
             }
 
@@ -548,10 +592,37 @@ class Throttler implements Scheduler {
             public void updatePriority() {
                 priority = highestPriority;
             }
+
+            @Override
+            public SXRAndroidResource getResource() {
+                return request;
+            }
+
+            @Override
+            public void cancel() {
+                if (VERBOSE_SCHEDULING) {
+                    Log.d(TAG, "Scorer canceled %s, request %s", this, request);
+                }
+                /*
+                 * Forget the request now, so new requests for the resource
+                 * load it again. Callbacks are notified on another thread,
+                 * the scheduler is locked.
+                 */
+                if (pendingRequests.get(request) == this) {
+                    pendingRequests.remove(request);
+                }
+                Threads.spawn(new Runnable() {
+                    @Override
+                    public void run() {
+                        failed(new CancellationException(
+                                "Load canceled by LoadScorer"), request);
+                    }
+                });
+            }
         }
     }
 
-    private interface PriorityCancelable extends Cancelable {
+    interface PriorityCancelable extends Cancelable {
 
         /**
          * The value that {@link #getPriority()} returns may be random until
@@ -572,6 +643,15 @@ class Throttler implements Scheduler {
          * number.
          */
         int getPriority();
+
+        /** The resource to load */
+        SXRAndroidResource getResource();
+
+        /**
+         * Cancel a queued request which is still wanted by its callbacks.
+         * Called with the scheduler locked.
+         */
+        void cancel();
     }
 
     private static class PriorityGroup implements Comparable<PriorityGroup> {
@@ -585,8 +665,9 @@ class Throttler implements Scheduler {
         @Override
         public int compareTo(PriorityGroup another) {
             // Reverse order: Integer.MAX_VALUE is a higher priority than
-            // Integer.MIN_VALUE
-            return another.priority - priority;
+            // Integer.MIN_VALUE. Subtracting would overflow.
+            return (another.priority < priority) ? -1
+                    : ((another.priority == priority) ? 0 : 1);
         }
     }
 
@@ -688,4 +769,274 @@ class Throttler implements Scheduler {
             }
         }
     }
+
+
+    /**
+     * Schedules by priority, like {@link PriorityCancelingLifoThreadPolicyProvider},
+     * until a {@link LoadScorer} is set. Then the queued request with the
+     * highest score runs next, and requests are canceled if their score drops
+     * to 0. Requests gain {@link #setAgingRate(float) agingRate} per second
+     * while they wait.
+     * 
+     * <p>
+     * Requests are scored when they are queued and kept in a heap. Every
+     * request ages at the same rate, so aging does not change their order: the
+     * heap is ordered by {@code score - agingRate * queueTime} and is only
+     * rebuilt when the aging rate or the scorer changes, or when
+     * {@link #invalidateScores()} says the inputs of the scorer changed.
+     * Picking the next request is O(log n).
+     */
+    static class AdaptivePolicyProvider implements
+            ThreadPolicyProvider<PriorityCancelable> {
+
+        /** Time source, replaceable for testing */
+        interface Clock {
+            long nanoTime();
+        }
+
+        static final Clock SYSTEM_CLOCK = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+        };
+
+        /** Score gained per second in the queue */
+        static final float DEFAULT_AGING_RATE = 0.05f;
+
+        private static final double NANOSECONDS_PER_SECOND = 1e9;
+
+        /** A queued request, with its score while there is a scorer */
+        private static class QueuedRequest implements
+                Comparable<QueuedRequest> {
+            final PriorityCancelable threadProc;
+            final long queueTime;
+            float score;
+            double rank;
+
+            QueuedRequest(PriorityCancelable threadProc, long queueTime) {
+                this.threadProc = threadProc;
+                this.queueTime = queueTime;
+            }
+
+            @Override
+            public int compareTo(QueuedRequest another) {
+                // Highest rank first
+                return Double.compare(another.rank, rank);
+            }
+        }
+
+        private final Clock clock;
+        private final long epoch;
+        private final LoadQueueMetrics metrics;
+        private final PriorityCancelingLifoThreadPolicyProvider fixed = new PriorityCancelingLifoThreadPolicyProvider();
+
+        /**
+         * Every queued request. Without a scorer this may hold requests which
+         * were dropped by {@link #fixed}, until that is empty.
+         */
+        private final Map<PriorityCancelable, QueuedRequest> queued = new LinkedHashMap<PriorityCancelable, QueuedRequest>();
+
+        /**
+         * Scored requests, while there is a scorer. Entries which are no
+         * longer in {@link #queued} are dropped when they reach the top.
+         */
+        private final PriorityQueue<QueuedRequest> heap = new PriorityQueue<QueuedRequest>();
+
+        private LoadScorer scorer = null;
+        private float agingRate = DEFAULT_AGING_RATE;
+        private boolean rescore = false;
+
+        AdaptivePolicyProvider(Clock clock, LoadQueueMetrics metrics) {
+            this.clock = clock;
+            this.epoch = clock.nanoTime();
+            this.metrics = metrics;
+        }
+
+        synchronized void setScorer(LoadScorer scorer) {
+            if ((this.scorer == null) && (scorer != null)) {
+                /*
+                 * Keep what is left in the fixed queue: queued may also
+                 * hold requests which it dropped.
+                 */
+                Map<PriorityCancelable, QueuedRequest> wanted = new LinkedHashMap<PriorityCancelable, QueuedRequest>();
+                while (!fixed.isEmpty()) {
+                    PriorityCancelable threadProc = (PriorityCancelable) fixed
+                            .get();
+                    QueuedRequest request = queued.get(threadProc);
+                    wanted.put(threadProc, (request != null) ? request
+                            : new QueuedRequest(threadProc, clock.nanoTime()));
+                }
+                queued.clear();
+                queued.putAll(wanted);
+            } else if ((this.scorer != null) && (scorer == null)) {
+                for (PriorityCancelable threadProc : queued.keySet()) {
+                    fixed.put(threadProc);
+                }
+                heap.clear();
+            }
+            this.scorer = scorer;
+            rescore = (scorer != null) && !queued.isEmpty();
+        }
+
+        synchronized LoadScorer getScorer() {
+            return scorer;
+        }
+
+        synchronized void setAgingRate(float scorePerSecond) {
+            if (scorePerSecond < 0) {
+                throw Exceptions
+                        .IllegalArgument("aging rate must not be negative");
+            }
+            if (agingRate != scorePerSecond) {
+                agingRate = scorePerSecond;
+                rescore = true;
+            }
+        }
+
+        /**
+         * Scores the queued requests again before the next one is picked.
+         * Called when the state the scorer reads has changed.
+         */
+        synchronized void invalidateScores() {
+            rescore = true;
+        }
+
+        LoadQueueMetrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public synchronized void put(PriorityCancelable threadProc) {
+            QueuedRequest request = new QueuedRequest(threadProc,
+                    clock.nanoTime());
+
+            queued.put(threadProc, request);
+            if (scorer == null) {
+                fixed.put(threadProc);
+            } else if (!rescore) {
+                score(request);
+            }
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            if (scorer == null) {
+                if (fixed.isEmpty()) {
+                    queued.clear();
+                    return true;
+                }
+                return false;
+            }
+            return peek() == null;
+        }
+
+        @Override
+        public synchronized Runnable get() {
+            long now = clock.nanoTime();
+
+            if (scorer == null) {
+                PriorityCancelable threadProc = (PriorityCancelable) fixed
+                        .get();
+                if (threadProc != null) {
+                    QueuedRequest request = queued.remove(threadProc);
+                    if (request != null) {
+                        metrics.record(LoadQueueMetrics.toScore(threadProc
+                                .getPriority()), now - request.queueTime);
+                    }
+                }
+                return threadProc;
+            }
+            QueuedRequest request = peek();
+            if (request == null) {
+                return null;
+            }
+            heap.poll();
+            queued.remove(request.threadProc);
+            metrics.record(request.score, now - request.queueTime);
+            return request.threadProc;
+        }
+
+        @Override
+        public synchronized void reschedule(PriorityCancelable threadProc) {
+            if (scorer == null) {
+                fixed.reschedule(threadProc);
+                return;
+            }
+            // The priority is an input of the scorer
+            threadProc.updatePriority();
+            QueuedRequest request = queued.get(threadProc);
+            if ((request != null) && !rescore) {
+                /*
+                 * Queue it again: the old heap entry is dropped when it
+                 * reaches the top, because it is no longer in queued.
+                 */
+                QueuedRequest rescored = new QueuedRequest(threadProc,
+                        request.queueTime);
+                queued.put(threadProc, rescored);
+                score(rescored);
+            }
+        }
+
+        /*
+         * The wanted request with the highest rank, dropping the stale and
+         * unwanted ones above it.
+         */
+        private QueuedRequest peek() {
+            if (rescore) {
+                rescoreAll();
+            }
+            QueuedRequest request;
+            while ((request = heap.peek()) != null) {
+                if (queued.get(request.threadProc) != request) {
+                    heap.poll();
+                } else if (!request.threadProc.stillWanted()) {
+                    heap.poll();
+                    queued.remove(request.threadProc);
+                } else {
+                    return request;
+                }
+            }
+            return null;
+        }
+
+        private void rescoreAll() {
+            rescore = false;
+            heap.clear();
+            for (QueuedRequest request : new ArrayList<QueuedRequest>(
+                    queued.values())) {
+                score(request);
+            }
+        }
+
+        /*
+         * Scores a queued request and adds it to the heap, or cancels it.
+         */
+        private void score(QueuedRequest request) {
+            PriorityCancelable threadProc = request.threadProc;
+            float score;
+
+            if (!threadProc.stillWanted()) {
+                queued.remove(threadProc);
+                return;
+            }
+            try {
+                score = scorer.score(threadProc.getResource(),
+                        threadProc.getPriority());
+            } catch (RuntimeException e) {
+                Log.e(TAG, "LoadScorer failed: %s", e);
+                score = LoadQueueMetrics.toScore(threadProc.getPriority());
+            }
+            if (!(score > 0)) {
+                queued.remove(threadProc);
+                metrics.recordCancel();
+                threadProc.cancel();
+                return;
+            }
+            request.score = score;
+            request.rank = score - agingRate
+                    * ((request.queueTime - epoch) / NANOSECONDS_PER_SECOND);
+            heap.add(request);
+        }
+    }
 }
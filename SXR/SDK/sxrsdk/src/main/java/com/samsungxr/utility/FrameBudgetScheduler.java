@@ -0,0 +1,291 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.utility;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prioritized, time budgeted queue of runnables which is drained once per frame.
+ * <p>
+ * Runnables are posted from any thread with one of the {@code PRIORITY_} constants
+ * and executed by {@link #runFrame()} on the thread which owns the frame loop.
+ * Each frame the queues are drained from the highest to the lowest priority until
+ * the time budget is used up; anything left is deferred to the next frame.
+ * Runnables which have been waiting for {@link #getMaxDeferFrames()} frames are
+ * run regardless of the budget so low priority work cannot starve.
+ * Runnables posted by the runnables of a frame wait for the next frame, so work
+ * which posts itself again every frame cannot keep the frame from finishing.
+ * Runnables posted by other threads while a frame runs are still run in that
+ * frame if the budget allows, as they were before the frame budget existed.
+ * <p>
+ * The scheduler only depends on a {@link Clock} so it can be driven by a fake clock
+ * and a synthetic frame loop.
+ */
+public class FrameBudgetScheduler {
+    /** Work that should run this frame, such as input or state changes. */
+    public static final int PRIORITY_HIGH = 0;
+    /** Default priority used by {@code runOnGlThread(Runnable)}. */
+    public static final int PRIORITY_NORMAL = 1;
+    /** Bulk work which can be spread over several frames, such as texture uploads. */
+    public static final int PRIORITY_LOW = 2;
+
+    private static final int NUM_PRIORITIES = 3;
+
+    /** Default number of frames a runnable may be deferred before it is forced to run. */
+    public static final int DEFAULT_MAX_DEFER_FRAMES = 30;
+
+    /**
+     * Source of time for the frame budget.
+     */
+    public interface Clock {
+        /**
+         * @return current time in nanoseconds, only differences are used
+         */
+        long nanoTime();
+    }
+
+    /** {@link Clock} based on {@link System#nanoTime()}. */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private static final class Entry {
+        final Runnable runnable;
+        final long frame;
+
+        Entry(Runnable runnable, long frame) {
+            this.runnable = runnable;
+            this.frame = frame;
+        }
+    }
+
+    private final Clock mClock;
+    private final Queue<Entry>[] mQueues;
+    private volatile long mFrame;
+    // Frame stamp for runnables posted by other threads, only advanced after a frame's drain
+    private volatile long mPostFrame;
+    private volatile Thread mFrameThread;
+    private volatile long mBudgetNanos;
+    private volatile int mMaxDeferFrames = DEFAULT_MAX_DEFER_FRAMES;
+
+    private final AtomicLong mQueued = new AtomicLong();
+    private final AtomicLong mPending = new AtomicLong();
+    // Only written by the frame thread, read from any thread
+    private volatile long mExecuted;
+    private volatile long mDeferred;
+    private volatile long mMaxLatencyFrames;
+
+    public FrameBudgetScheduler() {
+        this(SYSTEM_CLOCK);
+    }
+
+    @SuppressWarnings("unchecked")
+    public FrameBudgetScheduler(Clock clock) {
+        mClock = clock;
+        mQueues = new Queue[NUM_PRIORITIES];
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            mQueues[i] = new ConcurrentLinkedQueue<Entry>();
+        }
+    }
+
+    /**
+     * Sets the time each frame may spend running queued runnables.
+     * @param budgetNanos budget in nanoseconds; zero or less means no limit,
+     *                    which runs everything queued every frame.
+     */
+    public void setBudgetNanos(long budgetNanos) {
+        mBudgetNanos = budgetNanos;
+    }
+
+    public long getBudgetNanos() {
+        return mBudgetNanos;
+    }
+
+    /**
+     * Sets how many frames a runnable may be deferred before it runs
+     * regardless of the frame budget.
+     * @param frames maximum number of frames a runnable can wait, at least 1
+     */
+    public void setMaxDeferFrames(int frames) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("frames must be at least 1");
+        }
+        mMaxDeferFrames = frames;
+    }
+
+    public int getMaxDeferFrames() {
+        return mMaxDeferFrames;
+    }
+
+    /**
+     * Queues a runnable for a future call to {@link #runFrame()}.
+     * @param priority one of {@link #PRIORITY_HIGH}, {@link #PRIORITY_NORMAL}
+     *                 or {@link #PRIORITY_LOW}
+     * @param runnable code to run
+     */
+    public void post(int priority, Runnable runnable) {
+        if ((priority < 0) || (priority >= NUM_PRIORITIES)) {
+            throw new IllegalArgumentException("invalid priority " + priority);
+        }
+        final long frame = (Thread.currentThread() == mFrameThread) ? mFrame : mPostFrame;
+        mQueues[priority].add(new Entry(runnable, frame));
+        mQueued.incrementAndGet();
+        mPending.incrementAndGet();
+    }
+
+    /**
+     * Runs the queued runnables for one frame, respecting the frame budget.
+     * Must always be called from the same thread.
+     * @return number of runnables executed
+     */
+    public int runFrame() {
+        mFrameThread = Thread.currentThread();
+        final long frame = ++mFrame;
+        final long budget = mBudgetNanos;
+        final long oldest = frame - mMaxDeferFrames;
+        int executed = 0;
+
+        // Starvation protection: anything waiting too long runs first
+        for (Queue<Entry> queue : mQueues) {
+            Entry entry;
+            while (((entry = queue.peek()) != null) && (entry.frame <= oldest)) {
+                queue.poll();
+                execute(entry, frame);
+                ++executed;
+            }
+        }
+
+        final long start = mClock.nanoTime();
+        for (Queue<Entry> queue : mQueues) {
+            Entry entry;
+            // Always make progress: at least one runnable per frame.
+            // Entries stamped with this frame were posted by the runnables run so far,
+            // other threads stamp theirs with the previous frame until the drain ends.
+            while (((budget <= 0) || (executed == 0) || (mClock.nanoTime() - start < budget))
+                    && ((entry = queue.peek()) != null) && (entry.frame < frame)) {
+                queue.poll();
+                execute(entry, frame);
+                ++executed;
+            }
+        }
+        mPostFrame = frame;
+        mDeferred += mPending.get();
+        return executed;
+    }
+
+    /**
+     * Runs everything queued, ignoring the frame budget.
+     * Runnables posted by the ones it runs stay queued.
+     * @return number of runnables executed
+     */
+    public int runAll() {
+        final long frame = mFrame;
+        final int[] counts = new int[NUM_PRIORITIES];
+        int executed = 0;
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            counts[i] = mQueues[i].size();
+        }
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            Entry entry;
+            while ((counts[i]-- > 0) && ((entry = mQueues[i].poll()) != null)) {
+                execute(entry, frame);
+                ++executed;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Discards all queued runnables without running them.
+     */
+    public void clear() {
+        for (Queue<Entry> queue : mQueues) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                mPending.decrementAndGet();
+            }
+        }
+    }
+
+    /** @return number of frames run so far */
+    public long getFrameCount() {
+        return mFrame;
+    }
+
+    /** @return total number of runnables ever posted */
+    public long getQueuedCount() {
+        return mQueued.get();
+    }
+
+    /** @return number of runnables waiting to be run */
+    public long getPendingCount() {
+        return mPending.get();
+    }
+
+    /** @return total number of runnables executed */
+    public long getExecutedCount() {
+        return mExecuted;
+    }
+
+    /**
+     * @return total number of times a runnable was left in the queue at the end of a frame;
+     * a runnable deferred for three frames counts three times.
+     */
+    public long getDeferredCount() {
+        return mDeferred;
+    }
+
+    /** @return the largest number of frames any runnable waited before it was run */
+    public long getMaxLatencyFrames() {
+        return mMaxLatencyFrames;
+    }
+
+    /**
+     * Resets the executed, deferred and latency counters.
+     */
+    public void resetStats() {
+        mExecuted = 0;
+        mDeferred = 0;
+        mMaxLatencyFrames = 0;
+    }
+
+    /**
+     * Called when a runnable throws. The default implementation prints the
+     * stack trace; the exception does not stop the other runnables from running.
+     */
+    protected void onException(Runnable runnable, Exception exc) {
+        exc.printStackTrace();
+    }
+
+    private void execute(Entry entry, long frame) {
+        mPending.decrementAndGet();
+        final long latency = frame - entry.frame - 1;
+        if (latency > mMaxLatencyFrames) {
+            mMaxLatencyFrames = latency;
+        }
+        ++mExecuted;
+        try {
+            entry.runnable.run();
+        } catch (final Exception exc) {
+            onException(entry.runnable, exc);
+        }
+    }
+}
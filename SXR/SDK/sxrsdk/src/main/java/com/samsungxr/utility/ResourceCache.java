@@ -36,9 +36,23 @@ import com.samsungxr.SXRImage;
  * 
  * @since 2.0.2
  */
-public class ResourceCache<T extends SXRHybridObject> extends ResourceCacheBase {
+public class ResourceCache<T extends SXRHybridObject> extends ResourceCacheBase<T> {
     private static final String TAG = Log.tag(ResourceCache.class);
 
+    /** Create a cache which only holds weak references */
+    public ResourceCache() {
+        super();
+    }
+
+    /**
+     * Create a cache which can hold resources within a memory budget.
+     * @param sizer computes the size of a resource
+     * @see #setMemoryBudget(long)
+     */
+    public ResourceCache(Sizer<T> sizer) {
+        super(sizer);
+    }
+
     /** Save a weak reference to the resource */
     public void put(SXRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
@@ -48,7 +62,7 @@ public class ResourceCache<T extends SXRHybridObject> extends ResourceCacheBase
 
     /** Get the cached resource, or {@code null} */
     public T get(SXRAndroidResource androidResource) {
-        return (T) super.get(androidResource);
+        return super.get(androidResource);
     }
 
     /**
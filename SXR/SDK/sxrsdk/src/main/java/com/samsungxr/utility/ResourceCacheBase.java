@@ -17,48 +17,451 @@ package com.samsungxr.utility;
 
 import com.samsungxr.SXRAndroidResource;
 
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Basic cache-by-resource-description.
  *
  * Keeps system from reloading resources, so long as a previous copy is still in
  * memory.
+ * <p>
+ * A cache without a {@link Sizer} only holds weak references, so a resource
+ * stays cached until it is garbage collected. A cache with a sizer also holds
+ * recently used resources strongly until their total size exceeds its
+ * {@linkplain #setMemoryBudget(long) memory budget}, by default an eighth
+ * of the maximum heap size. The strong tier is a segmented
+ * LRU: new resources go into a probation segment and move to a protected
+ * segment when they are used again, so a burst of resources which are only
+ * loaded once cannot flush the resources which are used all the time.
+ * <p>
+ * {@linkplain #pin(SXRAndroidResource) Pinned} resources are never evicted.
+ * An {@link EvictionListener} is told about every evicted resource so it
+ * can release native resources; in that case the evicted resource is also
+ * removed from the weak tier so it is never returned again.
  *
  * @since 2.0.2
  */
 public class ResourceCacheBase<T> {
     private static final String TAG = Log.tag(ResourceCacheBase.class);
 
-    private final Map<SXRAndroidResource, WeakReference<T>> cache //
-            = new ConcurrentHashMap<SXRAndroidResource, WeakReference<T>>();
+    /** Fraction of the memory budget which may be used by the protected segment */
+    private static final float PROTECTED_RATIO = 0.8f;
+
+    /** Fraction of the maximum heap size used as the default memory budget */
+    private static final float DEFAULT_BUDGET_RATIO = 0.125f;
+
+    /**
+     * Computes the number of bytes used by a resource.
+     */
+    public interface Sizer<T> {
+        /**
+         * @return number of bytes used by the resource, 0 if unknown.
+         *         Resources of unknown size are only held weakly.
+         */
+        long sizeOf(T resource);
+    }
+
+    /**
+     * Called when a resource is evicted from the memory budget.
+     * Called on the thread which caused the eviction, after the
+     * cache has been updated.
+     */
+    public interface EvictionListener<T> {
+        void onEvicted(SXRAndroidResource androidResource, T resource);
+    }
+
+    private static final class KeyedReference<T> extends WeakReference<T> {
+        final SXRAndroidResource key;
+
+        KeyedReference(SXRAndroidResource key, T resource, ReferenceQueue<T> queue) {
+            super(resource, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class Entry<T> {
+        final T resource;
+        final long size;
+        int pinCount = 0;
+        boolean isProtected = false;
+
+        Entry(T resource, long size) {
+            this.resource = resource;
+            this.size = size;
+        }
+    }
+
+    private final ConcurrentMap<SXRAndroidResource, KeyedReference<T>> cache //
+            = new ConcurrentHashMap<SXRAndroidResource, KeyedReference<T>>();
+    private final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+    private final Sizer<T> sizer;
+
+    // Strong tier, in LRU order. Guarded by lock. Lookups which
+    // must not change the order of the segments use the index.
+    private final Object lock = new Object();
+    private final HashMap<SXRAndroidResource, Entry<T>> index //
+            = new HashMap<SXRAndroidResource, Entry<T>>();
+    private final LinkedHashMap<SXRAndroidResource, Entry<T>> probation //
+            = new LinkedHashMap<SXRAndroidResource, Entry<T>>(16, 0.75f, true);
+    private final LinkedHashMap<SXRAndroidResource, Entry<T>> protectedSegment //
+            = new LinkedHashMap<SXRAndroidResource, Entry<T>>(16, 0.75f, true);
+    private long probationSize = 0;
+    private long protectedSize = 0;
+    private long memoryBudget = 0;
+    private volatile EvictionListener<T> evictionListener = null;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** Create a cache which only holds weak references */
+    public ResourceCacheBase() {
+        this(null);
+    }
+
+    /**
+     * Create a cache which can hold resources within a memory budget.
+     * The budget is an eighth of the maximum heap size until it is
+     * changed with {@link #setMemoryBudget(long)}.
+     * @param sizer computes the size of a resource, null to only hold
+     *              weak references.
+     */
+    public ResourceCacheBase(Sizer<T> sizer) {
+        this.sizer = sizer;
+        if (sizer != null) {
+            memoryBudget = getDefaultMemoryBudget();
+        }
+    }
+
+    /**
+     * @return memory budget of caches which can compute the size
+     *         of their resources, an eighth of the maximum heap size.
+     */
+    public static long getDefaultMemoryBudget() {
+        return (long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_RATIO);
+    }
 
     /** Save a weak reference to the resource */
     public void put(SXRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
 
-        cache.put(androidResource, new WeakReference<T>(resource));
+        purge();
+        cache.put(androidResource, new KeyedReference<T>(androidResource, resource, queue));
+        if (sizer != null) {
+            admit(androidResource, resource);
+        }
     }
 
     /** Get the cached resource, or {@code null} */
     public T get(SXRAndroidResource androidResource) {
+        purge();
         WeakReference<T> reference = cache.get(androidResource);
         if (reference == null) {
             // Not in map
-            // Log.d(TAG, "get(%s) returning %s", androidResource, null);
+            misses.incrementAndGet();
             return null;
         }
         T cached = reference.get();
         if (cached == null) {
             // In map, but not in memory
             cache.remove(androidResource);
+            misses.incrementAndGet();
         } else {
             // No one will ever read this stream
             androidResource.closeStream();
+            hits.incrementAndGet();
+            if (sizer != null) {
+                touch(androidResource, cached);
+            }
         }
-        // Log.d(TAG, "get(%s) returning %s", androidResource, cached);
         return cached;
     }
+
+    /**
+     * Set the maximum number of bytes of resources held strongly.
+     * Resources beyond the budget are evicted, least recently used first.
+     * @param bytes memory budget, 0 to only hold weak references
+     * @see #getDefaultMemoryBudget()
+     * @throws UnsupportedOperationException if the cache cannot compute
+     *         the size of its resources.
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("memory budget must not be negative");
+        }
+        if ((sizer == null) && (bytes > 0)) {
+            throw new UnsupportedOperationException("cache cannot compute resource sizes");
+        }
+        List<Entry<T>> evicted = new ArrayList<Entry<T>>();
+        List<SXRAndroidResource> evictedKeys = new ArrayList<SXRAndroidResource>();
+        synchronized (lock) {
+            memoryBudget = bytes;
+            trim(evicted, evictedKeys);
+        }
+        notifyEvicted(evicted, evictedKeys);
+    }
+
+    /** @return maximum number of bytes of resources held strongly */
+    public long getMemoryBudget() {
+        synchronized (lock) {
+            return memoryBudget;
+        }
+    }
+
+    /** @return number of bytes of resources currently held strongly */
+    public long getMemoryUsed() {
+        synchronized (lock) {
+            return probationSize + protectedSize;
+        }
+    }
+
+    /**
+     * Set the listener called when resources are evicted.
+     * @param listener eviction listener, null for none
+     */
+    public void setEvictionListener(EvictionListener<T> listener) {
+        evictionListener = listener;
+    }
+
+    /**
+     * Keep a cached resource within the memory budget until it is unpinned.
+     * Pins are counted, every call must be matched by
+     * {@link #unpin(SXRAndroidResource)}.
+     * @return true if the resource was pinned, false if it is not cached
+     *         or its size is unknown.
+     */
+    public boolean pin(SXRAndroidResource androidResource) {
+        if (sizer == null) {
+            return false;
+        }
+        WeakReference<T> reference = cache.get(androidResource);
+        T cached = (reference != null) ? reference.get() : null;
+        if (cached == null) {
+            return false;
+        }
+        synchronized (lock) {
+            Entry<T> entry = findEntry(androidResource);
+            if ((entry == null) || (entry.resource != cached)) {
+                long size = sizer.sizeOf(cached);
+                if (size <= 0) {
+                    return false;
+                }
+                removeEntry(androidResource);
+                entry = new Entry<T>(cached, size);
+                addEntry(androidResource, entry);
+            }
+            ++entry.pinCount;
+            return true;
+        }
+    }
+
+    /**
+     * Release a pin made by {@link #pin(SXRAndroidResource)}.
+     * The resource may be evicted if the cache is over its budget.
+     */
+    public void unpin(SXRAndroidResource androidResource) {
+        List<Entry<T>> evicted = new ArrayList<Entry<T>>();
+        List<SXRAndroidResource> evictedKeys = new ArrayList<SXRAndroidResource>();
+        synchronized (lock) {
+            Entry<T> entry = findEntry(androidResource);
+            if ((entry != null) && (entry.pinCount > 0)) {
+                --entry.pinCount;
+                trim(evicted, evictedKeys);
+            }
+        }
+        notifyEvicted(evicted, evictedKeys);
+    }
+
+    /** @return number of lookups which found the resource in the cache */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** @return number of lookups which did not find the resource in the cache */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** @return number of resources evicted from the memory budget */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /*
+     * Removes the entries of resources which were garbage collected.
+     */
+    @SuppressWarnings("unchecked")
+    private void purge() {
+        KeyedReference<T> ref;
+        while ((ref = (KeyedReference<T>) queue.poll()) != null) {
+            cache.remove(ref.key, ref);
+        }
+    }
+
+    private void admit(SXRAndroidResource androidResource, T resource) {
+        long size = sizer.sizeOf(resource);
+        List<Entry<T>> evicted = new ArrayList<Entry<T>>();
+        List<SXRAndroidResource> evictedKeys = new ArrayList<SXRAndroidResource>();
+
+        synchronized (lock) {
+            Entry<T> old = removeEntry(androidResource);
+            int pinCount = ((old != null) && (old.resource == resource)) ? old.pinCount : 0;
+
+            if ((memoryBudget <= 0) || (size <= 0) || ((size > memoryBudget) && (pinCount == 0))) {
+                return;
+            }
+            Entry<T> entry = new Entry<T>(resource, size);
+            entry.pinCount = pinCount;
+            addEntry(androidResource, entry);
+            trim(evicted, evictedKeys);
+        }
+        notifyEvicted(evicted, evictedKeys);
+    }
+
+    /*
+     * Records a hit: a resource used again moves to the protected
+     * segment, a resource which was evicted but is still alive
+     * is admitted again.
+     */
+    private void touch(SXRAndroidResource androidResource, T resource) {
+        List<Entry<T>> evicted = new ArrayList<Entry<T>>();
+        List<SXRAndroidResource> evictedKeys = new ArrayList<SXRAndroidResource>();
+
+        synchronized (lock) {
+            if (memoryBudget <= 0) {
+                return;
+            }
+            if (protectedSegment.get(androidResource) != null) {
+                return;
+            }
+            Entry<T> entry = probation.remove(androidResource);
+            if ((entry == null) || (entry.resource != resource)) {
+                if (entry != null) {
+                    probationSize -= entry.size;
+                    index.remove(androidResource);
+                }
+                long size = sizer.sizeOf(resource);
+                if ((size <= 0) || (size > memoryBudget)) {
+                    return;
+                }
+                entry = new Entry<T>(resource, size);
+                addEntry(androidResource, entry);
+            } else {
+                probationSize -= entry.size;
+                protectedSegment.put(androidResource, entry);
+                protectedSize += entry.size;
+                entry.isProtected = true;
+            }
+            trim(evicted, evictedKeys);
+        }
+        notifyEvicted(evicted, evictedKeys);
+    }
+
+    /*
+     * Demotes protected entries beyond their share of the budget
+     * to probation, then evicts unpinned entries until the cache
+     * fits its budget. Called with the lock held.
+     */
+    private void trim(List<Entry<T>> evicted, List<SXRAndroidResource> evictedKeys) {
+        long protectedBudget = (long) (memoryBudget * PROTECTED_RATIO);
+        Iterator<Map.Entry<SXRAndroidResource, Entry<T>>> iter = protectedSegment.entrySet().iterator();
+
+        while ((protectedSize > protectedBudget) && iter.hasNext()) {
+            Map.Entry<SXRAndroidResource, Entry<T>> e = iter.next();
+            Entry<T> entry = e.getValue();
+
+            if (entry.pinCount == 0) {
+                iter.remove();
+                protectedSize -= entry.size;
+                probation.put(e.getKey(), entry);
+                probationSize += entry.size;
+                entry.isProtected = false;
+            }
+        }
+        evict(probation, evicted, evictedKeys);
+        evict(protectedSegment, evicted, evictedKeys);
+    }
+
+    private void evict(LinkedHashMap<SXRAndroidResource, Entry<T>> segment,
+                       List<Entry<T>> evicted, List<SXRAndroidResource> evictedKeys) {
+        Iterator<Map.Entry<SXRAndroidResource, Entry<T>>> iter = segment.entrySet().iterator();
+
+        while ((probationSize + protectedSize > memoryBudget) && iter.hasNext()) {
+            Map.Entry<SXRAndroidResource, Entry<T>> e = iter.next();
+            Entry<T> entry = e.getValue();
+
+            if (entry.pinCount == 0) {
+                iter.remove();
+                index.remove(e.getKey());
+                if (segment == probation) {
+                    probationSize -= entry.size;
+                } else {
+                    protectedSize -= entry.size;
+                }
+                evicted.add(entry);
+                evictedKeys.add(e.getKey());
+            }
+        }
+    }
+
+    private void notifyEvicted(List<Entry<T>> evicted, List<SXRAndroidResource> evictedKeys) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        EvictionListener<T> listener = evictionListener;
+
+        evictions.addAndGet(evicted.size());
+        for (int i = 0; i < evicted.size(); ++i) {
+            SXRAndroidResource key = evictedKeys.get(i);
+            T resource = evicted.get(i).resource;
+
+            Log.d(TAG, "evicted resource %s from cache", key);
+            if (listener != null) {
+                KeyedReference<T> ref = cache.get(key);
+                if ((ref != null) && (ref.get() == resource)) {
+                    cache.remove(key, ref);
+                }
+                listener.onEvicted(key, resource);
+            }
+        }
+    }
+
+    /*
+     * Finds an entry without moving it in its segment, so pinning
+     * and unpinning do not count as uses of the resource.
+     */
+    private Entry<T> findEntry(SXRAndroidResource androidResource) {
+        return index.get(androidResource);
+    }
+
+    private void addEntry(SXRAndroidResource androidResource, Entry<T> entry) {
+        probation.put(androidResource, entry);
+        probationSize += entry.size;
+        index.put(androidResource, entry);
+    }
+
+    private Entry<T> removeEntry(SXRAndroidResource androidResource) {
+        Entry<T> entry = index.remove(androidResource);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isProtected) {
+            protectedSegment.remove(androidResource);
+            protectedSize -= entry.size;
+        } else {
+            probation.remove(androidResource);
+            probationSize -= entry.size;
+        }
+        return entry;
+    }
 }
@@ -0,0 +1,250 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.utility;
+
+import java.util.Arrays;
+
+/**
+ * Finds unique vertices while building a mesh.
+ * <p>
+ * A vertex is a fixed number of floats (for example position, texture
+ * coordinate and normal). Each call to {@link #add(float[], int)} returns
+ * the index of the vertex, reusing the index of an identical vertex added
+ * earlier. Vertices are kept in an open addressing hash table of primitive
+ * ints so welding does not allocate per vertex.
+ * <p>
+ * By default vertices are equal if all their components have the same bits.
+ * If an epsilon is given, components are quantized to multiples of epsilon
+ * before they are compared, so nearly identical vertices are welded
+ * together and keep the values of the first one added.
+ */
+public class VertexWelder
+{
+    private final int mVertexSize;
+    private final float mEpsilon;
+    private final float mInvEpsilon;
+    private float[] mVertices;
+    private int[] mTable;
+    private int mMask;
+    private int mNumVertices;
+
+    /**
+     * Constructs a welder which only merges bitwise identical vertices.
+     * @param vertexSize        number of floats per vertex
+     * @param expectedVertices  expected number of unique vertices
+     */
+    public VertexWelder(int vertexSize, int expectedVertices)
+    {
+        this(vertexSize, expectedVertices, 0.0f);
+    }
+
+    /**
+     * Constructs a welder which merges vertices whose components are
+     * the same after quantizing to multiples of epsilon.
+     * @param vertexSize        number of floats per vertex
+     * @param expectedVertices  expected number of unique vertices
+     * @param epsilon           quantization step, 0 to compare exactly
+     */
+    public VertexWelder(int vertexSize, int expectedVertices, float epsilon)
+    {
+        if (vertexSize <= 0)
+        {
+            throw new IllegalArgumentException("vertexSize must be positive");
+        }
+        if (epsilon < 0)
+        {
+            throw new IllegalArgumentException("epsilon must not be negative");
+        }
+        mVertexSize = vertexSize;
+        mEpsilon = epsilon;
+        mInvEpsilon = (epsilon > 0) ? (1.0f / epsilon) : 0.0f;
+        mVertices = new float[Math.max(expectedVertices, 16) * vertexSize];
+        mTable = new int[tableSizeFor(Math.max(expectedVertices, 16))];
+        mMask = mTable.length - 1;
+    }
+
+    /**
+     * @return number of unique vertices added so far
+     */
+    public int getVertexCount()
+    {
+        return mNumVertices;
+    }
+
+    /**
+     * @return number of floats per vertex
+     */
+    public int getVertexSize()
+    {
+        return mVertexSize;
+    }
+
+    /**
+     * @return quantization step, 0 if vertices are compared exactly
+     */
+    public float getEpsilon()
+    {
+        return mEpsilon;
+    }
+
+    /**
+     * Gets the unique vertices. The array may be longer than
+     * {@link #getVertexCount()} * {@link #getVertexSize()}.
+     * @return interleaved vertex data
+     */
+    public float[] getVertices()
+    {
+        return mVertices;
+    }
+
+    /**
+     * Removes all vertices.
+     * @see #clear(int)
+     */
+    public void clear()
+    {
+        clear(0);
+    }
+
+    /**
+     * Removes all vertices and prepares the welder for the next mesh.
+     * Storage is kept if it fits the expected number of vertices,
+     * otherwise it is reallocated, so a large mesh welded earlier
+     * does not make clearing the table expensive for small meshes.
+     * @param expectedVertices  expected number of unique vertices of the next mesh
+     */
+    public void clear(int expectedVertices)
+    {
+        final int numVertices = Math.max(expectedVertices, 16);
+        final int tableSize = tableSizeFor(numVertices);
+
+        if ((mTable.length < tableSize) || (mTable.length > tableSize * 4))
+        {
+            mTable = new int[tableSize];
+            mMask = tableSize - 1;
+        }
+        else
+        {
+            Arrays.fill(mTable, 0);
+        }
+        if ((mVertices.length < numVertices * mVertexSize) ||
+            (mVertices.length > numVertices * mVertexSize * 4))
+        {
+            mVertices = new float[numVertices * mVertexSize];
+        }
+        mNumVertices = 0;
+    }
+
+    /**
+     * Adds a vertex if it is not already present.
+     * @param vertex  array containing the vertex components
+     * @param offset  index of the first component in the array
+     * @return index of the unique vertex; if it is equal to the
+     *         vertex count before the call, the vertex is new
+     */
+    public int add(float[] vertex, int offset)
+    {
+        final int hash = hash(vertex, offset);
+        int slot = hash & mMask;
+        int entry;
+
+        while ((entry = mTable[slot]) != 0)
+        {
+            if (matches(entry - 1, vertex, offset))
+            {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        final int index = mNumVertices++;
+        final int start = index * mVertexSize;
+
+        if (start + mVertexSize > mVertices.length)
+        {
+            mVertices = Arrays.copyOf(mVertices, mVertices.length * 2);
+        }
+        System.arraycopy(vertex, offset, mVertices, start, mVertexSize);
+        mTable[slot] = index + 1;
+        if (mNumVertices * 2 > mTable.length)
+        {
+            rehash();
+        }
+        return index;
+    }
+
+    private boolean matches(int index, float[] vertex, int offset)
+    {
+        final int start = index * mVertexSize;
+
+        for (int i = 0; i < mVertexSize; ++i)
+        {
+            if (key(mVertices[start + i]) != key(vertex[offset + i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int key(float v)
+    {
+        if (mInvEpsilon > 0)
+        {
+            return Math.round(v * mInvEpsilon);
+        }
+        return Float.floatToIntBits(v);
+    }
+
+    private int hash(float[] vertex, int offset)
+    {
+        int h = 0;
+
+        for (int i = 0; i < mVertexSize; ++i)
+        {
+            h = 31 * h + key(vertex[offset + i]);
+        }
+        // spread the bits so linear probing does not cluster
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash()
+    {
+        mTable = new int[mTable.length * 2];
+        mMask = mTable.length - 1;
+        for (int index = 0; index < mNumVertices; ++index)
+        {
+            int slot = hash(mVertices, index * mVertexSize) & mMask;
+
+            while (mTable[slot] != 0)
+            {
+                slot = (slot + 1) & mMask;
+            }
+            mTable[slot] = index + 1;
+        }
+    }
+
+    private static int tableSizeFor(int numVertices)
+    {
+        int size = 32;
+
+        while (size < numVertices * 2)
+        {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -126,6 +126,31 @@ namespace sxr {
         const DataEntry* find(const char* name) const;
         DataEntry* find(const char* name);
 
+        /**
+         * Get the 0-based index of the named entry in descriptor order.
+         * @param name name of entry to find.
+         * @return index of the entry or -1 if not found
+         */
+        int getIndex(const char* name) const
+        {
+            return findName(name);
+        }
+
+        /**
+         * Get the entry at the given index in descriptor order.
+         * @param index 0-based index of the entry
+         * @return pointer to the entry or NULL if the index is out of range
+         */
+        const DataEntry* getEntry(int index) const
+        {
+            return ((index >= 0) && (index < (int) mLayout.size())) ? &mLayout[index] : NULL;
+        }
+
+        DataEntry* getEntry(int index)
+        {
+            return ((index >= 0) && (index < (int) mLayout.size())) ? &mLayout[index] : NULL;
+        }
+
         /*
          * Get the number of bytes occupied by the named entry.
          * For vertex arrays, it is the number of bytes occupied
@@ -67,14 +67,47 @@ void ShaderData::setTexture(const char* key, Texture* texture)
         const std::string& temp = mTextureNames[i];
         if (temp.compare(key) == 0)
         {
-            Texture* oldtex = mTextures[i];
-            makeDirty(((oldtex != nullptr) && (texture != nullptr)) ? MOD_TEXTURE : NEW_TEXTURE);
-            mTextures[i] = texture;
+            replaceTexture(i, texture);
             return;
         }
     }
 }
 
+/**
+ * Sets the texture at the given index in the texture descriptor,
+ * without looking up its name.
+ * @return false if the index is out of range
+ */
+bool ShaderData::setTextureAt(int index, Texture* texture)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    if ((index < 0) || (index >= mTextures.size()))
+    {
+        return false;
+    }
+    replaceTexture(index, texture);
+    return true;
+}
+
+void ShaderData::replaceTexture(int index, Texture* texture)
+{
+    Texture* oldtex = mTextures[index];
+    makeDirty(((oldtex != nullptr) && (texture != nullptr)) ? MOD_TEXTURE : NEW_TEXTURE);
+    mTextures[index] = texture;
+}
+
+int ShaderData::getTextureIndex(const char* name) const
+{
+    for (int i = 0; i < mTextureNames.size(); ++i)
+    {
+        if (mTextureNames[i].compare(name) == 0)
+        {
+            return i;
+        }
+    }
+    return -1;
+}
+
 /**
  * Visits each texture in the material and calls the given function.
  */
@@ -197,6 +230,50 @@ bool  ShaderData::setMat4(const char* name, const glm::mat4& m)
     return uniforms().setMat4(name, m);
 }
 
+int ShaderData::getUniformIndex(const char* name) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    return uniforms().getIndex(name);
+}
+
+bool  ShaderData::setFloatVecAt(int index, const float* val, int n)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    makeDirty(MAT_DATA);
+    return uniforms().setFloatVecAt(index, val, n);
+}
+
+bool  ShaderData::setIntVecAt(int index, const int* val, int n)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    makeDirty(MAT_DATA);
+    return uniforms().setIntVecAt(index, val, n);
+}
+
+/**
+ * Sets several floating point uniforms under one lock.
+ * The values are packed one uniform after the other.
+ * @param indices   indices of the uniforms in descriptor order
+ * @param sizes     number of floats for each uniform
+ * @param count     number of uniforms
+ * @param val       values of all the uniforms
+ * @return false if any index is out of range
+ */
+bool  ShaderData::setFloatsAt(const int* indices, const int* sizes, int count, const float* val)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    UniformBlock& block = uniforms();
+    bool rc = true;
+
+    makeDirty(MAT_DATA);
+    for (int i = 0; i < count; ++i)
+    {
+        rc &= block.setFloatVecAt(indices[i], val, sizes[i]);
+        val += sizes[i];
+    }
+    return rc;
+}
+
 bool  ShaderData::getMat4(const char* name, glm::mat4& m) const
 {
     std::lock_guard<std::mutex> lock(mLock);
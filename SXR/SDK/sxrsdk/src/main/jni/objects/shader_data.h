@@ -73,6 +73,12 @@ public:
     bool    setVec4(const char* name, const glm::vec4& v);
     bool    getMat4(const char* name, glm::mat4& m) const;
     bool    setMat4(const char* name, const glm::mat4& m);
+    int     getUniformIndex(const char* name) const;
+    int     getTextureIndex(const char* name) const;
+    bool    setTextureAt(int index, Texture* texture);
+    bool    setFloatVecAt(int index, const float* val, int n);
+    bool    setIntVecAt(int index, const int* val, int n);
+    bool    setFloatsAt(const int* indices, const int* sizes, int count, const float* val);
     void    makeDirty(DIRTY_BITS bits);
     void    clearDirty();
     bool    isDirty(DIRTY_BITS bits) const;
@@ -97,6 +103,7 @@ public:
     virtual const UniformBlock& uniforms() const = 0;
     virtual void useGPUBuffer(bool flag) = 0;
 private:
+    void    replaceTexture(int index, Texture* texture);
     ShaderData(const ShaderData&) = delete;
     ShaderData(ShaderData&&) = delete;
     ShaderData& operator=(const ShaderData&) = delete;
@@ -118,6 +118,68 @@ JNIEXPORT jboolean JNICALL
 Java_com_samsungxr_NativeShaderData_copyUniforms(JNIEnv* env,
                                              jobject obj, jlong jdest, jlong jsrc);
 
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getUniformSlot(JNIEnv* env,
+                                                 jobject obj, jlong jshader_data, jstring key,
+                                                 jintArray jinfo);
+
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getTextureSlot(JNIEnv* env,
+                                                 jobject obj, jlong jshader_data, jstring key);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setTextureAt(JNIEnv* env,
+                                               jobject obj, jlong jshader_data, jint slot,
+                                               jlong jtexture);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatAt(JNIEnv* env,
+                                             jobject obj, jlong jshader_data, jint slot,
+                                             jfloat value);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setIntAt(JNIEnv* env,
+                                           jobject obj, jlong jshader_data, jint slot,
+                                           jint value);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec2At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec3At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z, jfloat w);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setMat4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x1, jfloat y1, jfloat z1, jfloat w1,
+                                            jfloat x2, jfloat y2, jfloat z2, jfloat w2,
+                                            jfloat x3, jfloat y3, jfloat z3, jfloat w3,
+                                            jfloat x4, jfloat y4, jfloat z4, jfloat w4);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatVecAt(JNIEnv* env,
+                                                jobject obj, jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setIntVecAt(JNIEnv* env,
+                                              jobject obj, jlong jshader_data, jint slot,
+                                              jintArray jvec, jint size);
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatsAt(JNIEnv* env,
+                                              jobject obj, jlong jshader_data, jintArray jslots,
+                                              jintArray jsizes, jint count, jfloatArray jvalues);
+
 };
 
 
@@ -375,7 +437,141 @@ Java_com_samsungxr_NativeShaderData_copyUniforms(JNIEnv* env,
     return dest->copyUniforms(src);
 }
 
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getUniformSlot(JNIEnv* env, jobject obj,
+                                                 jlong jshader_data, jstring key, jintArray jinfo)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    int slot = shader_data->getUniformIndex(char_key);
+    env->ReleaseStringUTFChars(key, char_key);
+    const DataDescriptor::DataEntry* entry = shader_data->uniforms().getEntry(slot);
+    if (entry == NULL)
+    {
+        return -1;
+    }
+    jint info[3] = { entry->Size, entry->Count, (entry->IsInt ? 1 : 0) | (entry->IsMatrix ? 2 : 0) };
+    env->SetIntArrayRegion(jinfo, 0, 3, info);
+    return slot;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_samsungxr_NativeShaderData_getTextureSlot(JNIEnv* env, jobject obj,
+                                                 jlong jshader_data, jstring key)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    int slot = shader_data->getTextureIndex(char_key);
+    env->ReleaseStringUTFChars(key, char_key);
+    return slot;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setTextureAt(JNIEnv* env, jobject obj,
+                                               jlong jshader_data, jint slot, jlong jtexture)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    Texture* texture = reinterpret_cast<Texture*>(jtexture);
+    return shader_data->setTextureAt(slot, texture);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatAt(JNIEnv* env, jobject obj,
+                                             jlong jshader_data, jint slot, jfloat value)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    return shader_data->setFloatVecAt(slot, &value, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setIntAt(JNIEnv* env, jobject obj,
+                                           jlong jshader_data, jint slot, jint value)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    int v = value;
+    return shader_data->setIntVecAt(slot, &v, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec2At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint slot, jfloat x, jfloat y)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[2] = { x, y };
+    return shader_data->setFloatVecAt(slot, v, 2);
+}
 
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec3At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[3] = { x, y, z };
+    return shader_data->setFloatVecAt(slot, v, 3);
+}
 
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setVec4At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint slot,
+                                            jfloat x, jfloat y, jfloat z, jfloat w)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[4] = { x, y, z, w };
+    return shader_data->setFloatVecAt(slot, v, 4);
 }
 
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setMat4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint slot,
+                                            jfloat x1, jfloat y1, jfloat z1, jfloat w1,
+                                            jfloat x2, jfloat y2, jfloat z2, jfloat w2,
+                                            jfloat x3, jfloat y3, jfloat z3, jfloat w3,
+                                            jfloat x4, jfloat y4, jfloat z4, jfloat w4)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float m[16] = {x1, y1, z1, w1, x2, y2, z2, w2, x3, y3, z3, w3, x4, y4, z4, w4};
+    return shader_data->setFloatVecAt(slot, m, 16);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatVecAt(JNIEnv* env, jobject obj,
+                                                jlong jshader_data, jint slot,
+                                                jfloatArray jvec, jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float* elems = env->GetFloatArrayElements(jvec, 0);
+    bool rc = shader_data->setFloatVecAt(slot, elems, size);
+    env->ReleaseFloatArrayElements(jvec, elems, JNI_ABORT);
+    return rc;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setIntVecAt(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jint slot,
+                                              jintArray jvec, jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    int* elems = env->GetIntArrayElements(jvec, 0);
+    bool rc = shader_data->setIntVecAt(slot, elems, size);
+    env->ReleaseIntArrayElements(jvec, elems, JNI_ABORT);
+    return rc;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_com_samsungxr_NativeShaderData_setFloatsAt(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jintArray jslots,
+                                              jintArray jsizes, jint count, jfloatArray jvalues)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    int* slots = env->GetIntArrayElements(jslots, 0);
+    int* sizes = env->GetIntArrayElements(jsizes, 0);
+    float* values = env->GetFloatArrayElements(jvalues, 0);
+    bool rc = shader_data->setFloatsAt(slots, sizes, count, values);
+    env->ReleaseFloatArrayElements(jvalues, values, JNI_ABORT);
+    env->ReleaseIntArrayElements(jsizes, sizes, JNI_ABORT);
+    env->ReleaseIntArrayElements(jslots, slots, JNI_ABORT);
+    return rc;
+}
+
+}
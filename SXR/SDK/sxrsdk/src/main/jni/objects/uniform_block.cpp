@@ -271,6 +271,33 @@ namespace sxr
         return data;
     }
 
+    bool UniformBlock::setFloatVecAt(int index, const float* val, int n)
+    {
+        return setDataAt(index, val, n * sizeof(float));
+    }
+
+    bool UniformBlock::setIntVecAt(int index, const int* val, int n)
+    {
+        return setDataAt(index, val, n * sizeof(int));
+    }
+
+    bool UniformBlock::setDataAt(int index, const void* val, int bytesize)
+    {
+        DataEntry* u = getEntry(index);
+        if ((u == NULL) || (mUniformData == NULL))
+        {
+            return false;
+        }
+        if (bytesize > u->Size)
+        {
+            bytesize = u->Size;
+        }
+        memcpy(mUniformData + u->Offset, val, bytesize);
+        u->IsSet = true;
+        markDirty();
+        return true;
+    }
+
     std::string UniformBlock::makeShaderLayout()
     {
         std::ostringstream stream;
@@ -147,6 +147,30 @@ namespace sxr
          */
         virtual bool setFloatVec(const char *name, const float *val, int n)=0;
 
+        /**
+         * Set the value of a floating point uniform by its index
+         * in descriptor order, without looking up its name.
+         * At most the byte size of the uniform is copied.
+         * @param index 0-based index of uniform to set.
+         * @param val pointer to float vector.
+         * @param n number of floats in the vector.
+         * @returns true if successfully set, false if the index is out of range.
+         * @see DataDescriptor::getIndex
+         */
+        virtual bool setFloatVecAt(int index, const float *val, int n);
+
+        /**
+         * Set the value of an integer uniform by its index
+         * in descriptor order, without looking up its name.
+         * At most the byte size of the uniform is copied.
+         * @param index 0-based index of uniform to set.
+         * @param val pointer to integer vector.
+         * @param n number of integers in the vector.
+         * @returns true if successfully set, false if the index is out of range.
+         * @see DataDescriptor::getIndex
+         */
+        virtual bool setIntVecAt(int index, const int *val, int n);
+
         /**
          * Set the value of a 2D vector uniform.
          * If the named uniform is not a "float2" in the descriptor
@@ -376,6 +400,16 @@ namespace sxr
 
         const char* getData(const char *name, int &bytesize) const;
 
+        /**
+         * Copy bytes into the value of the uniform at the given index
+         * and mark it as set.
+         * @param index 0-based index of uniform to set.
+         * @param val pointer to the new value.
+         * @param bytesize number of bytes to copy, clamped to the uniform size.
+         * @return true if successfully set, false if the index is out of range.
+         */
+        bool setDataAt(int index, const void* val, int bytesize);
+
         int mBindingPoint;           // shader binding point
         unsigned int mOwnData : 1;   // true if this uniform block owns its data
         unsigned int mUseBuffer : 1; // true if this uniform block uses a GPU buffer
@@ -154,6 +154,51 @@ namespace sxr {
         return true;
     }
 
+    bool    VertexBuffer::setFloatRange(const char* attributeName, const float* src, int firstVertex, int vertexCount)
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        DataEntry*      attr = find(attributeName);
+        float*          dest;
+        int             dstStride;
+        int             attrStride;
+
+        if (attr == NULL)
+        {
+            LOGE("VertexBuffer: ERROR attribute %s not found in vertex buffer", attributeName);
+            return false;
+        }
+        if (src == NULL)
+        {
+            LOGE("VertexBuffer: cannot set attribute %s, source array not found", attributeName);
+            return false;
+        }
+        if ((firstVertex < 0) || (vertexCount < 0) || (firstVertex + vertexCount > mVertexCount))
+        {
+            LOGE("VertexBuffer: cannot copy to vertex array %s, vertices %d to %d out of range", attributeName, firstVertex, firstVertex + vertexCount);
+            return false;
+        }
+        if (vertexCount == 0)
+        {
+            return true;
+        }
+        attrStride = attr->Size / sizeof(float);    // # of floats in vertex attribute
+        dstStride = getTotalSize() / sizeof(float);
+        dest = reinterpret_cast<float*>(mVertexData) + attr->Offset / sizeof(float) + firstVertex * dstStride;
+
+        for (int i = 0; i < vertexCount; ++i)
+        {
+            for (int j = 0; j < attrStride; ++j)
+            {
+                dest[j] = src[j];
+            }
+            dest += dstStride;
+            src += attrStride;
+        }
+        markDirty();
+        attr->IsSet = true;
+        return true;
+    }
+
 
     bool    VertexBuffer::getFloatVec(const char* attributeName, float* dest, int destSize, int destStride) const
     {
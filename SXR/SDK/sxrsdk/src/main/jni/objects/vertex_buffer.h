@@ -75,6 +75,23 @@ namespace sxr {
          */
         bool    setFloatVec(const char* attributeName, const float* src, int srcSize, int srcStride);
 
+        /**
+         * Set the values of a float vertex attribute for a range of vertices.
+         * If the named entry is not a float vector in the descriptor
+         * or the range is outside the vertex array
+         * this function will fail and log an error.
+         * The other vertices and attributes are not affected.
+         *
+         * @param name        name of entry to set.
+         * @param src         pointer to the float data for the first vertex,
+         *                    tightly packed with the size of the attribute.
+         * @param firstVertex index of the first vertex to set.
+         * @param vertexCount number of vertices to set.
+         * @returns true if successfully set, false on error.
+         * @see setFloatVec
+         */
+        bool    setFloatRange(const char* attributeName, const float* src, int firstVertex, int vertexCount);
+
         /**
          * Gets all the values of a float vertex attribute.
          * If the named attribute is not a float vector in the descriptor
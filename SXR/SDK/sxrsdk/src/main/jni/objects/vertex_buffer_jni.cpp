@@ -64,6 +64,10 @@ namespace sxr {
     Java_com_samsungxr_NativeVertexBuffer_setFloatVec(JNIEnv* env, jobject obj,
                                                     jlong jvbuf, jstring attribName,
                                                     jobject jfloatbuf, jint stride, jint ofs);
+    JNIEXPORT bool JNICALL
+    Java_com_samsungxr_NativeVertexBuffer_setFloatRange(JNIEnv* env, jobject obj,
+                                                    jlong jvbuf, jstring attribName,
+                                                    jfloatArray data, jint first, jint count);
 
     JNIEXPORT bool JNICALL
     Java_com_samsungxr_NativeVertexBuffer_isSet(JNIEnv* env, jobject obj,
@@ -220,6 +224,27 @@ Java_com_samsungxr_NativeVertexBuffer_setFloatVec(JNIEnv* env, jobject obj,
     return rc;
 }
 
+JNIEXPORT bool JNICALL
+Java_com_samsungxr_NativeVertexBuffer_setFloatRange(JNIEnv* env, jobject obj,
+                                                jlong jvbuf, jstring attribName,
+                                                jfloatArray jdata, jint first, jint count)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    const char* char_key = env->GetStringUTFChars(attribName, 0);
+    int size = vbuf->getByteSize(char_key) / sizeof(float);
+    bool rc = false;
+
+    if ((size > 0) && (first >= 0) && (count >= 0) &&
+        ((first + count) * size <= static_cast<int>(env->GetArrayLength(jdata))))
+    {
+        jfloat* attribData = env->GetFloatArrayElements(jdata, 0);
+        rc = vbuf->setFloatRange(char_key, attribData + first * size, first, count);
+        env->ReleaseFloatArrayElements(jdata, attribData, JNI_ABORT);
+    }
+    env->ReleaseStringUTFChars(attribName, char_key);
+    return rc;
+}
+
 JNIEXPORT bool JNICALL
 Java_com_samsungxr_NativeVertexBuffer_setIntVec(JNIEnv* env, jobject obj,
                                               jlong jvbuf, jstring attribName,
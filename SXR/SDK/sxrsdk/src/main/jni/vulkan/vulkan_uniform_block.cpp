@@ -12,6 +12,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+#include <algorithm>
 #include <engine/renderer/vulkan_renderer.h>
 #include "vulkan_headers.h"
 #include "util/sxr_gl.h"
@@ -223,6 +224,53 @@ namespace sxr {
         return false;
     }
 
+    bool VulkanUniformBlock::setFloatVecAt(int index, const float *val, int n)
+    {
+        if (setPaddedVec3At(index, val, n))
+        {
+            return true;
+        }
+        return UniformBlock::setFloatVecAt(index, val, n);
+    }
+
+    bool VulkanUniformBlock::setIntVecAt(int index, const int *val, int n)
+    {
+        if (setPaddedVec3At(index, val, n))
+        {
+            return true;
+        }
+        return UniformBlock::setIntVecAt(index, val, n);
+    }
+
+    /*
+     * Arrays of 3 element vectors are padded to 4 elements in the UBO.
+     * Returns false if the uniform is not such an array.
+     */
+    bool VulkanUniformBlock::setPaddedVec3At(int index, const void *val, int n)
+    {
+        DataEntry *u = getEntry(index);
+
+        if ((u == NULL) || (mUniformData == NULL) ||
+            (u->Type[u->Type.length() - 1] != '3') || (u->Count <= 1))
+        {
+            return false;
+        }
+        const int* src = (const int*) val;
+        int* dest = (int*) (mUniformData + u->Offset);
+        int numVecs = std::min(n / 3, (int) u->Count);
+
+        for (int i = 0; i < numVecs; i++)
+        {
+            *dest++ = *src++;
+            *dest++ = *src++;
+            *dest++ = *src++;
+            ++dest;
+        }
+        u->IsSet = true;
+        markDirty();
+        return true;
+    }
+
     int VulkanUniformBlock::getPaddingSize(short &totaSize, int padSize){
         int mod = totaSize % padSize;
         int requiredSize = 0;
@@ -74,7 +74,10 @@ namespace sxr {
         char * getUniformData() { return mUniformData; }
         virtual bool setFloatVec(const char *name, const float *val, int n);
         virtual bool setIntVec(const char *name, const int *val, int n);
+        virtual bool setFloatVecAt(int index, const float *val, int n);
+        virtual bool setIntVecAt(int index, const int *val, int n);
     protected:
+        bool setPaddedVec3At(int index, const void *val, int n);
         void createBuffer(VulkanCore*);
         void updateBuffer(VulkanCore* vk, int start, int len);
 
@@ -0,0 +1,68 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Time to compute the levels of 10000 LOD groups per frame, on the calling
+ * thread and with worker threads. Only runs with {@code -Dsxr.benchmark=true}.
+ */
+public class SXRLODManagerBenchmark {
+    private static final int NUM_GROUPS = 10000;
+    private static final int FRAMES = 500;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Boolean.getBoolean("sxr.benchmark"));
+    }
+
+    @Test
+    public void serial() {
+        report(0);
+    }
+
+    @Test
+    public void oneWorker() {
+        report(1);
+    }
+
+    @Test
+    public void threeWorkers() {
+        report(3);
+    }
+
+    private static void report(int numThreads) {
+        SXRLODManager.LevelPass pass = SXRLODManagerTest.createPass(NUM_GROUPS, 1);
+        long best = Long.MAX_VALUE;
+
+        pass.setParallelThreads(numThreads);
+        try {
+            for (int frame = 0; frame < FRAMES; ++frame) {
+                long start = System.nanoTime();
+                pass.compute(NUM_GROUPS, 1.0f, 1.21f, 0.81f);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } finally {
+            pass.setParallelThreads(0);
+        }
+        System.out.println(String.format("%d groups, %d worker threads: %.1f us per frame",
+                NUM_GROUPS, numThreads, best / 1e3));
+    }
+}
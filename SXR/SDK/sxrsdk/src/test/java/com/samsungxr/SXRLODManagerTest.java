@@ -0,0 +1,112 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SXRLODManagerTest {
+    private static final int NUM_GROUPS = 4096;
+    private static final float[] RANGES_SQ = { 0, 10 * 10, 20 * 20, 40 * 40 };
+
+    private SXRLODManager.LevelPass mPass;
+
+    @Before
+    public void setUp() {
+        mPass = createPass(NUM_GROUPS, 1);
+    }
+
+    @After
+    public void tearDown() {
+        mPass.setParallelThreads(0);
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        SXRLODManager.LevelPass serial = createPass(NUM_GROUPS, 1);
+
+        mPass.setParallelThreads(3);
+        mPass.compute(NUM_GROUPS, 1.0f, 1.21f, 0.81f);
+        serial.compute(NUM_GROUPS, 1.0f, 1.21f, 0.81f);
+        assertArrayEquals(serial.mLevels, mPass.mLevels);
+        for (int i = 0; i < NUM_GROUPS; ++i) {
+            float x = mPass.mCenters[3 * i];
+            float y = mPass.mCenters[3 * i + 1];
+            float z = mPass.mCenters[3 * i + 2];
+            assertEquals(SXRLODGroup.selectLevel(RANGES_SQ, SXRLODGroup.LEVEL_UNKNOWN,
+                    x * x + y * y + z * z, 1, 1), mPass.mLevels[i]);
+        }
+    }
+
+    @Test
+    public void hiddenGroupsKeepTheirLevel() {
+        mPass.mCenters[0] = Float.NaN;
+        mPass.mLevels[0] = 2;
+        mPass.compute(NUM_GROUPS, 1.0f, 1.0f, 1.0f);
+        assertEquals(2, mPass.mLevels[0]);
+    }
+
+    @Test(timeout = 30000)
+    public void changingThreadsDuringFrames() throws Exception {
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; !done.get(); ++i) {
+                    mPass.setParallelThreads(i % 4);
+                }
+            }
+        });
+
+        thread.start();
+        try {
+            for (int frame = 0; frame < 2000; ++frame) {
+                mPass.compute(NUM_GROUPS, 1.0f, 1.0f, 1.0f);
+            }
+        } catch (Throwable ex) {
+            failure.set(ex);
+        } finally {
+            done.set(true);
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+
+    static SXRLODManager.LevelPass createPass(int count, long seed) {
+        SXRLODManager.LevelPass pass = new SXRLODManager.LevelPass();
+        Random random = new Random(seed);
+
+        pass.resize(count);
+        for (int i = 0; i < count; ++i) {
+            pass.mRangesSq[i] = RANGES_SQ;
+            pass.mLevels[i] = SXRLODGroup.LEVEL_UNKNOWN;
+            for (int c = 0; c < 3; ++c) {
+                pass.mCenters[3 * i + c] = (random.nextFloat() - 0.5f) * 120;
+            }
+        }
+        return pass;
+    }
+}
@@ -0,0 +1,270 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SXRZipVolumeTest
+{
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+    private static final int NUM_COPIES = 2;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private byte[] mData;
+    private SXRZipVolume mVolume;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        File zipFile = mFolder.newFile("test.zip");
+
+        mData = new byte[FILE_SIZE];
+        for (int i = 0; i < FILE_SIZE; ++i)
+        {
+            mData[i] = (byte) ((i * 31) ^ (i >> 9));
+        }
+        writeZip(zipFile, mData);
+        mVolume = new SXRZipVolume(null, zipFile);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        mVolume.close();
+    }
+
+    @Test
+    public void readsStoredAndDeflatedFiles() throws IOException
+    {
+        assertArrayEquals(mData, readAll(mVolume.openResource("stored.bin")));
+        assertArrayEquals(mData, readAll(mVolume.openResource("deflated.bin")));
+    }
+
+    @Test(timeout = 10000)
+    public void openAfterCloseFails() throws IOException
+    {
+        SXRAndroidResource stored = mVolume.openResource("stored.bin");
+        SXRAndroidResource deflated = mVolume.openResource("deflated.bin");
+
+        mVolume.close();
+        expectIOException(stored);
+        expectIOException(deflated);
+    }
+
+    @Test(timeout = 10000)
+    public void readAfterCloseFails() throws IOException
+    {
+        InputStream stream = mVolume.openResource("deflated.bin").getStream();
+        byte[] buffer = new byte[1024];
+
+        stream.read(buffer);
+        mVolume.close();
+        try
+        {
+            while (stream.read(buffer) >= 0)
+            {
+            }
+            fail("read a closed volume");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentCloseStopsReaders() throws Exception
+    {
+        final int numThreads = NUM_COPIES * 2;
+        final CountDownLatch started = new CountDownLatch(numThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+
+        for (int t = 0; t < numThreads; ++t)
+        {
+            // resources are shared by path, so every thread reads its own file
+            final String name = "copy" + (t / 2) + (((t & 1) == 0) ? "/deflated.bin" : "/stored.bin");
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    started.countDown();
+                    try
+                    {
+                        while (true)
+                        {
+                            SXRAndroidResource resource = mVolume.openResource(name);
+
+                            try
+                            {
+                                readAll(resource);
+                            }
+                            finally
+                            {
+                                resource.closeStream();
+                            }
+                        }
+                    }
+                    catch (IOException ex)
+                    {
+                        // volume closed
+                    }
+                    catch (Throwable ex)
+                    {
+                        failure.set(ex);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started.await();
+        Thread.sleep(50);
+        mVolume.close();
+        for (Thread thread : threads)
+        {
+            thread.join(10000);
+            assertFalse("reader did not stop after close", thread.isAlive());
+        }
+        assertNull(failure.get());
+    }
+
+    @Test(timeout = 30000)
+    public void interruptedReaderDoesNotCloseVolume() throws Exception
+    {
+        final CountDownLatch reading = new CountDownLatch(1);
+        Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                SXRAndroidResource resource = null;
+
+                try
+                {
+                    resource = mVolume.openResource("deflated.bin");
+                    InputStream stream = resource.getStream();
+                    byte[] buffer = new byte[1024];
+
+                    reading.countDown();
+                    while (stream.read(buffer) >= 0)
+                    {
+                    }
+                }
+                catch (IOException ex)
+                {
+                    // interrupted
+                }
+                finally
+                {
+                    if (resource != null)
+                    {
+                        resource.closeStream();
+                    }
+                }
+            }
+        });
+        thread.start();
+        reading.await();
+        thread.interrupt();
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertArrayEquals(mData, readAll(mVolume.openResource("deflated.bin")));
+    }
+
+    private static void expectIOException(SXRAndroidResource resource)
+    {
+        try
+        {
+            readAll(resource);
+            fail("read a closed volume");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+    }
+
+    private static byte[] readAll(SXRAndroidResource resource) throws IOException
+    {
+        InputStream stream = resource.getStream();
+        byte[] data = new byte[FILE_SIZE];
+        int length = 0;
+        int n;
+
+        while ((length < data.length) && ((n = stream.read(data, length, data.length - length)) > 0))
+        {
+            length += n;
+        }
+        resource.closeStream();
+        return data;
+    }
+
+    private static void writeZip(File file, byte[] data) throws IOException
+    {
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+        CRC32 crc = new CRC32();
+
+        crc.update(data);
+        try
+        {
+            for (int i = -1; i < NUM_COPIES; ++i)
+            {
+                String dir = (i < 0) ? "" : ("copy" + i + "/");
+                ZipEntry stored = new ZipEntry(dir + "stored.bin");
+
+                stored.setMethod(ZipEntry.STORED);
+                stored.setSize(data.length);
+                stored.setCompressedSize(data.length);
+                stored.setCrc(crc.getValue());
+                zip.putNextEntry(stored);
+                zip.write(data);
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry(dir + "deflated.bin"));
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+        finally
+        {
+            zip.close();
+        }
+    }
+}
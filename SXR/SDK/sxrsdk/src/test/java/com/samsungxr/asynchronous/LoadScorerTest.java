@@ -0,0 +1,266 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import com.samsungxr.SXRAndroidResource;
+import com.samsungxr.asynchronous.Throttler.AdaptivePolicyProvider;
+import com.samsungxr.asynchronous.Throttler.PriorityCancelable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LoadScorerTest {
+
+    private FakeClock clock;
+    private LoadQueueMetrics metrics;
+    private AdaptivePolicyProvider policy;
+    private FakeScorer scorer;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        metrics = new LoadQueueMetrics();
+        policy = new AdaptivePolicyProvider(clock, metrics);
+        scorer = new FakeScorer();
+        policy.setScorer(scorer);
+    }
+
+    @Test
+    public void highestScoreRunsFirst() {
+        FakeRequest low = queue(0.2f);
+        FakeRequest high = queue(0.9f);
+        FakeRequest middle = queue(0.5f);
+
+        assertSame(high, next());
+        assertSame(middle, next());
+        assertSame(low, next());
+        assertTrue(policy.isEmpty());
+    }
+
+    @Test
+    public void waitingRequestsGainScore() {
+        policy.setAgingRate(0.05f);
+        FakeRequest old = queue(0.2f);
+        clock.advance(10);
+        FakeRequest recent = queue(0.6f);
+        FakeRequest best = queue(0.8f);
+
+        // 0.2 + 10 s * 0.05 = 0.7
+        assertSame(best, next());
+        assertSame(old, next());
+        assertSame(recent, next());
+    }
+
+    @Test
+    public void agingRateChangeReorders() {
+        FakeRequest old = queue(0.2f);
+        clock.advance(10);
+        FakeRequest recent = queue(0.6f);
+
+        policy.setAgingRate(0);
+        assertSame(recent, next());
+        assertSame(old, next());
+    }
+
+    @Test
+    public void scoresAreKeptUntilInvalidated() {
+        FakeRequest first = queue(0.9f);
+        FakeRequest second = queue(0.5f);
+        FakeRequest third = queue(0.1f);
+
+        scorer.set(first, 0.1f);
+        scorer.set(third, 0.9f);
+        assertSame(first, next());
+        policy.invalidateScores();
+        assertSame(third, next());
+        assertSame(second, next());
+    }
+
+    @Test
+    public void scoresAreEvaluatedOncePerRequest() {
+        final int count = 10000;
+
+        for (int i = 0; i < count; ++i) {
+            queue((i % 97 + 1) / 100f);
+        }
+        float previous = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < count; ++i) {
+            FakeRequest request = next();
+            float score = scorer.scores.get(request.resource);
+            assertTrue(score <= previous);
+            previous = score;
+        }
+        assertTrue(policy.isEmpty());
+        assertEquals(count, scorer.calls);
+    }
+
+    @Test
+    public void zeroScoreCancels() {
+        FakeRequest canceled = queue(0);
+        FakeRequest wanted = queue(0.5f);
+
+        assertTrue(canceled.canceled);
+        assertEquals(1, metrics.getCanceledCount());
+        assertSame(wanted, next());
+        assertTrue(policy.isEmpty());
+    }
+
+    @Test
+    public void rescoringToZeroCancels() {
+        FakeRequest request = queue(0.5f);
+
+        scorer.set(request, 0);
+        policy.invalidateScores();
+        assertTrue(policy.isEmpty());
+        assertTrue(request.canceled);
+        assertNull(policy.get());
+    }
+
+    @Test
+    public void unwantedRequestsAreDropped() {
+        FakeRequest dropped = queue(0.9f);
+        FakeRequest kept = queue(0.5f);
+
+        dropped.wanted = false;
+        assertSame(kept, next());
+        assertTrue(policy.isEmpty());
+        assertFalse(dropped.canceled);
+    }
+
+    @Test
+    public void rescheduleScoresNewPriority() {
+        FakeRequest first = queue(0.5f);
+        FakeRequest second = queue(0.4f);
+
+        second.nextPriority = 10;
+        scorer.set(second, 0.6f);
+        policy.reschedule(second);
+        assertEquals(10, second.getPriority());
+        assertEquals(10, scorer.lastPriority);
+        assertSame(second, next());
+        assertSame(first, next());
+        assertTrue(policy.isEmpty());
+    }
+
+    @Test
+    public void waitIsRecordedInScoreBand() {
+        queue(0.9f);
+        queue(0.1f);
+        clock.advance(2);
+        next();
+        clock.advance(1);
+        next();
+
+        assertEquals(1, metrics.getCount(LoadQueueMetrics.BANDS - 1));
+        assertEquals(2000, metrics.getAverageWait(LoadQueueMetrics.BANDS - 1), 0.01f);
+        assertEquals(1, metrics.getCount(0));
+        assertEquals(3000, metrics.getMaxWait(0), 0.01f);
+    }
+
+    private FakeRequest queue(float score) {
+        FakeRequest request = new FakeRequest();
+        queue(request, score);
+        return request;
+    }
+
+    private void queue(FakeRequest request, float score) {
+        scorer.set(request, score);
+        policy.put(request);
+    }
+
+    private FakeRequest next() {
+        assertFalse(policy.isEmpty());
+        return (FakeRequest) policy.get();
+    }
+
+    private static class FakeClock implements AdaptivePolicyProvider.Clock {
+        long now = 1000;
+
+        void advance(float seconds) {
+            now += (long) (seconds * 1e9);
+        }
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+
+    private static class FakeScorer implements LoadScorer {
+        final Map<SXRAndroidResource, Float> scores = new IdentityHashMap<SXRAndroidResource, Float>();
+        int calls = 0;
+        int lastPriority;
+
+        void set(FakeRequest request, float score) {
+            scores.put(request.resource, score);
+        }
+
+        @Override
+        public float score(SXRAndroidResource resource, int priority) {
+            ++calls;
+            lastPriority = priority;
+            return scores.get(resource);
+        }
+    }
+
+    private static class FakeRequest implements PriorityCancelable {
+        final SXRAndroidResource resource = new SXRAndroidResource("fake",
+                new ByteArrayInputStream(new byte[0]));
+        boolean wanted = true;
+        boolean canceled = false;
+        int priority = 0;
+        int nextPriority = 0;
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public boolean stillWanted() {
+            return wanted;
+        }
+
+        @Override
+        public void updatePriority() {
+            priority = nextPriority;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public SXRAndroidResource getResource() {
+            return resource;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samsungxr.asynchronous.RawImageDecoder.DecodedImage;
+import com.samsungxr.asynchronous.RawImageDecoder.RawFormat;
+
+/**
+ * Decode throughput of {@link RawImageDecoder}, in MB of source pixels per
+ * second. Only runs with {@code -Dsxr.benchmark=true}.
+ */
+public class RawImageDecoderBenchmark {
+
+    private static final int SIZE = 2048;
+    private static final int PASSES = 10;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Boolean.getBoolean("sxr.benchmark"));
+    }
+
+    @Test
+    public void trueColor24() throws IOException {
+        report("TGA 24 bit", createTGA(24, false), 1);
+    }
+
+    @Test
+    public void trueColor32() throws IOException {
+        report("TGA 32 bit", createTGA(32, false), 1);
+    }
+
+    @Test
+    public void runLength32() throws IOException {
+        report("TGA 32 bit RLE", createTGA(32, true), 1);
+    }
+
+    @Test
+    public void reduced24() throws IOException {
+        report("TGA 24 bit, reduced by 2", createTGA(24, false), 2);
+    }
+
+    @Test
+    public void rawRGBA() throws IOException {
+        byte[] pixels = createPixels(4);
+        long best = Long.MAX_VALUE;
+
+        for (int pass = 0; pass < PASSES; ++pass) {
+            long start = System.nanoTime();
+            RawImageDecoder.decodeRaw(new ByteArrayInputStream(pixels),
+                    RawFormat.RGBA, SIZE, SIZE, 1, true).release();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        print("raw RGBA", pixels.length, best);
+    }
+
+    private static void report(String name, byte[] tga, int sampleSize)
+            throws IOException {
+        long best = Long.MAX_VALUE;
+
+        for (int pass = 0; pass < PASSES; ++pass) {
+            long start = System.nanoTime();
+            DecodedImage image = RawImageDecoder.decodeTGA(
+                    new ByteArrayInputStream(tga), sampleSize, true);
+            best = Math.min(best, System.nanoTime() - start);
+            image.release();
+        }
+        print(name, tga.length, best);
+    }
+
+    private static void print(String name, int bytes, long nanos) {
+        System.out.println(String.format("%s: %dx%d, %.1f ms, %.1f MB/s",
+                name, SIZE, SIZE, nanos / 1e6, bytes / 1e6 / (nanos / 1e9)));
+    }
+
+    /* A photo-like gradient, so RLE packets are short */
+    private static byte[] createPixels(int bytesPerPixel) {
+        byte[] pixels = new byte[SIZE * SIZE * bytesPerPixel];
+        for (int y = 0, i = 0; y < SIZE; ++y) {
+            for (int x = 0; x < SIZE; ++x) {
+                for (int c = 0; c < bytesPerPixel; ++c) {
+                    pixels[i++] = (byte) ((x >> (c + 1)) + (y >> c));
+                }
+            }
+        }
+        return pixels;
+    }
+
+    private static byte[] createTGA(int depth, boolean rle) {
+        int bytesPerPixel = depth / 8;
+        byte[] pixels = createPixels(bytesPerPixel);
+        ByteArrayOutputStream tga = new ByteArrayOutputStream();
+        byte[] header = new byte[18];
+
+        header[2] = (byte) (rle ? 10 : 2);
+        header[12] = (byte) SIZE;
+        header[13] = (byte) (SIZE >> 8);
+        header[14] = (byte) SIZE;
+        header[15] = (byte) (SIZE >> 8);
+        header[16] = (byte) depth;
+        header[17] = (byte) (depth == 32 ? 8 : 0);
+        tga.write(header, 0, header.length);
+        if (!rle) {
+            tga.write(pixels, 0, pixels.length);
+            return tga.toByteArray();
+        }
+        // Runs of up to 128 equal pixels, everything else in raw packets
+        int count = SIZE * SIZE;
+        int i = 0;
+        while (i < count) {
+            int run = 1;
+            while (i + run < count && run < 128
+                    && same(pixels, i, i + run, bytesPerPixel)) {
+                ++run;
+            }
+            if (run > 1) {
+                tga.write(0x80 | (run - 1));
+                tga.write(pixels, i * bytesPerPixel, bytesPerPixel);
+                i += run;
+                continue;
+            }
+            int raw = 1;
+            while (i + raw < count && raw < 128
+                    && !same(pixels, i + raw - 1, i + raw, bytesPerPixel)) {
+                ++raw;
+            }
+            tga.write(raw - 1);
+            tga.write(pixels, i * bytesPerPixel, raw * bytesPerPixel);
+            i += raw;
+        }
+        return tga.toByteArray();
+    }
+
+    private static boolean same(byte[] pixels, int a, int b, int bytesPerPixel) {
+        for (int c = 0; c < bytesPerPixel; ++c) {
+            if (pixels[a * bytesPerPixel + c] != pixels[b * bytesPerPixel + c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,268 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.samsungxr.asynchronous;
+
+import static android.opengl.GLES20.GL_LUMINANCE;
+import static android.opengl.GLES20.GL_RGBA;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.samsungxr.asynchronous.RawImageDecoder.DecodedImage;
+import com.samsungxr.asynchronous.RawImageDecoder.RawFormat;
+
+/**
+ * Decodes the TGA fixtures in the test resources and compares the pixels
+ * with the {@code .rgba} (or {@code .grey}) file of the same name, which
+ * holds the expected pixels top row first.
+ */
+public class RawImageDecoderTest {
+
+    private static final int WIDTH = 7;
+    private static final int HEIGHT = 5;
+
+    @After
+    public void tearDown() {
+        RawImageDecoder.clearPool();
+    }
+
+    @Test
+    public void decodesTrueColor24() throws IOException {
+        checkRGBA("rgb24", false);
+    }
+
+    @Test
+    public void decodesTrueColor32WithImageId() throws IOException {
+        checkRGBA("rgba32", true);
+    }
+
+    @Test
+    public void decodesRightOrigin() throws IOException {
+        checkRGBA("rgb24_right", false);
+    }
+
+    @Test
+    public void decodesRunLengthPacketsAcrossRows() throws IOException {
+        checkRGBA("rgba32_rle", true);
+    }
+
+    @Test
+    public void decodesTrueColor16() throws IOException {
+        checkRGBA("rgb16", true);
+    }
+
+    @Test
+    public void decodesRunLengthGreyAlpha() throws IOException {
+        checkRGBA("grey16_rle", true);
+    }
+
+    @Test
+    public void decodesColorMapped() throws IOException {
+        checkRGBA("indexed", false);
+    }
+
+    @Test
+    public void decodesGreyAsLuminance() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(open("grey8.tga"), 1,
+                false);
+
+        assertEquals(1, image.getChannels());
+        assertEquals(GL_LUMINANCE, image.getFormat());
+        assertArrayEquals(read("grey8.grey"), pixels(image));
+        image.release();
+    }
+
+    @Test
+    public void expandsGreyToRGBA() throws IOException {
+        byte[] grey = read("grey8.grey");
+        byte[] expected = new byte[grey.length * 4];
+        for (int i = 0; i < grey.length; ++i) {
+            Arrays.fill(expected, i * 4, i * 4 + 3, grey[i]);
+            expected[i * 4 + 3] = (byte) 0xFF;
+        }
+        DecodedImage image = RawImageDecoder.decodeTGA(open("grey8.tga"), 1,
+                true);
+
+        assertEquals(GL_RGBA, image.getFormat());
+        assertArrayEquals(expected, pixels(image));
+        image.release();
+    }
+
+    @Test
+    public void decodesInSmallReads() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(
+                new TrickleInputStream(open("rgba32_rle.tga")), 1, true);
+
+        assertArrayEquals(read("rgba32_rle.rgba"), pixels(image));
+        image.release();
+    }
+
+    @Test
+    public void reducesByAveragingBlocks() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(open("rgba32.tga"), 2,
+                true);
+
+        assertEquals(WIDTH / 2, image.getWidth());
+        assertEquals(HEIGHT / 2, image.getHeight());
+        assertEquals(2, image.getSampleSize());
+        assertArrayEquals(read("rgba32_half.rgba"), pixels(image));
+        image.release();
+    }
+
+    @Test
+    public void reducesToFitLimits() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(open("rgba32.tga"), 4,
+                0, true);
+
+        assertEquals(2, image.getSampleSize());
+        assertArrayEquals(read("rgba32_half.rgba"), pixels(image));
+        image.release();
+
+        assertEquals(1, RawImageDecoder.getSampleSize(WIDTH, HEIGHT, 4, 0, 0));
+        assertEquals(4, RawImageDecoder.getSampleSize(1024, 512, 4, 256, 0));
+        assertEquals(2, RawImageDecoder.getSampleSize(1024, 1024, 4, 0,
+                1024 * 1024));
+    }
+
+    @Test
+    public void decodesHeaderlessPixels() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeRaw(open("rgb24.rgb"),
+                RawFormat.RGB, WIDTH, HEIGHT, 1, true);
+
+        assertFalse(image.hasAlpha());
+        assertArrayEquals(read("rgb24.rgba"), pixels(image));
+        image.release();
+    }
+
+    @Test
+    public void truncatedImageFails() throws IOException {
+        byte[] tga = read("rgba32_rle.tga");
+
+        expectIOException(Arrays.copyOf(tga, tga.length - 3));
+        expectIOException(Arrays.copyOf(tga, 10));
+    }
+
+    @Test
+    public void unsupportedTypeFails() throws IOException {
+        byte[] tga = read("rgb24.tga");
+
+        tga[2] = 32;
+        expectIOException(tga);
+        tga = read("rgb24.tga");
+        tga[16] = 8;
+        expectIOException(tga);
+    }
+
+    @Test
+    public void releasedBuffersAreReused() throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(open("rgba32.tga"), 1,
+                true);
+        ByteBuffer buffer = image.getBuffer();
+
+        image.release();
+        image.release();
+        try {
+            image.getBuffer();
+            fail("released image returned its buffer");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        image = RawImageDecoder.decodeTGA(open("rgb24.tga"), 1, true);
+        assertSame(buffer, image.getBuffer());
+        assertArrayEquals(read("rgb24.rgba"), pixels(image));
+        image.release();
+    }
+
+    private void checkRGBA(String name, boolean hasAlpha) throws IOException {
+        DecodedImage image = RawImageDecoder.decodeTGA(open(name + ".tga"), 1,
+                true);
+
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(HEIGHT, image.getHeight());
+        assertEquals(4, image.getChannels());
+        assertEquals(hasAlpha, image.hasAlpha());
+        assertTrue(image.getBuffer().isDirect());
+        assertArrayEquals(read(name + ".rgba"), pixels(image));
+        image.release();
+    }
+
+    private static void expectIOException(byte[] tga) {
+        try {
+            RawImageDecoder.decodeTGA(new ByteArrayInputStream(tga), 1, true)
+                    .release();
+            fail("decoded a bad image");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static byte[] pixels(DecodedImage image) {
+        ByteBuffer buffer = image.getBuffer();
+        byte[] pixels = new byte[buffer.limit()];
+        buffer.get(pixels);
+        return pixels;
+    }
+
+    private InputStream open(String name) {
+        InputStream stream = getClass().getResourceAsStream(name);
+        if (stream == null) {
+            throw new IllegalStateException("Missing fixture " + name);
+        }
+        return stream;
+    }
+
+    private byte[] read(String name) throws IOException {
+        InputStream stream = open(name);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = stream.read(buffer)) > 0) {
+                bytes.write(buffer, 0, count);
+            }
+            return bytes.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /** Returns at most 3 bytes per read, like a slow network stream */
+    private static class TrickleInputStream extends FilterInputStream {
+        TrickleInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+                throws IOException {
+            return super.read(buffer, offset, Math.min(length, 3));
+        }
+    }
+}